@@ -7,6 +7,7 @@ import org.apache.accumulo.core.client.AccumuloSecurityException;
 import org.apache.accumulo.core.client.BatchWriter;
 import org.apache.accumulo.core.client.BatchWriterConfig;
 import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.client.MutationsRejectedException;
 import org.apache.accumulo.core.client.TableExistsException;
 import org.apache.accumulo.core.data.Mutation;
 import org.apache.accumulo.core.data.Value;
@@ -16,11 +17,17 @@ import org.slf4j.LoggerFactory;
 
 import java.text.SimpleDateFormat;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * An implementation for {@link Auditor}, which writes audit messages to Accumulo.
+ * <p>
+ * By default a batch writer is created and flushed for every audit. When constructed with a {@link BatchWriterConfig}, a single batch writer is kept open
+ * instead and concurrent audits are group committed: each audit adds its mutation and then waits until a flush covering that mutation has completed, with one
+ * waiting thread performing the flush on behalf of every audit added before it. An audit is therefore only acknowledged once it has been durably written, and
+ * the writer's max memory provides back pressure when Accumulo falls behind.
  */
-public class AccumuloAuditor implements Auditor {
+public class AccumuloAuditor implements Auditor, AutoCloseable {
     
     private static Logger log = LoggerFactory.getLogger(AccumuloAuditor.class);
     
@@ -30,12 +37,36 @@ public class AccumuloAuditor implements Auditor {
     
     private Connector connector;
     
+    private BatchWriterConfig writerConfig;
+    
+    private BatchWriter writer;
+    
+    // sequence number of the last mutation added to the writer
+    private long addedSeq = 0;
+    
+    // every mutation up to this sequence number has been flushed
+    private volatile long flushedSeq = 0;
+    
+    // every mutation up to this sequence number was lost when the writer failed, only updated while holding this
+    private volatile long failedSeq = 0;
+    
+    private final Object flushLock = new Object();
+    
+    private final AtomicLong flushCount = new AtomicLong();
+    
+    private final AtomicLong auditCount = new AtomicLong();
+    
     public AccumuloAuditor(String tableName, Connector connector) {
         this.tableName = tableName;
         this.connector = connector;
         init();
     }
     
+    public AccumuloAuditor(String tableName, Connector connector, BatchWriterConfig writerConfig) {
+        this(tableName, connector);
+        this.writerConfig = writerConfig;
+    }
+    
     private void init() {
         try {
             if (!connector.tableOperations().exists(tableName))
@@ -50,13 +81,148 @@ public class AccumuloAuditor implements Auditor {
     @Override
     public void audit(AuditParameters msg) throws Exception {
         if (!msg.getAuditType().equals(AuditType.NONE)) {
+            if (writerConfig != null) {
+                flushThrough(add(msg));
+                return;
+            }
             try (BatchWriter writer = connector.createBatchWriter(tableName,
                             new BatchWriterConfig().setMaxLatency(10, TimeUnit.SECONDS).setMaxMemory(10240L).setMaxWriteThreads(1))) {
-                Mutation m = new Mutation(formatter.format(msg.getQueryDate()));
-                m.put(new Text(msg.getUserDn()), new Text(""), msg.getColviz(), new Value(msg.toString().getBytes()));
-                writer.addMutation(m);
+                writer.addMutation(createMutation(msg));
                 writer.flush();
             }
         }
     }
+    
+    private Mutation createMutation(AuditParameters msg) {
+        Mutation m = new Mutation(formatter.format(msg.getQueryDate()));
+        m.put(new Text(msg.getUserDn()), new Text(""), msg.getColviz(), new Value(msg.toString().getBytes()));
+        return m;
+    }
+    
+    /**
+     * Adds the audit to the persistent writer, returning its sequence number
+     */
+    private synchronized long add(AuditParameters msg) throws Exception {
+        Mutation m = createMutation(msg);
+        if (writer == null) {
+            writer = connector.createBatchWriter(tableName, writerConfig);
+        }
+        try {
+            writer.addMutation(m);
+        } catch (MutationsRejectedException e) {
+            // a background flush failed, so replace the writer and fail every audit it held
+            BatchWriter failed = writer;
+            writer = null;
+            failedSeq = addedSeq;
+            closeQuietly(failed);
+            throw e;
+        }
+        return ++addedSeq;
+    }
+    
+    /**
+     * Waits until every mutation up to and including {@code seq} has been flushed, flushing the writer if no other thread has done so already
+     */
+    private void flushThrough(long seq) throws Exception {
+        if (flushedSeq >= seq && seq > failedSeq) {
+            return;
+        }
+        synchronized (flushLock) {
+            if (seq <= failedSeq) {
+                throw new IllegalStateException("Audit was not written: a previous flush of the audit writer failed");
+            }
+            if (flushedSeq >= seq) {
+                return;
+            }
+            BatchWriter current;
+            long target;
+            synchronized (this) {
+                if (seq <= failedSeq) {
+                    // the writer failed while adding a later audit
+                    throw new IllegalStateException("Audit was not written: a previous flush of the audit writer failed");
+                }
+                current = writer;
+                target = addedSeq;
+            }
+            try {
+                current.flush();
+            } catch (MutationsRejectedException e) {
+                // the writer can't be used after a failure, so replace it and fail every audit it held
+                boolean replaced = false;
+                synchronized (this) {
+                    if (writer == current) {
+                        writer = null;
+                        failedSeq = addedSeq;
+                        replaced = true;
+                    }
+                }
+                if (replaced) {
+                    closeQuietly(current);
+                }
+                throw e;
+            }
+            long audits = target - flushedSeq;
+            flushedSeq = target;
+            flushCount.incrementAndGet();
+            auditCount.addAndGet(audits);
+            log.debug("Flushed {} audits to {}", audits, tableName);
+        }
+    }
+    
+    /**
+     * @return the number of audits added to the persistent writer that have not yet been flushed
+     */
+    public synchronized long getPendingAudits() {
+        return addedSeq - flushedSeq;
+    }
+    
+    /**
+     * @return the number of flushes of the persistent writer, each of which may acknowledge many audits
+     */
+    public long getFlushCount() {
+        return flushCount.get();
+    }
+    
+    /**
+     * @return the number of audits acknowledged by flushes of the persistent writer
+     */
+    public long getFlushedAuditCount() {
+        return auditCount.get();
+    }
+    
+    /**
+     * Closes the persistent writer, flushing any pending audits. Holds the same locks as a flush, so a flush never finds the writer closed under it.
+     */
+    @Override
+    public void close() {
+        synchronized (flushLock) {
+            BatchWriter current;
+            long target;
+            synchronized (this) {
+                current = writer;
+                writer = null;
+                target = addedSeq;
+            }
+            if (current != null) {
+                try {
+                    current.close();
+                    auditCount.addAndGet(target - flushedSeq);
+                    flushedSeq = target;
+                } catch (MutationsRejectedException e) {
+                    synchronized (this) {
+                        failedSeq = target;
+                    }
+                    log.error("Unable to close audit writer for {}", tableName, e);
+                }
+            }
+        }
+    }
+    
+    private void closeQuietly(BatchWriter writer) {
+        try {
+            writer.close();
+        } catch (MutationsRejectedException e) {
+            log.error("Unable to close audit writer for {}", tableName, e);
+        }
+    }
 }
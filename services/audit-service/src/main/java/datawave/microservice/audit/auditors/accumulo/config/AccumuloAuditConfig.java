@@ -8,6 +8,7 @@ import datawave.webservice.common.audit.AuditParameters;
 import datawave.webservice.common.audit.Auditor;
 import org.apache.accumulo.core.client.AccumuloException;
 import org.apache.accumulo.core.client.AccumuloSecurityException;
+import org.apache.accumulo.core.client.BatchWriterConfig;
 import org.apache.accumulo.core.client.ClientConfiguration;
 import org.apache.accumulo.core.client.Connector;
 import org.apache.accumulo.core.client.Instance;
@@ -27,6 +28,7 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.SubscribableChannel;
 
 import javax.annotation.Resource;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Configures the AccumuloAuditor to process messages received by the audit service. This configuration is activated via the 'audit.auditors.accumulo.enabled'
@@ -57,6 +59,12 @@ public class AccumuloAuditConfig {
     
     @Bean
     public Auditor accumuloAuditor(AccumuloAuditProperties accumuloAuditProperties, Connector connector) {
+        if (accumuloAuditProperties.isPersistentWriter()) {
+            BatchWriterConfig writerConfig = new BatchWriterConfig().setMaxMemory(accumuloAuditProperties.getWriterMaxMemory())
+                            .setMaxLatency(accumuloAuditProperties.getWriterMaxLatencyMillis(), TimeUnit.MILLISECONDS)
+                            .setMaxWriteThreads(accumuloAuditProperties.getWriterMaxWriteThreads());
+            return new AccumuloAuditor(accumuloAuditProperties.getTableName(), connector, writerConfig);
+        }
         return new AccumuloAuditor(accumuloAuditProperties.getTableName(), connector);
     }
     
@@ -9,6 +9,18 @@ public class AccumuloAuditProperties {
     
     private String tableName = "QueryAuditTable";
     
+    /**
+     * If true, audits are written through a single long-lived batch writer and concurrent audits share a flush, instead of creating and flushing a batch
+     * writer for every audit.
+     */
+    private boolean persistentWriter = false;
+    
+    private long writerMaxMemory = 1048576L;
+    
+    private long writerMaxLatencyMillis = 1000L;
+    
+    private int writerMaxWriteThreads = 2;
+    
     private Accumulo accumuloConfig = new Accumulo();
     
     public String getTableName() {
@@ -19,6 +31,38 @@ public class AccumuloAuditProperties {
         this.tableName = tableName;
     }
     
+    public boolean isPersistentWriter() {
+        return persistentWriter;
+    }
+    
+    public void setPersistentWriter(boolean persistentWriter) {
+        this.persistentWriter = persistentWriter;
+    }
+    
+    public long getWriterMaxMemory() {
+        return writerMaxMemory;
+    }
+    
+    public void setWriterMaxMemory(long writerMaxMemory) {
+        this.writerMaxMemory = writerMaxMemory;
+    }
+    
+    public long getWriterMaxLatencyMillis() {
+        return writerMaxLatencyMillis;
+    }
+    
+    public void setWriterMaxLatencyMillis(long writerMaxLatencyMillis) {
+        this.writerMaxLatencyMillis = writerMaxLatencyMillis;
+    }
+    
+    public int getWriterMaxWriteThreads() {
+        return writerMaxWriteThreads;
+    }
+    
+    public void setWriterMaxWriteThreads(int writerMaxWriteThreads) {
+        this.writerMaxWriteThreads = writerMaxWriteThreads;
+    }
+    
     public Accumulo getAccumuloConfig() {
         return accumuloConfig;
     }
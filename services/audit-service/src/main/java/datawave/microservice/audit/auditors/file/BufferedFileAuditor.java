@@ -0,0 +1,292 @@
+package datawave.microservice.audit.auditors.file;
+
+import datawave.webservice.common.audit.AuditParameters;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A {@link FileAuditor} which hands audit messages off to a single writer thread rather than having every auditing thread take a lock and reopen the current
+ * file. Messages are queued without locking, and the writer thread keeps the current segment open, optionally gzip compressing it, rolls it once it is too big
+ * or too old, and syncs it to the filesystem periodically.
+ * <p>
+ * Since a message is acknowledged once it is queued, messages which have not yet been synced can be lost if the service dies. Segments are written under a
+ * hidden name so that they are not replayed while still open, and any segments left hidden by a previous run are made visible on startup. Each instance should
+ * therefore write to its own directory (see subPathEnvVar).
+ */
+public class BufferedFileAuditor extends FileAuditor implements AutoCloseable {
+    
+    private static final Logger log = LoggerFactory.getLogger(BufferedFileAuditor.class);
+    
+    protected static final String IN_PROGRESS_PREFIX = ".writing-";
+    protected static final String GZIP_SUFFIX = ".gz";
+    
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    
+    private final boolean compress;
+    private final int queueCapacity;
+    private final long syncIntervalMillis;
+    
+    private final ConcurrentLinkedQueue<byte[]> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong queueFullCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    
+    private final Thread writerThread;
+    private volatile boolean running = true;
+    
+    // only accessed by the writer thread
+    private FSDataOutputStream segmentStream;
+    private OutputStream out;
+    private Path segmentFile;
+    private int unsyncedMessages = 0;
+    private long lastSyncMillis = 0;
+    
+    protected BufferedFileAuditor(Builder<?> builder) throws URISyntaxException, IOException {
+        super(builder);
+        this.compress = builder.compress;
+        this.queueCapacity = builder.queueCapacity;
+        this.syncIntervalMillis = builder.syncIntervalMillis;
+        
+        recoverSegments();
+        
+        writerThread = new Thread(this::writeLoop, "BufferedFileAuditor-" + path.getName());
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+    
+    @Override
+    public void audit(AuditParameters auditParameters) throws Exception {
+        byte[] record = (mapper.writeValueAsString(auditParameters.toMap()) + "\n").getBytes(StandardCharsets.UTF_8);
+        
+        // reserve space in the queue, waiting for the writer thread to catch up if it is full
+        int size;
+        while ((size = queued.incrementAndGet()) > queueCapacity) {
+            queued.decrementAndGet();
+            if (!running) {
+                throw new IllegalStateException("Audit file writer for " + path + " has been closed");
+            }
+            queueFullCount.incrementAndGet();
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+        queue.offer(record);
+        if (size == 1) {
+            LockSupport.unpark(writerThread);
+        }
+    }
+    
+    private void writeLoop() {
+        while (running || !queue.isEmpty()) {
+            byte[] record = queue.poll();
+            try {
+                if (record != null) {
+                    queued.decrementAndGet();
+                    write(record);
+                    record = null;
+                } else {
+                    // close idle segments once they are too old so that they can be replayed
+                    if (segmentFile != null && isFileTooOld()) {
+                        closeSegment();
+                    }
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+                if (unsyncedMessages > 0 && System.currentTimeMillis() - lastSyncMillis >= syncIntervalMillis) {
+                    sync();
+                }
+            } catch (Exception e) {
+                log.error("Unable to write audit messages to {}", segmentFile, e);
+                abandonSegment();
+                if (record != null) {
+                    droppedCount.incrementAndGet();
+                }
+            }
+        }
+        try {
+            closeSegment();
+        } catch (IOException e) {
+            log.error("Unable to close audit file {}", segmentFile, e);
+        }
+    }
+    
+    private void write(byte[] record) throws Exception {
+        if (segmentFile == null || isFileTooOld() || isFileTooBig()) {
+            closeSegment();
+            openSegment();
+        }
+        out.write(record);
+        unsyncedMessages++;
+    }
+    
+    private void openSegment() throws IOException {
+        Date currentDate = new Date();
+        String name = sdf.format(currentDate) + (compress ? GZIP_SUFFIX : "");
+        segmentFile = new Path(path, IN_PROGRESS_PREFIX + name);
+        segmentStream = fileSystem.create(segmentFile);
+        out = compress ? new GZIPOutputStream(segmentStream, 65536, true) : new BufferedOutputStream(segmentStream, 65536);
+        creationDate = currentDate;
+        lastSyncMillis = currentDate.getTime();
+    }
+    
+    private void sync() throws IOException {
+        out.flush();
+        segmentStream.hsync();
+        unsyncedMessages = 0;
+        lastSyncMillis = System.currentTimeMillis();
+    }
+    
+    @Override
+    protected boolean isFileTooBig() throws IOException {
+        return ((double) segmentStream.getPos() / (1024L * 1024L)) >= maxFileLengthMB;
+    }
+    
+    /**
+     * Finishes the current segment and renames it so that it is visible to replay
+     */
+    private void closeSegment() throws IOException {
+        if (segmentFile == null) {
+            return;
+        }
+        out.close();
+        publish(segmentFile);
+        segmentFile = null;
+        segmentStream = null;
+        out = null;
+        unsyncedMessages = 0;
+    }
+    
+    private void abandonSegment() {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                log.debug("Unable to close abandoned audit file {}", segmentFile, e);
+            }
+        }
+        if (segmentFile != null) {
+            try {
+                publish(segmentFile);
+            } catch (IOException e) {
+                log.warn("Unable to publish abandoned audit file {}", segmentFile, e);
+            }
+        }
+        droppedCount.addAndGet(unsyncedMessages);
+        segmentFile = null;
+        segmentStream = null;
+        out = null;
+        unsyncedMessages = 0;
+    }
+    
+    private void publish(Path file) throws IOException {
+        Path finalFile = new Path(file.getParent(), file.getName().substring(IN_PROGRESS_PREFIX.length()));
+        if (!fileSystem.rename(file, finalFile)) {
+            throw new IOException("Unable to rename " + file + " to " + finalFile);
+        }
+    }
+    
+    /**
+     * Makes any segments left in progress by a previous run visible to replay
+     */
+    private void recoverSegments() throws IOException {
+        for (FileStatus status : fileSystem.listStatus(path)) {
+            String name = status.getPath().getName();
+            if (name.startsWith(IN_PROGRESS_PREFIX) && !name.endsWith(".crc")) {
+                log.info("Recovering unfinished audit file {}", status.getPath());
+                publish(status.getPath());
+            }
+        }
+    }
+    
+    /**
+     * @return the number of messages waiting to be written
+     */
+    public int getQueuedCount() {
+        return queued.get();
+    }
+    
+    /**
+     * @return the number of times an auditing thread had to wait because the queue was full
+     */
+    public long getQueueFullCount() {
+        return queueFullCount.get();
+    }
+    
+    /**
+     * @return the number of messages which could not be written, or were not yet synced when writing failed
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+    
+    /**
+     * Writes any queued messages, closes the current segment and stops the writer thread
+     */
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writerThread);
+        writerThread.join();
+    }
+    
+    public static class Builder<T extends Builder<T>> extends FileAuditor.Builder<T> {
+        protected boolean compress;
+        protected int queueCapacity;
+        protected long syncIntervalMillis;
+        
+        public Builder() {
+            compress = true;
+            queueCapacity = 10000;
+            syncIntervalMillis = TimeUnit.SECONDS.toMillis(1);
+        }
+        
+        public boolean isCompress() {
+            return compress;
+        }
+        
+        public T setCompress(Boolean compress) {
+            if (compress != null)
+                this.compress = compress;
+            return (T) this;
+        }
+        
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+        
+        public T setQueueCapacity(Integer queueCapacity) {
+            if (queueCapacity != null)
+                this.queueCapacity = queueCapacity;
+            return (T) this;
+        }
+        
+        public long getSyncIntervalMillis() {
+            return syncIntervalMillis;
+        }
+        
+        public T setSyncIntervalMillis(Long syncIntervalMillis) {
+            if (syncIntervalMillis != null)
+                this.syncIntervalMillis = syncIntervalMillis;
+            return (T) this;
+        }
+        
+        @Override
+        public BufferedFileAuditor build() throws IOException, URISyntaxException {
+            return new BufferedFileAuditor(this);
+        }
+    }
+}
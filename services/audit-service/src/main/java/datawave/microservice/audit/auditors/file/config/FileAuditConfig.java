@@ -1,5 +1,6 @@
 package datawave.microservice.audit.auditors.file.config;
 
+import datawave.microservice.audit.auditors.file.BufferedFileAuditor;
 import datawave.microservice.audit.auditors.file.FileAuditor;
 import datawave.microservice.audit.config.AuditProperties;
 import datawave.webservice.common.audit.Auditor;
@@ -37,8 +38,18 @@ public class FileAuditConfig {
         if (subPath == null && fileAuditProperties.getSubPathEnvVar() != null)
             subPath = System.getenv(fileAuditProperties.getSubPathEnvVar());
         
+        FileAuditor.Builder builder = new FileAuditor.Builder();
+        if (fileAuditProperties.isBuffered()) {
+            // @formatter:off
+            builder = new BufferedFileAuditor.Builder()
+                    .setCompress(fileAuditProperties.getCompress())
+                    .setQueueCapacity(fileAuditProperties.getQueueCapacity())
+                    .setSyncIntervalMillis(fileAuditProperties.getSyncIntervalMillis());
+            // @formatter:on
+        }
+        
         // @formatter:off
-        return new FileAuditor.Builder()
+        return builder
                 .setPath(fileAuditProperties.getPathUri())
                 .setSubPath(subPath)
                 .setFsConfigResources(fsConfigResources)
@@ -22,6 +22,11 @@ public class FileAuditProperties {
     @DecimalMin("60")
     private Long maxFileAgeSeconds;
     
+    private boolean buffered = false;
+    private Boolean compress;
+    private Integer queueCapacity;
+    private Long syncIntervalMillis;
+    
     public String getPathUri() {
         return pathUri;
     }
@@ -77,4 +82,36 @@ public class FileAuditProperties {
     public void setMaxFileAgeSeconds(Long maxFileAgeSeconds) {
         this.maxFileAgeSeconds = maxFileAgeSeconds;
     }
+    
+    public boolean isBuffered() {
+        return buffered;
+    }
+    
+    public void setBuffered(boolean buffered) {
+        this.buffered = buffered;
+    }
+    
+    public Boolean getCompress() {
+        return compress;
+    }
+    
+    public void setCompress(Boolean compress) {
+        this.compress = compress;
+    }
+    
+    public Integer getQueueCapacity() {
+        return queueCapacity;
+    }
+    
+    public void setQueueCapacity(Integer queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+    
+    public Long getSyncIntervalMillis() {
+        return syncIntervalMillis;
+    }
+    
+    public void setSyncIntervalMillis(Long syncIntervalMillis) {
+        this.syncIntervalMillis = syncIntervalMillis;
+    }
 }
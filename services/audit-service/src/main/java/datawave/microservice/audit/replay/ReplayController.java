@@ -252,7 +252,7 @@ public class ReplayController {
         
         ReplayTask replayTask = null;
         try {
-            replayTask = new ReplayTask(config, status, statusCache, replayProperties) {
+            replayTask = new ReplayTask(config, status, statusCache, replayProperties, auditReplayExecutor) {
                 @Override
                 protected boolean audit(Map<String,String> auditParamsMap) {
                     return auditController.audit(msgHandlerAuditParams.fromMap(auditParamsMap));
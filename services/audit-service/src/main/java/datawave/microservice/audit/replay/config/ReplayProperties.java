@@ -37,6 +37,10 @@ public class ReplayProperties {
     @PositiveOrZero
     private long lockLeaseTimeMillis = TimeUnit.SECONDS.toMillis(5);
     
+    // The number of files to replay concurrently for a single audit replay
+    @Positive
+    private int filesPerReplay = 1;
+    
     @Valid
     private ExecutorProperties executor = new ExecutorProperties();
     
@@ -96,6 +100,14 @@ public class ReplayProperties {
         this.lockLeaseTimeMillis = lockLeaseTimeMillis;
     }
     
+    public int getFilesPerReplay() {
+        return filesPerReplay;
+    }
+    
+    public void setFilesPerReplay(int filesPerReplay) {
+        this.filesPerReplay = filesPerReplay;
+    }
+    
     public ExecutorProperties getExecutor() {
         return executor;
     }
@@ -2,6 +2,7 @@ package datawave.microservice.audit.replay.runner;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.RateLimiter;
 import datawave.microservice.audit.replay.config.ReplayProperties;
 import datawave.microservice.audit.replay.status.Status;
 import datawave.microservice.audit.replay.status.StatusCache;
@@ -12,41 +13,59 @@ import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.fs.RemoteIterator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
 
 import static datawave.microservice.audit.replay.status.Status.ReplayState;
 import static datawave.microservice.audit.replay.status.Status.FileState;
 import static datawave.webservice.common.audit.AuditParameters.AUDIT_ID;
 
 /**
- * The replay task is responsible for reading the audit messages from disk, parsing them from JSON, and processing them through the audit controller.
+ * The replay task is responsible for reading the audit messages from disk, parsing them from JSON, and processing them through the audit controller. Up to
+ * 'audit.replay.filesPerReplay' files are replayed concurrently on the audit replay executor, sharing the replay's send rate. Progress is checkpointed per file
+ * in the status cache, so a restarted replay resumes each file where it left off.
  */
 public abstract class ReplayTask implements Runnable {
     
     private static final ObjectMapper mapper = new ObjectMapper();
     private static final Logger log = LoggerFactory.getLogger(ReplayTask.class);
+    private static final String GZIP_SUFFIX = ".gz";
     
     private final Status status;
     private final StatusCache statusCache;
     private final ReplayProperties replayProperties;
+    private final AsyncTaskExecutor executor;
     
     private FileSystem filesystem;
     
-    public ReplayTask(Configuration config, Status status, StatusCache statusCache, ReplayProperties replayProperties) throws Exception {
+    private final RateLimiter rateLimiter;
+    
+    public ReplayTask(Configuration config, Status status, StatusCache statusCache, ReplayProperties replayProperties, AsyncTaskExecutor executor)
+                    throws Exception {
         this.status = status;
         this.statusCache = statusCache;
         this.replayProperties = replayProperties;
+        this.executor = executor;
         this.filesystem = FileSystem.get(new URI(status.getPathUri()), config);
+        this.rateLimiter = RateLimiter.create(Math.max(status.getSendRate(), 1));
     }
     
     @Override
@@ -66,15 +85,37 @@ public abstract class ReplayTask implements Runnable {
                                         : o2.getState().ordinal() - o1.getState().ordinal())
                         .collect(Collectors.toList());
         
-        // then, process any unmarked/remaining files
-        for (Status.FileStatus fileStatus : filesToProcess) {
-            if (!processFile(fileStatus)) {
+        // then, process any unmarked/remaining files, several at a time if configured to do so
+        Queue<Status.FileStatus> pending = new ConcurrentLinkedQueue<>(filesToProcess);
+        int parallelism = Math.min(replayProperties.getFilesPerReplay(), filesToProcess.size());
+        List<Future<?>> helpers = new ArrayList<>();
+        for (int i = 1; i < parallelism; i++) {
+            try {
+                helpers.add(executor.submit(() -> processPending(pending)));
+            } catch (TaskRejectedException e) {
+                log.debug("Replaying the remaining files of [{}] with {} threads, the executor is busy", status.getPathUri(), i);
+                break;
+            }
+        }
+        
+        // this thread works through the files too, so the replay makes progress even when the executor has no free threads
+        processPending(pending);
+        
+        // any helper which has not started by now has nothing left to do
+        for (Future<?> helper : helpers) {
+            helper.cancel(false);
+            try {
+                helper.get();
+            } catch (CancellationException e) {
+                // never started
+            } catch (ExecutionException e) {
+                log.error("Unexpected error replaying audit files", e);
                 status.setState(ReplayState.FAILED);
-            } else if (status.getState() != ReplayState.RUNNING) {
+            } catch (InterruptedException e) {
+                log.warn("Interrupted while replaying audit files from [{}]", status.getPathUri());
+                Thread.currentThread().interrupt();
                 break;
             }
-            
-            statusCache.update(status);
         }
         
         // if we're still running, finish the replay
@@ -88,6 +129,42 @@ public abstract class ReplayTask implements Runnable {
         statusCache.update(status);
     }
     
+    /**
+     * Processes files from the queue until it is empty, or the replay should stop
+     */
+    private void processPending(Queue<Status.FileStatus> pending) {
+        Status.FileStatus fileStatus;
+        while (null != (fileStatus = pending.poll())) {
+            if (!processAndUpdate(fileStatus))
+                break;
+        }
+    }
+    
+    /**
+     * Processes the file and updates the cached status
+     *
+     * @return true if the replay should continue to the next file
+     */
+    private boolean processAndUpdate(Status.FileStatus fileStatus) {
+        boolean keepGoing = true;
+        if (status.getState() != ReplayState.RUNNING) {
+            return false;
+        }
+        if (!processFile(fileStatus)) {
+            status.setState(ReplayState.FAILED);
+        } else if (status.getState() != ReplayState.RUNNING) {
+            keepGoing = false;
+        }
+        updateStatus();
+        return keepGoing;
+    }
+    
+    private void updateStatus() {
+        synchronized (status) {
+            statusCache.update(status);
+        }
+    }
+    
     private List<Status.FileStatus> listFiles(boolean replayUnfinished) {
         List<Status.FileStatus> fileStatuses = new ArrayList<>();
         
@@ -138,7 +215,7 @@ public abstract class ReplayTask implements Runnable {
         
         fileStatus.setPathUri(file.toString());
         fileStatus.setState(FileState.RUNNING);
-        statusCache.update(status);
+        updateStatus();
         
         boolean encounteredError = false;
         long linesRead = fileStatus.getLinesRead();
@@ -149,7 +226,11 @@ public abstract class ReplayTask implements Runnable {
         BufferedReader reader = null;
         try {
             // read each audit message, and process via the audit service
-            reader = new BufferedReader(new InputStreamReader(filesystem.open(file)));
+            // segments written by the BufferedFileAuditor may be gzip compressed
+            InputStream in = filesystem.open(file);
+            if (file.getName().endsWith(GZIP_SUFFIX))
+                in = new GZIPInputStream(in);
+            reader = new BufferedReader(new InputStreamReader(in));
             TypeReference<HashMap<String,String>> typeRef = new TypeReference<HashMap<String,String>>() {};
             
             String line;
@@ -167,6 +248,11 @@ public abstract class ReplayTask implements Runnable {
                             sendRate = status.getSendRate();
                         }
                         
+                        // the send rate is shared by every file being replayed, and accounts for the time spent auditing
+                        if (sendRate != rateLimiter.getRate())
+                            rateLimiter.setRate(sendRate);
+                        rateLimiter.acquire();
+                        
                         HashMap<String,String> auditParamsMap = mapper.readValue(line, typeRef);
                         
                         // add the audit replay id for tracking purposes
@@ -178,12 +264,6 @@ public abstract class ReplayTask implements Runnable {
                             auditsFailed++;
                         }
                         auditsSent++;
-                        
-                        try {
-                            Thread.sleep((long) (1000.0 / sendRate));
-                        } catch (InterruptedException e) {
-                            // not a problem if we exit a little early
-                        }
                     } catch (IOException e) {
                         log.warn("Unable to parse a JSON audit message from [{}]", line);
                         encounteredError = true;
@@ -197,7 +277,7 @@ public abstract class ReplayTask implements Runnable {
                     fileStatus.setAuditsSent(auditsSent);
                     fileStatus.setAuditsFailed(auditsFailed);
                     fileStatus.setParseFailures(parseFailures);
-                    statusCache.update(status);
+                    updateStatus();
                 }
             }
         } catch (IOException e) {
@@ -1,5 +1,7 @@
 package datawave.microservice.audit.replay.status;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Date;
@@ -7,7 +9,8 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 /**
- * Represents the status of an audit replay. File status is listed on a per-file basis.
+ * Represents the status of an audit replay. File status is listed on a per-file basis. The files of a replay may be processed concurrently, so the accessors
+ * are synchronized.
  */
 public class Status implements Serializable {
     
@@ -27,64 +30,68 @@ public class Status implements Serializable {
     private Date lastUpdated;
     private boolean replayUnfinishedFiles;
     
-    public String getId() {
+    public synchronized String getId() {
         return id;
     }
     
-    public void setId(String id) {
+    public synchronized void setId(String id) {
         this.id = id;
     }
     
-    public ReplayState getState() {
+    public synchronized ReplayState getState() {
         return state;
     }
     
-    public void setState(ReplayState state) {
+    public synchronized void setState(ReplayState state) {
         this.state = state;
     }
     
-    public String getPathUri() {
+    public synchronized String getPathUri() {
         return pathUri;
     }
     
-    public void setPathUri(String pathUri) {
+    public synchronized void setPathUri(String pathUri) {
         this.pathUri = pathUri;
     }
     
-    public long getSendRate() {
+    public synchronized long getSendRate() {
         return sendRate;
     }
     
-    public void setSendRate(long sendRate) {
+    public synchronized void setSendRate(long sendRate) {
         this.sendRate = sendRate;
     }
     
-    public List<FileStatus> getFiles() {
+    public synchronized List<FileStatus> getFiles() {
         return files;
     }
     
-    public void setFiles(List<FileStatus> files) {
+    public synchronized void setFiles(List<FileStatus> files) {
         this.files = files;
     }
     
-    public Date getLastUpdated() {
+    public synchronized Date getLastUpdated() {
         return lastUpdated;
     }
     
-    public void setLastUpdated(Date lastUpdated) {
+    public synchronized void setLastUpdated(Date lastUpdated) {
         this.lastUpdated = lastUpdated;
     }
     
-    public boolean isReplayUnfinishedFiles() {
+    public synchronized boolean isReplayUnfinishedFiles() {
         return replayUnfinishedFiles;
     }
     
-    public void setReplayUnfinishedFiles(boolean replayUnfinishedFiles) {
+    public synchronized void setReplayUnfinishedFiles(boolean replayUnfinishedFiles) {
         this.replayUnfinishedFiles = replayUnfinishedFiles;
     }
     
+    private synchronized void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+    }
+    
     @Override
-    public String toString() {
+    public synchronized String toString() {
         return "{id:" + id + ", state:" + state + ", pathUri:" + pathUri + ", sendRate:" + sendRate + ", files:["
                         + String.join(",", files.stream().map(FileStatus::toString).collect(Collectors.toSet())) + "], lastUpdated:" + lastUpdated
                         + ", replayUnfinishedFiles:" + replayUnfinishedFiles + "}";
@@ -109,64 +116,68 @@ public class Status implements Serializable {
             this.encounteredError = false;
         }
         
-        public FileState getState() {
+        public synchronized FileState getState() {
             return state;
         }
         
-        public void setState(FileState state) {
+        public synchronized void setState(FileState state) {
             this.state = state;
         }
         
-        public String getPathUri() {
+        public synchronized String getPathUri() {
             return pathUri;
         }
         
-        public void setPathUri(String pathUri) {
+        public synchronized void setPathUri(String pathUri) {
             this.pathUri = pathUri;
         }
         
-        public long getLinesRead() {
+        public synchronized long getLinesRead() {
             return linesRead;
         }
         
-        public void setLinesRead(long linesRead) {
+        public synchronized void setLinesRead(long linesRead) {
             this.linesRead = linesRead;
         }
         
-        public long getAuditsSent() {
+        public synchronized long getAuditsSent() {
             return auditsSent;
         }
         
-        public void setAuditsSent(long auditsSent) {
+        public synchronized void setAuditsSent(long auditsSent) {
             this.auditsSent = auditsSent;
         }
         
-        public long getAuditsFailed() {
+        public synchronized long getAuditsFailed() {
             return auditsFailed;
         }
         
-        public void setAuditsFailed(long auditsFailed) {
+        public synchronized void setAuditsFailed(long auditsFailed) {
             this.auditsFailed = auditsFailed;
         }
         
-        public long getParseFailures() {
+        public synchronized long getParseFailures() {
             return parseFailures;
         }
         
-        public void setParseFailures(long parseFailures) {
+        public synchronized void setParseFailures(long parseFailures) {
             this.parseFailures = parseFailures;
         }
         
-        public boolean isEncounteredError() {
+        public synchronized boolean isEncounteredError() {
             return encounteredError;
         }
         
-        public void setEncounteredError(boolean encounteredError) {
+        public synchronized void setEncounteredError(boolean encounteredError) {
             this.encounteredError = encounteredError;
         }
         
+        private synchronized void writeObject(ObjectOutputStream out) throws IOException {
+            out.defaultWriteObject();
+        }
+        
         @Override
-        public String toString() {
+        public synchronized String toString() {
             return "{pathUri:" + pathUri + ", state:" + state + ", linesRead:" + linesRead + ", auditsSent:" + auditsSent + ", auditsFailed" + auditsFailed
                             + ", encounteredError:" + encounteredError + "}";
         }
@@ -6,6 +6,7 @@ import datawave.webservice.common.audit.AuditParameters;
 import datawave.webservice.common.audit.Auditor;
 import org.apache.accumulo.core.client.AccumuloException;
 import org.apache.accumulo.core.client.AccumuloSecurityException;
+import org.apache.accumulo.core.client.BatchWriterConfig;
 import org.apache.accumulo.core.client.Connector;
 import org.apache.accumulo.core.client.Instance;
 import org.apache.accumulo.core.client.Scanner;
@@ -27,9 +28,14 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -106,6 +112,46 @@ public class AccumuloAuditorTest {
         assertEquals(auditParams.toString(), value.toString());
     }
     
+    @Test
+    public void testPersistentWriterAudit() throws Exception {
+        String tableName = "PersistentWriterAuditTable";
+        AccumuloAuditor auditor = new AccumuloAuditor(tableName, connector, new BatchWriterConfig());
+        
+        int numAudits = 20;
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < numAudits; i++) {
+            AuditParameters auditParams = new AuditParameters();
+            auditParams.setUserDn("someUser" + i);
+            auditParams.setAuths("AUTH1,AUTH2");
+            auditParams.setQuery("test query");
+            auditParams.setAuditType(Auditor.AuditType.ACTIVE);
+            auditParams.setColviz(new ColumnVisibility("ALL"));
+            auditParams.setQueryDate(new Date());
+            futures.add(executor.submit(() -> {
+                auditor.audit(auditParams);
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        
+        assertEquals(0, auditor.getPendingAudits());
+        assertEquals(numAudits, auditor.getFlushedAuditCount());
+        assertTrue(auditor.getFlushCount() <= numAudits);
+        
+        // every audit is readable as soon as it is acknowledged
+        Scanner scanner = connector.createScanner(tableName, new Authorizations("ALL"));
+        int count = 0;
+        for (Map.Entry<Key,Value> entry : scanner) {
+            count++;
+        }
+        assertEquals(numAudits, count);
+        auditor.close();
+    }
+    
     @Test
     public void testNoneAudit() throws Exception {
         connector.tableOperations().deleteRows(accumuloAuditProperties.getTableName(), null, null);
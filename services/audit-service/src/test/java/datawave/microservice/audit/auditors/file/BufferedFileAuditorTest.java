@@ -0,0 +1,86 @@
+package datawave.microservice.audit.auditors.file;
+
+import com.google.common.io.Files;
+import datawave.webservice.common.audit.AuditParameters;
+import datawave.webservice.common.audit.Auditor;
+import org.apache.accumulo.core.security.ColumnVisibility;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.util.Date;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class BufferedFileAuditorTest {
+    
+    private File tempDir;
+    
+    @Before
+    public void setup() {
+        tempDir = Files.createTempDir();
+    }
+    
+    @After
+    public void cleanup() throws Exception {
+        FileUtils.deleteDirectory(tempDir);
+    }
+    
+    @Test
+    public void testCompressedSegment() throws Exception {
+        BufferedFileAuditor.Builder builder = new BufferedFileAuditor.Builder();
+        builder.setPath(tempDir.toURI().toString());
+        builder.setQueueCapacity(4);
+        BufferedFileAuditor auditor = builder.build();
+        
+        int numAudits = 25;
+        for (int i = 0; i < numAudits; i++) {
+            AuditParameters auditParams = new AuditParameters();
+            auditParams.setUserDn("someUser");
+            auditParams.setAuths("AUTH1,AUTH2");
+            auditParams.setQuery("test query " + i);
+            auditParams.setAuditType(Auditor.AuditType.ACTIVE);
+            auditParams.setColviz(new ColumnVisibility("ALL"));
+            auditParams.setQueryDate(new Date());
+            auditor.audit(auditParams);
+        }
+        auditor.close();
+        
+        assertEquals(0, auditor.getQueuedCount());
+        assertEquals(0, auditor.getDroppedCount());
+        
+        File[] segments = tempDir.listFiles((dir, name) -> name.endsWith(".json.gz"));
+        assertNotNull(segments);
+        assertEquals(1, segments.length);
+        assertTrue(segments[0].getName().startsWith("audit-"));
+        
+        int lines = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(segments[0]))))) {
+            while (reader.readLine() != null) {
+                lines++;
+            }
+        }
+        assertEquals(numAudits, lines);
+    }
+    
+    @Test
+    public void testRecoverUnfinishedSegment() throws Exception {
+        File unfinished = new File(tempDir, BufferedFileAuditor.IN_PROGRESS_PREFIX + "audit-20190101_000000.000.json");
+        assertTrue(unfinished.createNewFile());
+        
+        BufferedFileAuditor.Builder builder = new BufferedFileAuditor.Builder();
+        builder.setPath(tempDir.toURI().toString());
+        BufferedFileAuditor auditor = builder.build();
+        auditor.close();
+        
+        assertTrue(new File(tempDir, "audit-20190101_000000.000.json").exists());
+    }
+}
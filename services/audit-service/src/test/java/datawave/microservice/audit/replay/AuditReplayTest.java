@@ -16,6 +16,7 @@ import datawave.microservice.authorization.user.ProxiedUserDetails;
 import datawave.security.authorization.DatawaveUser;
 import datawave.security.authorization.SubjectIssuerDNPair;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.joda.time.format.ISODateTimeFormat;
 import org.junit.Assert;
 import org.junit.Before;
@@ -47,15 +48,22 @@ import org.springframework.web.util.UriComponents;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.sql.Date;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
 
 import static datawave.security.authorization.DatawaveUser.UserType.USER;
 import static datawave.webservice.common.audit.AuditParameters.AUDIT_ID;
@@ -2192,6 +2200,238 @@ public class AuditReplayTest {
         Assert.assertEquals(0, messageCollector.forChannel(auditSourceBinding.auditSource()).size());
     }
     
+    @Test
+    public void concurrentFilesTest() throws Exception {
+        replayProperties.setIdleTimeoutMillis(TimeUnit.SECONDS.toMillis(30));
+        replayProperties.setFilesPerReplay(3);
+        
+        try {
+            Set<String> expectedAuditIds = new HashSet<>(Arrays.asList("readyAuditId1", "readyAuditId2"));
+            for (int i = 0; i < 4; i++)
+                expectedAuditIds.addAll(writeAuditFile(new File(tempDir, "audit-2019030" + i + "_000000.000.json"), "concurrentAuditId" + i + "_", 5));
+            
+            Collection<String> roles = Collections.singleton("Administrator");
+            DatawaveUser uathDWUser = new DatawaveUser(DN, USER, null, roles, null, System.currentTimeMillis());
+            ProxiedUserDetails authUser = new ProxiedUserDetails(Collections.singleton(uathDWUser), uathDWUser.getCreationTime());
+            
+            UriComponents createAndStartUri = UriComponentsBuilder.newInstance().scheme("https").host("localhost").port(webServicePort)
+                            .path("/audit/v1/replay/createAndStart").build();
+            
+            MultiValueMap<String,String> map = new LinkedMultiValueMap<>();
+            map.add("pathUri", tempDir.toURI().toString());
+            map.add("sendRate", "200");
+            
+            // Create the audit replay request
+            RequestEntity requestEntity = jwtRestTemplate.createRequestEntity(authUser, map, null, HttpMethod.POST, createAndStartUri);
+            ResponseEntity<String> response = jwtRestTemplate.exchange(requestEntity, String.class);
+            String replayId = response.getBody();
+            
+            // Get the status of the audit replay request
+            UriComponents statusUri = UriComponentsBuilder.newInstance().scheme("https").host("localhost").port(webServicePort)
+                            .path("/audit/v1/replay/" + replayId + "/status").build();
+            Status status = toStatus(jwtRestTemplate.exchange(authUser, HttpMethod.GET, statusUri, String.class));
+            
+            int numRetries = 20;
+            while (status.getState() == Status.ReplayState.RUNNING && numRetries-- > 0) {
+                Thread.sleep(250);
+                status = toStatus(jwtRestTemplate.exchange(authUser, HttpMethod.GET, statusUri, String.class));
+            }
+            
+            // @formatter:off
+            assertStatus(
+                    Status.ReplayState.FINISHED,
+                    tempDir.toURI().toString(),
+                    200L,
+                    6,
+                    false,
+                    status);
+            // @formatter:on
+            
+            // every file is finished, and its progress was recorded against the right file
+            for (Status.FileStatus fileStatus : status.getFiles()) {
+                Assert.assertEquals(Status.FileState.FINISHED, fileStatus.getState());
+                Assert.assertTrue(fileStatus.getPathUri().contains("_FINISHED.audit-"));
+                long expectedAudits = fileStatus.getPathUri().contains("audit-201903") ? 5 : 1;
+                Assert.assertEquals(expectedAudits, fileStatus.getLinesRead());
+                Assert.assertEquals(expectedAudits, fileStatus.getAuditsSent());
+                Assert.assertEquals(0, fileStatus.getAuditsFailed());
+            }
+            
+            // every audit was sent exactly once
+            Assert.assertEquals(expectedAuditIds.size(), messageCollector.forChannel(auditSourceBinding.auditSource()).size());
+            Assert.assertEquals(expectedAuditIds, pollAuditIds());
+            
+            // Delete the audit replay request
+            UriComponents deleteUri = UriComponentsBuilder.newInstance().scheme("https").host("localhost").port(webServicePort)
+                            .path("/audit/v1/replay/" + replayId + "/delete").build();
+            ResponseEntity<String> deleteResp = jwtRestTemplate.exchange(authUser, HttpMethod.DELETE, deleteUri, String.class);
+            
+            Assert.assertEquals(200, deleteResp.getStatusCode().value());
+        } finally {
+            replayProperties.setFilesPerReplay(1);
+        }
+    }
+    
+    @Test
+    public void sharedSendRateTest() throws Exception {
+        replayProperties.setIdleTimeoutMillis(TimeUnit.SECONDS.toMillis(30));
+        replayProperties.setFilesPerReplay(2);
+        
+        try {
+            File replayDir = new File(tempDir, "rateLimited");
+            Assert.assertTrue(replayDir.mkdir());
+            Set<String> expectedAuditIds = new HashSet<>();
+            expectedAuditIds.addAll(writeAuditFile(new File(replayDir, "audit-20190301_000000.000.json"), "rateAuditIdA", 6));
+            expectedAuditIds.addAll(writeAuditFile(new File(replayDir, "audit-20190302_000000.000.json"), "rateAuditIdB", 6));
+            
+            Collection<String> roles = Collections.singleton("Administrator");
+            DatawaveUser uathDWUser = new DatawaveUser(DN, USER, null, roles, null, System.currentTimeMillis());
+            ProxiedUserDetails authUser = new ProxiedUserDetails(Collections.singleton(uathDWUser), uathDWUser.getCreationTime());
+            
+            UriComponents createAndStartUri = UriComponentsBuilder.newInstance().scheme("https").host("localhost").port(webServicePort)
+                            .path("/audit/v1/replay/createAndStart").build();
+            
+            MultiValueMap<String,String> map = new LinkedMultiValueMap<>();
+            map.add("pathUri", replayDir.toURI().toString());
+            map.add("sendRate", "5");
+            
+            // Create the audit replay request
+            long start = System.currentTimeMillis();
+            RequestEntity requestEntity = jwtRestTemplate.createRequestEntity(authUser, map, null, HttpMethod.POST, createAndStartUri);
+            ResponseEntity<String> response = jwtRestTemplate.exchange(requestEntity, String.class);
+            String replayId = response.getBody();
+            
+            // Get the status of the audit replay request
+            UriComponents statusUri = UriComponentsBuilder.newInstance().scheme("https").host("localhost").port(webServicePort)
+                            .path("/audit/v1/replay/" + replayId + "/status").build();
+            Status status = toStatus(jwtRestTemplate.exchange(authUser, HttpMethod.GET, statusUri, String.class));
+            
+            int numRetries = 60;
+            while (status.getState() == Status.ReplayState.RUNNING && numRetries-- > 0) {
+                Thread.sleep(250);
+                status = toStatus(jwtRestTemplate.exchange(authUser, HttpMethod.GET, statusUri, String.class));
+            }
+            long elapsed = System.currentTimeMillis() - start;
+            
+            // @formatter:off
+            assertStatus(
+                    Status.ReplayState.FINISHED,
+                    replayDir.toURI().toString(),
+                    5L,
+                    2,
+                    false,
+                    status);
+            // @formatter:on
+            
+            // both files are replayed at once, but share the send rate, so 12 audits at 5 per second take about 2 seconds rather than 1
+            Assert.assertTrue("Replay finished in " + elapsed + "ms", elapsed >= 1800);
+            Assert.assertEquals(expectedAuditIds, pollAuditIds());
+            
+            // Delete the audit replay request
+            UriComponents deleteUri = UriComponentsBuilder.newInstance().scheme("https").host("localhost").port(webServicePort)
+                            .path("/audit/v1/replay/" + replayId + "/delete").build();
+            ResponseEntity<String> deleteResp = jwtRestTemplate.exchange(authUser, HttpMethod.DELETE, deleteUri, String.class);
+            
+            Assert.assertEquals(200, deleteResp.getStatusCode().value());
+        } finally {
+            replayProperties.setFilesPerReplay(1);
+        }
+    }
+    
+    @Test
+    public void gzipAuditFileTest() throws Exception {
+        replayProperties.setIdleTimeoutMillis(TimeUnit.SECONDS.toMillis(30));
+        
+        // a finished segment written by the BufferedFileAuditor with compression enabled
+        File replayDir = new File(tempDir, "gzipped");
+        Assert.assertTrue(replayDir.mkdir());
+        Set<String> expectedAuditIds = new HashSet<>(writeAuditFile(new File(replayDir, "audit-20190401_000000.000.json.gz"), "gzipAuditId", 5));
+        
+        Collection<String> roles = Collections.singleton("Administrator");
+        DatawaveUser uathDWUser = new DatawaveUser(DN, USER, null, roles, null, System.currentTimeMillis());
+        ProxiedUserDetails authUser = new ProxiedUserDetails(Collections.singleton(uathDWUser), uathDWUser.getCreationTime());
+        
+        UriComponents createAndStartUri = UriComponentsBuilder.newInstance().scheme("https").host("localhost").port(webServicePort)
+                        .path("/audit/v1/replay/createAndStart").build();
+        
+        MultiValueMap<String,String> map = new LinkedMultiValueMap<>();
+        map.add("pathUri", replayDir.toURI().toString());
+        map.add("sendRate", "100");
+        
+        // Create the audit replay request
+        RequestEntity requestEntity = jwtRestTemplate.createRequestEntity(authUser, map, null, HttpMethod.POST, createAndStartUri);
+        ResponseEntity<String> response = jwtRestTemplate.exchange(requestEntity, String.class);
+        String replayId = response.getBody();
+        
+        // Get the status of the audit replay request
+        UriComponents statusUri = UriComponentsBuilder.newInstance().scheme("https").host("localhost").port(webServicePort)
+                        .path("/audit/v1/replay/" + replayId + "/status").build();
+        Status status = toStatus(jwtRestTemplate.exchange(authUser, HttpMethod.GET, statusUri, String.class));
+        
+        int numRetries = 20;
+        while (status.getState() == Status.ReplayState.RUNNING && numRetries-- > 0) {
+            Thread.sleep(250);
+            status = toStatus(jwtRestTemplate.exchange(authUser, HttpMethod.GET, statusUri, String.class));
+        }
+        
+        // @formatter:off
+        assertStatus(
+                Status.ReplayState.FINISHED,
+                replayDir.toURI().toString(),
+                100L,
+                1,
+                false,
+                status);
+        
+        assertFileStatus(
+                Status.FileState.FINISHED,
+                "_FINISHED.audit-20190401_000000.000.json.gz",
+                5,
+                5,
+                0,
+                0,
+                false,
+                status.getFiles().get(0));
+        // @formatter:on
+        
+        // the lines were read from the decompressed segment
+        Assert.assertEquals(expectedAuditIds, pollAuditIds());
+        
+        // Delete the audit replay request
+        UriComponents deleteUri = UriComponentsBuilder.newInstance().scheme("https").host("localhost").port(webServicePort)
+                        .path("/audit/v1/replay/" + replayId + "/delete").build();
+        ResponseEntity<String> deleteResp = jwtRestTemplate.exchange(authUser, HttpMethod.DELETE, deleteUri, String.class);
+        
+        Assert.assertEquals(200, deleteResp.getStatusCode().value());
+    }
+    
+    private static List<String> writeAuditFile(File file, String auditIdPrefix, int numAudits) throws IOException {
+        List<String> auditIds = new ArrayList<>();
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < numAudits; i++) {
+            auditIds.add(auditIdPrefix + i);
+            lines.add("{\"auditId\":\"" + auditIdPrefix + i + "\",\"auditUserDN\":\"readyUser\",\"queryDate\":\"20190301000000\",\"auths\":\"READY\","
+                            + "\"query\":\"ready query\",\"auditType\":\"PASSIVE\",\"logicClass\":\"EventQuery\",\"auditColumnVisibility\":\"READY\"}");
+        }
+        if (file.getName().endsWith(".gz")) {
+            try (OutputStream out = new GZIPOutputStream(new FileOutputStream(file))) {
+                IOUtils.writeLines(lines, null, out, StandardCharsets.UTF_8);
+            }
+        } else {
+            FileUtils.writeLines(file, lines);
+        }
+        return auditIds;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private Set<String> pollAuditIds() {
+        Set<String> auditIds = new HashSet<>();
+        Message<AuditMessage> msg;
+        while (null != (msg = (Message<AuditMessage>) messageCollector.forChannel(auditSourceBinding.auditSource()).poll()))
+            Assert.assertTrue(auditIds.add(msg.getPayload().getAuditParameters().get(AUDIT_ID)));
+        return auditIds;
+    }
+    
     @Test
     @DirtiesContext
     public void remoteUpdateStopTest() throws Exception {
@@ -0,0 +1,158 @@
+package datawave.security.authorization;
+
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.Multimap;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compact binary encoding of a collection of {@link DatawaveUser}s. Every distinct string (DNs, auths and roles) is written once to a dictionary at the start
+ * of the encoding and referenced by index thereafter, so auths repeated across the users of a proxy chain and across the role to auth mapping cost a few bytes
+ * each. Decoding reads the values straight into {@link DatawaveUser}s without going through an intermediate JSON tree.
+ */
+public class DatawaveUserBinaryCodec {
+    
+    private static final int VERSION = 1;
+    
+    private DatawaveUserBinaryCodec() {}
+    
+    public static byte[] encode(Collection<? extends DatawaveUser> users) {
+        Map<String,Integer> dictionary = new LinkedHashMap<>();
+        for (DatawaveUser user : users) {
+            index(dictionary, user.getDn().subjectDN());
+            if (user.getDn().issuerDN() != null) {
+                index(dictionary, user.getDn().issuerDN());
+            }
+            user.getAuths().forEach(a -> index(dictionary, a));
+            user.getRoles().forEach(r -> index(dictionary, r));
+            user.getRoleToAuthMapping().entries().forEach(e -> {
+                index(dictionary, e.getKey());
+                index(dictionary, e.getValue());
+            });
+        }
+        
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(VERSION);
+            writeVInt(out, dictionary.size());
+            for (String s : dictionary.keySet()) {
+                byte[] b = s.getBytes(StandardCharsets.UTF_8);
+                writeVInt(out, b.length);
+                out.write(b);
+            }
+            writeVInt(out, users.size());
+            for (DatawaveUser user : users) {
+                writeVInt(out, dictionary.get(user.getDn().subjectDN()));
+                // the issuer index is offset by one so that zero can represent a missing issuer
+                writeVInt(out, user.getDn().issuerDN() == null ? 0 : dictionary.get(user.getDn().issuerDN()) + 1);
+                out.writeByte(user.getUserType().ordinal());
+                writeStrings(out, dictionary, user.getAuths());
+                writeStrings(out, dictionary, user.getRoles());
+                Map<String,Collection<String>> roleToAuths = user.getRoleToAuthMapping().asMap();
+                writeVInt(out, roleToAuths.size());
+                for (Map.Entry<String,Collection<String>> e : roleToAuths.entrySet()) {
+                    writeVInt(out, dictionary.get(e.getKey()));
+                    writeStrings(out, dictionary, e.getValue());
+                }
+                out.writeLong(user.getCreationTime());
+                out.writeLong(user.getExpirationTime());
+            }
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            // not possible when writing to a byte array
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    public static List<DatawaveUser> decode(byte[] encoded) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded));
+            int version = in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported encoded user version " + version);
+            }
+            String[] dictionary = new String[readVInt(in)];
+            for (int i = 0; i < dictionary.length; i++) {
+                byte[] b = new byte[readVInt(in)];
+                in.readFully(b);
+                dictionary[i] = new String(b, StandardCharsets.UTF_8);
+            }
+            DatawaveUser.UserType[] userTypes = DatawaveUser.UserType.values();
+            int numUsers = readVInt(in);
+            List<DatawaveUser> users = new ArrayList<>(numUsers);
+            for (int i = 0; i < numUsers; i++) {
+                String subjectDN = dictionary[readVInt(in)];
+                int issuer = readVInt(in);
+                SubjectIssuerDNPair dn = SubjectIssuerDNPair.of(subjectDN, issuer == 0 ? null : dictionary[issuer - 1]);
+                DatawaveUser.UserType userType = userTypes[in.readUnsignedByte()];
+                List<String> auths = readStrings(in, dictionary);
+                List<String> roles = readStrings(in, dictionary);
+                Multimap<String,String> roleToAuthMapping = LinkedHashMultimap.create();
+                int numRoles = readVInt(in);
+                for (int r = 0; r < numRoles; r++) {
+                    String role = dictionary[readVInt(in)];
+                    roleToAuthMapping.putAll(role, readStrings(in, dictionary));
+                }
+                long creationTime = in.readLong();
+                long expirationTime = in.readLong();
+                users.add(new DatawaveUser(dn, userType, auths, roles, roleToAuthMapping, creationTime, expirationTime));
+            }
+            return users;
+        } catch (IOException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid encoded users: " + e.getMessage(), e);
+        }
+    }
+    
+    private static void index(Map<String,Integer> dictionary, String s) {
+        dictionary.putIfAbsent(s, dictionary.size());
+    }
+    
+    private static void writeStrings(DataOutputStream out, Map<String,Integer> dictionary, Collection<String> strings) throws IOException {
+        writeVInt(out, strings.size());
+        for (String s : strings) {
+            writeVInt(out, dictionary.get(s));
+        }
+    }
+    
+    private static List<String> readStrings(DataInputStream in, String[] dictionary) throws IOException {
+        int size = readVInt(in);
+        List<String> strings = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            strings.add(dictionary[readVInt(in)]);
+        }
+        return strings;
+    }
+    
+    private static void writeVInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+    
+    private static int readVInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable length integer");
+    }
+}
@@ -2,6 +2,8 @@ package datawave.security.authorization;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.CompressionCodecs;
 import io.jsonwebtoken.Jws;
@@ -11,10 +13,16 @@ import io.jsonwebtoken.impl.DefaultJwtBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.cert.Certificate;
 import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
@@ -22,6 +30,11 @@ import java.util.stream.Collectors;
 
 /**
  * Converts between a String encoded JSON Web Token and a collection of {@link DatawaveUser}s.
+ * <p>
+ * By default the users are written to the token as JSON. With {@link #setBinaryPrincipals(boolean)} they are written using the more compact
+ * {@link DatawaveUserBinaryCodec} instead, which every handler can read, so it should only be enabled once all services that receive the tokens have been
+ * upgraded. Parsed tokens are cached by signature, so that a caller presenting the same token on every request only pays for verifying and deserializing it
+ * once.
  */
 public class JWTTokenHandler {
     public enum TtlMode {
@@ -29,6 +42,7 @@ public class JWTTokenHandler {
     }
     
     private static final String PRINCIPALS_CLAIM = "principals";
+    private static final String BINARY_PRINCIPALS_CLAIM = "principalsBin";
     
     private final Logger logger = LoggerFactory.getLogger(getClass());
     
@@ -38,6 +52,8 @@ public class JWTTokenHandler {
     private final TtlMode ttlMode;
     private final long jwtTtl;
     private final ObjectMapper objectMapper;
+    private boolean binaryPrincipals = false;
+    private Cache<String,ParsedToken> parsedTokens;
     
     /**
      * Creates a new JWTTokenHandler.
@@ -91,6 +107,23 @@ public class JWTTokenHandler {
             issuer = "DATAWAVE";
             signatureCheckKey = signingKey;
         }
+        setParseCacheSize(256);
+    }
+    
+    /**
+     * @param binaryPrincipals
+     *            whether to write users to new tokens using the {@link DatawaveUserBinaryCodec} rather than as JSON
+     */
+    public void setBinaryPrincipals(boolean binaryPrincipals) {
+        this.binaryPrincipals = binaryPrincipals;
+    }
+    
+    /**
+     * @param parseCacheSize
+     *            the maximum number of parsed tokens to keep, or 0 to parse every token
+     */
+    public void setParseCacheSize(long parseCacheSize) {
+        this.parsedTokens = parseCacheSize > 0 ? CacheBuilder.newBuilder().maximumSize(parseCacheSize).build() : null;
     }
     
     public String createTokenFromUsers(String username, Collection<? extends DatawaveUser> users) {
@@ -100,13 +133,19 @@ public class JWTTokenHandler {
         }
         Date expirationDate = new Date(minCreationTime + jwtTtl);
         logger.trace("Creating new JWT to expire at {} for users {}", expirationDate, users);
+        Object principals = users;
+        String principalsClaim = PRINCIPALS_CLAIM;
+        if (binaryPrincipals) {
+            principals = Base64.getEncoder().encodeToString(DatawaveUserBinaryCodec.encode(users));
+            principalsClaim = BINARY_PRINCIPALS_CLAIM;
+        }
         // @formatter:off
         return new CustomJWTBuilder(objectMapper)
                 .setSubject(username)
                 .setAudience("DATAWAVE")
                 .setIssuer(issuer)
                 .setExpiration(expirationDate)
-                .claim(PRINCIPALS_CLAIM, users)
+                .claim(principalsClaim, principals)
                 .signWith(SignatureAlgorithm.RS512, signingKey)
                 .compressWith(CompressionCodecs.GZIP)
                 .compact();
@@ -114,15 +153,62 @@ public class JWTTokenHandler {
     }
     
     public Collection<DatawaveUser> createUsersFromToken(String token) {
+        Cache<String,ParsedToken> parsedTokens = this.parsedTokens;
+        if (parsedTokens == null) {
+            return parseToken(token).users;
+        }
+        // A matching signature alone does not prove the rest of the token is the same, so the entire token is compared by digest as well
+        String signature = token.substring(token.lastIndexOf('.') + 1);
+        byte[] digest = digest(token);
+        ParsedToken parsed = parsedTokens.getIfPresent(signature);
+        if (parsed != null && MessageDigest.isEqual(parsed.digest, digest) && System.currentTimeMillis() < parsed.expiration) {
+            logger.trace("Using cached users for JWT {}", token);
+            return new ArrayList<>(parsed.users);
+        }
+        parsed = parseToken(token);
+        parsed.digest = digest;
+        parsedTokens.put(signature, parsed);
+        return new ArrayList<>(parsed.users);
+    }
+    
+    private ParsedToken parseToken(String token) {
         logger.trace("Attempting to parse JWT {}", token);
         Jws<Claims> claimsJws = Jwts.parser().setSigningKey(signatureCheckKey).parseClaimsJws(token);
         Claims claims = claimsJws.getBody();
         logger.trace("Resulting claims: {}", claims);
-        List<?> principalsClaim = claims.get(PRINCIPALS_CLAIM, List.class);
-        if (principalsClaim == null || principalsClaim.isEmpty()) {
+        List<DatawaveUser> users;
+        String binaryPrincipalsClaim = claims.get(BINARY_PRINCIPALS_CLAIM, String.class);
+        if (binaryPrincipalsClaim != null) {
+            users = DatawaveUserBinaryCodec.decode(Base64.getDecoder().decode(binaryPrincipalsClaim));
+        } else {
+            List<?> principalsClaim = claims.get(PRINCIPALS_CLAIM, List.class);
+            users = principalsClaim == null ? Collections.emptyList()
+                            : principalsClaim.stream().map(obj -> objectMapper.convertValue(obj, DatawaveUser.class)).collect(Collectors.toList());
+        }
+        if (users.isEmpty()) {
             throw new IllegalArgumentException("JWT for " + claims.getSubject() + " does not contain any proxied principals.");
         }
-        return principalsClaim.stream().map(obj -> objectMapper.convertValue(obj, DatawaveUser.class)).collect(Collectors.toList());
+        long expiration = claims.getExpiration() == null ? Long.MAX_VALUE : claims.getExpiration().getTime();
+        return new ParsedToken(Collections.unmodifiableList(users), expiration);
+    }
+    
+    private static byte[] digest(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private static class ParsedToken {
+        private final List<DatawaveUser> users;
+        private final long expiration;
+        private byte[] digest;
+        
+        private ParsedToken(List<DatawaveUser> users, long expiration) {
+            this.users = users;
+            this.expiration = expiration;
+        }
     }
     
     private class CustomJWTBuilder extends DefaultJwtBuilder {
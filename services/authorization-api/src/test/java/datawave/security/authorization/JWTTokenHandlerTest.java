@@ -0,0 +1,77 @@
+package datawave.security.authorization;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+import datawave.security.authorization.DatawaveUser.UserType;
+import io.jsonwebtoken.SignatureException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class JWTTokenHandlerTest {
+    
+    private JWTTokenHandler tokenHandler;
+    private List<DatawaveUser> users;
+    
+    @Before
+    public void setUp() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair keyPair = generator.generateKeyPair();
+        tokenHandler = new JWTTokenHandler(null, keyPair.getPrivate(), 1, TimeUnit.HOURS, JWTTokenHandler.TtlMode.RELATIVE_TO_CURRENT_TIME,
+                        new ObjectMapper());
+        tokenHandler.setBinaryPrincipals(true);
+        
+        Multimap<String,String> roleToAuths = HashMultimap.create();
+        roleToAuths.putAll("AuthorizedUser", Arrays.asList("A", "B"));
+        roleToAuths.put("AuthorizedServer", "C");
+        users = new ArrayList<>();
+        users.add(new DatawaveUser(SubjectIssuerDNPair.of("cn=user", "cn=ca"), UserType.USER, Arrays.asList("A", "B"), Arrays.asList("AuthorizedUser"),
+                        roleToAuths, 1000L, 5000L));
+        users.add(new DatawaveUser(SubjectIssuerDNPair.of("cn=server"), UserType.SERVER, Arrays.asList("A", "C"), Arrays.asList("AuthorizedServer"), null,
+                        2000L));
+    }
+    
+    @Test
+    public void testBinaryEncoding() {
+        List<DatawaveUser> decoded = DatawaveUserBinaryCodec.decode(DatawaveUserBinaryCodec.encode(users));
+        assertEquals(users, decoded);
+        assertEquals(users.get(0).getRoleToAuthMapping(), decoded.get(0).getRoleToAuthMapping());
+        assertEquals(5000L, decoded.get(0).getExpirationTime());
+        assertTrue(decoded.get(1).getRoleToAuthMapping().isEmpty());
+    }
+    
+    @Test
+    public void testBinaryTokenRoundTrip() {
+        String token = tokenHandler.createTokenFromUsers("user", users);
+        Collection<DatawaveUser> first = tokenHandler.createUsersFromToken(token);
+        Collection<DatawaveUser> second = tokenHandler.createUsersFromToken(token);
+        assertEquals(users, first);
+        assertEquals(users, second);
+    }
+    
+    @Test(expected = SignatureException.class)
+    public void testCachedSignatureWithDifferentPayload() {
+        String token = tokenHandler.createTokenFromUsers("user", users);
+        tokenHandler.createUsersFromToken(token);
+        
+        // swap in the payload of a different token, keeping the signature of the cached one
+        String other = tokenHandler.createTokenFromUsers("other", users.subList(1, 2));
+        String[] parts = token.split("\\.");
+        String[] otherParts = other.split("\\.");
+        assertTrue(!Arrays.equals(Base64.getUrlDecoder().decode(parts[1]), Base64.getUrlDecoder().decode(otherParts[1])));
+        tokenHandler.createUsersFromToken(parts[0] + "." + otherParts[1] + "." + parts[2]);
+    }
+}
@@ -87,6 +87,8 @@ public class DatawaveSecurityProperties {
     public static class Jwt {
         private boolean enabled = true;
         private int ttl;
+        private boolean binaryPrincipals = false;
+        private long parseCacheSize = 256;
         
         public boolean isEnabled() {
             return enabled;
@@ -107,5 +109,21 @@ public class DatawaveSecurityProperties {
         public void setTtl(int ttl) {
             this.ttl = ttl;
         }
+        
+        public boolean isBinaryPrincipals() {
+            return binaryPrincipals;
+        }
+        
+        public void setBinaryPrincipals(boolean binaryPrincipals) {
+            this.binaryPrincipals = binaryPrincipals;
+        }
+        
+        public long getParseCacheSize() {
+            return parseCacheSize;
+        }
+        
+        public void setParseCacheSize(long parseCacheSize) {
+            this.parseCacheSize = parseCacheSize;
+        }
     }
 }
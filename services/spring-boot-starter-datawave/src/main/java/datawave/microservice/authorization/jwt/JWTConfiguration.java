@@ -42,7 +42,11 @@ public class JWTConfiguration {
             String alias = keyStore.aliases().nextElement();
             Key signingKey = keyStore.getKey(alias, keyPassword);
             Certificate cert = keyStore.getCertificate(alias);
-            return new JWTTokenHandler(cert, signingKey, securityProperties.getJwt().getTtl(TimeUnit.SECONDS), TimeUnit.SECONDS, objectMapper);
+            DatawaveSecurityProperties.Jwt jwt = securityProperties.getJwt();
+            JWTTokenHandler jwtTokenHandler = new JWTTokenHandler(cert, signingKey, jwt.getTtl(TimeUnit.SECONDS), TimeUnit.SECONDS, objectMapper);
+            jwtTokenHandler.setBinaryPrincipals(jwt.isBinaryPrincipals());
+            jwtTokenHandler.setParseCacheSize(jwt.getParseCacheSize());
+            return jwtTokenHandler;
         } catch (Exception e) {
             throw new IllegalStateException("Invalid SSL configuration.", e);
         }
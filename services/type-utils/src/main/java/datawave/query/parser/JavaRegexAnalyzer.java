@@ -714,6 +714,71 @@ public class JavaRegexAnalyzer {
         return (leadingLiteral != null ? leadingLiteral : trailingLiteral);
     }
     
+    /**
+     * Get the literals which every value matching this regex must contain. Unlike the leading and trailing literals, these may occur anywhere within the
+     * value, which allows regexes such as .*abc.*xyz.* to be narrowed down using an n-gram index. Literals within groups and character classes are not
+     * considered, and a regex with a top level alternation or any flags has no required literals.
+     * 
+     * @return the required literals in the order they occur, which may be empty
+     */
+    public List<String> getRequiredLiterals() {
+        List<String> literals = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int depth = 0;
+        
+        for (int i = 0; i < regexParts.length; i++) {
+            RegexPart part = regexParts[i];
+            
+            // flags and non-capturing groups may change what the literals match, so give up on them
+            if (part.nonCapturing) {
+                return new ArrayList<>();
+            }
+            
+            if (part.type == RegexType.IGNORABLE_REGEX || part.type == RegexType.REGEX_QUANTIFIER) {
+                // quantifiers were accounted for by the part they follow
+                continue;
+            } else if (part.regex.equals("(") || part.regex.equals("[") || part.regex.equals("[^")) {
+                depth++;
+                addLiteral(literals, literal);
+            } else if (part.regex.equals(")") || part.regex.equals("]")) {
+                depth--;
+            } else if (depth > 0) {
+                continue;
+            } else if (part.regex.equals("|")) {
+                // either side may match, so nothing is required
+                return new ArrayList<>();
+            } else if (part.type.isLiteral()) {
+                String value = (part.type == RegexType.ESCAPED_LITERAL ? part.regex.substring(1) : part.regex);
+                if (followedByQuantifier(i)) {
+                    // the quantifier only applies to the last character, which ends this literal and if required, starts the next one
+                    String last = value.substring(value.offsetByCodePoints(value.length(), -1));
+                    literal.append(value, 0, value.length() - last.length());
+                    if (atLeastOnce(i)) {
+                        literal.append(last);
+                        addLiteral(literals, literal);
+                        literal.append(last);
+                    } else {
+                        addLiteral(literals, literal);
+                    }
+                } else {
+                    literal.append(value);
+                }
+            } else {
+                addLiteral(literals, literal);
+            }
+        }
+        addLiteral(literals, literal);
+        
+        return literals;
+    }
+    
+    private void addLiteral(List<String> literals, StringBuilder literal) {
+        if (literal.length() > 0) {
+            literals.add(literal.toString());
+            literal.setLength(0);
+        }
+    }
+    
     /**
      * Given an ip regex, zero pad it out to create a regex for the normalized ip value.
      * 
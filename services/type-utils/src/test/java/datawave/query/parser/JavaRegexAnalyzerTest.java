@@ -1138,6 +1138,20 @@ public class JavaRegexAnalyzerTest {
         }
     }
     
+    @Test
+    public void testRequiredLiterals() throws JavaRegexParseException {
+        Assert.assertEquals(Lists.newArrayList("abc123"), new JavaRegexAnalyzer(".*abc123.*").getRequiredLiterals());
+        Assert.assertEquals(Lists.newArrayList("abc", "x.y"), new JavaRegexAnalyzer(".*abc.*x\\.y").getRequiredLiterals());
+        Assert.assertEquals(Lists.newArrayList("ab", "bc"), new JavaRegexAnalyzer(".*ab+c.*").getRequiredLiterals());
+        Assert.assertEquals(Lists.newArrayList("a", "c"), new JavaRegexAnalyzer(".*ab*c.*").getRequiredLiterals());
+        Assert.assertEquals(Lists.newArrayList("abc", "xyz"), new JavaRegexAnalyzer("abc[0-9]+(def|ghi)xyz").getRequiredLiterals());
+        
+        // nothing is required from either side of an alternation, or when flags may change the case of the literals
+        Assert.assertTrue(new JavaRegexAnalyzer(".*abc.*|.*xyz.*").getRequiredLiterals().isEmpty());
+        Assert.assertTrue(new JavaRegexAnalyzer("(?i).*abc.*").getRequiredLiterals().isEmpty());
+        Assert.assertTrue(new JavaRegexAnalyzer(".*").getRequiredLiterals().isEmpty());
+    }
+    
     @Test
     public void testRegexCaseFailures() throws JavaRegexParseException {
         Set<String> testPatterns = new HashSet<>();
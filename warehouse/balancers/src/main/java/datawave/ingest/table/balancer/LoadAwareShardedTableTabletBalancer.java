@@ -0,0 +1,297 @@
+package datawave.ingest.table.balancer;
+
+import com.google.common.base.Function;
+import org.apache.accumulo.core.data.impl.KeyExtent;
+import org.apache.accumulo.core.master.thrift.TableInfo;
+import org.apache.accumulo.core.master.thrift.TabletServerStatus;
+import org.apache.accumulo.core.tabletserver.thrift.TabletStats;
+import org.apache.accumulo.core.util.Pair;
+import org.apache.accumulo.server.master.state.TServerInstance;
+import org.apache.accumulo.server.master.state.TabletMigration;
+import org.apache.log4j.Logger;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.SortedMap;
+
+/**
+ * A {@link ShardedTableTabletBalancer} which, once the tablet counts are balanced, also balances the query and ingest load of the table across the tablet
+ * servers.
+ * <p>
+ * The heat of a tablet is its query rate plus its ingest rate, weighted towards recent days since that is where the load of a sharded table lands and keeps
+ * landing. When the heat of the hottest tablet server is more than the overload threshold above the average, a hot tablet on it is swapped with a cooler tablet
+ * on the coolest tablet server. Both tablets of a swap belong to the same balancer group, and either they are from the same day or neither tablet server
+ * holds another tablet from the day it is given, so the per group counts and the spread of each day across the tablet servers are left exactly as the count
+ * balance made them.
+ * <p>
+ * The per tablet rates are fetched from the tablet servers at most once every {@link #getLoadBalanceInterval()}, and only when the table rates the tablet
+ * servers already report show one of them to be overloaded.
+ */
+public class LoadAwareShardedTableTabletBalancer extends ShardedTableTabletBalancer {
+    private static final Logger log = Logger.getLogger(LoadAwareShardedTableTabletBalancer.class);
+    
+    private final String tableId;
+    private final Function<KeyExtent,String> dayPartitioner = new ShardDayPartitioner();
+    private long lastLoadBalance = 0;
+    
+    public LoadAwareShardedTableTabletBalancer(String tableId) {
+        super(tableId);
+        this.tableId = tableId;
+    }
+    
+    // synchronized to ensure exclusivity between getAssignments and balance calls
+    @Override
+    public synchronized long balance(SortedMap<TServerInstance,TabletServerStatus> current, Set<KeyExtent> migrations, List<TabletMigration> migrationsOut) {
+        long waitTime = super.balance(current, migrations, migrationsOut);
+        
+        // only balance the load once the counts are balanced, so the two never work against each other
+        if (migrations.isEmpty() && migrationsOut.isEmpty() && current.size() > 1 && System.currentTimeMillis() - lastLoadBalance >= getLoadBalanceInterval()
+                        && isOverloaded(current)) {
+            lastLoadBalance = System.currentTimeMillis();
+            balanceLoad(current, migrationsOut);
+        }
+        return waitTime;
+    }
+    
+    protected void balanceLoad(SortedMap<TServerInstance,TabletServerStatus> current, List<TabletMigration> migrationsOut) {
+        Map<KeyExtent,Double> heat = getTabletHeat(current);
+        if (heat == null) {
+            return;
+        }
+        
+        Function<KeyExtent,String> groupPartitioner = getPartitioner();
+        Map<TServerInstance,ServerLoad> loads = new HashMap<>();
+        for (TServerInstance tserver : current.keySet()) {
+            loads.put(tserver, new ServerLoad(tserver));
+        }
+        for (Pair<KeyExtent,Location> pair : getLocationProvider()) {
+            TServerInstance tserver = pair.getSecond().getCurrent();
+            ServerLoad load = (tserver == null ? null : loads.get(tserver));
+            if (load != null) {
+                KeyExtent extent = pair.getFirst();
+                Double tabletHeat = heat.get(extent);
+                load.add(extent, dayPartitioner.apply(extent), groupPartitioner.apply(extent), tabletHeat == null ? 0 : tabletHeat);
+            }
+        }
+        
+        double totalHeat = 0;
+        for (ServerLoad load : loads.values()) {
+            totalHeat += load.heat;
+        }
+        double overloaded = (totalHeat / loads.size()) * (1 + getOverloadThreshold());
+        
+        for (int swaps = 0; swaps < getMaxLoadSwaps(); swaps++) {
+            ServerLoad hottest = null;
+            ServerLoad coolest = null;
+            for (ServerLoad load : loads.values()) {
+                if (hottest == null || load.heat > hottest.heat) {
+                    hottest = load;
+                }
+                if (coolest == null || load.heat < coolest.heat) {
+                    coolest = load;
+                }
+            }
+            if (hottest.heat <= overloaded || !swap(hottest, coolest, migrationsOut)) {
+                break;
+            }
+        }
+    }
+    
+    /**
+     * Checks the table rates reported in the tablet server status, which are unweighted but free, before asking the tablet servers for their per tablet rates.
+     * 
+     * @return true if a tablet server's rate for the table is more than the overload threshold above the average
+     */
+    protected boolean isOverloaded(SortedMap<TServerInstance,TabletServerStatus> current) {
+        double total = 0;
+        double hottest = 0;
+        for (TabletServerStatus status : current.values()) {
+            TableInfo tableInfo = (status.getTableMap() == null ? null : status.getTableMap().get(tableId));
+            if (tableInfo != null) {
+                double rate = tableInfo.getIngestRate() + tableInfo.getQueryRate();
+                total += rate;
+                hottest = Math.max(hottest, rate);
+            }
+        }
+        return total > 0 && hottest > (total / current.size()) * (1 + getOverloadThreshold());
+    }
+    
+    /**
+     * Swaps the pair of tablets between the two tablet servers which best evens out their heat, if any swap improves it.
+     * 
+     * @return true if a swap was made
+     */
+    private boolean swap(ServerLoad hot, ServerLoad cool, List<TabletMigration> migrationsOut) {
+        Tablet bestHot = null;
+        Tablet bestCool = null;
+        double bestHeat = hot.heat;
+        for (Tablet h : hot.tablets) {
+            for (Tablet c : cool.tablets) {
+                if (h.heat <= c.heat || !h.group.equals(c.group)) {
+                    continue;
+                }
+                // keep each day spread across the tablet servers, which a swap within a day always does
+                if (!h.day.equals(c.day) && (cool.hasDay(h.day) || hot.hasDay(c.day))) {
+                    continue;
+                }
+                double moved = h.heat - c.heat;
+                double heat = Math.max(hot.heat - moved, cool.heat + moved);
+                if (heat < bestHeat) {
+                    bestHeat = heat;
+                    bestHot = h;
+                    bestCool = c;
+                }
+            }
+        }
+        if (bestHot == null) {
+            return false;
+        }
+        
+        if (log.isDebugEnabled()) {
+            log.debug("Swapping " + bestHot.extent + " on " + hot.tserver + " with " + bestCool.extent + " on " + cool.tserver + " to move "
+                            + (bestHot.heat - bestCool.heat) + " heat");
+        }
+        hot.remove(bestHot);
+        cool.remove(bestCool);
+        hot.add(bestCool);
+        cool.add(bestHot);
+        migrationsOut.add(new TabletMigration(bestHot.extent, hot.tserver, cool.tserver));
+        migrationsOut.add(new TabletMigration(bestCool.extent, cool.tserver, hot.tserver));
+        return true;
+    }
+    
+    /**
+     * Gets the heat of each tablet of the table. The per tablet rates are only fetched from the tablet servers which report load for the table.
+     * 
+     * @return the heat of each tablet, or null if it could not be determined
+     */
+    protected Map<KeyExtent,Double> getTabletHeat(SortedMap<TServerInstance,TabletServerStatus> current) {
+        Map<KeyExtent,Double> heat = new HashMap<>();
+        LocalDate today = getToday();
+        for (Entry<TServerInstance,TabletServerStatus> entry : current.entrySet()) {
+            TableInfo tableInfo = (entry.getValue().getTableMap() == null ? null : entry.getValue().getTableMap().get(tableId));
+            if (tableInfo == null || tableInfo.getIngestRate() + tableInfo.getQueryRate() <= 0) {
+                continue;
+            }
+            try {
+                for (TabletStats stats : getTabletStats(entry.getKey())) {
+                    KeyExtent extent = new KeyExtent(stats.getExtent());
+                    heat.put(extent, getWeightedHeat(extent, stats.getQueryRate() + stats.getIngestRate(), today));
+                }
+            } catch (Exception e) {
+                log.warn("Unable to get the tablet rates from " + entry.getKey() + ", not balancing load this pass", e);
+                return null;
+            }
+        }
+        return heat;
+    }
+    
+    /**
+     * Gets the per tablet rates for this table from a tablet server. Simulations override this to supply their own rates.
+     */
+    protected List<TabletStats> getTabletStats(TServerInstance tserver) throws Exception {
+        return getOnlineTabletsForTable(tserver, tableId);
+    }
+    
+    /**
+     * Weights the rate of a tablet by the age of its day. Today's tablets count double, halving every {@link #getRecentDayHalfLife()} days down to the rate
+     * itself.
+     */
+    protected double getWeightedHeat(KeyExtent extent, double rate, LocalDate today) {
+        double weight = 1;
+        try {
+            LocalDate day = LocalDate.parse(dayPartitioner.apply(extent), DateTimeFormatter.BASIC_ISO_DATE);
+            long age = Math.max(0, ChronoUnit.DAYS.between(day, today));
+            weight += Math.pow(0.5, age / getRecentDayHalfLife());
+        } catch (DateTimeParseException e) {
+            // not a sharded row, so no recency to weight by
+        }
+        return rate * weight;
+    }
+    
+    protected LocalDate getToday() {
+        return LocalDate.now();
+    }
+    
+    /**
+     * @return the minimum time between fetching the per tablet rates to balance the load, in milliseconds
+     */
+    protected long getLoadBalanceInterval() {
+        return TimeUnit.MINUTES.toMillis(5);
+    }
+    
+    /**
+     * @return how far above the average heat a tablet server can be before hot tablets are moved off of it, as a fraction of the average
+     */
+    protected double getOverloadThreshold() {
+        return 0.2;
+    }
+    
+    /**
+     * @return the number of days over which the extra weight given to a day's rates halves
+     */
+    protected double getRecentDayHalfLife() {
+        return 1;
+    }
+    
+    /**
+     * @return the maximum number of tablet swaps, each two migrations, per balance pass
+     */
+    protected int getMaxLoadSwaps() {
+        return 10;
+    }
+    
+    private static class Tablet {
+        private final KeyExtent extent;
+        private final String day;
+        private final String group;
+        private final double heat;
+        
+        Tablet(KeyExtent extent, String day, String group, double heat) {
+            this.extent = extent;
+            this.day = day;
+            this.group = group;
+            this.heat = heat;
+        }
+    }
+    
+    private static class ServerLoad {
+        private final TServerInstance tserver;
+        private final List<Tablet> tablets = new ArrayList<>();
+        private final Map<String,Integer> days = new HashMap<>();
+        private double heat = 0;
+        
+        ServerLoad(TServerInstance tserver) {
+            this.tserver = tserver;
+        }
+        
+        void add(KeyExtent extent, String day, String group, double tabletHeat) {
+            add(new Tablet(extent, day, group, tabletHeat));
+        }
+        
+        void add(Tablet tablet) {
+            tablets.add(tablet);
+            days.merge(tablet.day, 1, Integer::sum);
+            heat += tablet.heat;
+        }
+        
+        void remove(Tablet tablet) {
+            tablets.remove(tablet);
+            days.computeIfPresent(tablet.day, (day, count) -> count > 1 ? count - 1 : null);
+            heat -= tablet.heat;
+        }
+        
+        boolean hasDay(String day) {
+            return days.containsKey(day);
+        }
+    }
+}
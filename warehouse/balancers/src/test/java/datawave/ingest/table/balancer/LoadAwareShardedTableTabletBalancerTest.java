@@ -0,0 +1,283 @@
+package datawave.ingest.table.balancer;
+
+import org.apache.accumulo.core.data.impl.KeyExtent;
+import org.apache.accumulo.core.master.thrift.TableInfo;
+import org.apache.accumulo.core.master.thrift.TabletServerStatus;
+import org.apache.accumulo.core.tabletserver.thrift.TabletStats;
+import org.apache.accumulo.core.util.Pair;
+import org.apache.accumulo.server.master.balancer.GroupBalancer.Location;
+import org.apache.accumulo.server.master.state.TServerInstance;
+import org.apache.accumulo.server.master.state.TabletMigration;
+import org.apache.hadoop.io.Text;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LoadAwareShardedTableTabletBalancerTest {
+    private static final String TNAME = "s";
+    
+    private Simulator simulator;
+    
+    @Before
+    public void setUp() {
+        simulator = new Simulator(LocalDate.of(2010, 1, 31));
+    }
+    
+    @Test
+    public void testHotDaysMoveOffOverloadedTserver() {
+        TServerInstance a = simulator.addTServer("127.0.0.1:1000");
+        TServerInstance b = simulator.addTServer("127.0.0.1:1001");
+        
+        // one shard a day, with the recent days doing most of the work, and the hotter days all on the first tserver
+        simulator.addTablet("20100124_0", b, 10);
+        simulator.addTablet("20100125_0", a, 10);
+        simulator.addTablet("20100126_0", b, 10);
+        simulator.addTablet("20100127_0", a, 10);
+        simulator.addTablet("20100128_0", b, 10);
+        simulator.addTablet("20100129_0", a, 60);
+        simulator.addTablet("20100130_0", b, 80);
+        simulator.addTablet("20100131_0", a, 100);
+        assertEquals(180, simulator.getRate(a), 0.0);
+        assertEquals(110, simulator.getRate(b), 0.0);
+        Map<String,Map<TServerInstance,Integer>> groupCounts = simulator.getGroupCounts();
+        
+        // today's shard is swapped with yesterday's, which is in the same group and is the best of the swaps available
+        List<TabletMigration> migrations = simulator.balance();
+        assertEquals(2, migrations.size());
+        assertEquals(b, simulator.getLocation("20100131_0"));
+        assertEquals(a, simulator.getLocation("20100130_0"));
+        assertEquals(160, simulator.getRate(a), 0.0);
+        assertEquals(130, simulator.getRate(b), 0.0);
+        assertEquals(groupCounts, simulator.getGroupCounts());
+        
+        // and then the load is balanced
+        assertTrue(simulator.balance().isEmpty());
+    }
+    
+    @Test
+    public void testDaysStaySpread() {
+        TServerInstance a = simulator.addTServer("127.0.0.1:1000");
+        TServerInstance b = simulator.addTServer("127.0.0.1:1001");
+        TServerInstance c = simulator.addTServer("127.0.0.1:1002");
+        
+        // every day is on all three tservers, so the hot shards can only be swapped with cool shards of the same day
+        String[] days = {"20100129", "20100130", "20100131"};
+        for (String day : days) {
+            simulator.addTablet(day + "_0", a, 100);
+            simulator.addTablet(day + "_1", b, 1);
+            simulator.addTablet(day + "_2", c, 1);
+        }
+        Map<String,Map<TServerInstance,Integer>> groupCounts = simulator.getGroupCounts();
+        
+        // today's hot shard and then one of the older ones move off of the first tserver, one to each of the others
+        List<TabletMigration> migrations = simulator.balance();
+        assertEquals(4, migrations.size());
+        simulator.checkDaySpread();
+        assertEquals(groupCounts, simulator.getGroupCounts());
+        assertTrue(!a.equals(simulator.getLocation("20100131_0")));
+        for (TServerInstance tserver : new TServerInstance[] {a, b, c}) {
+            assertEquals(102, simulator.getRate(tserver), 0.0);
+        }
+        
+        assertTrue(simulator.balance().isEmpty());
+    }
+    
+    @Test
+    public void testBalancedTserversAreNotAsked() {
+        TServerInstance a = simulator.addTServer("127.0.0.1:1000");
+        TServerInstance b = simulator.addTServer("127.0.0.1:1001");
+        simulator.addTablet("20100130_0", a, 50);
+        simulator.addTablet("20100131_0", b, 55);
+        
+        // the table rates in the tserver status show nothing is overloaded, so the per tablet rates are not fetched
+        assertTrue(simulator.balance().isEmpty());
+        assertEquals(0, simulator.getBalancer().statsRequests);
+    }
+    
+    @Test
+    public void testNoLoad() {
+        TServerInstance a = simulator.addTServer("127.0.0.1:1000");
+        TServerInstance b = simulator.addTServer("127.0.0.1:1001");
+        simulator.addTablet("20100130_0", a, 0);
+        simulator.addTablet("20100131_0", b, 0);
+        
+        assertTrue(simulator.balance().isEmpty());
+    }
+    
+    @Test
+    public void testWeightedHeat() {
+        LoadAwareShardedTableTabletBalancer balancer = simulator.getBalancer();
+        LocalDate today = LocalDate.of(2010, 1, 31);
+        assertEquals(20, balancer.getWeightedHeat(makeExtent("20100131_0", null), 10, today), 0.0);
+        assertEquals(15, balancer.getWeightedHeat(makeExtent("20100130_0", null), 10, today), 0.0);
+        assertEquals(12.5, balancer.getWeightedHeat(makeExtent("20100129_0", null), 10, today), 0.0);
+        assertEquals(10, balancer.getWeightedHeat(makeExtent("foo", null), 10, today), 0.0);
+    }
+    
+    private static KeyExtent makeExtent(String endRow, String prevEndRow) {
+        return new KeyExtent(TNAME, endRow == null ? null : new Text(endRow), prevEndRow == null ? null : new Text(prevEndRow));
+    }
+    
+    /**
+     * Simulates a sharded table on a set of tservers, with a query and ingest rate for each tablet, so that the balance decisions can be checked offline.
+     */
+    private static class Simulator {
+        private final Set<TServerInstance> tservers = new HashSet<>();
+        private final SortedMap<KeyExtent,TServerInstance> tabletLocs = new TreeMap<>();
+        private final Map<KeyExtent,Double> rates = new HashMap<>();
+        private final SimulatedBalancer balancer;
+        
+        Simulator(LocalDate today) {
+            this.balancer = new SimulatedBalancer(this, today);
+        }
+        
+        SimulatedBalancer getBalancer() {
+            return balancer;
+        }
+        
+        TServerInstance addTServer(String location) {
+            TServerInstance tsi = new TServerInstance(location, 6);
+            tservers.add(tsi);
+            return tsi;
+        }
+        
+        void addTablet(String endRow, TServerInstance tserver, double rate) {
+            KeyExtent extent = makeExtent(endRow, tabletLocs.isEmpty() ? null : tabletLocs.lastKey().getEndRow().toString());
+            tabletLocs.put(extent, tserver);
+            rates.put(extent, rate);
+        }
+        
+        TServerInstance getLocation(String endRow) {
+            for (Entry<KeyExtent,TServerInstance> entry : tabletLocs.entrySet()) {
+                if (entry.getKey().getEndRow().toString().equals(endRow)) {
+                    return entry.getValue();
+                }
+            }
+            return null;
+        }
+        
+        double getRate(TServerInstance tserver) {
+            double rate = 0;
+            for (Entry<KeyExtent,TServerInstance> entry : tabletLocs.entrySet()) {
+                if (entry.getValue().equals(tserver)) {
+                    rate += rates.get(entry.getKey());
+                }
+            }
+            return rate;
+        }
+        
+        /**
+         * Runs a balance pass, applying the migrations it makes
+         */
+        List<TabletMigration> balance() {
+            List<TabletMigration> migrations = new ArrayList<>();
+            balancer.balance(getCurrent(), Collections.emptySet(), migrations);
+            for (TabletMigration migration : migrations) {
+                assertEquals(migration.oldServer, tabletLocs.put(migration.tablet, migration.newServer));
+            }
+            return migrations;
+        }
+        
+        Map<String,Map<TServerInstance,Integer>> getGroupCounts() {
+            ShardedTableTabletBalancer.ShardGroupPartitioner partitioner = new ShardedTableTabletBalancer.ShardGroupPartitioner(tservers.size(),
+                            getLocationProvider());
+            Map<String,Map<TServerInstance,Integer>> counts = new HashMap<>();
+            for (Entry<KeyExtent,TServerInstance> entry : tabletLocs.entrySet()) {
+                String group = partitioner.apply(entry.getKey());
+                counts.computeIfAbsent(group, g -> new HashMap<>()).merge(entry.getValue(), 1, Integer::sum);
+            }
+            return counts;
+        }
+        
+        void checkDaySpread() {
+            Map<String,List<TServerInstance>> days = tabletLocs.entrySet().stream()
+                            .collect(Collectors.groupingBy(e -> e.getKey().getEndRow().toString().substring(0, 8),
+                                            Collectors.mapping(Entry::getValue, Collectors.toList())));
+            for (Entry<String,List<TServerInstance>> day : days.entrySet()) {
+                assertEquals("Day " + day.getKey() + " has shards stacked on a tserver", day.getValue().size(), new HashSet<>(day.getValue()).size());
+            }
+        }
+        
+        SortedMap<TServerInstance,TabletServerStatus> getCurrent() {
+            SortedMap<TServerInstance,TabletServerStatus> current = new TreeMap<>();
+            for (TServerInstance tserver : tservers) {
+                TableInfo tableInfo = new TableInfo();
+                tableInfo.setQueryRate(getRate(tserver));
+                TabletServerStatus status = new TabletServerStatus();
+                status.setTableMap(Collections.singletonMap(TNAME, tableInfo));
+                current.put(tserver, status);
+            }
+            return current;
+        }
+        
+        List<TabletStats> getTabletStats(TServerInstance tserver) {
+            List<TabletStats> stats = new ArrayList<>();
+            for (Entry<KeyExtent,TServerInstance> entry : tabletLocs.entrySet()) {
+                if (entry.getValue().equals(tserver)) {
+                    TabletStats tabletStats = new TabletStats();
+                    tabletStats.setExtent(entry.getKey().toThrift());
+                    tabletStats.setQueryRate(rates.get(entry.getKey()));
+                    stats.add(tabletStats);
+                }
+            }
+            return stats;
+        }
+        
+        Iterable<Pair<KeyExtent,Location>> getLocationProvider() {
+            return tabletLocs.entrySet().stream().map(e -> new Pair<>(e.getKey(), new Location(e.getValue()))).collect(Collectors.toList());
+        }
+    }
+    
+    private static class SimulatedBalancer extends LoadAwareShardedTableTabletBalancer {
+        private final Simulator simulator;
+        private final LocalDate today;
+        private int statsRequests = 0;
+        
+        SimulatedBalancer(Simulator simulator, LocalDate today) {
+            super(TNAME);
+            this.simulator = simulator;
+            this.today = today;
+        }
+        
+        @Override
+        protected Iterable<Pair<KeyExtent,Location>> getRawLocationProvider() {
+            return simulator.getLocationProvider();
+        }
+        
+        @Override
+        protected List<TabletStats> getTabletStats(TServerInstance tserver) {
+            statsRequests++;
+            return simulator.getTabletStats(tserver);
+        }
+        
+        @Override
+        protected LocalDate getToday() {
+            return today;
+        }
+        
+        @Override
+        protected long getWaitTime() {
+            return 0;
+        }
+        
+        @Override
+        protected long getLoadBalanceInterval() {
+            return 0;
+        }
+    }
+}
@@ -17,6 +17,8 @@ public final class TableName {
     
     public static final String METADATA = "DatawaveMetadata";
     
+    public static final String NGRAM_INDEX = "ngramIndex";
+    
     public static final String SHARD = "shard";
     public static final String SHARD_INDEX = "shardIndex";
     public static final String SHARD_RINDEX = "shardReverseIndex";
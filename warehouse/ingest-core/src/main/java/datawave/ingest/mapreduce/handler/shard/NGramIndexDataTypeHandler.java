@@ -0,0 +1,243 @@
+package datawave.ingest.mapreduce.handler.shard;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import datawave.ingest.data.RawRecordContainer;
+import datawave.ingest.data.Type;
+import datawave.ingest.data.config.NormalizedContentInterface;
+import datawave.ingest.data.config.ingest.IngestHelperInterface;
+import datawave.ingest.mapreduce.handler.DataTypeHandler;
+import datawave.ingest.mapreduce.job.BulkIngestKey;
+import datawave.ingest.metadata.RawRecordMetadata;
+import datawave.marking.MarkingFunctions;
+import datawave.util.TextUtil;
+import datawave.webservice.common.logging.ThreadConfigurableLogger;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.security.ColumnVisibility;
+import org.apache.commons.lang.StringUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.StatusReporter;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.log4j.Logger;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+
+/**
+ * <p>
+ * Creates an n-gram index of the indexed field values, so that regular expressions without a leading or trailing literal (e.g. {@code .*abc123.*}) can be
+ * expanded to the values containing every n-gram of their literals, rather than being evaluated against every document in every shard of the query range.
+ * Each distinct n-gram of each indexed value is written once per value, field and datatype. Values shorter than the n-gram size have no n-grams, and cannot
+ * match a regular expression containing a literal of at least that size.
+ * 
+ * <p>
+ * This class creates the following Key/Values: <br>
+ * <br>
+ * <table border="1" summary="">
+ * <tr>
+ * <th>Schema Type</th>
+ * <th>Use</th>
+ * <th>Row</th>
+ * <th>Column Family</th>
+ * <th>Column Qualifier</th>
+ * <th>Value</th>
+ * </tr>
+ * <tr>
+ * <td>n-gram index</td>
+ * <td>values containing an n-gram</td>
+ * <td>n-gram</td>
+ * <td>field name</td>
+ * <td>normalized field value\0datatype</td>
+ * <td>NULL</td>
+ * </tr>
+ * </table>
+ * 
+ * <p>
+ * The table with the name specified by {@link #NGRAM_INDEX_TNAME} will be the n-gram index table. If {@link #NGRAM_INDEX_FIELDS} is set, only those indexed
+ * fields are added to the n-gram index, otherwise every indexed field is.
+ * 
+ * <p>
+ * Nothing is written for deletes. An entry is shared by every document with the same value on every day, so deleting it for one document would remove it for
+ * all of them. A stale entry only costs a lookup, since its value must still match the regex and is then looked up in the global index.
+ * 
+ * @param <KEYIN>
+ */
+public class NGramIndexDataTypeHandler<KEYIN> implements DataTypeHandler<KEYIN> {
+    
+    private static final Logger log = ThreadConfigurableLogger.getLogger(NGramIndexDataTypeHandler.class);
+    
+    public static final String NGRAM_INDEX_TNAME = "ngram.index.table.name";
+    public static final String NGRAM_INDEX_LPRIORITY = "ngram.index.table.loader.priority";
+    public static final String NGRAM_INDEX_SIZE = "ngram.index.size";
+    public static final String NGRAM_INDEX_FIELDS = "ngram.index.fields";
+    
+    public static final int DEFAULT_NGRAM_SIZE = 3;
+    
+    private static final long MS_PER_DAY = TimeUnit.DAYS.toMillis(1);
+    
+    protected Text nGramIndexTableName = null;
+    protected int nGramSize = DEFAULT_NGRAM_SIZE;
+    protected Set<String> nGramFields = Collections.emptySet();
+    protected Configuration conf = null;
+    protected MarkingFunctions markingFunctions;
+    
+    @Override
+    public void setup(TaskAttemptContext context) {
+        this.conf = context.getConfiguration();
+        this.markingFunctions = MarkingFunctions.Factory.createMarkingFunctions();
+        
+        String tableName = conf.get(NGRAM_INDEX_TNAME, null);
+        if (null == tableName) {
+            log.error(NGRAM_INDEX_TNAME + " not specified, no n-gram index will be created");
+        } else {
+            setNGramIndexTableName(new Text(tableName));
+        }
+        
+        this.nGramSize = conf.getInt(NGRAM_INDEX_SIZE, DEFAULT_NGRAM_SIZE);
+        if (this.nGramSize < 1) {
+            throw new IllegalArgumentException(NGRAM_INDEX_SIZE + " must be at least 1, but was " + this.nGramSize);
+        }
+        
+        this.nGramFields = new HashSet<>(conf.getTrimmedStringCollection(NGRAM_INDEX_FIELDS));
+    }
+    
+    @Override
+    public String[] getTableNames(Configuration conf) {
+        List<String> tableNames = new ArrayList<>(1);
+        String tableName = conf.get(NGRAM_INDEX_TNAME, null);
+        if (null != tableName)
+            tableNames.add(tableName);
+        
+        return tableNames.toArray(new String[tableNames.size()]);
+    }
+    
+    @Override
+    public int[] getTableLoaderPriorities(Configuration conf) {
+        String tableName = conf.get(NGRAM_INDEX_TNAME, null);
+        if (null != tableName) {
+            return new int[] {conf.getInt(NGRAM_INDEX_LPRIORITY, 30)};
+        } else {
+            return new int[0];
+        }
+    }
+    
+    @Override
+    public Multimap<BulkIngestKey,Value> processBulk(KEYIN keyin, RawRecordContainer event, Multimap<String,NormalizedContentInterface> eventFields,
+                    StatusReporter reporter) {
+        Multimap<BulkIngestKey,Value> values = HashMultimap.create();
+        if (null == getNGramIndexTableName() || null == eventFields || eventFields.isEmpty()) {
+            return values;
+        }
+        
+        IngestHelperInterface helper = getHelper(event.getDataType());
+        if (helper.getDeleteMode()) {
+            return values;
+        }
+        boolean replaceMalformedUTF8 = helper.getReplaceMalformedUTF8();
+        String dataType = event.getDataType().outputName();
+        
+        // the semantics of an entry are to the day at most, so truncate the timestamp to let identical entries reduce together
+        long ts = (event.getDate() / MS_PER_DAY) * MS_PER_DAY;
+        
+        for (String field : eventFields.keySet()) {
+            if (!helper.isIndexedField(field) || (!nGramFields.isEmpty() && !nGramFields.contains(field))) {
+                continue;
+            }
+            
+            Text colf = new Text(field);
+            for (NormalizedContentInterface nci : eventFields.get(field)) {
+                String fieldValue = nci.getIndexedFieldValue();
+                if (StringUtils.isEmpty(fieldValue)) {
+                    continue;
+                }
+                
+                Text colq = new Text(fieldValue);
+                TextUtil.textAppend(colq, dataType, replaceMalformedUTF8);
+                ColumnVisibility visibility = getVisibility(event, nci);
+                
+                for (String nGram : getNGrams(fieldValue, nGramSize)) {
+                    Key key = new Key(new Text(nGram), colf, colq, visibility, ts);
+                    values.put(new BulkIngestKey(getNGramIndexTableName(), key), NULL_VALUE);
+                }
+            }
+        }
+        
+        if (log.isTraceEnabled()) {
+            log.trace("Created " + values.size() + " n-gram index entries for event " + event.getId());
+        }
+        
+        return values;
+    }
+    
+    /**
+     * Get the distinct n-grams of a value, in the order they occur
+     * 
+     * @param value
+     * @param size
+     *            the number of characters in an n-gram
+     * @return the n-grams, or an empty set if the value is shorter than the n-gram size
+     */
+    public static Set<String> getNGrams(String value, int size) {
+        Set<String> nGrams = new LinkedHashSet<>();
+        int[] offsets = value.codePoints().map(c -> Character.charCount(c)).toArray();
+        int start = 0;
+        for (int i = 0; i + size <= offsets.length; i++) {
+            int end = start;
+            for (int j = i; j < i + size; j++) {
+                end += offsets[j];
+            }
+            nGrams.add(value.substring(start, end));
+            start += offsets[i];
+        }
+        return nGrams;
+    }
+    
+    /**
+     * A helper routine to determine the visibility for a field.
+     * 
+     * @param event
+     * @param value
+     * @return the visibility
+     */
+    protected ColumnVisibility getVisibility(RawRecordContainer event, NormalizedContentInterface value) {
+        ColumnVisibility visibility = event.getVisibility();
+        if (value.getMarkings() != null && !value.getMarkings().isEmpty()) {
+            try {
+                visibility = markingFunctions.translateToColumnVisibility(value.getMarkings());
+            } catch (MarkingFunctions.Exception e) {
+                throw new RuntimeException("Cannot convert record-level markings into a column visibility", e);
+            }
+        }
+        return visibility;
+    }
+    
+    public Text getNGramIndexTableName() {
+        return nGramIndexTableName;
+    }
+    
+    public void setNGramIndexTableName(Text nGramIndexTableName) {
+        this.nGramIndexTableName = nGramIndexTableName;
+    }
+    
+    @Override
+    public IngestHelperInterface getHelper(Type type) {
+        return type.getIngestHelper(conf);
+    }
+    
+    @Override
+    public void close(TaskAttemptContext context) {}
+    
+    @Override
+    public RawRecordMetadata getMetadata() {
+        return null;
+    }
+}
@@ -0,0 +1,148 @@
+package datawave.ingest.mapreduce.handler.stats;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.apache.accumulo.core.data.Value;
+import org.apache.hadoop.io.WritableUtils;
+
+import com.clearspring.analytics.stream.cardinality.CardinalityMergeException;
+import com.clearspring.analytics.stream.cardinality.HyperLogLogPlus;
+
+/**
+ * A mergeable summary of the values of a field for one day and datatype: the total number of values and a {@link HyperLogLogPlus} estimate of the number of
+ * distinct values. Since two sketches of the same precision merge into the sketch of the combined values, they can be written incrementally at ingest time and
+ * combined in the stats table, instead of recomputing the statistics from the whole shard table.
+ */
+public class FieldSketch {
+    
+    public static final int DEFAULT_NORMAL_PRECISION = 14;
+    public static final int DEFAULT_SPARSE_PRECISION = 25;
+    
+    private long count;
+    private final HyperLogLogPlus hyperLog;
+    
+    public FieldSketch() {
+        this(DEFAULT_NORMAL_PRECISION, DEFAULT_SPARSE_PRECISION);
+    }
+    
+    public FieldSketch(int normalPrecision, int sparsePrecision) {
+        this(0, new HyperLogLogPlus(normalPrecision, sparsePrecision));
+    }
+    
+    private FieldSketch(long count, HyperLogLogPlus hyperLog) {
+        this.count = count;
+        this.hyperLog = hyperLog;
+    }
+    
+    /**
+     * Adds a value of the field to the sketch
+     * 
+     * @param value
+     *            the normalized field value
+     */
+    public void offer(String value) {
+        count++;
+        hyperLog.offer(value);
+    }
+    
+    /**
+     * Merges another sketch into this one
+     * 
+     * @param other
+     *            a sketch built with the same precisions
+     * @throws IllegalArgumentException
+     *             if the precisions of the sketches differ
+     */
+    public void merge(FieldSketch other) {
+        try {
+            hyperLog.addAll(other.hyperLog);
+        } catch (CardinalityMergeException e) {
+            throw new IllegalArgumentException("Unable to merge field sketches", e);
+        }
+        count += other.count;
+    }
+    
+    /**
+     * @return the total number of values
+     */
+    public long getCount() {
+        return count;
+    }
+    
+    /**
+     * @return the estimated number of distinct values, never more than the total
+     */
+    public long getCardinality() {
+        return Math.min(count, hyperLog.cardinality());
+    }
+    
+    /**
+     * @return the fraction of the values which are distinct, or 0 if there are no values
+     */
+    public double getSelectivity() {
+        return count == 0 ? 0 : (double) getCardinality() / count;
+    }
+    
+    public Value toValue() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            WritableUtils.writeVLong(out, count);
+            byte[] hyperLogBytes = hyperLog.getBytes();
+            WritableUtils.writeVInt(out, hyperLogBytes.length);
+            out.write(hyperLogBytes);
+            out.flush();
+            return new Value(bytes.toByteArray(), false);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to serialize field sketch", e);
+        }
+    }
+    
+    /**
+     * Reads a sketch written by {@link #toValue()}
+     * 
+     * @param value
+     *            the serialized sketch
+     * @return the sketch
+     * @throws IOException
+     *             if the value is not a serialized sketch
+     */
+    public static FieldSketch fromValue(Value value) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(value.get()));
+        long count = WritableUtils.readVLong(in);
+        byte[] hyperLogBytes = new byte[WritableUtils.readVInt(in)];
+        in.readFully(hyperLogBytes);
+        return new FieldSketch(count, HyperLogLogPlus.Builder.build(hyperLogBytes));
+    }
+    
+    /**
+     * Merges the sketches of several days or datatypes, as read from the stats table, into one
+     * 
+     * @param values
+     *            the serialized sketches
+     * @return the merged sketch, or null if there were none
+     * @throws IOException
+     *             if a value is not a serialized sketch
+     */
+    public static FieldSketch merge(Iterable<Value> values) throws IOException {
+        FieldSketch merged = null;
+        for (Value value : values) {
+            FieldSketch sketch = fromValue(value);
+            if (merged == null) {
+                merged = sketch;
+            } else {
+                merged.merge(sketch);
+            }
+        }
+        return merged;
+    }
+    
+    @Override
+    public String toString() {
+        return "count=" + count + ", cardinality=" + getCardinality();
+    }
+}
@@ -0,0 +1,238 @@
+package datawave.ingest.mapreduce.handler.stats;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import datawave.ingest.data.RawRecordContainer;
+import datawave.ingest.data.Type;
+import datawave.ingest.data.config.NormalizedContentInterface;
+import datawave.ingest.data.config.ingest.IngestHelperInterface;
+import datawave.ingest.mapreduce.handler.DataTypeHandler;
+import datawave.ingest.mapreduce.handler.shard.ShardIdFactory;
+import datawave.ingest.mapreduce.job.BulkIngestKey;
+import datawave.ingest.metadata.RawRecordMetadata;
+import datawave.webservice.common.logging.ThreadConfigurableLogger;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.security.ColumnVisibility;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.StatusReporter;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.log4j.Logger;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+
+/**
+ * <p>
+ * Incrementally maintains the field statistics of the shard table at ingest time. For each indexed field of each event, the field value is added to a
+ * {@link FieldSketch} for the field, the day of the event's shard and the datatype. The sketches are accumulated in memory by the metadata mechanism and
+ * written to the field sketch table, where the {@link datawave.ingest.table.aggregator.FieldSketchAggregator} merges the sketches of every ingest job. The
+ * statistics of any range of days can then be read by merging the sketches of those days, instead of recomputing them from the shard table.
+ * 
+ * <p>
+ * This class creates the following Key/Values: <br>
+ * <br>
+ * <table border="1" summary="">
+ * <tr>
+ * <th>Schema Type</th>
+ * <th>Use</th>
+ * <th>Row</th>
+ * <th>Column Family</th>
+ * <th>Column Qualifier</th>
+ * <th>Value</th>
+ * </tr>
+ * <tr>
+ * <td>field sketch</td>
+ * <td>field statistics for a day</td>
+ * <td>field name</td>
+ * <td>shard date (yyyyMMdd)</td>
+ * <td>datatype</td>
+ * <td>serialized {@link FieldSketch}</td>
+ * </tr>
+ * </table>
+ * 
+ * <p>
+ * The table with the name specified by {@link #FIELD_SKETCH_TNAME} will be the field sketch table.
+ * 
+ * @param <KEYIN>
+ */
+public class FieldSketchDataTypeHandler<KEYIN> implements DataTypeHandler<KEYIN>, RawRecordMetadata {
+    
+    private static final Logger log = ThreadConfigurableLogger.getLogger(FieldSketchDataTypeHandler.class);
+    
+    public static final String FIELD_SKETCH_TNAME = "field.sketch.table.name";
+    public static final String FIELD_SKETCH_LPRIORITY = "field.sketch.table.loader.priority";
+    
+    // visibility of the sketches, which summarize values of many visibilities
+    public static final String FIELD_SKETCH_VISIBILITY = "field.sketch.visibility";
+    
+    public static final String FIELD_SKETCH_NORMAL_PRECISION = "field.sketch.hyperlog.normal";
+    public static final String FIELD_SKETCH_SPARSE_PRECISION = "field.sketch.hyperlog.sparse";
+    
+    protected Text fieldSketchTableName = null;
+    protected ColumnVisibility visibility = new ColumnVisibility();
+    protected int normalPrecision = FieldSketch.DEFAULT_NORMAL_PRECISION;
+    protected int sparsePrecision = FieldSketch.DEFAULT_SPARSE_PRECISION;
+    protected Configuration conf = null;
+    protected ShardIdFactory shardIdFactory = null;
+    
+    /**
+     * The sketches accumulated since the last clear, merged in place rather than serialized per event
+     */
+    private Map<Key,FieldSketch> sketches = new HashMap<>();
+    
+    @Override
+    public void setup(TaskAttemptContext context) {
+        this.conf = context.getConfiguration();
+        this.shardIdFactory = new ShardIdFactory(conf);
+        
+        String tableName = conf.get(FIELD_SKETCH_TNAME, null);
+        if (null == tableName) {
+            log.error(FIELD_SKETCH_TNAME + " not specified, no field sketches will be created");
+        } else {
+            setFieldSketchTableName(new Text(tableName));
+        }
+        
+        this.visibility = new ColumnVisibility(conf.get(FIELD_SKETCH_VISIBILITY, ""));
+        this.normalPrecision = conf.getInt(FIELD_SKETCH_NORMAL_PRECISION, this.normalPrecision);
+        this.sparsePrecision = conf.getInt(FIELD_SKETCH_SPARSE_PRECISION, this.sparsePrecision);
+    }
+    
+    @Override
+    public String[] getTableNames(Configuration conf) {
+        List<String> tableNames = new ArrayList<>(1);
+        String tableName = conf.get(FIELD_SKETCH_TNAME, null);
+        if (null != tableName)
+            tableNames.add(tableName);
+        
+        return tableNames.toArray(new String[tableNames.size()]);
+    }
+    
+    @Override
+    public int[] getTableLoaderPriorities(Configuration conf) {
+        String tableName = conf.get(FIELD_SKETCH_TNAME, null);
+        if (null != tableName) {
+            return new int[] {conf.getInt(FIELD_SKETCH_LPRIORITY, 30)};
+        } else {
+            return new int[0];
+        }
+    }
+    
+    /**
+     * Creates entries for the field sketch table, well not really. The keys are created by the metadata mechanism as they are small once reduced. @see
+     * RawRecordMetadata implementation contained herein.
+     */
+    @Override
+    public Multimap<BulkIngestKey,Value> processBulk(KEYIN keyin, RawRecordContainer event, Multimap<String,NormalizedContentInterface> eventFields,
+                    StatusReporter reporter) {
+        return HashMultimap.create();
+    }
+    
+    /**
+     * Adds the indexed field values of an event to the sketches of its day and datatype
+     * 
+     * @param helper
+     * @param event
+     * @param eventFields
+     */
+    private void addSketches(IngestHelperInterface helper, RawRecordContainer event, Multimap<String,NormalizedContentInterface> eventFields) {
+        if (null == getFieldSketchTableName() || null == eventFields || eventFields.isEmpty()) {
+            return;
+        }
+        
+        String shardId = shardIdFactory.getShardId(event);
+        String shardDate = ShardIdFactory.getDateString(shardId);
+        String dataType = event.getDataType().outputName();
+        
+        Set<String> indexed = new HashSet<>();
+        for (String field : eventFields.keySet()) {
+            if (helper == null || helper.isIndexedField(field)) {
+                indexed.add(field);
+            }
+        }
+        
+        for (String field : indexed) {
+            Key key = new Key(new Text(field), new Text(shardDate), new Text(dataType), visibility, 0);
+            FieldSketch sketch = sketches.get(key);
+            if (sketch == null) {
+                sketch = new FieldSketch(normalPrecision, sparsePrecision);
+                sketches.put(key, sketch);
+            }
+            for (NormalizedContentInterface nci : eventFields.get(field)) {
+                sketch.offer(nci.getIndexedFieldValue());
+            }
+        }
+        
+        if (log.isTraceEnabled()) {
+            log.trace("Added " + indexed.size() + " fields of event in " + shardId + " to the field sketches");
+        }
+    }
+    
+    public Text getFieldSketchTableName() {
+        return fieldSketchTableName;
+    }
+    
+    public void setFieldSketchTableName(Text fieldSketchTableName) {
+        this.fieldSketchTableName = fieldSketchTableName;
+    }
+    
+    @Override
+    public RawRecordMetadata getMetadata() {
+        return this;
+    }
+    
+    /**
+     * helper object
+     * 
+     * @return helper object used in the subclass
+     */
+    @Override
+    public IngestHelperInterface getHelper(Type type) {
+        return type.getIngestHelper(conf);
+    }
+    
+    @Override
+    public void close(TaskAttemptContext context) {}
+    
+    @Override
+    public void addEvent(IngestHelperInterface helper, RawRecordContainer event, Multimap<String,NormalizedContentInterface> fields, long loadTimeInMillis) {
+        addSketches(helper, event, fields);
+    }
+    
+    @Override
+    public void addEvent(IngestHelperInterface helper, RawRecordContainer event, Multimap<String,NormalizedContentInterface> fields) {
+        addSketches(helper, event, fields);
+    }
+    
+    @Override
+    public void addEventWithoutLoadDates(IngestHelperInterface helper, RawRecordContainer event, Multimap<String,NormalizedContentInterface> fields) {
+        addSketches(helper, event, fields);
+    }
+    
+    @Override
+    public void addEvent(IngestHelperInterface helper, RawRecordContainer event, Multimap<String,NormalizedContentInterface> fields, boolean frequency) {
+        addSketches(helper, event, fields);
+    }
+    
+    @Override
+    public Multimap<BulkIngestKey,Value> getBulkMetadata() {
+        Multimap<BulkIngestKey,Value> metadata = HashMultimap.create();
+        for (Map.Entry<Key,FieldSketch> entry : sketches.entrySet()) {
+            metadata.put(new BulkIngestKey(getFieldSketchTableName(), entry.getKey()), entry.getValue().toValue());
+        }
+        return metadata;
+    }
+    
+    @Override
+    public void clear() {
+        sketches = new HashMap<>();
+    }
+    
+}
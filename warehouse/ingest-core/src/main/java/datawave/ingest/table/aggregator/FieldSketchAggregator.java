@@ -0,0 +1,82 @@
+package datawave.ingest.table.aggregator;
+
+import java.io.IOException;
+import java.util.Iterator;
+
+import datawave.ingest.mapreduce.handler.stats.FieldSketch;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.log4j.Logger;
+
+/**
+ * Implementation of an Aggregator that merges {@link FieldSketch} values, so that the per day field statistics written by each ingest job add up to the
+ * statistics of all of the data ingested for that day. Values which cannot be read are counted and dropped rather than failing the compaction, and a key with
+ * no readable values is not propogated.
+ */
+public class FieldSketchAggregator extends PropogatingCombiner {
+    
+    private static final Logger log = Logger.getLogger(FieldSketchAggregator.class);
+    
+    /**
+     * The number of unreadable values dropped by this aggregator
+     */
+    private long droppedValues = 0;
+    
+    /**
+     * Whether the last reduce read any values
+     */
+    private boolean readable = true;
+    
+    @Override
+    public Value reduce(Key key, Iterator<Value> iter) {
+        FieldSketch merged = null;
+        int dropped = 0;
+        while (iter.hasNext()) {
+            Value value = iter.next();
+            try {
+                FieldSketch sketch = FieldSketch.fromValue(value);
+                if (merged == null) {
+                    merged = sketch;
+                } else {
+                    merged.merge(sketch);
+                }
+            } catch (IOException | RuntimeException e) {
+                dropped++;
+                if (log.isDebugEnabled()) {
+                    log.debug("Unreadable field sketch for " + key, e);
+                }
+            }
+        }
+        if (dropped > 0) {
+            droppedValues += dropped;
+            log.error("Dropped " + dropped + " unreadable field sketches for " + key + ", " + droppedValues + " dropped in total");
+        }
+        
+        readable = (merged != null);
+        // an empty sketch merges with later values as if nothing had been written
+        return readable ? merged.toValue() : new FieldSketch().toValue();
+    }
+    
+    /**
+     * @return the number of unreadable values dropped by this aggregator
+     */
+    public long getDroppedValues() {
+        return droppedValues;
+    }
+    
+    @Override
+    public void reset() {
+        readable = true;
+    }
+    
+    /*
+     * (non-Javadoc)
+     * 
+     * @see datawave.ingest.table.aggregator.PropogatingAggregator#propogateKey()
+     */
+    @Override
+    public boolean propogateKey() {
+        return readable;
+    }
+}
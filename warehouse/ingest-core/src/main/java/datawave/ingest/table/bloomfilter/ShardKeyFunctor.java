@@ -86,8 +86,52 @@ public class ShardKeyFunctor implements KeyFunctor {
          * If the end key is precisely the key immediately after the start key including everything up to the deleted flag, then we should consider the bloom
          * filter.
          */
-        return range.getStartKey().followingKey(PartialKey.ROW_COLFAM_COLQUAL).equals(range.getEndKey(), PartialKey.ROW_COLFAM_COLQUAL_COLVIS_TIME)
-                        && !range.isEndKeyInclusive();
+        if (range.getStartKey().followingKey(PartialKey.ROW_COLFAM_COLQUAL).equals(range.getEndKey(), PartialKey.ROW_COLFAM_COLQUAL_COLVIS_TIME)
+                        && !range.isEndKeyInclusive())
+            return true;
+        
+        /**
+         * If every key in the range is for the same field value, which is how the query iterators seek the field index for a term within a shard, then we
+         * should consider the bloom filter.
+         */
+        return isRangeWithinFieldValue(range);
+    }
+    
+    /**
+     * Determine whether every key in the range has the field value of the start key. This is the case when the start and end keys share a row and column
+     * family, the start key has a value\0datatype\0uid column qualifier, and the end key's column qualifier either begins with the same value\0 or is the
+     * exclusive value\1 that follows all of them.
+     * 
+     * @param range
+     * @return true if the range is within a single field value, false otherwise
+     */
+    static boolean isRangeWithinFieldValue(Range range) {
+        org.apache.accumulo.core.data.Key start = range.getStartKey();
+        org.apache.accumulo.core.data.Key end = range.getEndKey();
+        if (!start.equals(end, PartialKey.ROW_COLFAM)) {
+            return false;
+        }
+        
+        ByteSequence startCq = start.getColumnQualifierData();
+        int index = getIndexOf(startCq, (byte) 0);
+        if (index == startCq.length()) {
+            return false;
+        }
+        
+        ByteSequence endCq = end.getColumnQualifierData();
+        if (endCq.length() > index && startsWith(endCq, startCq, index)) {
+            return endCq.byteAt(index) == 0 || (endCq.byteAt(index) == 1 && endCq.length() == index + 1 && !range.isEndKeyInclusive());
+        }
+        return false;
+    }
+    
+    private static boolean startsWith(ByteSequence bytes, ByteSequence prefix, int length) {
+        for (int i = 0; i < length; i++) {
+            if (bytes.byteAt(i) != prefix.byteAt(i)) {
+                return false;
+            }
+        }
+        return true;
     }
     
     /**
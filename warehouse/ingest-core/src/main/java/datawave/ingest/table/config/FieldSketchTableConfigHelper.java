@@ -0,0 +1,44 @@
+package datawave.ingest.table.config;
+
+import org.apache.accumulo.core.client.AccumuloException;
+import org.apache.accumulo.core.client.AccumuloSecurityException;
+import org.apache.accumulo.core.client.TableNotFoundException;
+import org.apache.accumulo.core.client.admin.TableOperations;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.iterators.IteratorUtil.IteratorScope;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.log4j.Logger;
+
+/**
+ * Configures the table written by the {@link datawave.ingest.mapreduce.handler.stats.FieldSketchDataTypeHandler}, merging the field sketches of each key at
+ * scan and compaction time.
+ */
+public class FieldSketchTableConfigHelper extends AbstractTableConfigHelper {
+    
+    protected Logger log;
+    
+    protected Configuration conf;
+    protected String tableName;
+    
+    @Override
+    public void setup(String tableName, Configuration config, Logger log) throws IllegalArgumentException {
+        this.log = log;
+        this.conf = config;
+        this.tableName = tableName;
+        
+        if (this.tableName == null) {
+            throw new IllegalArgumentException("No FieldSketch Table Defined");
+        }
+    }
+    
+    @Override
+    public void configure(TableOperations tops) throws AccumuloException, AccumuloSecurityException, TableNotFoundException {
+        // Add the sketch aggregator
+        for (IteratorScope scope : IteratorScope.values()) {
+            String stem = String.format("%s%s.%s", Property.TABLE_ITERATOR_PREFIX, scope.name(), "SKETCHAggregator");
+            setPropertyIfNecessary(tableName, stem, "19,datawave.iterators.TotalAggregatingIterator", tops, log);
+            stem += ".opt.";
+            setPropertyIfNecessary(tableName, stem + "*", "datawave.ingest.table.aggregator.FieldSketchAggregator", tops, log);
+        }
+    }
+}
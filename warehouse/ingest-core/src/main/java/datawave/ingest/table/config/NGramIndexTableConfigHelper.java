@@ -0,0 +1,44 @@
+package datawave.ingest.table.config;
+
+import org.apache.accumulo.core.client.AccumuloException;
+import org.apache.accumulo.core.client.AccumuloSecurityException;
+import org.apache.accumulo.core.client.TableNotFoundException;
+import org.apache.accumulo.core.client.admin.TableOperations;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.iterators.IteratorUtil.IteratorScope;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.log4j.Logger;
+
+/**
+ * Configures the table written by the {@link datawave.ingest.mapreduce.handler.shard.NGramIndexDataTypeHandler}. The same value is written again for every day
+ * it is seen, differing only by timestamp, so only the latest version of each entry is kept.
+ */
+public class NGramIndexTableConfigHelper extends AbstractTableConfigHelper {
+    
+    protected Logger log;
+    
+    protected Configuration conf;
+    protected String tableName;
+    
+    @Override
+    public void setup(String tableName, Configuration config, Logger log) throws IllegalArgumentException {
+        this.log = log;
+        this.conf = config;
+        this.tableName = tableName;
+        
+        if (this.tableName == null) {
+            throw new IllegalArgumentException("No NGramIndex Table Defined");
+        }
+    }
+    
+    @Override
+    public void configure(TableOperations tops) throws AccumuloException, AccumuloSecurityException, TableNotFoundException {
+        for (IteratorScope scope : IteratorScope.values()) {
+            String stem = String.format("%s%s.%s", Property.TABLE_ITERATOR_PREFIX, scope.name(), "vers");
+            setPropertyIfNecessary(tableName, stem + ".opt.maxVersions", "1", tops, log);
+        }
+        
+        // n-grams are always scanned by row, so there are no point lookups for a bloom filter to help with
+        setPropertyIfNecessary(tableName, Property.TABLE_BLOOM_ENABLED.getKey(), Boolean.toString(false), tops, log);
+    }
+}
@@ -0,0 +1,131 @@
+package datawave.ingest.mapreduce.handler.shard;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import datawave.ingest.data.RawRecordContainer;
+import datawave.ingest.data.Type;
+import datawave.ingest.data.config.NormalizedContentInterface;
+import datawave.ingest.data.config.NormalizedFieldAndValue;
+import datawave.ingest.data.config.ingest.IngestHelperInterface;
+import datawave.ingest.mapreduce.job.BulkIngestKey;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.security.ColumnVisibility;
+import org.apache.hadoop.io.Text;
+import org.easymock.EasyMock;
+import org.junit.Test;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class NGramIndexDataTypeHandlerTest {
+    
+    @Test
+    public void testGetNGrams() {
+        assertEquals(Arrays.asList("abc", "bcd", "cde"), new ArrayList<>(NGramIndexDataTypeHandler.getNGrams("abcde", 3)));
+        
+        // repeated n-grams are only written once
+        assertEquals(Arrays.asList("aaa"), new ArrayList<>(NGramIndexDataTypeHandler.getNGrams("aaaaa", 3)));
+        
+        // too short to have any n-grams
+        assertTrue(NGramIndexDataTypeHandler.getNGrams("ab", 3).isEmpty());
+        
+        // supplementary characters are never split
+        String clef = new String(Character.toChars(0x1D11E));
+        assertEquals(Arrays.asList("a" + clef + "b", clef + "bc"), new ArrayList<>(NGramIndexDataTypeHandler.getNGrams("a" + clef + "bc", 3)));
+    }
+    
+    @Test
+    public void testProcessBulk() {
+        // 2020-01-02T03:04:05Z, truncated to the day
+        long date = 1577934245000L;
+        long day = 1577923200000L;
+        
+        Multimap<String,NormalizedContentInterface> eventFields = HashMultimap.create();
+        eventFields.put("FOO", field("FOO", "abcd"));
+        eventFields.put("FOO", field("FOO", "ab"));
+        eventFields.put("BAR", field("BAR", "xyz"));
+        eventFields.put("UNINDEXED", field("UNINDEXED", "abcd"));
+        
+        Multimap<BulkIngestKey,Value> values = createHandler(false).processBulk(null, createEvent(date), eventFields, null);
+        
+        Set<String> entries = new HashSet<>();
+        for (BulkIngestKey bulkKey : values.keySet()) {
+            Key key = bulkKey.getKey();
+            assertEquals("ngramIndex", bulkKey.getTableName().toString());
+            assertEquals("A&B", key.getColumnVisibility().toString());
+            assertEquals(day, key.getTimestamp());
+            assertFalse(key.isDeleted());
+            entries.add(key.getRow() + " " + key.getColumnFamily() + " " + key.getColumnQualifier().toString().replace('\0', ':'));
+        }
+        
+        // values shorter than the n-gram size and unindexed fields are left out
+        assertEquals(new HashSet<>(Arrays.asList("abc FOO abcd:testdatatype", "bcd FOO abcd:testdatatype", "xyz BAR xyz:testdatatype")), entries);
+    }
+    
+    @Test
+    public void testProcessBulkLimitedFields() {
+        NGramIndexDataTypeHandler<Text> handler = createHandler(false);
+        handler.nGramFields = Collections.singleton("BAR");
+        
+        Multimap<String,NormalizedContentInterface> eventFields = HashMultimap.create();
+        eventFields.put("FOO", field("FOO", "abcd"));
+        eventFields.put("BAR", field("BAR", "xyz"));
+        
+        Multimap<BulkIngestKey,Value> values = handler.processBulk(null, createEvent(0L), eventFields, null);
+        assertEquals(1, values.size());
+        assertEquals("xyz", values.keySet().iterator().next().getKey().getRow().toString());
+    }
+    
+    @Test
+    public void testProcessBulkDeletes() {
+        // entries are shared by every document with the value, so a delete must not remove them
+        Multimap<String,NormalizedContentInterface> eventFields = HashMultimap.create();
+        eventFields.put("FOO", field("FOO", "abcd"));
+        
+        assertTrue(createHandler(true).processBulk(null, createEvent(0L), eventFields, null).isEmpty());
+    }
+    
+    private static NGramIndexDataTypeHandler<Text> createHandler(boolean deleteMode) {
+        IngestHelperInterface helper = EasyMock.createMock(IngestHelperInterface.class);
+        EasyMock.expect(helper.getDeleteMode()).andReturn(deleteMode).anyTimes();
+        EasyMock.expect(helper.getReplaceMalformedUTF8()).andReturn(false).anyTimes();
+        EasyMock.expect(helper.isIndexedField("FOO")).andReturn(true).anyTimes();
+        EasyMock.expect(helper.isIndexedField("BAR")).andReturn(true).anyTimes();
+        EasyMock.expect(helper.isIndexedField("UNINDEXED")).andReturn(false).anyTimes();
+        EasyMock.replay(helper);
+        
+        NGramIndexDataTypeHandler<Text> handler = new NGramIndexDataTypeHandler<Text>() {
+            @Override
+            public IngestHelperInterface getHelper(Type type) {
+                return helper;
+            }
+        };
+        handler.setNGramIndexTableName(new Text("ngramIndex"));
+        return handler;
+    }
+    
+    private static RawRecordContainer createEvent(long date) {
+        RawRecordContainer event = EasyMock.createMock(RawRecordContainer.class);
+        EasyMock.expect(event.getDataType()).andReturn(new Type("testdatatype", null, null, null, 4, null)).anyTimes();
+        EasyMock.expect(event.getDate()).andReturn(date).anyTimes();
+        EasyMock.expect(event.getVisibility()).andReturn(new ColumnVisibility("A&B")).anyTimes();
+        EasyMock.replay(event);
+        return event;
+    }
+    
+    private static NormalizedContentInterface field(String name, String value) {
+        NormalizedContentInterface field = new NormalizedFieldAndValue(name, value);
+        field.setIndexedFieldValue(value);
+        return field;
+    }
+}
@@ -0,0 +1,154 @@
+package datawave.ingest.mapreduce.handler.stats;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import datawave.data.normalizer.DateNormalizer;
+import datawave.ingest.data.RawRecordContainer;
+import datawave.ingest.data.RawRecordContainerImplTest;
+import datawave.ingest.data.TypeRegistry;
+import datawave.ingest.data.config.BaseNormalizedContent;
+import datawave.ingest.data.config.DataTypeHelper.Properties;
+import datawave.ingest.data.config.NormalizedContentInterface;
+import datawave.ingest.data.config.ingest.BaseIngestHelper;
+import datawave.ingest.data.config.ingest.IngestHelperInterface;
+import datawave.ingest.mapreduce.job.BulkIngestKey;
+import datawave.policy.IngestPolicyEnforcer;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.security.ColumnVisibility;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.task.TaskAttemptContextImpl;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+
+public class FieldSketchDataTypeHandlerTest {
+    
+    private static final String SKETCH_TABLE = "fieldSketch";
+    
+    private Configuration conf;
+    private FieldSketchDataTypeHandler<Text> handler;
+    private IngestHelperInterface helper;
+    
+    @Before
+    public void setup() {
+        conf = new Configuration();
+        conf.set("num.shards", "11");
+        conf.set("data.name", "testdatatype");
+        conf.set("testdatatype.ingest.helper.class", TestIngestHelper.class.getName());
+        conf.set("testdatatype.handler.classes", FieldSketchDataTypeHandler.class.getName());
+        conf.set("testdatatype" + BaseIngestHelper.INDEX_FIELDS, "COLOR,SHAPE");
+        conf.set("all" + Properties.INGEST_POLICY_ENFORCER_CLASS, IngestPolicyEnforcer.NoOpIngestPolicyEnforcer.class.getName());
+        
+        conf.set(FieldSketchDataTypeHandler.FIELD_SKETCH_TNAME, SKETCH_TABLE);
+        conf.set(FieldSketchDataTypeHandler.FIELD_SKETCH_VISIBILITY, "PUBLIC");
+        
+        TypeRegistry.reset();
+        TypeRegistry.getInstance(conf);
+        helper = TypeRegistry.getType("testdatatype").getIngestHelper(conf);
+        
+        handler = new FieldSketchDataTypeHandler<>();
+        handler.setup(new TaskAttemptContextImpl(conf, new TaskAttemptID()));
+    }
+    
+    @Test
+    public void testSketchesPerFieldAndDay() throws IOException {
+        Assert.assertArrayEquals(new String[] {SKETCH_TABLE}, handler.getTableNames(conf));
+        
+        RawRecordContainer event = getEvent("2013-04-30T11:53:11Z");
+        
+        // nothing is written per event, the sketches are accumulated in the metadata
+        Assert.assertEquals(0, handler.processBulk(new Text("1"), event, getFields("red", "circle", "ignored"), null).size());
+        
+        handler.getMetadata().addEvent(helper, event, getFields("red", "circle", "ignored"));
+        handler.getMetadata().addEvent(helper, event, getFields("red", "square", "ignored"));
+        handler.getMetadata().addEvent(helper, getEvent("2013-05-01T00:00:00Z"), getFields("blue", "circle", "ignored"));
+        
+        // only the indexed fields are sketched, once per field, day and datatype
+        Map<String,FieldSketch> sketches = getSketches(handler.getMetadata().getBulkMetadata());
+        Assert.assertEquals(4, sketches.size());
+        
+        FieldSketch color = sketches.get("COLOR/20130430");
+        Assert.assertEquals(2, color.getCount());
+        Assert.assertEquals(1, color.getCardinality());
+        
+        FieldSketch shape = sketches.get("SHAPE/20130430");
+        Assert.assertEquals(2, shape.getCount());
+        Assert.assertEquals(2, shape.getCardinality());
+        
+        Assert.assertEquals(1, sketches.get("COLOR/20130501").getCount());
+        Assert.assertEquals(1, sketches.get("SHAPE/20130501").getCount());
+        
+        // clear starts new sketches
+        handler.getMetadata().clear();
+        Assert.assertEquals(0, handler.getMetadata().getBulkMetadata().size());
+        handler.getMetadata().addEvent(helper, event, getFields("green", "circle", "ignored"));
+        Assert.assertEquals(1, getSketches(handler.getMetadata().getBulkMetadata()).get("COLOR/20130430").getCount());
+    }
+    
+    @Test
+    public void testNoTable() {
+        FieldSketchDataTypeHandler<Text> noTable = new FieldSketchDataTypeHandler<>();
+        Configuration noTableConf = new Configuration(conf);
+        noTableConf.unset(FieldSketchDataTypeHandler.FIELD_SKETCH_TNAME);
+        noTable.setup(new TaskAttemptContextImpl(noTableConf, new TaskAttemptID()));
+        
+        Assert.assertEquals(0, noTable.getTableNames(noTableConf).length);
+        noTable.getMetadata().addEvent(helper, getEvent("2013-04-30T11:53:11Z"), getFields("red", "circle", "ignored"));
+        Assert.assertEquals(0, noTable.getMetadata().getBulkMetadata().size());
+    }
+    
+    /**
+     * @return the sketches by field and day, checking the rest of each key
+     */
+    private static Map<String,FieldSketch> getSketches(Multimap<BulkIngestKey,Value> metadata) throws IOException {
+        Map<String,FieldSketch> sketches = new HashMap<>();
+        for (Map.Entry<BulkIngestKey,Value> entry : metadata.entries()) {
+            Assert.assertEquals(SKETCH_TABLE, entry.getKey().getTableName().toString());
+            Key key = entry.getKey().getKey();
+            Assert.assertEquals("testdatatype", key.getColumnQualifier().toString());
+            Assert.assertEquals("PUBLIC", key.getColumnVisibility().toString());
+            Assert.assertNull(sketches.put(key.getRow() + "/" + key.getColumnFamily(), FieldSketch.fromValue(entry.getValue())));
+        }
+        return sketches;
+    }
+    
+    private static Multimap<String,NormalizedContentInterface> getFields(String color, String shape, String other) {
+        Multimap<String,NormalizedContentInterface> fields = HashMultimap.create();
+        fields.put("COLOR", new BaseNormalizedContent("COLOR", color));
+        fields.put("SHAPE", new BaseNormalizedContent("SHAPE", shape));
+        fields.put("OTHER", new BaseNormalizedContent("OTHER", other));
+        return fields;
+    }
+    
+    private static final DateNormalizer dateNormalizer = new DateNormalizer();
+    
+    private static RawRecordContainer getEvent(String date) {
+        RawRecordContainerImplTest.ValidatingRawRecordContainerImpl event = new RawRecordContainerImplTest.ValidatingRawRecordContainerImpl();
+        event.setDataType(TypeRegistry.getType("testdatatype"));
+        event.setSecurityMarkings(null);
+        event.setVisibility(new ColumnVisibility("A&B"));
+        event.setDate(dateNormalizer.denormalize(date).getTime());
+        event.setRawFileName("FieldSketchDataTypeHandlerTest.data");
+        event.setRawRecordNumber(1l);
+        event.setRawData(date.getBytes());
+        event.generateId(null);
+        event.validate();
+        return event;
+    }
+    
+    public static class TestIngestHelper extends BaseIngestHelper {
+        @Override
+        public Multimap<String,NormalizedContentInterface> getEventFields(RawRecordContainer event) {
+            return HashMultimap.create();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package datawave.ingest.table.aggregator;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import datawave.ingest.mapreduce.handler.stats.FieldSketch;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FieldSketchAggregatorTest {
+    
+    PropogatingCombiner agg = new FieldSketchAggregator();
+    
+    @Test
+    public void testMerge() throws IOException {
+        // two ingest jobs for the same day, with overlapping values
+        FieldSketch first = new FieldSketch();
+        FieldSketch second = new FieldSketch();
+        for (int i = 0; i < 1000; i++) {
+            first.offer("value" + i);
+            second.offer("value" + (i + 500));
+            second.offer("value" + (i + 500));
+        }
+        
+        Value result = agg.reduce(new Key("FIELD", "20100101", "datatype"), Arrays.asList(first.toValue(), second.toValue()).iterator());
+        FieldSketch merged = FieldSketch.fromValue(result);
+        assertEquals(3000, merged.getCount());
+        assertEquals(1500, merged.getCardinality(), 1500 * 0.05);
+        assertEquals(0.5, merged.getSelectivity(), 0.05);
+        
+        // merging again gives the same statistics, as a compaction of already combined values would
+        FieldSketch again = FieldSketch.fromValue(agg.reduce(new Key("FIELD"), Arrays.asList(result, new FieldSketch().toValue()).iterator()));
+        assertEquals(merged.getCount(), again.getCount());
+        assertEquals(merged.getCardinality(), again.getCardinality());
+    }
+    
+    @Test
+    public void testUnreadableValue() throws IOException {
+        FieldSketch sketch = new FieldSketch();
+        sketch.offer("value");
+        
+        Value result = agg.reduce(new Key("FIELD"), Arrays.asList(new Value("garbage".getBytes()), sketch.toValue()).iterator());
+        FieldSketch merged = FieldSketch.fromValue(result);
+        assertEquals(1, merged.getCount());
+        assertEquals(1, merged.getCardinality());
+        assertTrue(merged.getSelectivity() > 0);
+    }
+    
+    @Test
+    public void testUnreadableValuesDropped() throws IOException {
+        FieldSketchAggregator agg = new FieldSketchAggregator();
+        FieldSketch first = new FieldSketch();
+        first.offer("a");
+        FieldSketch second = new FieldSketch();
+        second.offer("b");
+        Key key = new Key("FIELD", "20100101", "datatype");
+        
+        // the readable values are still merged, and the key kept
+        agg.reset();
+        List<Value> values = Arrays.asList(new Value("garbage".getBytes()), first.toValue(), new Value("more garbage".getBytes()), second.toValue());
+        assertEquals(2, FieldSketch.fromValue(agg.reduce(key, values.iterator())).getCount());
+        assertTrue(agg.propogateKey());
+        assertEquals(2, agg.getDroppedValues());
+        
+        // with nothing readable the key is not propogated
+        agg.reset();
+        assertEquals(0, FieldSketch.fromValue(agg.reduce(key, Arrays.asList(new Value("garbage".getBytes())).iterator())).getCount());
+        assertFalse(agg.propogateKey());
+        assertEquals(3, agg.getDroppedValues());
+    }
+}
@@ -97,6 +97,29 @@ public class ShardKeyFunctorTest {
                         ShardKeyFunctor.isRangeInBloomFilter(new Range(cbKey1, true, cbKey2, false)));
     }
     
+    @Test
+    public void testIsRangeWithinFieldValue() {
+        org.apache.accumulo.core.data.Key start = new org.apache.accumulo.core.data.Key("row", "fi\0FIELD", "value\0datatype\0uid1");
+        org.apache.accumulo.core.data.Key end = new org.apache.accumulo.core.data.Key("row", "fi\0FIELD", "value\0datatype\0uid2\0");
+        Assert.assertTrue("keys within a field value should be in bloom filter", ShardKeyFunctor.isRangeInBloomFilter(new Range(start, true, end, false)));
+        Assert.assertTrue("keys within a field value should be in bloom filter", ShardKeyFunctor.isRangeInBloomFilter(new Range(start, true, end, true)));
+        
+        end = new org.apache.accumulo.core.data.Key("row", "fi\0FIELD", "value\1");
+        Assert.assertTrue("range ending after the field value should be in bloom filter", ShardKeyFunctor.isRangeInBloomFilter(new Range(start, true, end, false)));
+        Assert.assertFalse("range including the next field value should not be in bloom filter",
+                        ShardKeyFunctor.isRangeInBloomFilter(new Range(start, true, end, true)));
+        Assert.assertArrayEquals(functor.transform(start).getBytes(), functor.transform(new Range(start, true, end, false)).getBytes());
+        
+        end = new org.apache.accumulo.core.data.Key("row", "fi\0FIELD", "value2\0datatype\0uid1");
+        Assert.assertFalse("range spanning field values should not be in bloom filter", ShardKeyFunctor.isRangeInBloomFilter(new Range(start, true, end, false)));
+        
+        end = new org.apache.accumulo.core.data.Key("row2", "fi\0FIELD", "value\1");
+        Assert.assertFalse("range spanning rows should not be in bloom filter", ShardKeyFunctor.isRangeInBloomFilter(new Range(start, true, end, false)));
+        
+        end = new org.apache.accumulo.core.data.Key("row", "fi\0FIELD2", "value\1");
+        Assert.assertFalse("range spanning fields should not be in bloom filter", ShardKeyFunctor.isRangeInBloomFilter(new Range(start, true, end, false)));
+    }
+    
     @Test
     public void testTransformRange() {
         // key should only be in bloom filter if it is a field index column (cf = 'fi\x00'...) and
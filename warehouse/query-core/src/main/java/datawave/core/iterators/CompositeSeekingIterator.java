@@ -15,14 +15,18 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 /**
  * Skips rows whose composite terms are outside of the range defined by the upper and lower composite bounds.
- *
+ * <p>
+ * Out of range rows are nexted over until {@link #SEEK_THRESHOLD} of them have been read, after which the source is seeked directly to the next composite
+ * term which could be in range. The number of keys read and nexted over, and the number of seeks, are tracked so that the threshold can be tuned.
+ * <p>
+ * The composite bounds are taken from the {@link #COMPOSITE_RANGE} option when it is set, so that a scan resumed part way through the range (e.g. after a
+ * tablet server failure) still applies the original bounds to each component. Otherwise they are taken from the range being scanned.
  */
 public class CompositeSeekingIterator extends WrappingIterator {
     
@@ -32,12 +36,15 @@ public class CompositeSeekingIterator extends WrappingIterator {
     public static final String DISCRETE_INDEX_TYPE = ".discrete.index.type";
     public static final String SEPARATOR = "separator";
     public static final String SEEK_THRESHOLD = "seek.threshold";
+    public static final String COMPOSITE_RANGE = "composite.range";
     
     private List<String> fieldNames = new ArrayList<>();
     private Map<String,DiscreteIndexType<?>> fieldToDiscreteIndexType = new HashMap<>();
     private String separator;
     private int seekThreshold;
     
+    private Range rangeOption;
+    private Range compositeRange;
     private Range currentRange;
     private ShardIndexCompositeSeeker compositeSeeker;
     private Collection<ByteSequence> columnFamilies;
@@ -45,15 +52,20 @@ public class CompositeSeekingIterator extends WrappingIterator {
     private Key nextSeekKey = null;
     private int nextCount = 0;
     
+    private long keysRead = 0;
+    private long keysSkipped = 0;
+    private long seeks = 0;
+    
     @Override
     public SortedKeyValueIterator<Key,Value> deepCopy(IteratorEnvironment env) {
         CompositeSeekingIterator to = new CompositeSeekingIterator();
         to.setSource(getSource().deepCopy(env));
         
-        Collections.copy(to.fieldNames, fieldNames);
+        to.fieldNames = new ArrayList<>(fieldNames);
         to.fieldToDiscreteIndexType = new HashMap<>(fieldToDiscreteIndexType);
         to.separator = separator;
         to.seekThreshold = seekThreshold;
+        to.rangeOption = rangeOption;
         to.compositeSeeker = new ShardIndexCompositeSeeker(to.fieldNames, to.separator, to.fieldToDiscreteIndexType);
         
         return to;
@@ -86,14 +98,47 @@ public class CompositeSeekingIterator extends WrappingIterator {
         
         this.seekThreshold = Integer.parseInt(options.getOrDefault(SEEK_THRESHOLD, "10"));
         
+        if (options.containsKey(COMPOSITE_RANGE)) {
+            this.rangeOption = ColumnRangeIterator.decodeRange(options.get(COMPOSITE_RANGE));
+        }
+        
         compositeSeeker = new ShardIndexCompositeSeeker(fieldNames, separator, fieldToDiscreteIndexType);
     }
     
     @Override
     public void next() throws IOException {
         super.next();
+        skipOutOfRange();
+    }
+    
+    @Override
+    public void seek(Range range, Collection<ByteSequence> columnFamilies, boolean inclusive) throws IOException {
+        if (log.isDebugEnabled() && currentRange != null) {
+            log.debug("Composite seeking for " + compositeRange + " read " + keysRead + " keys, skipped " + keysSkipped + " and seeked " + seeks + " times");
+        }
+        
+        // bounds are checked against the composite range, or else the range being scanned, never against the ranges of our own seeks
+        this.compositeRange = (rangeOption != null ? rangeOption : range);
+        this.currentRange = range;
+        this.columnFamilies = columnFamilies;
+        this.inclusive = inclusive;
+        this.nextSeekKey = null;
+        this.nextCount = 0;
+        
+        super.seek(range, columnFamilies, inclusive);
+        skipOutOfRange();
+    }
+    
+    /**
+     * Advances the source past any keys whose composite terms are outside of the composite range, nexting over up to {@link #SEEK_THRESHOLD} keys before
+     * seeking directly to the next composite term which could be in range.
+     */
+    private void skipOutOfRange() throws IOException {
+        if (hasTop()) {
+            keysRead++;
+        }
         
-        while (hasTop() && !compositeSeeker.isKeyInRange(getTopKey(), currentRange)) {
+        while (hasTop() && !compositeSeeker.isKeyInRange(getTopKey(), compositeRange)) {
             
             boolean shouldSeek = false;
             
@@ -108,9 +153,9 @@ public class CompositeSeekingIterator extends WrappingIterator {
                 nextCount = 0;
                 nextSeekKey = null;
                 
-                // get a new seek key
-                Key newStartKey = compositeSeeker.nextSeekKey(getTopKey(), currentRange);
-                if (newStartKey != currentRange.getStartKey()) {
+                // get a new seek key, ignoring any which would not move us forward or would leave the range being scanned
+                Key newStartKey = compositeSeeker.nextSeekKey(getTopKey(), compositeRange);
+                if (newStartKey != compositeRange.getStartKey() && newStartKey.compareTo(getTopKey()) > 0 && !currentRange.afterEndKey(newStartKey)) {
                     nextSeekKey = newStartKey;
                     
                     // if we hit the seek threshold (i.e. if it is set to 0), seek
@@ -120,30 +165,42 @@ public class CompositeSeekingIterator extends WrappingIterator {
             }
             
             if (shouldSeek) {
-                currentRange = new Range(nextSeekKey, currentRange.isStartKeyInclusive(), currentRange.getEndKey(), currentRange.isEndKeyInclusive());
-                super.seek(currentRange, columnFamilies, inclusive);
+                super.seek(new Range(nextSeekKey, true, currentRange.getEndKey(), currentRange.isEndKeyInclusive()), columnFamilies, inclusive);
+                seeks++;
                 
                 // reset next count and seek key
                 nextSeekKey = null;
                 nextCount = 0;
             } else {
                 nextCount++;
+                keysSkipped++;
                 super.next();
             }
+            
+            if (hasTop()) {
+                keysRead++;
+            }
         }
     }
     
-    @Override
-    public void seek(Range range, Collection<ByteSequence> columnFamilies, boolean inclusive) throws IOException {
-        if (currentRange == null)
-            currentRange = range;
-        
-        if (this.columnFamilies == null)
-            this.columnFamilies = columnFamilies;
-        
-        if (this.inclusive == null)
-            this.inclusive = inclusive;
-        
-        super.seek(range, columnFamilies, inclusive);
+    /**
+     * @return the number of keys read from the source since this iterator was initialized
+     */
+    public long getKeysRead() {
+        return keysRead;
+    }
+    
+    /**
+     * @return the number of out of range keys which were nexted over, rather than seeked past
+     */
+    public long getKeysSkipped() {
+        return keysSkipped;
+    }
+    
+    /**
+     * @return the number of seeks made to skip out of range keys
+     */
+    public long getSeeks() {
+        return seeks;
     }
 }
@@ -206,6 +206,9 @@ public abstract class DatawaveFieldIndexCachingIteratorJexl extends WrappingIter
     @SuppressWarnings("unchecked")
     protected static final Collection<ByteSequence> EMPTY_CFS = Collections.EMPTY_LIST;
     
+    // the number of keys which cannot match to next over before seeking to the key from getNextSeekKey
+    protected static final int SEEK_THRESHOLD = 10;
+    
     // These are the ranges to scan in the field index
     private final List<Range> boundingFiRanges = new ArrayList<>();
     protected Range currentFiRange = null;
@@ -942,6 +945,8 @@ public abstract class DatawaveFieldIndexCachingIteratorJexl extends WrappingIter
             SortedKeyValueIterator<Key,Value> source = null;
             Key nextSeekKey = null;
             int nextCount = 0;
+            Key nextMatchKey = null;
+            int missCount = 0;
             try {
                 source = getSourceCopy(false);
                 if (collectTimingDetails && source instanceof SourceTrackingIterator) {
@@ -1028,6 +1033,25 @@ public abstract class DatawaveFieldIndexCachingIteratorJexl extends WrappingIter
                     
                     if (addKey(top, source.getTopValue())) {
                         matched++;
+                    } else if (!negated) {
+                        // get a new key to skip ahead to once we pass the last one
+                        if (nextMatchKey == null || top.compareTo(nextMatchKey) >= 0) {
+                            nextMatchKey = getNextSeekKey(top);
+                            missCount = 0;
+                            
+                            // nothing else in this bounding range can match
+                            if (nextMatchKey != null && boundingFiRange.afterEndKey(nextMatchKey)) {
+                                break;
+                            }
+                        }
+                        
+                        // seek rather than next once we have missed enough keys
+                        if (nextMatchKey != null && nextMatchKey.compareTo(top) > 0 && ++missCount > SEEK_THRESHOLD) {
+                            source.seek(new Range(nextMatchKey, true, boundingFiRange.getEndKey(), boundingFiRange.isEndKeyInclusive()), EMPTY_CFS, false);
+                            nextMatchKey = null;
+                            scanned++;
+                            continue;
+                        }
                     }
                     
                     source.next();
@@ -1242,6 +1266,17 @@ public abstract class DatawaveFieldIndexCachingIteratorJexl extends WrappingIter
      */
     protected abstract boolean matches(Key k) throws IOException;
     
+    /**
+     * Get a key to seek to past a key which does not match, skipping the keys which cannot match. Keys at or before k are ignored. Not used when negated.
+     * NOTE: This method must be thread safe
+     * 
+     * @param k
+     * @return a key no later than the next key which could match, a key past the bounding range if no later key can match, or null to next through the keys
+     */
+    protected Key getNextSeekKey(Key k) {
+        return null;
+    }
+    
     /**
      * A protected method to force persistence of the set. This can be used by test cases to verify tear down and rebuilding with reuse of the previous results.
      * 
@@ -1,9 +1,12 @@
 package datawave.core.iterators;
 
 import datawave.query.Constants;
+import datawave.query.jexl.RegexAutomaton;
 import datawave.query.parser.JavaRegexAnalyzer;
 import datawave.query.parser.JavaRegexAnalyzer.JavaRegexParseException;
+import org.apache.accumulo.core.data.ByteSequence;
 import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.PartialKey;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.iterators.IteratorEnvironment;
@@ -18,7 +21,8 @@ import java.util.regex.Pattern;
  * 
  * An iterator for the Datawave shard table, it searches FieldIndex keys and returns Event keys (its topKey must be an Event key).
  *
- * This version takes a regex and will return sorted UIDs that match the supplied regex
+ * This version takes a regex and will return sorted UIDs that match the supplied regex. Where possible the regex is matched by a {@link RegexAutomaton} against the
+ * bytes of the field index keys, which also lets the scan seek past the values which cannot match.
  * 
  * FieldIndex keys: fi\0{fieldName}:{fieldValue}\0datatype\0uid
  * 
@@ -42,6 +46,7 @@ public class DatawaveFieldIndexRegexIteratorJexl extends DatawaveFieldIndexCachi
     protected DatawaveFieldIndexRegexIteratorJexl(Builder builder) {
         super(builder);
         this.regex = builder.fieldValue.toString();
+        this.automaton = RegexAutomaton.get(this.regex);
         try {
             // now fix the fValue to be the part we use for ranges
             JavaRegexAnalyzer analyzer = new JavaRegexAnalyzer(this.regex);
@@ -58,6 +63,8 @@ public class DatawaveFieldIndexRegexIteratorJexl extends DatawaveFieldIndexCachi
     
     private String regex = null;
     private ThreadLocal<Pattern> pattern = ThreadLocal.withInitial(() -> Pattern.compile(regex));
+    // null if the regex is not supported by an automaton
+    private RegexAutomaton automaton = null;
     
     // -------------------------------------------------------------------------
     // ------------- Constructors
@@ -68,6 +75,7 @@ public class DatawaveFieldIndexRegexIteratorJexl extends DatawaveFieldIndexCachi
     public DatawaveFieldIndexRegexIteratorJexl(DatawaveFieldIndexRegexIteratorJexl other, IteratorEnvironment env) {
         super(other, env);
         this.regex = other.regex;
+        this.automaton = other.automaton;
     }
     
     // -------------------------------------------------------------------------
@@ -117,6 +125,12 @@ public class DatawaveFieldIndexRegexIteratorJexl extends DatawaveFieldIndexCachi
      */
     @Override
     protected boolean matches(Key k) throws IOException {
+        if (automaton != null) {
+            ByteSequence colq = k.getColumnQualifierData();
+            int length = getValueLength(colq);
+            return length >= 0 && automaton.matches(colq.getBackingArray(), colq.offset(), length);
+        }
+        
         boolean matches = false;
         String colq = k.getColumnQualifier().toString();
         
@@ -128,4 +142,45 @@ public class DatawaveFieldIndexRegexIteratorJexl extends DatawaveFieldIndexCachi
         return matches;
     }
     
+    /**
+     * Get the key of the next value which could match our regex. NOTE: This method must be thread safe
+     *
+     * @param k
+     * @return the key to seek to, or null if the regex is not matched by an automaton
+     */
+    @Override
+    protected Key getNextSeekKey(Key k) {
+        if (automaton == null) {
+            return null;
+        }
+        
+        ByteSequence colq = k.getColumnQualifierData();
+        int length = getValueLength(colq);
+        if (length < 0) {
+            return null;
+        }
+        
+        byte[] nextValue = automaton.nextPossibleMatch(colq.getBackingArray(), colq.offset(), length);
+        if (nextValue == null) {
+            // nothing else in this field can match
+            return k.followingKey(PartialKey.ROW_COLFAM);
+        }
+        return new Key(k.getRowData().toArray(), k.getColumnFamilyData().toArray(), nextValue, new byte[0], Long.MAX_VALUE);
+    }
+    
+    /**
+     * Search backwards for the null bytes to expose the value in value\0datatype\0UID, without copying the column qualifier
+     *
+     * @return the length of the value, or -1 if the column qualifier is not a field index one
+     */
+    private static int getValueLength(ByteSequence colq) {
+        int nulls = 0;
+        for (int i = colq.length() - 1; i >= 0; i--) {
+            if (colq.byteAt(i) == 0 && ++nulls == 2) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
 }
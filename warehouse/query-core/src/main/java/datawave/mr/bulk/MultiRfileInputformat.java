@@ -2,6 +2,7 @@ package datawave.mr.bulk;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -28,6 +29,9 @@ import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
 import org.apache.commons.lang.StringUtils;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.BlockLocation;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.mapreduce.InputSplit;
@@ -57,6 +61,12 @@ public class MultiRfileInputformat extends RFileInputFormat {
     public static final String CACHE_METADATA_EXPIRE_SECONDS = "rfile.cache.expire.seconds";
     public static final String CACHE_RETRIEVE_SIZE = "rfile.size.compute";
     public static final String CACHE_METADATA_SIZE = "rfile.cache.metdata.size";
+    /**
+     * When true, splits are placed on the hosts holding the most HDFS blocks of their files, rather than on the tablet server hosting the tablet. This helps
+     * when tablets have moved since their files were last compacted, at the cost of looking up the block locations of every file when computing splits.
+     */
+    public static final String HDFS_LOCALITY = "rfile.split.hdfs.locality";
+    public static final String HDFS_LOCALITY_MAX_HOSTS = "rfile.split.hdfs.locality.max.hosts";
     private static final String HDFS_BASE = "hdfs://";
     private static final String ACCUMULO_BASE_PATH = "/accumulo";
     
@@ -259,8 +269,9 @@ public class MultiRfileInputformat extends RFileInputFormat {
                     continue;
                 TabletSplitSplit compositeInputSplit = new TabletSplitSplit(rangeSplits.size());
                 compositeInputSplit.setTable(tableName);
+                String[] hdfsHosts = getHdfsLocations(conf, rangeSplits);
                 for (RfileSplit split : rangeSplits) {
-                    compositeInputSplit.add(new FileRangeSplit(range, split.path, 0, split.length, split.hosts));
+                    compositeInputSplit.add(new FileRangeSplit(range, split.path, 0, split.length, hdfsHosts != null ? hdfsHosts : split.hosts));
                 }
                 
                 inputSplitList.add(compositeInputSplit);
@@ -280,9 +291,10 @@ public class MultiRfileInputformat extends RFileInputFormat {
                 
                 TabletSplitSplit compositeInputSplit = new TabletSplitSplit(rfiles.size());
                 compositeInputSplit.setTable(tableName);
+                String[] hdfsHosts = getHdfsLocations(conf, rfiles);
                 for (RfileSplit split : rfiles) {
                     
-                    compositeInputSplit.add(new FileRangeSplit(rangeColl, split.path, 0, split.length, split.hosts));
+                    compositeInputSplit.add(new FileRangeSplit(rangeColl, split.path, 0, split.length, hdfsHosts != null ? hdfsHosts : split.hosts));
                     
                 }
                 
@@ -295,4 +307,35 @@ public class MultiRfileInputformat extends RFileInputFormat {
         
         return inputSplitList;
     }
+    
+    /**
+     * Finds the hosts storing the most bytes of the given files, if {@link #HDFS_LOCALITY} is enabled.
+     * 
+     * @return up to {@link #HDFS_LOCALITY_MAX_HOSTS} hosts, most local first, or null if locality is disabled or could not be determined
+     */
+    protected static String[] getHdfsLocations(Configuration conf, Collection<RfileSplit> rfiles) throws IOException {
+        if (!conf.getBoolean(HDFS_LOCALITY, false) || rfiles.isEmpty()) {
+            return null;
+        }
+        Map<String,Long> bytesByHost = new HashMap<>();
+        for (RfileSplit rfile : rfiles) {
+            FileSystem fs = rfile.path.getFileSystem(conf);
+            FileStatus status = fs.getFileStatus(rfile.path);
+            for (BlockLocation block : fs.getFileBlockLocations(status, 0, status.getLen())) {
+                for (String host : block.getHosts()) {
+                    bytesByHost.merge(host, block.getLength(), Long::sum);
+                }
+            }
+        }
+        if (bytesByHost.isEmpty()) {
+            return null;
+        }
+        // @formatter:off
+        return bytesByHost.entrySet().stream()
+                .sorted(Map.Entry.<String,Long> comparingByValue().reversed())
+                .limit(conf.getInt(HDFS_LOCALITY_MAX_HOSTS, 3))
+                .map(Map.Entry::getKey)
+                .toArray(String[]::new);
+        // @formatter:on
+    }
 }
@@ -12,6 +12,7 @@ import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.file.FileSKVIterator;
+import org.apache.hadoop.mapreduce.Counter;
 import org.apache.hadoop.mapreduce.InputSplit;
 import org.apache.hadoop.mapreduce.TaskAttemptContext;
 import org.apache.log4j.Logger;
@@ -34,6 +35,16 @@ public class RangeRecordReader extends RFileRecordReader {
     
     protected RecordIterator splitReference = null;
     
+    protected TaskAttemptContext context = null;
+    
+    protected long keysRead = 0;
+    
+    protected long bytesRead = 0;
+    
+    protected long readStartMillis = 0;
+    
+    public static final String COUNTER_GROUP = RangeRecordReader.class.getSimpleName();
+    
     private static final Logger log = Logger.getLogger(RangeRecordReader.class);
     
     protected static final String PREFIX = BulkInputFormat.class.getSimpleName();
@@ -48,6 +59,8 @@ public class RangeRecordReader extends RFileRecordReader {
         int retries = 0;
         int maxRetries = context.getConfiguration().getInt(RecordIterator.RECORDITER_FAILURE_COUNT_MAX, RecordIterator.FAILURE_MAX_DEFAULT);
         TabletSplitSplit tabletSplit = (TabletSplitSplit) split;
+        this.context = context;
+        readStartMillis = System.currentTimeMillis();
         do {
             try {
                 splitReference = new RecordIterator(tabletSplit, context.getConfiguration());
@@ -142,7 +155,12 @@ public class RangeRecordReader extends RFileRecordReader {
             splitReference.next();
         }
         readFirstKeyValue = true;
-        return splitReference.hasTop();
+        if (splitReference.hasTop()) {
+            keysRead++;
+            bytesRead += splitReference.getTopKey().getSize() + splitReference.getTopValue().getSize();
+            return true;
+        }
+        return false;
     }
     
     @Override
@@ -159,6 +177,30 @@ public class RangeRecordReader extends RFileRecordReader {
     public void close() throws IOException {
         if (null != splitReference)
             splitReference.close();
+        reportThroughput();
+    }
+    
+    /**
+     * Logs the read throughput of this split and adds it to the task counters
+     */
+    protected void reportThroughput() {
+        if (readStartMillis == 0) {
+            return;
+        }
+        long elapsedMillis = Math.max(1, System.currentTimeMillis() - readStartMillis);
+        log.info("Read " + keysRead + " keys (" + bytesRead + " bytes) in " + elapsedMillis + " ms: " + (keysRead * 1000 / elapsedMillis) + " keys/s, "
+                        + (bytesRead * 1000 / elapsedMillis) + " bytes/s");
+        incrementCounter("KEYS_READ", keysRead);
+        incrementCounter("BYTES_READ", bytesRead);
+        incrementCounter("READ_MILLIS", elapsedMillis);
+        readStartMillis = 0;
+    }
+    
+    private void incrementCounter(String name, long value) {
+        Counter counter = (context == null) ? null : context.getCounter(COUNTER_GROUP, name);
+        if (counter != null) {
+            counter.increment(value);
+        }
     }
     
     @Override
@@ -0,0 +1,237 @@
+package datawave.mr.bulk;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.IteratorEnvironment;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.log4j.Logger;
+
+/**
+ * Reads a single file's iterator on a separate thread, handing batches of copied key/value pairs to the consumer through a bounded queue. Wrapping each file of
+ * a split in one of these lets the files be read and decompressed concurrently while the {@link RecordIterator} merges them.
+ * <p>
+ * After a seek, the source is only ever touched by the reading thread, until the next seek or {@link #close()} stops it. Closing interrupts the reading thread,
+ * and waits a bounded time for it to let go of the source.
+ */
+public class ReadAheadFileIterator implements SortedKeyValueIterator<Key,Value> {
+    
+    private static final Logger log = Logger.getLogger(ReadAheadFileIterator.class);
+    
+    // marks the end of the data for the current seek
+    private static final List<Entry<Key,Value>> END = new ArrayList<>(0);
+    
+    // how long to wait for the reading thread to let go of the source
+    private static final long STOP_WAIT_MS = TimeUnit.SECONDS.toMillis(30);
+    
+    private final SortedKeyValueIterator<Key,Value> source;
+    private final ExecutorService executor;
+    private final int batchSize;
+    private final BlockingQueue<List<Entry<Key,Value>>> queue;
+    
+    private Reader reader = null;
+    private volatile boolean stopped = false;
+    private volatile Throwable error = null;
+    
+    private List<Entry<Key,Value>> batch = END;
+    private int position = 0;
+    
+    public ReadAheadFileIterator(SortedKeyValueIterator<Key,Value> source, ExecutorService executor, int numBatches, int batchSize) {
+        this.source = source;
+        this.executor = executor;
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(numBatches + 1);
+    }
+    
+    @Override
+    public void init(SortedKeyValueIterator<Key,Value> source, Map<String,String> options, IteratorEnvironment env) throws IOException {
+        throw new UnsupportedOperationException("Init is not supported in ReadAheadFileIterator");
+    }
+    
+    @Override
+    public void seek(Range range, Collection<ByteSequence> columnFamilies, boolean inclusive) throws IOException {
+        stop(false);
+        queue.clear();
+        error = null;
+        stopped = false;
+        reader = new Reader(range, columnFamilies, inclusive);
+        reader.future = executor.submit(reader);
+        batch = take();
+        position = 0;
+    }
+    
+    /**
+     * Reads for a single seek. It only runs if it was not stopped before it started, so that stopping it knows whether there is a thread to wait for.
+     */
+    private class Reader implements Runnable {
+        private final Range range;
+        private final Collection<ByteSequence> columnFamilies;
+        private final boolean inclusive;
+        private final AtomicBoolean claimed = new AtomicBoolean(false);
+        private final CountDownLatch done = new CountDownLatch(1);
+        private Future<?> future = null;
+        
+        private Reader(Range range, Collection<ByteSequence> columnFamilies, boolean inclusive) {
+            this.range = range;
+            this.columnFamilies = columnFamilies;
+            this.inclusive = inclusive;
+        }
+        
+        @Override
+        public void run() {
+            if (claimed.compareAndSet(false, true)) {
+                try {
+                    read(range, columnFamilies, inclusive);
+                } finally {
+                    done.countDown();
+                }
+            }
+        }
+    }
+    
+    private void read(Range range, Collection<ByteSequence> columnFamilies, boolean inclusive) {
+        try {
+            source.seek(range, columnFamilies, inclusive);
+            List<Entry<Key,Value>> entries = new ArrayList<>(batchSize);
+            while (!stopped && source.hasTop()) {
+                entries.add(new SimpleImmutableEntry<>(new Key(source.getTopKey()), new Value(source.getTopValue())));
+                source.next();
+                if (entries.size() >= batchSize) {
+                    put(entries);
+                    entries = new ArrayList<>(batchSize);
+                }
+            }
+            if (!entries.isEmpty()) {
+                put(entries);
+            }
+        } catch (InterruptedException e) {
+            error = e;
+        } catch (Throwable t) {
+            log.debug("Read ahead failed", t);
+            error = t;
+        } finally {
+            try {
+                put(END);
+            } catch (InterruptedException e) {
+                // the consumer is going away
+            }
+        }
+    }
+    
+    private void put(List<Entry<Key,Value>> entries) throws InterruptedException {
+        while (!stopped) {
+            if (queue.offer(entries, 100, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        }
+    }
+    
+    private List<Entry<Key,Value>> take() throws IOException {
+        List<Entry<Key,Value>> entries;
+        try {
+            entries = queue.take();
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException("Interrupted waiting for read ahead");
+        }
+        if (entries == END && error != null) {
+            throw new IOException("Unable to read ahead", error);
+        }
+        return entries;
+    }
+    
+    @Override
+    public boolean hasTop() {
+        return position < batch.size();
+    }
+    
+    @Override
+    public void next() throws IOException {
+        if (!hasTop()) {
+            throw new IllegalStateException("next called without a top");
+        }
+        if (++position >= batch.size()) {
+            batch = take();
+            position = 0;
+        }
+    }
+    
+    @Override
+    public Key getTopKey() {
+        return batch.get(position).getKey();
+    }
+    
+    @Override
+    public Value getTopValue() {
+        return batch.get(position).getValue();
+    }
+    
+    @Override
+    public SortedKeyValueIterator<Key,Value> deepCopy(IteratorEnvironment env) {
+        throw new UnsupportedOperationException("deepCopy is not supported in ReadAheadFileIterator");
+    }
+    
+    /**
+     * Stops the reading thread, waiting a bounded time for it to let go of the source
+     *
+     * @param interrupt
+     *            whether to interrupt the reading thread rather than let it notice it was stopped
+     */
+    private void stop(boolean interrupt) throws IOException {
+        if (reader == null) {
+            return;
+        }
+        Reader stopping = reader;
+        reader = null;
+        batch = END;
+        position = 0;
+        stopped = true;
+        queue.clear();
+        if (stopping.claimed.compareAndSet(false, true)) {
+            // it never started, so the source was not touched
+            if (null != stopping.future) {
+                stopping.future.cancel(false);
+            }
+            return;
+        }
+        if (interrupt) {
+            stopping.future.cancel(true);
+        }
+        try {
+            if (!stopping.done.await(STOP_WAIT_MS, TimeUnit.MILLISECONDS)) {
+                throw new IOException("Timed out waiting for read ahead to stop");
+            }
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException("Interrupted waiting for read ahead to stop");
+        }
+    }
+    
+    /**
+     * Stops reading ahead, interrupting the reading thread. The underlying file iterator is left open.
+     */
+    public void close() {
+        try {
+            stop(true);
+        } catch (Exception e) {
+            log.warn("Unable to stop read ahead", e);
+        }
+        // wake up anyone still waiting on this iterator
+        queue.offer(END);
+    }
+}
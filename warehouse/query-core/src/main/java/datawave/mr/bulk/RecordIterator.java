@@ -76,6 +76,16 @@ public class RecordIterator extends RangeSplit implements SortedKeyValueIterator
     
     public static final String RECORDITER_FAILURE_SLEEP_INTERVAL = "recorditer.failure.sleep.interval";
     
+    /**
+     * The number of batches of key/value pairs to read ahead from each file of a split on a separate thread. With a value of 0 (the default), all files are read
+     * on the calling thread.
+     */
+    public static final String RECORDITER_READ_AHEAD_BATCHES = "recorditer.read.ahead.batches";
+    
+    public static final String RECORDITER_READ_AHEAD_BATCH_SIZE = "recorditer.read.ahead.batch.size";
+    
+    public static final int READ_AHEAD_BATCH_SIZE_DEFAULT = 1000;
+    
     protected TabletSplitSplit fileSplit;
     
     protected Deque<Range> rangeQueue;
@@ -139,6 +149,10 @@ public class RecordIterator extends RangeSplit implements SortedKeyValueIterator
     
     protected ExecutorService executor = null;
     
+    protected ExecutorService readAheadExecutor = null;
+    
+    protected Collection<ReadAheadFileIterator> readAheadIterators = new ConcurrentLinkedDeque<>();
+    
     protected volatile int numberFiles = 0;
     
     // our goal is a precision of 0.1%, so set the precision to half of that
@@ -342,6 +356,19 @@ public class RecordIterator extends RangeSplit implements SortedKeyValueIterator
         
         futures.clear();
         
+        int readAheadBatches = conf.getInt(RECORDITER_READ_AHEAD_BATCHES, 0);
+        if (readAheadBatches > 0 && iterators.size() > 1) {
+            int batchSize = conf.getInt(RECORDITER_READ_AHEAD_BATCH_SIZE, READ_AHEAD_BATCH_SIZE_DEFAULT);
+            readAheadExecutor = Executors.newFixedThreadPool(iterators.size(), new RecordIteratorFactory("RecordIterator read ahead "));
+            List<SortedKeyValueIterator<Key,Value>> readAheadIters = Lists.newArrayListWithCapacity(iterators.size());
+            for (SortedKeyValueIterator<Key,Value> iterator : iterators) {
+                ReadAheadFileIterator readAheadIter = new ReadAheadFileIterator(iterator, readAheadExecutor, readAheadBatches, batchSize);
+                readAheadIterators.add(readAheadIter);
+                readAheadIters.add(readAheadIter);
+            }
+            iterators = readAheadIters;
+        }
+        
         SortedKeyValueIterator<Key,Value> topIter = new MultiIterator(iterators, true);
         
         boolean applyDeletingIterator = conf.getBoolean("range.record.reader.apply.delete", true);
@@ -568,6 +595,16 @@ public class RecordIterator extends RangeSplit implements SortedKeyValueIterator
     }
     
     protected void closeOnExit() {
+        // stop reading ahead before closing the files being read: interrupt all of the readers first, then wait a bounded time for each to stop
+        if (null != readAheadExecutor) {
+            readAheadExecutor.shutdownNow();
+            readAheadExecutor = null;
+        }
+        for (ReadAheadFileIterator readAheadIter : readAheadIterators) {
+            readAheadIter.close();
+        }
+        readAheadIterators.clear();
+        
         // close the underlying file system references
         if (null != rfileReferences) {
             
@@ -107,6 +107,17 @@ public abstract class CompositeSeeker {
                         for (int j = i + 1; j < startValues.size(); j++)
                             newValues[j] = startValues.get(j);
                     }
+                    // value is in range, but a later value was exhausted. since this value cannot be incremented, skip past every composite term which
+                    // shares the values up to and including this one. with the default separator, the largest character, nothing with this prefix sorts
+                    // after this bound. callers must only seek forward, since with other separators it may not pass the current term.
+                    else if (carryOver) {
+                        newValues[i] = values.get(i) + separator + separator;
+                        carryOver = false;
+                        
+                        // subsequent values are unknown until we see the next term
+                        for (int j = i + 1; j < newValues.length; j++)
+                            newValues[j] = null;
+                    }
                     // value is in range.
                     else {
                         newValues[i] = values.get(i);
@@ -131,6 +131,11 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
      * Used to determine the maximum number of envelopes which can be used when generating ranges for a geowave query.
      */
     private int geoWaveMaxEnvelopes = 4;
+    /**
+     * Used to determine the maximum number of cells used to cover the geometry of a geowave query. When greater than zero, the geometry is covered by cells
+     * refined where they are only partially covered instead of by the envelopes of its parts.
+     */
+    private int geoWaveMaxCoverCells = 0;
     private String shardTableName = TableName.SHARD;
     private String indexTableName = TableName.SHARD_INDEX;
     private String reverseIndexTableName = TableName.SHARD_RINDEX;
@@ -186,6 +191,8 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
     private Map<String,String> compositeFieldSeparators = new HashMap<>();
     
     private boolean sortedUIDs = true;
+    // Whether counts may be taken from the field index without building documents when the field index satisfies the query
+    private boolean countFromFieldIndex = false;
     // The fields in the the query that are tf fields
     private Set<String> queryTermFrequencyFields = Collections.emptySet();
     // Are we required to get term frequencies (i.e. does the query contain content functions)
@@ -209,6 +216,20 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
     private boolean rawTypes = false;
     // Used to choose how "selective" a term is (indexStats)
     private double minSelectivity = -1.0;
+    // Used to order and push down terms by their estimated counts, from the per field and per value statistics in the metadata table
+    private boolean costBasedPlanning = false;
+    // Terms of a conjunction estimated to cost more than this many times its cheapest term are evaluated rather than looked up (costBasedPlanning)
+    private double maxTermCostRatio = 1000.0;
+    // Used to expand regexes without a leading or trailing literal to the values containing all of the n-grams of their literals
+    private boolean nGramIndexEnabled = false;
+    private String nGramIndexTableName = TableName.NGRAM_INDEX;
+    // Must match the n-gram size the n-gram index was ingested with
+    private int nGramSize = 3;
+    // An n-gram found in more than this many values is too common to narrow down a regex, and is not used
+    private int nGramIndexScanLimit = 100000;
+    // The date from which every indexed value is in the n-gram index. Regexes are only replaced by their n-gram index values for queries beginning on or
+    // after it, otherwise the values are only added to the regex since older data may be missing from the index.
+    private Date nGramIndexStartDate = null;
     // Used to add the event datatype to the event as an event field.
     private boolean includeDataTypeAsField = false;
     // Used to add the event RECORD_ID to the event as an event field
@@ -350,6 +371,7 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
         this.setGeometryMaxExpansion(other.getGeometryMaxExpansion());
         this.setPointMaxExpansion(other.getPointMaxExpansion());
         this.setGeoWaveMaxEnvelopes(other.getGeoWaveMaxEnvelopes());
+        this.setGeoWaveMaxCoverCells(other.getGeoWaveMaxCoverCells());
         this.setShardTableName(other.getShardTableName());
         this.setIndexTableName(other.getIndexTableName());
         this.setReverseIndexTableName(other.getReverseIndexTableName());
@@ -391,6 +413,7 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
         this.setCompositeTransitionDates(null == other.getCompositeTransitionDates() ? null : Maps.newHashMap(other.getCompositeTransitionDates()));
         this.setCompositeFieldSeparators(null == other.getCompositeFieldSeparators() ? null : Maps.newHashMap(other.getCompositeFieldSeparators()));
         this.setSortedUIDs(other.isSortedUIDs());
+        this.setCountFromFieldIndex(other.isCountFromFieldIndex());
         this.setQueryTermFrequencyFields(null == other.getQueryTermFrequencyFields() ? null : Sets.newHashSet(other.getQueryTermFrequencyFields()));
         this.setTermFrequenciesRequired(other.isTermFrequenciesRequired());
         this.setLimitFields(null == other.getLimitFields() ? null : Sets.newHashSet(other.getLimitFields()));
@@ -403,6 +426,13 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
         this.setFailOutsideValidDateRange(other.isFailOutsideValidDateRange());
         this.setRawTypes(other.isRawTypes());
         this.setMinSelectivity(other.getMinSelectivity());
+        this.setCostBasedPlanning(other.isCostBasedPlanning());
+        this.setMaxTermCostRatio(other.getMaxTermCostRatio());
+        this.setNGramIndexEnabled(other.isNGramIndexEnabled());
+        this.setNGramIndexTableName(other.getNGramIndexTableName());
+        this.setNGramSize(other.getNGramSize());
+        this.setNGramIndexScanLimit(other.getNGramIndexScanLimit());
+        this.setNGramIndexStartDate(other.getNGramIndexStartDate());
         this.setIncludeDataTypeAsField(other.getIncludeDataTypeAsField());
         this.setIncludeRecordId(other.getIncludeRecordId());
         this.setIncludeHierarchyFields(other.getIncludeHierarchyFields());
@@ -824,6 +854,14 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
         this.geoWaveMaxEnvelopes = geoWaveMaxEnvelopes;
     }
     
+    public int getGeoWaveMaxCoverCells() {
+        return geoWaveMaxCoverCells;
+    }
+    
+    public void setGeoWaveMaxCoverCells(int geoWaveMaxCoverCells) {
+        this.geoWaveMaxCoverCells = geoWaveMaxCoverCells;
+    }
+    
     public Boolean getUseFilters() {
         return useFilters;
     }
@@ -1463,6 +1501,62 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
         this.minSelectivity = minSelectivity;
     }
     
+    public boolean isCostBasedPlanning() {
+        return costBasedPlanning;
+    }
+    
+    public void setCostBasedPlanning(boolean costBasedPlanning) {
+        this.costBasedPlanning = costBasedPlanning;
+    }
+    
+    public double getMaxTermCostRatio() {
+        return maxTermCostRatio;
+    }
+    
+    public void setMaxTermCostRatio(double maxTermCostRatio) {
+        this.maxTermCostRatio = maxTermCostRatio;
+    }
+    
+    public boolean isNGramIndexEnabled() {
+        return nGramIndexEnabled;
+    }
+    
+    public void setNGramIndexEnabled(boolean nGramIndexEnabled) {
+        this.nGramIndexEnabled = nGramIndexEnabled;
+    }
+    
+    public String getNGramIndexTableName() {
+        return nGramIndexTableName;
+    }
+    
+    public void setNGramIndexTableName(String nGramIndexTableName) {
+        this.nGramIndexTableName = nGramIndexTableName;
+    }
+    
+    public int getNGramSize() {
+        return nGramSize;
+    }
+    
+    public void setNGramSize(int nGramSize) {
+        this.nGramSize = nGramSize;
+    }
+    
+    public int getNGramIndexScanLimit() {
+        return nGramIndexScanLimit;
+    }
+    
+    public void setNGramIndexScanLimit(int nGramIndexScanLimit) {
+        this.nGramIndexScanLimit = nGramIndexScanLimit;
+    }
+    
+    public Date getNGramIndexStartDate() {
+        return nGramIndexStartDate;
+    }
+    
+    public void setNGramIndexStartDate(Date nGramIndexStartDate) {
+        this.nGramIndexStartDate = nGramIndexStartDate;
+    }
+    
     /**
      * Checks for non-null, sane values for the configured values
      *
@@ -1913,6 +2007,14 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
         this.sortedUIDs = sortedUIDs;
     }
     
+    public boolean isCountFromFieldIndex() {
+        return countFromFieldIndex;
+    }
+    
+    public void setCountFromFieldIndex(boolean countFromFieldIndex) {
+        this.countFromFieldIndex = countFromFieldIndex;
+    }
+    
     public long getYieldThresholdMs() {
         return yieldThresholdMs;
     }
@@ -3,6 +3,7 @@ package datawave.query.function;
 import datawave.query.attributes.Attributes;
 import datawave.query.jexl.ArithmeticJexlEngines;
 import datawave.query.jexl.DefaultArithmetic;
+import datawave.query.jexl.JexlScriptCompiler;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.security.ColumnVisibility;
 import org.apache.commons.jexl2.JexlArithmetic;
@@ -31,6 +32,11 @@ public class JexlEvaluation implements Predicate<Tuple3<Key,Document,DatawaveJex
      */
     protected Script script;
     
+    /**
+     * The script compiled into closures, or null if the script contains nodes which must be interpreted
+     */
+    protected JexlScriptCompiler.CompiledNode compiled;
+    
     public JexlEvaluation(String query) {
         this(query, new DefaultArithmetic());
     }
@@ -44,6 +50,9 @@ public class JexlEvaluation implements Predicate<Tuple3<Key,Document,DatawaveJex
         
         // Evaluate the JexlContext against the Script
         this.script = this.engine.createScript(query);
+        
+        // Skip the interpreter for every document when the whole script can be compiled
+        this.compiled = JexlScriptCompiler.compile(parse(query), arithmetic);
     }
     
     public JexlArithmetic getArithmetic() {
@@ -65,7 +74,7 @@ public class JexlEvaluation implements Predicate<Tuple3<Key,Document,DatawaveJex
     @Override
     public boolean apply(Tuple3<Key,Document,DatawaveJexlContext> input) {
         
-        Object o = script.execute(input.third());
+        Object o = (compiled != null) ? compiled.evaluate(input.third()) : script.execute(input.third());
         
         if (log.isTraceEnabled()) {
             log.trace("Evaluation of " + query + " against " + input.third() + " returned " + o);
@@ -80,11 +80,16 @@ import org.apache.accumulo.core.iterators.IteratorEnvironment;
 import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
 import org.apache.accumulo.core.iterators.YieldCallback;
 import org.apache.accumulo.core.iterators.YieldingKeyValueIterator;
+import org.apache.accumulo.core.security.ColumnVisibility;
 import org.apache.accumulo.trace.instrument.Span;
 import org.apache.accumulo.trace.instrument.Trace;
 import org.apache.accumulo.tserver.tablet.TabletClosedException;
 import org.apache.commons.jexl2.JexlArithmetic;
+import org.apache.commons.jexl2.parser.ASTAndNode;
+import org.apache.commons.jexl2.parser.ASTEQNode;
 import org.apache.commons.jexl2.parser.ASTJexlScript;
+import org.apache.commons.jexl2.parser.ASTOrNode;
+import org.apache.commons.jexl2.parser.JexlNode;
 import org.apache.commons.lang.builder.CompareToBuilder;
 import org.apache.hadoop.io.Text;
 import org.apache.log4j.Logger;
@@ -145,6 +150,8 @@ public class QueryIterator extends QueryOptions implements YieldingKeyValueItera
     
     private static final Logger log = Logger.getLogger(QueryIterator.class);
     
+    private static final Value EMPTY_VALUE = new Value(new byte[0]);
+    
     protected SortedKeyValueIterator<Key,Value> source;
     protected SortedKeyValueIterator<Key,Value> sourceForDeepCopies;
     protected Map<String,String> documentOptions;
@@ -166,6 +173,9 @@ public class QueryIterator extends QueryOptions implements YieldingKeyValueItera
     
     protected QuerySpan trackingSpan = null;
     
+    // the manager of the pooled sources used by the boolean logic iterators, when the sources are limited
+    protected SourceManager pooledSources = null;
+    
     protected QuerySpanCollector querySpanCollector = new QuerySpanCollector();
     
     protected UniqueTransform uniqueTransform = null;
@@ -364,6 +374,17 @@ public class QueryIterator extends QueryOptions implements YieldingKeyValueItera
                 this.seekKeySource = buildDocumentIterator(documentRange, range, columnFamilies, inclusive);
             }
             
+            // if the results are only being counted and the field index satisfies the query, then the document keys are all that is needed
+            if (isCountingFromFieldIndex(documentRange)) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Counting documents from the field index for " + range);
+                }
+                final NestedIterator<Key> keySource = this.seekKeySource;
+                this.serializedDocuments = Iterators.transform(keySource, k -> Maps.immutableEntry(withVisibilityOf(k, keySource.document()), EMPTY_VALUE));
+                prepareKeyValue(span);
+                return;
+            }
+            
             // Create the pipeline iterator for document aggregation and
             // evaluation within a thread pool
             PipelineIterator pipelineIter = PipelineFactory.createIterator(this.seekKeySource, getMaxEvaluationPipelines(), getMaxPipelineCachedResults(),
@@ -469,6 +490,61 @@ public class QueryIterator extends QueryOptions implements YieldingKeyValueItera
         }
     }
     
+    /**
+     * Determine whether the document keys from the field index can be returned in place of the documents. This requires that only a count of the results
+     * is wanted, that the field index satisfies the query so that no evaluation is needed, and that nothing else needs the documents. The query must also be
+     * equality terms joined by ands and ors, whose field index documents carry the visibilities of the terms matched.
+     * 
+     * @param documentRange
+     * @return true if the keys from the field index can be returned directly
+     */
+    protected boolean isCountingFromFieldIndex(Range documentRange) {
+        return isCountFromFieldIndex() && documentRange == null && batchedQueries <= 0 && isEqualityTermQuery() && isFieldIndexSatisfyingQuery()
+                        && getTermFrequencyFields().isEmpty() && (getUniqueFields() == null || getUniqueFields().isEmpty())
+                        && (getGroupFields() == null || getGroupFields().isEmpty()) && !gatherTimingDetails();
+    }
+    
+    /**
+     * @return true if the query is only equality terms joined by ands and ors
+     */
+    protected boolean isEqualityTermQuery() {
+        return script != null && script.jjtGetNumChildren() == 1 && isEqualityTerms(script.jjtGetChild(0));
+    }
+    
+    private static boolean isEqualityTerms(JexlNode node) {
+        node = JexlASTHelper.dereference(node);
+        if (node instanceof ASTEQNode) {
+            return true;
+        }
+        if (node instanceof ASTAndNode || node instanceof ASTOrNode) {
+            for (int i = 0; i < node.jjtGetNumChildren(); i++) {
+                if (!isEqualityTerms(node.jjtGetChild(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+    
+    /**
+     * The key from the field index carries the visibility of one of the terms matched, so it is given the combined visibility of the field index document
+     * built for all of them.
+     * 
+     * @param key
+     *            the document key from the field index
+     * @param document
+     *            the field index document for that key
+     * @return the key with the visibility of the document
+     */
+    private static Key withVisibilityOf(Key key, Document document) {
+        if (document == null || document.size() == 0) {
+            return key;
+        }
+        ColumnVisibility visibility = document.getColumnVisibility();
+        return new Key(key.getRow(), key.getColumnFamily(), key.getColumnQualifier(), visibility, key.getTimestamp());
+    }
+    
     /**
      * Handle an exception returned from seek or next. This will silently ignore IterationInterruptedException as that happens when the underlying iterator was
      * interrupted because the client is no longer listening.
@@ -1046,6 +1122,9 @@ public class QueryIterator extends QueryOptions implements YieldingKeyValueItera
             if (log.isTraceEnabled()) {
                 log.trace("Exhausted all keys");
             }
+            if (log.isDebugEnabled() && null != this.pooledSources) {
+                log.debug("Source pool for " + this.range + " " + this.pooledSources.getPoolSummary());
+            }
             this.key = null;
             this.value = null;
         }
@@ -1290,8 +1369,8 @@ public class QueryIterator extends QueryOptions implements YieldingKeyValueItera
         Set<String> indexedFields = this.getIndexedFields();
         indexedFields.removeAll(this.getNonIndexedDataTypeMap().keySet());
         
-        return c.newInstance().setSource(this, this.myEnvironment).setTimeFilter(this.getTimeFilter()).setTypeMetadata(this.getTypeMetadata())
-                        .setFieldsToAggregate(this.getNonEventFields()).setAttrFilter(this.getEvaluationFilter())
+        IteratorBuildingVisitor visitor = c.newInstance().setSource(this, this.myEnvironment).setTimeFilter(this.getTimeFilter())
+                        .setTypeMetadata(this.getTypeMetadata()).setFieldsToAggregate(this.getNonEventFields()).setAttrFilter(this.getEvaluationFilter())
                         .setDatatypeFilter(this.getFieldIndexKeyDataTypeFilter()).setFiAggregator(this.fiAggregator)
                         .setHdfsFileSystem(this.getFileSystemCache()).setQueryLock(this.getQueryLock())
                         .setIvaratorCacheDirURIAlternatives(this.getIvaratorCacheBaseURIsAsList()).setQueryId(this.getQueryId()).setScanId(this.getScanId())
@@ -1306,6 +1385,10 @@ public class QueryIterator extends QueryOptions implements YieldingKeyValueItera
                         .setIndexOnlyFields(this.getAllIndexOnlyFields()).setAllowTermFrequencyLookup(this.allowTermFrequencyLookup)
                         .setCompositeMetadata(compositeMetadata).setExceededOrEvaluationCache(exceededOrEvaluationCache);
         // TODO: .setStatsPort(this.statsdHostAndPort);
+        if (this.sourceLimit > 0) {
+            this.pooledSources = visitor.getSourceManager();
+        }
+        return visitor;
     }
     
     protected String getHdfsCacheSubDirPrefix() {
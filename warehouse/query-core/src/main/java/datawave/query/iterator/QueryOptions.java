@@ -13,6 +13,8 @@ import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Queues;
 import com.google.common.collect.Sets;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
 import datawave.core.iterators.ColumnRangeIterator;
 import datawave.core.iterators.DatawaveFieldIndexCachingIteratorJexl.HdfsBackedControl;
 import datawave.core.iterators.filesystem.FileSystemCache;
@@ -79,6 +81,8 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
@@ -87,6 +91,13 @@ public class QueryOptions implements OptionDescriber {
     
     protected static Cache<String,FileSystem> fileSystemCache = CacheBuilder.newBuilder().concurrencyLevel(10).maximumSize(100).build();
     
+    // The parsed forms of the large options (type metadata, composite metadata and non-indexed datatypes), keyed by a hash of the option content. These are
+    // shared by every iterator on the tablet server, so the re-inits after yields and tablet moves, and the scans over the other ranges of a query, skip the
+    // decoding and parsing. The cached values must not be modified. The cache is bounded by the total length of the options parsed, as a stand in for the
+    // size of the parsed forms, so that a few very large options cannot pin an unbounded amount of the heap.
+    protected static Cache<HashCode,ParsedOption> parsedOptionCache = CacheBuilder.newBuilder().concurrencyLevel(10).maximumWeight(16 * 1024 * 1024)
+                    .weigher((HashCode hash, ParsedOption parsed) -> parsed.length).expireAfterAccess(10, TimeUnit.MINUTES).build();
+    
     public static final Charset UTF8 = Charset.forName("utf-8");
     
     public static final String DEBUG_MULTITHREADED_SOURCES = "debug.multithreaded.sources";
@@ -220,6 +231,8 @@ public class QueryOptions implements OptionDescriber {
     
     public static final String SORTED_UIDS = "sorted.uids";
     
+    public static final String COUNT_FROM_FIELD_INDEX = "count.from.field.index";
+    
     protected Map<String,String> options;
     
     protected String scanId;
@@ -331,6 +344,9 @@ public class QueryOptions implements OptionDescriber {
     // is required.
     boolean sortedUIDs = true;
     
+    // when only a count of the results is required, take it from the field index when that satisfies the query
+    protected boolean countFromFieldIndex = false;
+    
     protected boolean collectTimingDetails = false;
     
     protected String statsdHostAndPort = null;
@@ -440,6 +456,7 @@ public class QueryOptions implements OptionDescriber {
         this.limitOverride = other.limitOverride;
         
         this.sortedUIDs = other.sortedUIDs;
+        this.countFromFieldIndex = other.countFromFieldIndex;
         
         this.compressedMappings = other.compressedMappings;
         this.limitOverride = other.limitOverride;
@@ -961,6 +978,14 @@ public class QueryOptions implements OptionDescriber {
         this.sortedUIDs = sortedUIDs;
     }
     
+    public boolean isCountFromFieldIndex() {
+        return countFromFieldIndex;
+    }
+    
+    public void setCountFromFieldIndex(boolean countFromFieldIndex) {
+        this.countFromFieldIndex = countFromFieldIndex;
+    }
+    
     public boolean isDebugMultithreadedSources() {
         return debugMultithreadedSources;
     }
@@ -1047,6 +1072,9 @@ public class QueryOptions implements OptionDescriber {
         options.put(SORTED_UIDS,
                         "Whether the UIDs need to be sorted.  Normally this is true, however in limited circumstances it could be false which allows ivarators to avoid pre-fetching all UIDs and sorting before returning the first one.");
         
+        options.put(COUNT_FROM_FIELD_INDEX,
+                        "Whether only the keys of the matching documents are required because the results are being counted. When the field index satisfies the query the documents are neither built nor evaluated.");
+        
         options.put(DEBUG_MULTITHREADED_SOURCES, "If provided, the SourceThreadTrackingIterator will be used");
         
         options.put(METADATA_TABLE_NAME, this.metadataTableName);
@@ -1116,8 +1144,14 @@ public class QueryOptions implements OptionDescriber {
         
         if (options.containsKey(COMPOSITE_METADATA)) {
             String compositeMetadataString = options.get(COMPOSITE_METADATA);
-            if (compositeMetadataString != null && !compositeMetadataString.isEmpty())
-                this.compositeMetadata = CompositeMetadata.fromBytes(java.util.Base64.getDecoder().decode(compositeMetadataString));
+            if (compositeMetadataString != null && !compositeMetadataString.isEmpty()) {
+                try {
+                    this.compositeMetadata = getParsedOption(COMPOSITE_METADATA, compositeMetadataString,
+                                    s -> CompositeMetadata.fromBytes(java.util.Base64.getDecoder().decode(s)));
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
             
             if (log.isTraceEnabled()) {
                 log.trace("Using compositeMetadata: " + this.compositeMetadata);
@@ -1354,11 +1388,9 @@ public class QueryOptions implements OptionDescriber {
             try {
                 
                 String nonIndexedDataTypes = options.get(NON_INDEXED_DATATYPES);
-                if (compressedMappings) {
-                    nonIndexedDataTypes = decompressOption(nonIndexedDataTypes, QueryOptions.UTF8);
-                }
-                
-                this.setNonIndexedDataTypeMap(buildFieldDataTypeMap(nonIndexedDataTypes));
+                final boolean compressed = compressedMappings;
+                this.setNonIndexedDataTypeMap(getParsedOption(NON_INDEXED_DATATYPES + compressed, nonIndexedDataTypes,
+                                s -> buildFieldDataTypeMap(compressed ? decompressOption(s, QueryOptions.UTF8) : s)));
             } catch (IOException e) {
                 throw new RuntimeException(e);
             }
@@ -1479,6 +1511,10 @@ public class QueryOptions implements OptionDescriber {
             this.sortedUIDs = Boolean.parseBoolean(options.get(SORTED_UIDS));
         }
         
+        if (options.containsKey(COUNT_FROM_FIELD_INDEX)) {
+            this.countFromFieldIndex = Boolean.parseBoolean(options.get(COUNT_FROM_FIELD_INDEX));
+        }
+        
         if (options.containsKey(DEBUG_MULTITHREADED_SOURCES)) {
             this.debugMultithreadedSources = Boolean.parseBoolean(options.get(DEBUG_MULTITHREADED_SOURCES));
         }
@@ -1511,10 +1547,9 @@ public class QueryOptions implements OptionDescriber {
         if (options.containsKey(TYPE_METADATA)) {
             String typeMetadataString = options.get(TYPE_METADATA);
             try {
-                if (compressedMappings) {
-                    typeMetadataString = decompressOption(typeMetadataString, QueryOptions.UTF8);
-                }
-                this.typeMetadata = buildTypeMetadata(typeMetadataString);
+                final boolean compressed = compressedMappings;
+                this.typeMetadata = getParsedOption(TYPE_METADATA + compressed, typeMetadataString,
+                                s -> buildTypeMetadata(compressed ? decompressOption(s, QueryOptions.UTF8) : s));
             } catch (IOException e) {
                 throw new RuntimeException(e);
             }
@@ -1529,6 +1564,46 @@ public class QueryOptions implements OptionDescriber {
         
     }
     
+    /**
+     * Parses an option, or returns the result of parsing the same content for an earlier iterator
+     *
+     * @param name
+     *            the name of the option and anything else that affects how it is parsed
+     * @param option
+     *            the option value
+     * @param parser
+     *            parses the option value
+     * @return the parsed option, which must not be modified
+     * @throws IOException
+     *             if the option could not be parsed
+     */
+    @SuppressWarnings("unchecked")
+    protected static <T> T getParsedOption(String name, String option, OptionParser<T> parser) throws IOException {
+        HashCode hash = Hashing.sha256().newHasher().putUnencodedChars(name).putByte((byte) 0).putUnencodedChars(option).hash();
+        try {
+            return (T) parsedOptionCache.get(hash, () -> new ParsedOption(parser.parse(option), option.length())).value;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Unable to parse " + name, e.getCause());
+        }
+    }
+    
+    protected interface OptionParser<T> {
+        T parse(String option) throws IOException;
+    }
+    
+    protected static class ParsedOption {
+        final Object value;
+        final int length;
+        
+        ParsedOption(Object value, int length) {
+            this.value = value;
+            this.length = length;
+        }
+    }
+    
     protected static String decompressOption(final String buffer, Charset characterSet) throws IOException {
         final byte[] inBase64 = Base64.decodeBase64(buffer.getBytes());
         
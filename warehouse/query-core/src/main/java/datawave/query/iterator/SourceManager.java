@@ -8,6 +8,7 @@ import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.apache.accumulo.core.data.ByteSequence;
 import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.PartialKey;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.iterators.IteratorEnvironment;
@@ -22,6 +23,10 @@ import com.google.common.collect.Lists;
  * Design: basic unary tree to support parent/child relationship among delegates of source manager
  * 
  * Purpose: reduce the number of sources when our AST deepcopies nodes specifically for IteratorBuildingVisitor.
+ * 
+ * When limited to a pool of sources, each seek may be routed to a pooled source that no root currently holds, positioned closest before the start of the seek
+ * within the same row and column family. That lets the underlying file readers continue from their current block instead of locating and reading it again,
+ * without moving a source out from under another root. A root holds its source while it has a top key.
  *
  */
 public class SourceManager implements SortedKeyValueIterator<Key,Value> {
@@ -45,6 +50,21 @@ public class SourceManager implements SortedKeyValueIterator<Key,Value> {
     private IteratorEnvironment originalEnv = null;
     private boolean root = false;
     
+    // the manager holding the pool of sources that a root draws from
+    protected SourceManager pool = null;
+    
+    // pool statistics, kept on the pool's manager
+    protected long deepCopiesAvoided = 0;
+    protected long seeksRouted = 0;
+    protected long reseeks = 0;
+    
+    // whether this root is positioned on its source
+    private boolean holding = false;
+    
+    // for pooled sources, the number of roots positioned on this source and the last key it was positioned at
+    protected int holders = 0;
+    protected Key position = null;
+    
     public SourceManager(int initialSize, SortedKeyValueIterator<Key,Value> source) {
         this.initialSize = initialSize;
         child = new SourceManager(source);
@@ -115,6 +135,7 @@ public class SourceManager implements SortedKeyValueIterator<Key,Value> {
             } catch (Exception e) {
                 lastKey = null;
             }
+            updateHold();
         } else {
             originalSource.next();
             if (originalSource.hasTop()) {
@@ -126,6 +147,8 @@ public class SourceManager implements SortedKeyValueIterator<Key,Value> {
             } else
                 lastKey = null;
         }
+        if (null != lastKey)
+            position = lastKey;
         
     }
     
@@ -171,6 +194,16 @@ public class SourceManager implements SortedKeyValueIterator<Key,Value> {
     
     @Override
     public void seek(Range range, Collection<ByteSequence> columnFamilies, boolean inclusive) throws IOException {
+        if (null != child && null != pool) {
+            SourceManager nearest = pool.findNearestSource(range, child);
+            if (null != nearest) {
+                if (log.isTraceEnabled())
+                    log.trace("Routing seek to " + range + " to the source at " + nearest.position);
+                releaseHold();
+                child = nearest;
+                pool.seeksRouted++;
+            }
+        }
         if (null != child) {
             if (log.isDebugEnabled())
                 log.debug("DeepCopy at " + sourceQueue.size() + ", deepCopies: " + deepCopiesCalled + ", sources: " + sources + " child seek to " + range);
@@ -181,6 +214,7 @@ public class SourceManager implements SortedKeyValueIterator<Key,Value> {
             } catch (Exception e) {
                 lastKey = null;
             }
+            updateHold();
             
         } else {
             // we are a child source node and must be resought
@@ -202,16 +236,19 @@ public class SourceManager implements SortedKeyValueIterator<Key,Value> {
             }
             
         }
+        // a source left without a top key is still positioned at or after the start of the range
+        if (null != lastKey)
+            position = lastKey;
+        else
+            position = range.isInfiniteStartKey() ? null : range.getStartKey();
         lastRange = range;
         this.columnFamilies = columnFamilies;
         this.inclusive = inclusive;
     }
     
     /**
-     * TODO: Since we keep track of last key in the bottom source, perhaps we could look at those which are closer when selecting the source. Right now we are
-     * given a source and re-use it; however, there is no reason we can't return it for another -- In some experiments this didn't seem fruitful. i.e. it added
-     * overhead for very little perceived benefit, but I'm uncertain if that is always the case. It "seems like it should work" but sometimes feels don't
-     * translate to realistic performance benefits.
+     * Sources are handed out round robin here. A root may later move to a closer source that no other root holds when it seeks, see
+     * {@link #findNearestSource(Range, SourceManager)}.
      */
     public SortedKeyValueIterator<Key,Value> deepCopy(IteratorEnvironment env) {
         deepCopiesCalled++;
@@ -223,6 +260,7 @@ public class SourceManager implements SortedKeyValueIterator<Key,Value> {
                 nextSource = createSource();
             } else {
                 nextSource = queue.poll();
+                deepCopiesAvoided++;
             }
             
             if (log.isDebugEnabled())
@@ -233,6 +271,7 @@ public class SourceManager implements SortedKeyValueIterator<Key,Value> {
             SourceManager sourcedManager = new SourceManager(null);
             sourcedManager.setChild(nextSource);
             sourcedManager.root = true;
+            sourcedManager.pool = this;
             return sourcedManager;
         } else {
             if (null != child) {
@@ -264,6 +303,9 @@ public class SourceManager implements SortedKeyValueIterator<Key,Value> {
                 log.trace("reseek " + lastRange + " " + childRange + " " + childLastKey + " " + lastKey);
             }
             if (childRange != null && (!lastRange.equals(childRange) && !lastKeysNull && (lastKey == null || !lastKey.equals(childLastKey)))) {
+                if (null != pool) {
+                    pool.reseeks++;
+                }
                 try {
                     seekFromLast();
                     return true;
@@ -275,6 +317,55 @@ public class SourceManager implements SortedKeyValueIterator<Key,Value> {
         return false;
     }
     
+    /**
+     * Find the pooled source positioned closest before the start of the range, within the same row and column family, that no root holds. The current source
+     * is kept if it is itself so positioned.
+     * 
+     * @param range
+     *            the range about to be sought
+     * @param current
+     *            the source currently used for the seek
+     * @return a better positioned source, or null to keep the current one
+     */
+    protected SourceManager findNearestSource(Range range, SourceManager current) {
+        if (range.isInfiniteStartKey() || isPositionedBefore(current.position, range.getStartKey())) {
+            return null;
+        }
+        Key start = range.getStartKey();
+        SourceManager nearest = null;
+        for (SourceManager candidate : sourceQueue) {
+            if (candidate != current && candidate.holders == 0 && isPositionedBefore(candidate.position, start)
+                            && (null == nearest || candidate.position.compareTo(nearest.position) > 0)) {
+                nearest = candidate;
+            }
+        }
+        return nearest;
+    }
+    
+    /**
+     * A root holds its source while it has a top key, so that no other root is routed to it.
+     */
+    private void updateHold() {
+        if (null != pool) {
+            boolean positioned = null != lastKey;
+            if (positioned != holding) {
+                child.holders += positioned ? 1 : -1;
+                holding = positioned;
+            }
+        }
+    }
+    
+    private void releaseHold() {
+        if (holding) {
+            child.holders--;
+            holding = false;
+        }
+    }
+    
+    private static boolean isPositionedBefore(Key position, Key start) {
+        return null != position && position.compareTo(start) <= 0 && position.equals(start, PartialKey.ROW_COLFAM);
+    }
+    
     private Key getSourceLastKey() {
         if (null != child) {
             return child.getSourceLastKey();
@@ -296,6 +387,10 @@ public class SourceManager implements SortedKeyValueIterator<Key,Value> {
             if (log.isTraceEnabled()) {
                 log.trace("Call has top" + lastRange + " " + getSourceRange() + " " + lastKey + " " + getSourceLastKey());
             }
+            // once exhausted, a root stays so even if another root has since moved its source
+            if (root && null == lastKey) {
+                return false;
+            }
             reseekIfNeeded();
             
             return child.hasTop();
@@ -315,4 +410,33 @@ public class SourceManager implements SortedKeyValueIterator<Key,Value> {
         return initialSize;
     }
     
+    /**
+     * @return the number of deep copies handed an existing pooled source rather than a new one
+     */
+    public long getDeepCopiesAvoided() {
+        return deepCopiesAvoided;
+    }
+    
+    /**
+     * @return the number of seeks moved to a better positioned pooled source, each of which may continue from the current block of the file readers
+     */
+    public long getSeeksRouted() {
+        return seeksRouted;
+    }
+    
+    /**
+     * @return the number of times a root had to seek its source again because another root had moved it, re-reading the blocks it was positioned in
+     */
+    public long getReseeks() {
+        return reseeks;
+    }
+    
+    /**
+     * @return a summary of how the pool of sources was used
+     */
+    public String getPoolSummary() {
+        return "sources: " + createdSize + " of " + initialSize + ", deepCopies: " + deepCopiesCalled + ", deepCopiesAvoided: " + deepCopiesAvoided
+                        + ", seeksRouted: " + seeksRouted + ", reseeks: " + reseeks;
+    }
+    
 }
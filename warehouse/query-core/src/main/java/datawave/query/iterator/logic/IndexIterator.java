@@ -98,6 +98,7 @@ public class IndexIterator implements SortedKeyValueIterator<Key,Value>, Documen
     protected SortedKeyValueIterator<Key,Value> source;
     protected LimitedSortedKeyValueIterator limitedSource;
     protected final Text valueMinPrefix;
+    protected final Text valueMaxPrefix;
     protected final Text columnFamily;
     protected final Collection<ByteSequence> seekColumnFamilies;
     protected final boolean includeColumnFamilies;
@@ -129,6 +130,7 @@ public class IndexIterator implements SortedKeyValueIterator<Key,Value>, Documen
                     boolean buildDocument, Predicate<Key> datatypeFilter, FieldIndexAggregator aggregator) {
         
         valueMinPrefix = Util.minPrefix(value);
+        valueMaxPrefix = Util.maxPrefix(value);
         
         this.datatypeFilter = datatypeFilter;
         if (datatypeFilter instanceof SeekingFilter) {
@@ -413,7 +415,9 @@ public class IndexIterator implements SortedKeyValueIterator<Key,Value>, Documen
     }
     
     /**
-     * Permute a "Document" Range to the equivalent "Field Index" Range for a Field:Term
+     * Permute a "Document" Range to the equivalent "Field Index" Range for a Field:Term. When the range is confined to a single shard, the field index range
+     * ends after the last key for the term, which keeps every seek within one field value so that the shard table's bloom filters can skip the files that do
+     * not contain the term.
      * 
      * @param r
      * @return
@@ -421,8 +425,37 @@ public class IndexIterator implements SortedKeyValueIterator<Key,Value>, Documen
     protected Range buildIndexRange(Range r) {
         Key startKey = permuteRangeKey(r.getStartKey(), r.isStartKeyInclusive());
         Key endKey = permuteRangeKey(r.getEndKey(), r.isEndKeyInclusive());
+        boolean endKeyInclusive = r.isEndKeyInclusive();
         
-        return new Range(startKey, r.isStartKeyInclusive(), endKey, r.isEndKeyInclusive());
+        if (isSingleRow(r)) {
+            Key termEndKey = new Key(startKey.getRow(), this.columnFamily, valueMaxPrefix);
+            if (endKey.compareTo(termEndKey, PartialKey.ROW_COLFAM_COLQUAL) >= 0) {
+                endKey = termEndKey;
+                endKeyInclusive = false;
+            }
+        }
+        
+        return new Range(startKey, r.isStartKeyInclusive(), endKey, endKeyInclusive);
+    }
+    
+    /**
+     * Determine whether a "Document" Range can only contain field index keys from a single row, either because both ends are in the same row or because it
+     * ends at the start of the following row
+     * 
+     * @param r
+     * @return
+     */
+    protected static boolean isSingleRow(Range r) {
+        if (r.isInfiniteStartKey() || r.isInfiniteStopKey()) {
+            return false;
+        }
+        
+        Key start = r.getStartKey();
+        Key end = r.getEndKey();
+        if (start.getRowData().equals(end.getRowData())) {
+            return true;
+        }
+        return end.getColumnFamilyData().length() == 0 && end.getRowData().equals(start.followingKey(PartialKey.ROW).getRowData());
     }
     
     /**
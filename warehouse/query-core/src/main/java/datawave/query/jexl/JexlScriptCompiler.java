@@ -0,0 +1,337 @@
+package datawave.query.jexl;
+
+import datawave.query.collections.FunctionalSet;
+import datawave.query.jexl.nodes.ExceededOrThresholdMarkerJexlNode;
+import org.apache.commons.jexl2.JexlArithmetic;
+import org.apache.commons.jexl2.JexlContext;
+import org.apache.commons.jexl2.JexlException;
+import org.apache.commons.jexl2.parser.ASTAndNode;
+import org.apache.commons.jexl2.parser.ASTAssignment;
+import org.apache.commons.jexl2.parser.ASTEQNode;
+import org.apache.commons.jexl2.parser.ASTERNode;
+import org.apache.commons.jexl2.parser.ASTFalseNode;
+import org.apache.commons.jexl2.parser.ASTGENode;
+import org.apache.commons.jexl2.parser.ASTGTNode;
+import org.apache.commons.jexl2.parser.ASTIdentifier;
+import org.apache.commons.jexl2.parser.ASTJexlScript;
+import org.apache.commons.jexl2.parser.ASTLENode;
+import org.apache.commons.jexl2.parser.ASTLTNode;
+import org.apache.commons.jexl2.parser.ASTNENode;
+import org.apache.commons.jexl2.parser.ASTNRNode;
+import org.apache.commons.jexl2.parser.ASTNotNode;
+import org.apache.commons.jexl2.parser.ASTNullLiteral;
+import org.apache.commons.jexl2.parser.ASTNumberLiteral;
+import org.apache.commons.jexl2.parser.ASTOrNode;
+import org.apache.commons.jexl2.parser.ASTReference;
+import org.apache.commons.jexl2.parser.ASTReferenceExpression;
+import org.apache.commons.jexl2.parser.ASTStringLiteral;
+import org.apache.commons.jexl2.parser.ASTTrueNode;
+import org.apache.commons.jexl2.parser.JexlNode;
+import org.apache.log4j.Logger;
+
+import java.util.Collection;
+
+/**
+ * Compiles a parsed query into a tree of closures that can be evaluated against a {@link JexlContext} without walking the AST through the
+ * {@link DatawaveInterpreter} for every document. Identifier names and literal values are resolved once at compile time, and comparisons call straight into
+ * the {@link JexlArithmetic}, so hit tracking in a {@link HitListArithmetic} behaves exactly as it does when interpreted.
+ * <p>
+ * Only boolean logic, assignments and comparisons between identifiers and literals are supported. Anything else (functions, methods, the exceeded or threshold
+ * marker, bounded ranges) causes {@link #compile(ASTJexlScript, JexlArithmetic)} to return null, in which case the script should be interpreted as before.
+ */
+public class JexlScriptCompiler {
+    
+    private static final Logger log = Logger.getLogger(JexlScriptCompiler.class);
+    
+    /**
+     * A compiled node of a query. Evaluation returns the same value the {@link DatawaveInterpreter} would have returned for the node.
+     */
+    public interface CompiledNode {
+        Object evaluate(JexlContext context);
+    }
+    
+    private interface Comparison {
+        boolean compare(Object left, Object right);
+    }
+    
+    private final JexlArithmetic arithmetic;
+    
+    private JexlScriptCompiler(JexlArithmetic arithmetic) {
+        this.arithmetic = arithmetic;
+    }
+    
+    /**
+     * Compiles the script.
+     * 
+     * @param script
+     *            the parsed query
+     * @param arithmetic
+     *            the arithmetic the script would otherwise have been interpreted with
+     * @return the compiled script, or null if the script contains nodes that are not supported
+     */
+    public static CompiledNode compile(ASTJexlScript script, JexlArithmetic arithmetic) {
+        if (script == null || arithmetic == null || script.jjtGetNumChildren() != 1) {
+            return null;
+        }
+        CompiledNode compiled = new JexlScriptCompiler(arithmetic).compile(script.jjtGetChild(0));
+        if (compiled == null && log.isDebugEnabled()) {
+            log.debug("Query contains unsupported nodes and will be interpreted");
+        }
+        return compiled;
+    }
+    
+    private CompiledNode compile(JexlNode node) {
+        if (node instanceof ASTReference) {
+            if (ExceededOrThresholdMarkerJexlNode.instanceOf(node) || node.jjtGetNumChildren() != 1) {
+                return null;
+            }
+            return compile(node.jjtGetChild(0));
+        } else if (node instanceof ASTReferenceExpression) {
+            return node.jjtGetNumChildren() == 1 ? compile(node.jjtGetChild(0)) : null;
+        } else if (node instanceof ASTIdentifier) {
+            final String name = node.image;
+            return context -> context.get(name);
+        } else if (node instanceof ASTStringLiteral) {
+            final String literal = node.image;
+            return context -> literal;
+        } else if (node instanceof ASTNumberLiteral) {
+            final Number literal = ((ASTNumberLiteral) node).getLiteral();
+            return context -> literal;
+        } else if (node instanceof ASTTrueNode) {
+            return context -> Boolean.TRUE;
+        } else if (node instanceof ASTFalseNode) {
+            return context -> Boolean.FALSE;
+        } else if (node instanceof ASTNullLiteral) {
+            return context -> null;
+        } else if (node instanceof ASTAndNode) {
+            return compileAnd(node);
+        } else if (node instanceof ASTOrNode) {
+            return compileOr(node);
+        } else if (node instanceof ASTNotNode) {
+            return compileNot(node);
+        } else if (node instanceof ASTAssignment) {
+            return compileAssignment(node);
+        } else if (node instanceof ASTEQNode) {
+            return compileComparison(node, arithmetic::equals, "== error");
+        } else if (node instanceof ASTNENode) {
+            return compileComparison(node, (left, right) -> !arithmetic.equals(left, right), "!= error");
+        } else if (node instanceof ASTERNode) {
+            return compileMatch(node, false);
+        } else if (node instanceof ASTNRNode) {
+            return compileMatch(node, true);
+        } else if (node instanceof ASTLTNode) {
+            return compileComparison(node, arithmetic::lessThan, "< error");
+        } else if (node instanceof ASTLENode) {
+            return compileComparison(node, arithmetic::lessThanOrEqual, "<= error");
+        } else if (node instanceof ASTGTNode) {
+            return compileComparison(node, arithmetic::greaterThan, "> error");
+        } else if (node instanceof ASTGENode) {
+            return compileComparison(node, arithmetic::greaterThanOrEqual, ">= error");
+        }
+        return null;
+    }
+    
+    private CompiledNode compileComparison(final JexlNode node, final Comparison comparison, final String error) {
+        if (node.jjtGetNumChildren() != 2) {
+            return null;
+        }
+        final CompiledNode left = compile(node.jjtGetChild(0));
+        final CompiledNode right = compile(node.jjtGetChild(1));
+        if (left == null || right == null) {
+            return null;
+        }
+        return context -> {
+            Object leftValue = left.evaluate(context);
+            Object rightValue = right.evaluate(context);
+            try {
+                return comparison.compare(leftValue, rightValue) ? Boolean.TRUE : Boolean.FALSE;
+            } catch (ArithmeticException xrt) {
+                throw new JexlException(node, error, xrt);
+            }
+        };
+    }
+    
+    /**
+     * The interpreter only uses {@link JexlArithmetic#matches(Object, Object)} when the pattern is a string, so only string literal patterns are compiled
+     */
+    private CompiledNode compileMatch(final JexlNode node, final boolean negated) {
+        if (node.jjtGetNumChildren() != 2 || !(dereference(node.jjtGetChild(1)) instanceof ASTStringLiteral)) {
+            return null;
+        }
+        return compileComparison(node, (left, right) -> arithmetic.matches(left, right) != negated, negated ? "!~ error" : "=~ error");
+    }
+    
+    private CompiledNode compileNot(final JexlNode node) {
+        if (node.jjtGetNumChildren() != 1) {
+            return null;
+        }
+        final CompiledNode child = compile(node.jjtGetChild(0));
+        if (child == null) {
+            return null;
+        }
+        return context -> arithmetic.toBoolean(child.evaluate(context)) ? Boolean.FALSE : Boolean.TRUE;
+    }
+    
+    private CompiledNode compileAssignment(final JexlNode node) {
+        if (node.jjtGetNumChildren() != 2) {
+            return null;
+        }
+        JexlNode target = node.jjtGetChild(0);
+        if (target instanceof ASTReference && target.jjtGetNumChildren() == 1) {
+            target = target.jjtGetChild(0);
+        }
+        if (!(target instanceof ASTIdentifier)) {
+            return null;
+        }
+        final String name = target.image;
+        final CompiledNode value = compile(node.jjtGetChild(1));
+        if (value == null) {
+            return null;
+        }
+        return context -> {
+            Object result = value.evaluate(context);
+            context.set(name, result);
+            return result;
+        };
+    }
+    
+    /**
+     * Mirrors {@link DatawaveInterpreter#visit(ASTOrNode, Object)}
+     */
+    private CompiledNode compileOr(final JexlNode node) {
+        if (node.jjtGetNumChildren() != 2) {
+            return null;
+        }
+        final CompiledNode leftNode = compile(node.jjtGetChild(0));
+        final CompiledNode rightNode = compile(node.jjtGetChild(1));
+        if (leftNode == null || rightNode == null) {
+            return null;
+        }
+        return context -> {
+            FunctionalSet leftFunctionalSet = null;
+            FunctionalSet rightFunctionalSet = null;
+            Object left = leftNode.evaluate(context);
+            if (left == null)
+                left = FunctionalSet.empty();
+            if (left instanceof Collection == false) {
+                try {
+                    if (arithmetic.toBoolean(left)) {
+                        return Boolean.TRUE;
+                    }
+                } catch (ArithmeticException xrt) {
+                    throw new JexlException(node.jjtGetChild(0), "boolean coercion error", xrt);
+                }
+            } else {
+                leftFunctionalSet = new FunctionalSet();
+                leftFunctionalSet.addAll((Collection) left);
+            }
+            Object right = rightNode.evaluate(context);
+            if (right == null)
+                right = FunctionalSet.empty();
+            if (right instanceof Collection == false) {
+                try {
+                    if (arithmetic.toBoolean(right)) {
+                        return Boolean.TRUE;
+                    }
+                } catch (ArithmeticException xrt) {
+                    throw new JexlException(node.jjtGetChild(1), "boolean coercion error", xrt);
+                }
+            } else {
+                rightFunctionalSet = new FunctionalSet();
+                rightFunctionalSet.addAll((Collection) right);
+            }
+            if (leftFunctionalSet != null && rightFunctionalSet != null) {
+                leftFunctionalSet.addAll(rightFunctionalSet);
+                return leftFunctionalSet;
+            } else if (leftFunctionalSet != null) {
+                return leftFunctionalSet;
+            } else if (rightFunctionalSet != null) {
+                return rightFunctionalSet;
+            }
+            return arithmetic.toBoolean(left) || arithmetic.toBoolean(right);
+        };
+    }
+    
+    /**
+     * Mirrors {@link DatawaveInterpreter#visit(ASTAndNode, Object)}. A conjunction of a lower and upper bound is evaluated as a range by the interpreter, so
+     * it is not compiled.
+     */
+    private CompiledNode compileAnd(final JexlNode node) {
+        if (node.jjtGetNumChildren() != 2 || isBoundedRange(node.jjtGetChild(0), node.jjtGetChild(1))) {
+            return null;
+        }
+        final CompiledNode leftNode = compile(node.jjtGetChild(0));
+        final CompiledNode rightNode = compile(node.jjtGetChild(1));
+        if (leftNode == null || rightNode == null) {
+            return null;
+        }
+        return context -> {
+            FunctionalSet leftFunctionalSet = null;
+            FunctionalSet rightFunctionalSet = null;
+            Object left = leftNode.evaluate(context);
+            if (left == null)
+                left = FunctionalSet.empty();
+            if (left instanceof Collection == false) {
+                try {
+                    if (!arithmetic.toBoolean(left)) {
+                        return Boolean.FALSE;
+                    }
+                } catch (RuntimeException xrt) {
+                    throw new JexlException(node.jjtGetChild(0), "boolean coercion error", xrt);
+                }
+            } else {
+                leftFunctionalSet = new FunctionalSet();
+                leftFunctionalSet.addAll((Collection) left);
+            }
+            Object right = rightNode.evaluate(context);
+            if (right == null)
+                right = FunctionalSet.empty();
+            if (right instanceof Collection == false) {
+                try {
+                    if (!arithmetic.toBoolean(right)) {
+                        return Boolean.FALSE;
+                    }
+                } catch (ArithmeticException xrt) {
+                    throw new JexlException(node.jjtGetChild(1), "boolean coercion error", xrt);
+                }
+            } else {
+                rightFunctionalSet = new FunctionalSet();
+                rightFunctionalSet.addAll((Collection) right);
+            }
+            if (leftFunctionalSet != null && rightFunctionalSet != null) {
+                if (!leftFunctionalSet.isEmpty() && !rightFunctionalSet.isEmpty()) {
+                    leftFunctionalSet.addAll(rightFunctionalSet);
+                    return leftFunctionalSet;
+                }
+                return Boolean.FALSE;
+            }
+            return toBoolean(left) && toBoolean(right);
+        };
+    }
+    
+    private boolean toBoolean(Object value) {
+        if (value instanceof Collection) {
+            return !((Collection) value).isEmpty();
+        }
+        return arithmetic.toBoolean(value);
+    }
+    
+    private static boolean isBoundedRange(JexlNode left, JexlNode right) {
+        return (isLowerBound(left) && isUpperBound(right)) || (isUpperBound(left) && isLowerBound(right));
+    }
+    
+    private static boolean isLowerBound(JexlNode node) {
+        return node instanceof ASTGENode || node instanceof ASTGTNode;
+    }
+    
+    private static boolean isUpperBound(JexlNode node) {
+        return node instanceof ASTLENode || node instanceof ASTLTNode;
+    }
+    
+    private static JexlNode dereference(JexlNode node) {
+        while (node.jjtGetNumChildren() == 1 && (node instanceof ASTReferenceExpression || node instanceof ASTReference)) {
+            node = node.jjtGetChild(0);
+        }
+        return node;
+    }
+}
@@ -0,0 +1,428 @@
+package datawave.query.jexl;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.apache.log4j.Logger;
+import org.apache.lucene.util.automaton.Automaton;
+import org.apache.lucene.util.automaton.ByteRunAutomaton;
+import org.apache.lucene.util.automaton.Operations;
+import org.apache.lucene.util.automaton.RegExp;
+import org.apache.lucene.util.automaton.TooComplexToDeterminizeException;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * A regular expression compiled into a deterministic automaton over the UTF-8 bytes of a value, so that field index values can be matched without decoding
+ * them into Strings or allocating a Matcher per value, and so that the values which cannot match can be skipped over.
+ * <p>
+ * Only the part of the {@link Pattern} syntax which the automaton matches with the same semantics as {@link Pattern#compile(String)} (i.e. without flags) is
+ * supported: literals, escapes, character classes, the predefined {@code \d \w \s} classes, {@code .}, groups, alternation, and greedy or reluctant
+ * quantifiers. For anything else, such as back references, lookarounds, embedded flags, possessive quantifiers, or anchors other than a leading {@code ^} and
+ * trailing {@code $}, no automaton is built and the caller should fall back to a {@link Pattern}.
+ */
+public class RegexAutomaton {
+    
+    private static final Logger log = Logger.getLogger(RegexAutomaton.class);
+    
+    private static final Cache<String,Optional<RegexAutomaton>> AUTOMATON_CACHE = CacheBuilder.newBuilder().maximumSize(1000l).initialCapacity(100)
+                    .concurrencyLevel(10).build();
+    
+    // the line terminators which a java.util.regex '.' does not match
+    private static final String LINE_TERMINATORS = "\n\r\u0085\u2028\u2029";
+    
+    private final String regex;
+    private final ByteRunAutomaton automaton;
+    
+    // whether an accepting state can be reached from each state
+    private final boolean[] live;
+    
+    private RegexAutomaton(String regex, ByteRunAutomaton automaton) {
+        this.regex = regex;
+        this.automaton = automaton;
+        this.live = findLiveStates(automaton);
+    }
+    
+    /**
+     * Returns a cached automaton for a regular expression
+     * 
+     * @param regex
+     * @return the automaton, or null if the regex is not supported
+     */
+    public static RegexAutomaton get(String regex) {
+        Optional<RegexAutomaton> automaton = AUTOMATON_CACHE.getIfPresent(regex);
+        if (null == automaton) {
+            automaton = Optional.ofNullable(compile(regex));
+            AUTOMATON_CACHE.put(regex, automaton);
+        }
+        return automaton.orElse(null);
+    }
+    
+    /**
+     * Compile a regular expression into an automaton
+     * 
+     * @param regex
+     * @return the automaton, or null if the regex is not supported
+     */
+    public static RegexAutomaton compile(String regex) {
+        try {
+            // leave invalid expressions for the Pattern to report
+            Pattern.compile(regex);
+        } catch (PatternSyntaxException e) {
+            return null;
+        }
+        
+        String syntax = toAutomatonSyntax(regex);
+        if (syntax == null) {
+            if (log.isDebugEnabled()) {
+                log.debug("Not building an automaton for unsupported regex " + regex);
+            }
+            return null;
+        }
+        
+        try {
+            Automaton automaton = new RegExp(syntax, RegExp.NONE).toAutomaton(Operations.DEFAULT_MAX_DETERMINIZED_STATES);
+            return new RegexAutomaton(regex, new ByteRunAutomaton(automaton, false, Operations.DEFAULT_MAX_DETERMINIZED_STATES));
+        } catch (IllegalArgumentException | TooComplexToDeterminizeException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Unable to build an automaton for regex " + regex, e);
+            }
+            return null;
+        }
+    }
+    
+    public String getRegex() {
+        return regex;
+    }
+    
+    /**
+     * Does the entire UTF-8 encoded value match the regex
+     * 
+     * @param bytes
+     * @param offset
+     * @param length
+     * @return true if the value matches
+     */
+    public boolean matches(byte[] bytes, int offset, int length) {
+        return automaton.run(bytes, offset, length);
+    }
+    
+    /**
+     * Find the first UTF-8 encoded value at or after the given value which could match, in byte order. This may not be a matching value itself, but no value
+     * between the given value and the one returned matches, so a scan may seek directly to it.
+     * 
+     * @param bytes
+     * @param offset
+     * @param length
+     * @return the value itself if it matches, a later value which no match precedes, or null if no later value can match
+     */
+    public byte[] nextPossibleMatch(byte[] bytes, int offset, int length) {
+        if (!live[0]) {
+            return null;
+        }
+        
+        // follow the value for as long as a match is still possible
+        int[] states = new int[length + 1];
+        int state = 0;
+        int pos = 0;
+        for (; pos < length; pos++) {
+            states[pos] = state;
+            int next = automaton.step(state, bytes[offset + pos] & 0xff);
+            if (next == -1 || !live[next]) {
+                break;
+            }
+            state = next;
+        }
+        
+        ByteArrayOutputStream out = new ByteArrayOutputStream(length + 8);
+        if (pos == length) {
+            out.write(bytes, offset, length);
+            appendLeastSuffix(state, out);
+            return out.toByteArray();
+        }
+        
+        // otherwise back up to the last byte which can be incremented to one leading to a match
+        for (; pos >= 0; pos--) {
+            for (int b = (bytes[offset + pos] & 0xff) + 1; b < 256; b++) {
+                int next = automaton.step(states[pos], b);
+                if (next != -1 && live[next]) {
+                    out.write(bytes, offset, pos);
+                    out.write(b);
+                    appendLeastSuffix(next, out);
+                    return out.toByteArray();
+                }
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Append the smallest bytes leading from a live state to an accepting state, stopping short if they loop since the least match is then unbounded
+     */
+    private void appendLeastSuffix(int state, ByteArrayOutputStream out) {
+        boolean[] visited = new boolean[live.length];
+        while (!automaton.isAccept(state) && !visited[state]) {
+            visited[state] = true;
+            for (int b = 0; b < 256; b++) {
+                int next = automaton.step(state, b);
+                if (next != -1 && live[next]) {
+                    out.write(b);
+                    state = next;
+                    break;
+                }
+            }
+        }
+    }
+    
+    private static boolean[] findLiveStates(ByteRunAutomaton automaton) {
+        int size = automaton.getSize();
+        List<List<Integer>> predecessors = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            predecessors.add(new ArrayList<>());
+        }
+        
+        boolean[] live = new boolean[size];
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int state = 0; state < size; state++) {
+            int last = -1;
+            for (int b = 0; b < 256; b++) {
+                int next = automaton.step(state, b);
+                if (next != -1 && next != last) {
+                    predecessors.get(next).add(state);
+                    last = next;
+                }
+            }
+            if (automaton.isAccept(state)) {
+                live[state] = true;
+                queue.add(state);
+            }
+        }
+        
+        while (!queue.isEmpty()) {
+            for (int state : predecessors.get(queue.poll())) {
+                if (!live[state]) {
+                    live[state] = true;
+                    queue.add(state);
+                }
+            }
+        }
+        return live;
+    }
+    
+    /**
+     * Translate a {@link Pattern} regex into the equivalent {@link RegExp} syntax
+     * 
+     * @param regex
+     * @return the translated regex, or null if it uses syntax which cannot be translated
+     */
+    static String toAutomatonSyntax(String regex) {
+        StringBuilder out = new StringBuilder(regex.length() * 2);
+        int i = 0;
+        while (i < regex.length()) {
+            int c = regex.codePointAt(i);
+            i += Character.charCount(c);
+            switch (c) {
+                case '\\':
+                    if (i >= regex.length()) {
+                        return null;
+                    }
+                    char escaped = regex.charAt(i++);
+                    if (escaped == 'Q') {
+                        int end = regex.indexOf("\\E", i);
+                        String quoted = (end < 0 ? regex.substring(i) : regex.substring(i, end));
+                        quoted.codePoints().forEach(q -> appendLiteral(out, q));
+                        i = (end < 0 ? regex.length() : end + 2);
+                    } else if (escaped == 'D' || escaped == 'W' || escaped == 'S') {
+                        out.append("[^").append(getPredefinedClass(Character.toLowerCase(escaped))).append(']');
+                    } else {
+                        String predefined = getPredefinedClass(escaped);
+                        if (predefined != null) {
+                            out.append('[').append(predefined).append(']');
+                        } else {
+                            int literal = getEscapedLiteral(escaped);
+                            if (literal < 0) {
+                                return null;
+                            }
+                            appendLiteral(out, literal);
+                        }
+                    }
+                    break;
+                case '[':
+                    i = appendCharacterClass(regex, i, out);
+                    if (i < 0) {
+                        return null;
+                    }
+                    break;
+                case '(':
+                    if (regex.startsWith("?:", i)) {
+                        i += 2;
+                    } else if (regex.startsWith("?", i)) {
+                        // lookarounds, named groups and embedded flags
+                        return null;
+                    }
+                    out.append('(');
+                    break;
+                case ')':
+                case '|':
+                    out.appendCodePoint(c);
+                    break;
+                case '*':
+                case '+':
+                case '?':
+                case '{':
+                    if (c == '{') {
+                        int end = regex.indexOf('}', i);
+                        if (end < 0 || !regex.substring(i, end).matches("\\d+(,\\d*)?")) {
+                            return null;
+                        }
+                        out.append(regex, i - 1, end + 1);
+                        i = end + 1;
+                    } else {
+                        out.appendCodePoint(c);
+                    }
+                    // a reluctant quantifier matches the same values, but a possessive one may not
+                    if (regex.startsWith("?", i)) {
+                        i++;
+                    } else if (regex.startsWith("+", i)) {
+                        return null;
+                    }
+                    break;
+                case '.':
+                    out.append("[^");
+                    LINE_TERMINATORS.codePoints().forEach(t -> appendLiteral(out, t));
+                    out.append(']');
+                    break;
+                case '^':
+                    // the entire value is matched, so only a leading ^ is redundant
+                    if (i != 1) {
+                        return null;
+                    }
+                    break;
+                case '$':
+                    // likewise for a trailing $
+                    if (i != regex.length()) {
+                        return null;
+                    }
+                    break;
+                default:
+                    appendLiteral(out, c);
+            }
+        }
+        return out.toString();
+    }
+    
+    /**
+     * Append the contents of a character class up to and including its closing bracket
+     * 
+     * @return the position after the closing bracket, or -1 if the class cannot be translated
+     */
+    private static int appendCharacterClass(String regex, int i, StringBuilder out) {
+        out.append('[');
+        if (regex.startsWith("^", i)) {
+            out.append('^');
+            i++;
+        }
+        boolean first = true;
+        boolean afterLiteral = false;
+        boolean inRange = false;
+        while (i < regex.length()) {
+            int c = regex.codePointAt(i);
+            i += Character.charCount(c);
+            if (c == ']' && !first) {
+                out.append(']');
+                return i;
+            } else if (c == '[' || c == ']' || (c == '&' && regex.startsWith("&", i))) {
+                // nested classes, intersections, and a leading ]
+                return -1;
+            } else if (c == '-' && afterLiteral && i < regex.length() && regex.charAt(i) != ']') {
+                out.append('-');
+                afterLiteral = false;
+                inRange = true;
+                continue;
+            } else if (c == '\\') {
+                if (i >= regex.length()) {
+                    return -1;
+                }
+                char escaped = regex.charAt(i++);
+                String predefined = getPredefinedClass(escaped);
+                if (predefined != null) {
+                    if (inRange) {
+                        return -1;
+                    }
+                    out.append(predefined);
+                    afterLiteral = false;
+                    first = false;
+                    continue;
+                }
+                c = getEscapedLiteral(escaped);
+                if (c < 0) {
+                    return -1;
+                }
+            }
+            appendLiteral(out, c);
+            // the end of a range cannot start another
+            afterLiteral = !inRange;
+            inRange = false;
+            first = false;
+        }
+        return -1;
+    }
+    
+    /**
+     * @return the contents of a character class equivalent to the predefined class, or null if it is not one of {@code \d \w \s}
+     */
+    private static String getPredefinedClass(char c) {
+        switch (c) {
+            case 'd':
+                return "0-9";
+            case 'w':
+                return "a-zA-Z_0-9";
+            case 's':
+                return "\\ \\\t\\\n\\\u000B\\\f\\\r";
+            default:
+                return null;
+        }
+    }
+    
+    /**
+     * @return the character an escape sequence stands for, or -1 if it is not a literal
+     */
+    private static int getEscapedLiteral(char c) {
+        switch (c) {
+            case 't':
+                return '\t';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 'f':
+                return '\f';
+            case 'a':
+                return '\u0007';
+            case 'e':
+                return '\u001B';
+            default:
+                // any other escaped letter or digit has a special meaning
+                return (Character.isLetterOrDigit(c) ? -1 : c);
+        }
+    }
+    
+    private static void appendLiteral(StringBuilder out, int c) {
+        if (c < 128 && !Character.isLetterOrDigit(c)) {
+            out.append('\\');
+        }
+        out.appendCodePoint(c);
+    }
+    
+    @Override
+    public String toString() {
+        return "RegexAutomaton{regex=" + regex + ", states=" + live.length + '}';
+    }
+}
@@ -1,6 +1,12 @@
 package datawave.query.jexl.functions;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.prep.PreparedGeometry;
+import com.vividsolutions.jts.geom.prep.PreparedGeometryFactory;
 import datawave.data.normalizer.AbstractGeometryNormalizer;
 import datawave.data.type.AbstractGeometryType;
 import datawave.data.type.util.AbstractGeometry;
@@ -19,6 +25,28 @@ import datawave.query.attributes.ValueTuple;
 public class GeoWaveFunctions {
     public static final String GEOWAVE_FUNCTION_NAMESPACE = "geowave";
     
+    /**
+     * The most coordinates of prepared query geometries held by each thread
+     */
+    private static final long MAX_PREPARED_COORDINATES = 256 * 1024;
+    
+    /**
+     * The query geometries, parsed and prepared once rather than for every field value tested against them. A prepared geometry indexes its segments so that
+     * the intersects, contains and covers tests against it do not have to compare every segment of a large polygon. Prepared geometries are not thread-safe
+     * in this version of JTS, so each thread prepares its own, and the cache is bounded by the number of coordinates held rather than the number of geometries.
+     */
+    private static final ThreadLocal<LoadingCache<String,PreparedGeometry>> preparedGeometries = ThreadLocal.withInitial(() -> CacheBuilder.newBuilder()
+                    .concurrencyLevel(1).maximumWeight(MAX_PREPARED_COORDINATES)
+                    .weigher((String key, PreparedGeometry value) -> value.getGeometry().getNumPoints())
+                    .build(new CacheLoader<String,PreparedGeometry>() {
+                        
+                        @Override
+                        public PreparedGeometry load(String key) throws Exception {
+                            return PreparedGeometryFactory.prepare(AbstractGeometryNormalizer.parseGeometry(key));
+                        }
+                        
+                    }));
+    
     /**
      * Test intersection of a set of geometry with a field value
      */
@@ -53,6 +81,17 @@ public class GeoWaveFunctions {
         return false;
     }
     
+    private static PreparedGeometry getPreparedGeometry(String geoString) {
+        try {
+            return preparedGeometries.get().getUnchecked(geoString);
+        } catch (UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+    
     private static Geometry getGeometryFromFieldValue(Object fieldValue) {
         if (fieldValue instanceof Geometry) {
             return (Geometry) fieldValue;
@@ -70,9 +109,9 @@ public class GeoWaveFunctions {
     }
     
     public static boolean contains(Object fieldValue, String geoString) {
-        Geometry otherGeom = AbstractGeometryNormalizer.parseGeometry(geoString);
+        PreparedGeometry otherGeom = getPreparedGeometry(geoString);
         Geometry thisGeom = getGeometryFromFieldValue(fieldValue);
-        return thisGeom.contains(otherGeom);
+        return otherGeom.within(thisGeom);
     }
     
     public static boolean contains(Iterable<?> values, String geoString) {
@@ -97,9 +136,9 @@ public class GeoWaveFunctions {
     }
     
     public static boolean covers(Object fieldValue, String geoString) {
-        Geometry otherGeom = AbstractGeometryNormalizer.parseGeometry(geoString);
+        PreparedGeometry otherGeom = getPreparedGeometry(geoString);
         Geometry thisGeom = getGeometryFromFieldValue(fieldValue);
-        return thisGeom.covers(otherGeom);
+        return otherGeom.coveredBy(thisGeom);
     }
     
     public static boolean covers(Iterable<?> values, String geoString) {
@@ -124,9 +163,9 @@ public class GeoWaveFunctions {
     }
     
     public static boolean covered_by(Object fieldValue, String geoString) {
-        Geometry otherGeom = AbstractGeometryNormalizer.parseGeometry(geoString);
+        PreparedGeometry otherGeom = getPreparedGeometry(geoString);
         Geometry thisGeom = getGeometryFromFieldValue(fieldValue);
-        return thisGeom.coveredBy(otherGeom);
+        return otherGeom.covers(thisGeom);
     }
     
     public static boolean covered_by(Iterable<?> values, String geoString) {
@@ -151,9 +190,9 @@ public class GeoWaveFunctions {
     }
     
     public static boolean crosses(Object fieldValue, String geoString) {
-        Geometry otherGeom = AbstractGeometryNormalizer.parseGeometry(geoString);
+        PreparedGeometry otherGeom = getPreparedGeometry(geoString);
         Geometry thisGeom = getGeometryFromFieldValue(fieldValue);
-        return thisGeom.crosses(otherGeom);
+        return otherGeom.crosses(thisGeom);
     }
     
     public static boolean crosses(Iterable<?> values, String geoString) {
@@ -178,9 +217,9 @@ public class GeoWaveFunctions {
     }
     
     public static boolean intersects(Object fieldValue, String geoString) {
-        Geometry otherGeom = AbstractGeometryNormalizer.parseGeometry(geoString);
+        PreparedGeometry otherGeom = getPreparedGeometry(geoString);
         Geometry thisGeom = getGeometryFromFieldValue(fieldValue);
-        return thisGeom.intersects(otherGeom);
+        return otherGeom.intersects(thisGeom);
     }
     
     public static boolean intersects(Iterable<?> values, String geoString) {
@@ -205,9 +244,9 @@ public class GeoWaveFunctions {
     }
     
     public static boolean overlaps(Object fieldValue, String geoString) {
-        Geometry otherGeom = AbstractGeometryNormalizer.parseGeometry(geoString);
+        PreparedGeometry otherGeom = getPreparedGeometry(geoString);
         Geometry thisGeom = getGeometryFromFieldValue(fieldValue);
-        return thisGeom.overlaps(otherGeom);
+        return otherGeom.overlaps(thisGeom);
     }
     
     public static boolean overlaps(Iterable<?> values, String geoString) {
@@ -232,9 +271,9 @@ public class GeoWaveFunctions {
     }
     
     public static boolean within(Object fieldValue, String geoString) {
-        Geometry otherGeom = AbstractGeometryNormalizer.parseGeometry(geoString);
+        PreparedGeometry otherGeom = getPreparedGeometry(geoString);
         Geometry thisGeom = getGeometryFromFieldValue(fieldValue);
-        return thisGeom.within(otherGeom);
+        return otherGeom.contains(thisGeom);
     }
     
     public static boolean within(Iterable<?> values, String geoString) {
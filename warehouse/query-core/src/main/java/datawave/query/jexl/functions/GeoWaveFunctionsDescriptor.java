@@ -6,6 +6,9 @@ import com.vividsolutions.jts.geom.Envelope;
 import com.vividsolutions.jts.geom.Geometry;
 import com.vividsolutions.jts.geom.GeometryCollection;
 import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.Polygonal;
+import com.vividsolutions.jts.geom.prep.PreparedGeometry;
+import com.vividsolutions.jts.geom.prep.PreparedGeometryFactory;
 import datawave.data.normalizer.AbstractGeometryNormalizer;
 import datawave.data.normalizer.GeometryNormalizer;
 import datawave.data.normalizer.PointNormalizer;
@@ -36,15 +39,20 @@ import org.apache.log4j.Logger;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
  * This is the descriptor class for performing geowave functions. It supports basic spatial relationships, and decomposes the bounding box of the relationship
  * geometry into a set of geowave ranges. It currently caps this range decomposition to 8 ranges per tier for GeometryType and 32 ranges total for PointType.
+ * <p>
+ * When a cover cell budget is configured, the relationship geometry is instead covered by up to that many cells of varying size, refined where the geometry
+ * only partially covers them, so that large or irregular polygons do not pull in the empty parts of their bounding box.
  *
  */
 public class GeoWaveFunctionsDescriptor implements JexlFunctionArgumentDescriptorFactory {
@@ -58,6 +66,11 @@ public class GeoWaveFunctionsDescriptor implements JexlFunctionArgumentDescripto
     
     private static final Logger LOGGER = Logger.getLogger(GeoWaveFunctionsDescriptor.class);
     
+    /**
+     * The maximum number of times a cover cell will be split in half along each axis
+     */
+    private static final int MAX_COVER_DEPTH = 16;
+    
     public static class GeoWaveJexlArgumentDescriptor implements JexlArgumentDescriptor {
         protected final String name;
         protected final List<JexlNode> args;
@@ -72,7 +85,12 @@ public class GeoWaveFunctionsDescriptor implements JexlFunctionArgumentDescripto
             int maxEnvelopes = Math.max(1, config.getGeoWaveMaxEnvelopes());
             if (isSpatialRelationship(name)) {
                 Geometry geom = AbstractGeometryNormalizer.parseGeometry(args.get(1).image);
-                List<Envelope> envelopes = getSeparateEnvelopes(geom, maxEnvelopes);
+                List<Envelope> envelopes;
+                if (config.getGeoWaveMaxCoverCells() > 0) {
+                    envelopes = getCoverEnvelopes(geom, config.getGeoWaveMaxCoverCells());
+                } else {
+                    envelopes = getSeparateEnvelopes(geom, maxEnvelopes);
+                }
                 if (!envelopes.isEmpty()) {
                     
                     JexlNode indexNode;
@@ -152,7 +170,7 @@ public class GeoWaveFunctionsDescriptor implements JexlFunctionArgumentDescripto
             }
             
             List<ByteArrayRange> allRanges = new ArrayList<>();
-            int maxRanges = maxExpansion / envs.size();
+            int maxRanges = Math.max(1, maxExpansion / envs.size());
             for (Envelope env : envs) {
                 for (MultiDimensionalNumericData range : GeometryUtils.basicConstraintsFromEnvelope(env).getIndexConstraints(indexStrategy)) {
                     allRanges.addAll(indexStrategy.getQueryRanges(range, maxRanges));
@@ -329,4 +347,107 @@ public class GeoWaveFunctionsDescriptor implements JexlFunctionArgumentDescripto
         }
         return Arrays.asList(geom.getEnvelopeInternal());
     }
+    
+    /**
+     * Covers the geometry with at most maxCells envelopes. Starting from the geometry's bounding box, the largest cell which the geometry only partially covers
+     * is repeatedly split into quadrants, dropping the quadrants which the geometry does not reach into, until another split would exceed the budget. Cells which
+     * share a whole edge are then merged back together to keep the number of envelopes, and therefore ranges, down.
+     *
+     * @param geom
+     *            the geometry to cover
+     * @param maxCells
+     *            the maximum number of cells to cover the geometry with
+     * @return the envelopes covering the geometry
+     */
+    protected static List<Envelope> getCoverEnvelopes(Geometry geom, int maxCells) {
+        PreparedGeometry prepared = PreparedGeometryFactory.prepare(geom);
+        GeometryFactory factory = geom.getFactory();
+        // the boundary of an area is also covered by the cells holding its interior, so cells which only touch its boundary can be dropped
+        boolean polygonal = geom instanceof Polygonal;
+        
+        List<Envelope> cells = new ArrayList<>();
+        PriorityQueue<CoverCell> partial = new PriorityQueue<>(Comparator.comparingDouble((CoverCell c) -> c.size()).reversed());
+        partial.add(new CoverCell(geom.getEnvelopeInternal(), 0));
+        while (!partial.isEmpty() && cells.size() + partial.size() + 3 <= maxCells) {
+            CoverCell cell = partial.poll();
+            if (cell.depth >= MAX_COVER_DEPTH || cell.size() == 0) {
+                cells.add(cell.env);
+                continue;
+            }
+            for (Envelope quadrant : cell.split()) {
+                Geometry quadrantGeom = factory.toGeometry(quadrant);
+                if (prepared.covers(quadrantGeom)) {
+                    cells.add(quadrant);
+                } else if (prepared.intersects(quadrantGeom) && !(polygonal && prepared.touches(quadrantGeom))) {
+                    partial.add(new CoverCell(quadrant, cell.depth + 1));
+                }
+            }
+        }
+        for (CoverCell cell : partial) {
+            cells.add(cell.env);
+        }
+        
+        return mergeAdjacentEnvelopes(cells);
+    }
+    
+    /**
+     * Merges envelopes which share a whole edge, until no more can be merged
+     *
+     * @param envelopes
+     *            the envelopes to merge
+     * @return the merged envelopes
+     */
+    protected static List<Envelope> mergeAdjacentEnvelopes(List<Envelope> envelopes) {
+        List<Envelope> merged = new ArrayList<>(envelopes);
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int i = 0; i < merged.size() && !changed; i++) {
+                for (int j = i + 1; j < merged.size() && !changed; j++) {
+                    if (sharesEdge(merged.get(i), merged.get(j))) {
+                        Envelope env = new Envelope(merged.get(i));
+                        env.expandToInclude(merged.remove(j));
+                        merged.set(i, env);
+                        changed = true;
+                    }
+                }
+            }
+        }
+        return merged;
+    }
+    
+    private static boolean sharesEdge(Envelope a, Envelope b) {
+        if (a.getMinY() == b.getMinY() && a.getMaxY() == b.getMaxY()) {
+            return a.getMaxX() == b.getMinX() || b.getMaxX() == a.getMinX();
+        }
+        if (a.getMinX() == b.getMinX() && a.getMaxX() == b.getMaxX()) {
+            return a.getMaxY() == b.getMinY() || b.getMaxY() == a.getMinY();
+        }
+        return false;
+    }
+    
+    private static class CoverCell {
+        private final Envelope env;
+        private final int depth;
+        
+        CoverCell(Envelope env, int depth) {
+            this.env = env;
+            this.depth = depth;
+        }
+        
+        double size() {
+            return Math.max(env.getWidth(), env.getHeight());
+        }
+        
+        List<Envelope> split() {
+            double midX = (env.getMinX() + env.getMaxX()) / 2;
+            double midY = (env.getMinY() + env.getMaxY()) / 2;
+            List<Envelope> quadrants = new ArrayList<>(4);
+            quadrants.add(new Envelope(env.getMinX(), midX, env.getMinY(), midY));
+            quadrants.add(new Envelope(midX, env.getMaxX(), env.getMinY(), midY));
+            quadrants.add(new Envelope(env.getMinX(), midX, midY, env.getMaxY()));
+            quadrants.add(new Envelope(midX, env.getMaxX(), midY, env.getMaxY()));
+            return quadrants;
+        }
+    }
 }
@@ -150,6 +150,7 @@ public class LookupBoundedRangeForTerms extends IndexLookup {
                     }
                     
                     compositeIterator.addOption(CompositeSeekingIterator.SEPARATOR, compositeSeparator);
+                    compositeIterator.addOption(CompositeSeekingIterator.COMPOSITE_RANGE, ColumnQualifierRangeIterator.encodeRange(range));
                     
                     bs.addScanIterator(compositeIterator);
                 }
@@ -1376,6 +1376,13 @@ public class IteratorBuildingVisitor extends BaseVisitor {
         return this;
     }
     
+    /**
+     * @return the manager of the sources deep copied for the iterators built, which holds the pool of sources when limited
+     */
+    public SourceManager getSourceManager() {
+        return source;
+    }
+    
     /**
      * @param limitLookup
      */
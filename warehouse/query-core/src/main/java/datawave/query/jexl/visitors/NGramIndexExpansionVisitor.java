@@ -0,0 +1,249 @@
+package datawave.query.jexl.visitors;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+import datawave.ingest.mapreduce.handler.shard.NGramIndexDataTypeHandler;
+import datawave.query.Constants;
+import datawave.query.config.ShardQueryConfiguration;
+import datawave.query.exceptions.DatawaveFatalQueryException;
+import datawave.query.jexl.JexlASTHelper;
+import datawave.query.jexl.JexlNodeFactory;
+import datawave.query.jexl.JexlNodeFactory.ContainerType;
+import datawave.query.jexl.nodes.QueryPropertyMarker;
+import datawave.query.parser.JavaRegexAnalyzer;
+import datawave.query.parser.JavaRegexAnalyzer.JavaRegexParseException;
+import datawave.query.tables.ScannerFactory;
+import datawave.query.util.MetadataHelper;
+import datawave.webservice.query.exception.DatawaveErrorCode;
+import datawave.webservice.query.exception.QueryException;
+
+import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.client.TableNotFoundException;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.commons.jexl2.parser.ASTAndNode;
+import org.apache.commons.jexl2.parser.ASTEQNode;
+import org.apache.commons.jexl2.parser.ASTERNode;
+import org.apache.commons.jexl2.parser.ASTReference;
+import org.apache.commons.jexl2.parser.JexlNode;
+import org.apache.commons.jexl2.parser.ParserTreeConstants;
+import org.apache.hadoop.io.Text;
+import org.apache.log4j.Logger;
+
+/**
+ * Expands regular expressions which the global and reverse indexes cannot expand, such as {@code FOO =~ '.*abc123.*'}, into the values of the n-gram index
+ * which contain every n-gram of the literals the regex requires and which match the regex. Without this, such regexes are delayed and evaluated against every
+ * document of every shard in the query range.
+ * <p>
+ * A regex is left as is, for the regex expansion to handle as before, when:
+ * <ul>
+ * <li>it has a leading literal, or a trailing literal and a reverse indexed field</li>
+ * <li>its field is not indexed</li>
+ * <li>it requires no literal of at least the n-gram size</li>
+ * <li>every one of its n-grams occurs in more than {@link ShardQueryConfiguration#getNGramIndexScanLimit()} values</li>
+ * <li>no values match, since data ingested before the n-gram index may still match</li>
+ * <li>more than {@link ShardQueryConfiguration#getMaxValueExpansionThreshold()} values match</li>
+ * </ul>
+ * The n-gram index only holds the values ingested since it was enabled, so the regex is only replaced by its values when the query begins on or after
+ * {@link ShardQueryConfiguration#getNGramIndexStartDate()}. Otherwise the values are OR'd with the regex, which still matches the older data.
+ * 
+ * @see NGramIndexDataTypeHandler
+ */
+public class NGramIndexExpansionVisitor extends RebuildingVisitor {
+    
+    private static final Logger log = Logger.getLogger(NGramIndexExpansionVisitor.class);
+    
+    protected ShardQueryConfiguration config;
+    protected ScannerFactory scannerFactory;
+    protected MetadataHelper helper;
+    
+    public NGramIndexExpansionVisitor(ShardQueryConfiguration config, ScannerFactory scannerFactory, MetadataHelper helper) {
+        this.config = config;
+        this.scannerFactory = scannerFactory;
+        this.helper = helper;
+    }
+    
+    /**
+     * Expand the regular expressions of a query which only the n-gram index can expand
+     * 
+     * @param config
+     * @param scannerFactory
+     * @param helper
+     * @param script
+     * @return a copy of the query with the regular expressions expanded
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends JexlNode> T expandRegex(ShardQueryConfiguration config, ScannerFactory scannerFactory, MetadataHelper helper, T script) {
+        NGramIndexExpansionVisitor visitor = new NGramIndexExpansionVisitor(config, scannerFactory, helper);
+        return (T) script.jjtAccept(visitor, null);
+    }
+    
+    @Override
+    public Object visit(ASTReference node, Object data) {
+        // if not already delayed or marked somehow
+        if (QueryPropertyMarker.instanceOf(node, null)) {
+            return RebuildingVisitor.copy(node);
+        }
+        return super.visit(node, data);
+    }
+    
+    @Override
+    public Object visit(ASTAndNode node, Object data) {
+        // if not already delayed or marked somehow
+        if (QueryPropertyMarker.instanceOf(node, null)) {
+            return RebuildingVisitor.copy(node);
+        }
+        return super.visit(node, data);
+    }
+    
+    @Override
+    public Object visit(ASTERNode node, Object data) {
+        String fieldName = JexlASTHelper.getIdentifier(node);
+        if (fieldName == null || fieldName.equals(Constants.ANY_FIELD)) {
+            return super.visit(node, data);
+        }
+        
+        String regex = String.valueOf(JexlASTHelper.getLiteralValue(node));
+        Set<String> nGrams = new LinkedHashSet<>();
+        try {
+            if (!helper.isIndexed(fieldName, config.getDatatypeFilter())) {
+                return super.visit(node, data);
+            }
+            
+            JavaRegexAnalyzer analyzer = new JavaRegexAnalyzer(regex);
+            if (analyzer.isLeadingLiteral() || (analyzer.isTrailingLiteral() && helper.isReverseIndexed(fieldName, config.getDatatypeFilter()))) {
+                return super.visit(node, data);
+            }
+            
+            for (String literal : analyzer.getRequiredLiterals()) {
+                nGrams.addAll(NGramIndexDataTypeHandler.getNGrams(literal, config.getNGramSize()));
+            }
+        } catch (TableNotFoundException e) {
+            QueryException qe = new QueryException(DatawaveErrorCode.METADATA_ACCESS_ERROR, e);
+            throw new DatawaveFatalQueryException(qe);
+        } catch (JavaRegexParseException e) {
+            // leave it for the regex expansion to report
+            return super.visit(node, data);
+        }
+        
+        if (nGrams.isEmpty()) {
+            return super.visit(node, data);
+        }
+        
+        Set<String> candidates = lookupValues(fieldName, nGrams);
+        if (candidates == null) {
+            return super.visit(node, data);
+        }
+        
+        Pattern pattern = Pattern.compile(regex);
+        Set<String> values = new TreeSet<>();
+        for (String candidate : candidates) {
+            if (pattern.matcher(candidate).matches()) {
+                values.add(candidate);
+            }
+        }
+        
+        if (log.isDebugEnabled()) {
+            log.debug("n-gram index found " + values.size() + " of " + candidates.size() + " candidate values of " + fieldName + " matching " + regex);
+        }
+        
+        if (values.isEmpty() || values.size() > config.getMaxValueExpansionThreshold()) {
+            return super.visit(node, data);
+        }
+        
+        JexlNode expanded = JexlNodeFactory.createNodeTreeFromFieldValues(ContainerType.OR_NODE, new ASTEQNode(ParserTreeConstants.JJTEQNODE), node,
+                        fieldName, values);
+        if (isIndexComplete()) {
+            return expanded;
+        }
+        
+        // the index may be missing matches from older data, so keep the regex and only add the values
+        return JexlNodeFactory.createOrNode(Arrays.asList(RebuildingVisitor.copy(node), expanded));
+    }
+    
+    /**
+     * @return true if the n-gram index holds every value in the date range of the query
+     */
+    protected boolean isIndexComplete() {
+        Date startDate = config.getNGramIndexStartDate();
+        return startDate != null && config.getBeginDate() != null && !config.getBeginDate().before(startDate);
+    }
+    
+    /**
+     * Find the values of a field containing all of the given n-grams, ignoring any n-gram too common to narrow them down
+     * 
+     * @param fieldName
+     * @param nGrams
+     * @return the values containing every usable n-gram, or null if none of the n-grams were usable
+     */
+    protected Set<String> lookupValues(String fieldName, Set<String> nGrams) {
+        Set<String> candidates = null;
+        for (String nGram : nGrams) {
+            Set<String> values = scanValues(fieldName, nGram);
+            if (values == null) {
+                log.debug("Not narrowing " + fieldName + " by the n-gram '" + nGram + "', which exceeded the scan limit");
+                continue;
+            }
+            
+            if (candidates == null) {
+                candidates = values;
+            } else {
+                candidates.retainAll(values);
+            }
+            
+            if (candidates.isEmpty()) {
+                break;
+            }
+        }
+        return candidates;
+    }
+    
+    /**
+     * @return the values of the field containing the n-gram, or null if there are more than the scan limit
+     */
+    private Set<String> scanValues(String fieldName, String nGram) {
+        Set<String> values = new HashSet<>();
+        Scanner scanner = null;
+        try {
+            scanner = scannerFactory.newSingleScanner(config.getNGramIndexTableName(), config.getAuthorizations(), config.getQuery());
+            scanner.setRange(Range.exact(new Text(nGram), new Text(fieldName)));
+            
+            int scanned = 0;
+            Iterator<Map.Entry<Key,Value>> iter = scanner.iterator();
+            while (iter.hasNext()) {
+                if (++scanned > config.getNGramIndexScanLimit()) {
+                    return null;
+                }
+                
+                // the column qualifier is value\0datatype
+                String colq = iter.next().getKey().getColumnQualifier().toString();
+                int index = colq.lastIndexOf('\0');
+                if (index < 0) {
+                    continue;
+                }
+                
+                Set<String> datatypes = config.getDatatypeFilter();
+                if (datatypes == null || datatypes.isEmpty() || datatypes.contains(colq.substring(index + 1))) {
+                    values.add(colq.substring(0, index));
+                }
+            }
+        } catch (TableNotFoundException e) {
+            QueryException qe = new QueryException(DatawaveErrorCode.TABLE_NOT_FOUND, e);
+            throw new DatawaveFatalQueryException(qe);
+        } finally {
+            if (scanner != null) {
+                scannerFactory.close(scanner);
+            }
+        }
+        return values;
+    }
+}
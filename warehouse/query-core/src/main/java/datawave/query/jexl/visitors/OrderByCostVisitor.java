@@ -0,0 +1,188 @@
+package datawave.query.jexl.visitors;
+
+import static org.apache.commons.jexl2.parser.JexlNodes.children;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+import datawave.query.config.ShardQueryConfiguration;
+import datawave.query.jexl.JexlASTHelper;
+import datawave.query.jexl.nodes.QueryPropertyMarker;
+import datawave.query.planner.pushdown.Cost;
+import datawave.query.planner.pushdown.CostEstimator;
+
+import org.apache.commons.jexl2.parser.ASTAndNode;
+import org.apache.commons.jexl2.parser.ASTDelayedPredicate;
+import org.apache.commons.jexl2.parser.ASTEQNode;
+import org.apache.commons.jexl2.parser.ASTERNode;
+import org.apache.commons.jexl2.parser.ASTIdentifier;
+import org.apache.commons.jexl2.parser.ASTOrNode;
+import org.apache.commons.jexl2.parser.ASTReference;
+import org.apache.commons.jexl2.parser.ASTReferenceExpression;
+import org.apache.commons.jexl2.parser.JexlNode;
+import org.apache.log4j.Logger;
+
+/**
+ * Visitor which uses the estimated costs of the terms of a query to order and push down its conjunctions and disjunctions.
+ * <ul>
+ * <li>The children of a conjunction are ordered cheapest first, so that evaluation stops at the most selective term that fails</li>
+ * <li>The children of a disjunction are ordered most expensive first, so that evaluation stops at the most common term that matches</li>
+ * <li>Equality terms of a conjunction which cost more than {@link ShardQueryConfiguration#getMaxTermCostRatio()} times its cheapest equality term are delayed,
+ * since the cheapest term already bounds the conjunction and the expensive terms are cheaper to evaluate against the documents than to look up. Terms on
+ * index only or other non-event fields are never delayed, since they cannot be evaluated against the documents.</li>
+ * </ul>
+ * Children with no estimated cost, such as negations and query property markers, are left after the costed children, and are never used to delay their
+ * siblings.
+ */
+public class OrderByCostVisitor extends BaseVisitor {
+    
+    private static final Logger log = Logger.getLogger(OrderByCostVisitor.class);
+    
+    protected ShardQueryConfiguration config;
+    protected CostEstimator costEstimator;
+    protected Set<String> indexOnlyFields;
+    protected Set<String> nonEventFields;
+    
+    public OrderByCostVisitor(ShardQueryConfiguration config, CostEstimator costEstimator, Set<String> indexOnlyFields, Set<String> nonEventFields) {
+        this.config = config;
+        this.costEstimator = costEstimator;
+        this.indexOnlyFields = (indexOnlyFields == null ? Collections.emptySet() : indexOnlyFields);
+        this.nonEventFields = (nonEventFields == null ? Collections.emptySet() : nonEventFields);
+    }
+    
+    public static <T extends JexlNode> T order(T queryTree, ShardQueryConfiguration config, CostEstimator costEstimator, Set<String> indexOnlyFields,
+                    Set<String> nonEventFields) {
+        OrderByCostVisitor visitor = new OrderByCostVisitor(config, costEstimator, indexOnlyFields, nonEventFields);
+        queryTree.jjtAccept(visitor, null);
+        return queryTree;
+    }
+    
+    @Override
+    public Object visit(ASTReferenceExpression node, Object data) {
+        // if not already delayed somehow
+        if (!QueryPropertyMarker.instanceOf(node, null)) {
+            return super.visit(node, data);
+        }
+        return data;
+    }
+    
+    @Override
+    public Object visit(ASTReference node, Object data) {
+        // if not already delayed somehow
+        if (!QueryPropertyMarker.instanceOf(node, null)) {
+            return super.visit(node, data);
+        }
+        return data;
+    }
+    
+    @Override
+    public Object visit(ASTAndNode node, Object data) {
+        if (QueryPropertyMarker.instanceOf(node, null)) {
+            return data;
+        }
+        super.visit(node, data);
+        
+        List<CostedNode> costed = getCosts(node);
+        
+        // the cheapest equality term bounds the conjunction, so much more expensive equality terms are evaluated rather than looked up
+        long cheapest = Long.MAX_VALUE;
+        for (CostedNode child : costed) {
+            if (child.node instanceof ASTEQNode && child.cost > 0) {
+                cheapest = Math.min(cheapest, child.cost);
+            }
+        }
+        if (cheapest != Long.MAX_VALUE) {
+            double maxCost = cheapest * config.getMaxTermCostRatio();
+            for (CostedNode child : costed) {
+                if (child.node instanceof ASTEQNode && child.cost > maxCost && child.cost != Long.MAX_VALUE && isEventField(child.node)) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("Delaying " + JexlStringBuildingVisitor.buildQuery(child.node) + " with an estimated cost of " + child.cost
+                                        + " against a cheapest term of " + cheapest);
+                    }
+                    child.node = ASTDelayedPredicate.create(child.node);
+                    child.cost = Long.MAX_VALUE;
+                }
+            }
+        }
+        
+        costed.sort(Comparator.comparingLong(child -> child.cost));
+        setChildren(node, costed);
+        return data;
+    }
+    
+    @Override
+    public Object visit(ASTOrNode node, Object data) {
+        if (QueryPropertyMarker.instanceOf(node, null)) {
+            return data;
+        }
+        super.visit(node, data);
+        
+        List<CostedNode> costed = getCosts(node);
+        // most expensive first, keeping the children without a cost last
+        costed.sort(Comparator.comparingLong(child -> child.cost == Long.MAX_VALUE ? Long.MAX_VALUE : -child.cost));
+        setChildren(node, costed);
+        return data;
+    }
+    
+    /**
+     * @return the children of a node with their estimated costs, or {@link Long#MAX_VALUE} for those without an estimate
+     */
+    protected List<CostedNode> getCosts(JexlNode node) {
+        List<CostedNode> costed = new ArrayList<>(node.jjtGetNumChildren());
+        for (JexlNode child : children(node)) {
+            long cost = Long.MAX_VALUE;
+            if (!QueryPropertyMarker.instanceOf(child, null) && isCostable(child)) {
+                Cost childCost = costEstimator.computeCostForSubtree(child);
+                if (!childCost.isUnevaluated() && childCost.totalCost() >= 0) {
+                    cost = childCost.totalCost();
+                }
+            }
+            costed.add(new CostedNode(child, cost));
+        }
+        return costed;
+    }
+    
+    /**
+     * @return true if the estimator costs the node by what it matches, which it does not do for negations, functions or unbounded ranges
+     */
+    private boolean isCostable(JexlNode node) {
+        while ((node instanceof ASTReference || node instanceof ASTReferenceExpression) && node.jjtGetNumChildren() == 1) {
+            node = node.jjtGetChild(0);
+        }
+        return node instanceof ASTEQNode || node instanceof ASTERNode || node instanceof ASTAndNode || node instanceof ASTOrNode;
+    }
+    
+    /**
+     * @return true if the node only references fields which can be evaluated against the documents
+     */
+    private boolean isEventField(JexlNode node) {
+        for (ASTIdentifier identifier : JexlASTHelper.getIdentifiers(node)) {
+            String field = JexlASTHelper.deconstructIdentifier(identifier);
+            if (indexOnlyFields.contains(field) || nonEventFields.contains(field)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private void setChildren(JexlNode node, List<CostedNode> costed) {
+        JexlNode[] ordered = new JexlNode[costed.size()];
+        for (int i = 0; i < ordered.length; i++) {
+            ordered[i] = costed.get(i).node;
+        }
+        children(node, ordered);
+    }
+    
+    protected static class CostedNode {
+        private JexlNode node;
+        private long cost;
+        
+        CostedNode(JexlNode node, long cost) {
+            this.node = node;
+            this.cost = cost;
+        }
+    }
+}
@@ -53,6 +53,8 @@ import datawave.query.jexl.visitors.FixUnindexedNumericTerms;
 import datawave.query.jexl.visitors.FunctionIndexQueryExpansionVisitor;
 import datawave.query.jexl.visitors.IsNotNullIntentVisitor;
 import datawave.query.jexl.visitors.JexlStringBuildingVisitor;
+import datawave.query.jexl.visitors.NGramIndexExpansionVisitor;
+import datawave.query.jexl.visitors.OrderByCostVisitor;
 import datawave.query.jexl.visitors.ParallelIndexExpansion;
 import datawave.query.jexl.visitors.PrintingVisitor;
 import datawave.query.jexl.visitors.PullupUnexecutableNodesVisitor;
@@ -74,6 +76,8 @@ import datawave.query.jexl.visitors.ValidPatternVisitor;
 import datawave.query.model.QueryModel;
 import datawave.query.planner.comparator.DefaultQueryPlanComparator;
 import datawave.query.planner.comparator.GeoWaveQueryPlanComparator;
+import datawave.query.planner.pushdown.Cost;
+import datawave.query.planner.pushdown.CostEstimator;
 import datawave.query.planner.pushdown.PushDownVisitor;
 import datawave.query.planner.pushdown.rules.PushDownRule;
 import datawave.query.postprocessing.tf.Function;
@@ -1035,7 +1039,7 @@ public class DefaultQueryPlanner extends QueryPlanner {
         Set<String> indexedFields = null;
         Set<String> indexOnlyFields = null;
         Set<String> nonEventFields = null;
-        if (config.getMinSelectivity() > 0 || !disableBoundedLookup) {
+        if (config.getMinSelectivity() > 0 || !disableBoundedLookup || config.isCostBasedPlanning()) {
             try {
                 indexedFields = metadataHelper.getIndexedFields(config.getDatatypeFilter());
                 indexOnlyFields = metadataHelper.getIndexOnlyFields(config.getDatatypeFilter());
@@ -1088,6 +1092,18 @@ public class DefaultQueryPlanner extends QueryPlanner {
             stopwatch.stop();
         }
         
+        if (!disableBoundedLookup && config.isNGramIndexEnabled()) {
+            stopwatch = timers.newStartedStopwatch("DefaultQueryPlanner - Expand regex terms with the n-gram index");
+            
+            // Expand the regexes which the global and reverse indexes cannot, before they are delayed
+            queryTree = NGramIndexExpansionVisitor.expandRegex(config, scannerFactory, metadataHelper, queryTree);
+            if (log.isDebugEnabled()) {
+                logQuery(queryTree, "Query after expanding regex with the n-gram index:");
+            }
+            
+            stopwatch.stop();
+        }
+        
         if (!disableBoundedLookup) {
             stopwatch = timers.newStartedStopwatch("DefaultQueryPlanner - Expand bounded query ranges");
             
@@ -1184,6 +1200,36 @@ public class DefaultQueryPlanner extends QueryPlanner {
             }
         }
         
+        if (config.isCostBasedPlanning()) {
+            stopwatch = timers.newStartedStopwatch("DefaultQueryPlanner - Order terms by cost");
+            
+            CostEstimator costEstimator = new CostEstimator(config, scannerFactory, metadataHelper);
+            queryTree = OrderByCostVisitor.order(queryTree, config, costEstimator, indexOnlyFields, nonEventFields);
+            if (log.isDebugEnabled()) {
+                logQuery(queryTree, "Query after ordering terms by cost:");
+            }
+            
+            List<String> debugOutput = null;
+            if (log.isDebugEnabled()) {
+                debugOutput = new ArrayList<>(32);
+            }
+            if (!ExecutableDeterminationVisitor.isExecutable(queryTree, config, indexedFields, indexOnlyFields, nonEventFields, debugOutput, metadataHelper)) {
+                queryTree = (ASTJexlScript) PushdownUnexecutableNodesVisitor.pushdownPredicates(queryTree, config, indexedFields, indexOnlyFields,
+                                nonEventFields, metadataHelper);
+                if (log.isDebugEnabled()) {
+                    logDebug(debugOutput, "Executable state after delaying expensive terms:");
+                    logQuery(queryTree, "Query after partially executable pushdown:");
+                }
+            }
+            
+            Cost cost = costEstimator.computeCostForSubtree(queryTree);
+            if (!cost.isUnevaluated() && cost.totalCost() >= 0) {
+                config.addPlanEstimate("EstimatedCount", cost.totalCost());
+            }
+            
+            stopwatch.stop();
+        }
+        
         return queryTree;
     }
     
@@ -1592,6 +1638,10 @@ public class DefaultQueryPlanner extends QueryPlanner {
                         
                         addOption(cfg, QueryOptions.SORTED_UIDS, Boolean.toString(config.isSortedUIDs()), false);
                         
+                        if (config.isCountFromFieldIndex()) {
+                            addOption(cfg, QueryOptions.COUNT_FROM_FIELD_INDEX, Boolean.toString(true), false);
+                        }
+                        
                         configureTypeMappings(config, cfg, metadataHelper, compressMappings);
                         configureAdditionalOptions(config, cfg);
                         
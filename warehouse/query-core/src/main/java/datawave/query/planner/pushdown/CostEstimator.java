@@ -3,8 +3,11 @@ package datawave.query.planner.pushdown;
 import static org.apache.commons.jexl2.parser.JexlNodes.children;
 import static org.apache.commons.jexl2.parser.JexlNodes.id;
 
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
 
+import datawave.data.MetadataCardinalityCounts;
 import datawave.query.config.ShardQueryConfiguration;
 import datawave.query.jexl.JexlASTHelper;
 import datawave.query.jexl.lookups.RegexIndexLookup;
@@ -20,7 +23,9 @@ import org.apache.commons.jexl2.parser.ParserTreeConstants;
 import org.apache.log4j.Logger;
 
 /**
- * 
+ * Estimates the cost of looking up a subtree of a query in the index. By default the cost of a term is the count of its field over the date range of the query.
+ * With {@link ShardQueryConfiguration#isCostBasedPlanning()}, the cost of an equality term is instead the estimated count of its value, using the per value and
+ * per field cardinality counts of the metadata table.
  */
 public class CostEstimator {
     
@@ -29,6 +34,9 @@ public class CostEstimator {
     protected MetadataHelper helper;
     protected ScannerFactory scannerFactory;
     
+    // the counts of each field over the date range of the query, which are summed a day at a time
+    private final Map<String,Long> fieldCounts = new ConcurrentHashMap<>();
+    
     public CostEstimator(PushDownVisitor visitor) {
         this.config = visitor.getConfiguration();
         this.helper = visitor.getHelper();
@@ -73,8 +81,7 @@ public class CostEstimator {
                         }
                     }
                     
-                    return new Cost(helper.getCountsByFieldForDays(fieldName, config.getBeginDate(), config.getEndDate(), config.getDatatypeFilter())
-                                    * Cost.ER_COST_MULTIPLIER, 0l);
+                    return new Cost(getFieldCount(fieldName) * Cost.ER_COST_MULTIPLIER, 0l);
                 } catch (NoSuchElementException e) {
                     log.trace("Could not find field name for ER node, ignoring for cost");
                     return new Cost();
@@ -98,7 +105,10 @@ public class CostEstimator {
                         log.error("Could not find metadata table", e);
                     }
                     
-                    return new Cost(0l, helper.getCountsByFieldForDays(fieldName, config.getBeginDate(), config.getEndDate(), config.getDatatypeFilter()));
+                    if (config.isCostBasedPlanning()) {
+                        return new Cost(0l, estimateTermCount(fieldName, JexlASTHelper.getLiteralValue(node)));
+                    }
+                    return new Cost(0l, getFieldCount(fieldName));
                 } catch (NoSuchElementException e) {
                     log.trace("Could not find field name for EQ node, ignoring for cost");
                     return new Cost();
@@ -145,4 +155,49 @@ public class CostEstimator {
         }
     }
     
+    /**
+     * @return the count of a field over the date range of the query
+     */
+    protected long getFieldCount(String fieldName) {
+        Long count = fieldCounts.get(fieldName);
+        if (null == count) {
+            count = helper.getCountsByFieldForDays(fieldName, config.getBeginDate(), config.getEndDate(), config.getDatatypeFilter());
+            fieldCounts.put(fieldName, count);
+        }
+        return count;
+    }
+    
+    /**
+     * Estimates the number of times a value of a field occurs over the date range of the query. The count of the field over the date range is scaled by the
+     * fraction of the field's values which are this value. That fraction comes from the term counts when the value has them, and otherwise assumes that each
+     * distinct value of the field is as common as the others.
+     *
+     * @param fieldName
+     * @param value
+     * @return the estimated count, or the count of the field if there are no term counts for it
+     */
+    protected long estimateTermCount(String fieldName, Object value) {
+        long fieldCount = getFieldCount(fieldName);
+        double fraction = 1.0;
+        try {
+            // We can get the term counts with root auths (ignoring user auths) because this information is not
+            // exposed to the user. It is only used to adjust the query planning.
+            Map<String,MetadataCardinalityCounts> valueCounts = helper.getTermCountsWithRootAuths().get(fieldName);
+            if (null != valueCounts && !valueCounts.isEmpty()) {
+                MetadataCardinalityCounts counts = valueCounts.get(String.valueOf(value));
+                if (null != counts && counts.getFieldAllValueCount() > 0) {
+                    fraction = (double) counts.getFieldValueCount() / (double) counts.getFieldAllValueCount();
+                } else {
+                    counts = valueCounts.values().iterator().next();
+                    if (counts.getUniqueFieldAllValueCount() > 0) {
+                        fraction = 1.0 / counts.getUniqueFieldAllValueCount();
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Could not retrieve term counts, using the count of " + fieldName, e);
+        }
+        return (long) Math.ceil(fieldCount * Math.min(1.0, fraction));
+    }
+    
 }
@@ -45,6 +45,20 @@ public class CountingShardQueryLogic extends ShardQueryLogic {
         return new CountAggregatingIterator(this.iterator(), getTransformer(settings));
     }
     
+    /**
+     * Whether to count the document keys from the field index, without building or evaluating the documents, for those shards where the field index satisfies
+     * the query. Other shards are counted from the documents as usual.
+     * 
+     * @return true if counts may be taken from the field index
+     */
+    public boolean isCountFromFieldIndex() {
+        return getConfig().isCountFromFieldIndex();
+    }
+    
+    public void setCountFromFieldIndex(boolean countFromFieldIndex) {
+        getConfig().setCountFromFieldIndex(countFromFieldIndex);
+    }
+    
     @Override
     public Scheduler getScheduler(ShardQueryConfiguration config, ScannerFactory scannerFactory) {
         PushdownScheduler scheduler = new PushdownScheduler(config, scannerFactory, this.metadataHelperFactory);
@@ -1691,6 +1691,62 @@ public class ShardQueryLogic extends BaseQueryLogic<Entry<Key,Value>> {
         getConfig().setMinSelectivity(d);
     }
     
+    public boolean isCostBasedPlanning() {
+        return getConfig().isCostBasedPlanning();
+    }
+    
+    public void setCostBasedPlanning(boolean costBasedPlanning) {
+        getConfig().setCostBasedPlanning(costBasedPlanning);
+    }
+    
+    public double getMaxTermCostRatio() {
+        return getConfig().getMaxTermCostRatio();
+    }
+    
+    public void setMaxTermCostRatio(double maxTermCostRatio) {
+        getConfig().setMaxTermCostRatio(maxTermCostRatio);
+    }
+    
+    public boolean isNGramIndexEnabled() {
+        return getConfig().isNGramIndexEnabled();
+    }
+    
+    public void setNGramIndexEnabled(boolean nGramIndexEnabled) {
+        getConfig().setNGramIndexEnabled(nGramIndexEnabled);
+    }
+    
+    public String getNGramIndexTableName() {
+        return getConfig().getNGramIndexTableName();
+    }
+    
+    public void setNGramIndexTableName(String nGramIndexTableName) {
+        getConfig().setNGramIndexTableName(nGramIndexTableName);
+    }
+    
+    public int getNGramSize() {
+        return getConfig().getNGramSize();
+    }
+    
+    public void setNGramSize(int nGramSize) {
+        getConfig().setNGramSize(nGramSize);
+    }
+    
+    public int getNGramIndexScanLimit() {
+        return getConfig().getNGramIndexScanLimit();
+    }
+    
+    public void setNGramIndexScanLimit(int nGramIndexScanLimit) {
+        getConfig().setNGramIndexScanLimit(nGramIndexScanLimit);
+    }
+    
+    public Date getNGramIndexStartDate() {
+        return getConfig().getNGramIndexStartDate();
+    }
+    
+    public void setNGramIndexStartDate(Date nGramIndexStartDate) {
+        getConfig().setNGramIndexStartDate(nGramIndexStartDate);
+    }
+    
     public Map<String,QueryParser> getQuerySyntaxParsers() {
         return querySyntaxParsers;
     }
@@ -2149,6 +2205,14 @@ public class ShardQueryLogic extends BaseQueryLogic<Entry<Key,Value>> {
         getConfig().setGeoWaveMaxEnvelopes(geoWaveMaxEnvelopes);
     }
     
+    public int getGeoWaveMaxCoverCells() {
+        return getConfig().getGeoWaveMaxCoverCells();
+    }
+    
+    public void setGeoWaveMaxCoverCells(int geoWaveMaxCoverCells) {
+        getConfig().setGeoWaveMaxCoverCells(geoWaveMaxCoverCells);
+    }
+    
     public long getBeginDateCap() {
         return getConfig().getBeginDateCap();
     }
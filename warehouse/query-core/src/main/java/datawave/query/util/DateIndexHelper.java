@@ -1,6 +1,7 @@
 package datawave.query.util;
 
 import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import datawave.ingest.mapreduce.handler.dateindex.DateIndexUtil;
 import datawave.security.util.ScannerHelper;
 import datawave.util.StringUtils;
@@ -16,6 +17,7 @@ import org.apache.hadoop.io.Text;
 import org.apache.log4j.Logger;
 import org.springframework.beans.BeansException;
 import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.ApplicationContext;
@@ -26,16 +28,21 @@ import org.springframework.stereotype.Component;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * <p>
@@ -59,8 +66,11 @@ import java.util.TreeMap;
  * <td>shard bit string (see java.util.BitSet)</td>
  * </tr>
  * </table>
- * 
- * 
+ * <p>
+ * The rows of the date index are cached a day at a time, shared by all helpers scanning the same table with the same auths, so that queries over the same days
+ * only scan the days not already cached. Days which may still be receiving data (yesterday or later, in UTC) expire sooner than the rest, and
+ * {@link #invalidateAll()} drops everything cached when the date index is known to have changed. The results of {@link #getTypeDescription} and
+ * {@link #getShardsAndDaysHint} are also cached as a whole by the dateIndexHelperCacheManager, whose expiry bounds how stale they can be on top of that.
  * 
  */
 @Configuration
@@ -71,6 +81,9 @@ public class DateIndexHelper implements ApplicationContextAware {
     
     public static final String NULL_BYTE = "\0";
     
+    // entries are only used while younger than the configured ttls, so the cache itself is only bounded by size
+    private static final Cache<DayKey,DayEntries> dayCache = CacheBuilder.newBuilder().concurrencyLevel(32).maximumSize(10 * 1024).build();
+    
     protected Connector connector;
     protected Instance instance;
     
@@ -81,6 +94,9 @@ public class DateIndexHelper implements ApplicationContextAware {
     protected float collapseDatePercentThreshold;
     protected boolean timeTravel = false;
     
+    protected long dayCacheTtlMillis = TimeUnit.HOURS.toMillis(24);
+    protected long recentDayCacheTtlMillis = TimeUnit.MINUTES.toMillis(5);
+    
     protected ApplicationContext applicationContext;
     
     @Override
@@ -117,6 +133,30 @@ public class DateIndexHelper implements ApplicationContextAware {
         return timeTravel;
     }
     
+    public long getDayCacheTtlMillis() {
+        return dayCacheTtlMillis;
+    }
+    
+    /**
+     * @param dayCacheTtlMillis
+     *            how long a cached day of the date index may be used for, zero to always scan the table
+     */
+    public void setDayCacheTtlMillis(long dayCacheTtlMillis) {
+        this.dayCacheTtlMillis = dayCacheTtlMillis;
+    }
+    
+    public long getRecentDayCacheTtlMillis() {
+        return recentDayCacheTtlMillis;
+    }
+    
+    /**
+     * @param recentDayCacheTtlMillis
+     *            how long a cached day of the date index for yesterday or later may be used for, as those days may still be receiving data
+     */
+    public void setRecentDayCacheTtlMillis(long recentDayCacheTtlMillis) {
+        this.recentDayCacheTtlMillis = recentDayCacheTtlMillis;
+    }
+    
     public ApplicationContext getApplicationContext() {
         return applicationContext;
     }
@@ -235,40 +275,26 @@ public class DateIndexHelper implements ApplicationContextAware {
         
         DateTypeDescription desc = new DateTypeDescription();
         
-        BatchScanner bs = ScannerHelper.createBatchScanner(connector, dateIndexTableName, auths, numQueryThreads);
-        try {
-            
-            // scan from begin to end
-            bs.setRanges(Arrays.asList(new Range(DateIndexUtil.format(begin), DateIndexUtil.format(end) + '~')));
-            
-            // restrict to our date type
-            bs.fetchColumnFamily(new Text(dateType));
-            
-            Iterator<Entry<Key,Value>> iterator = bs.iterator();
+        // restrict to our date type
+        for (Entry<Key,Value> entry : getEntries(dateType, begin, end)) {
+            Key k = entry.getKey();
             
-            while (iterator.hasNext()) {
-                Entry<Key,Value> entry = iterator.next();
-                Key k = entry.getKey();
-                
-                String[] parts = StringUtils.split(k.getColumnQualifier().toString(), '\0');
-                if (datatypeFilter == null || datatypeFilter.isEmpty() || datatypeFilter.contains(parts[1])) {
-                    desc.fields.add(parts[2]);
-                    String date = parts[0];
-                    if (desc.dateRange[0] == null) {
+            String[] parts = StringUtils.split(k.getColumnQualifier().toString(), '\0');
+            if (datatypeFilter == null || datatypeFilter.isEmpty() || datatypeFilter.contains(parts[1])) {
+                desc.fields.add(parts[2]);
+                String date = parts[0];
+                if (desc.dateRange[0] == null) {
+                    desc.dateRange[0] = date;
+                    desc.dateRange[1] = date;
+                } else {
+                    if (date.compareTo(desc.dateRange[0]) < 0) {
                         desc.dateRange[0] = date;
+                    }
+                    if (date.compareTo(desc.dateRange[1]) > 0) {
                         desc.dateRange[1] = date;
-                    } else {
-                        if (date.compareTo(desc.dateRange[0]) < 0) {
-                            desc.dateRange[0] = date;
-                        }
-                        if (date.compareTo(desc.dateRange[1]) > 0) {
-                            desc.dateRange[1] = date;
-                        }
                     }
                 }
             }
-        } finally {
-            bs.close();
         }
         
         // if the dates are still empty, then default to the incoming dates
@@ -325,65 +351,53 @@ public class DateIndexHelper implements ApplicationContextAware {
         
         TreeMap<String,BitSet> bitsets = new TreeMap<>();
         
-        BatchScanner bs = ScannerHelper.createBatchScanner(connector, dateIndexTableName, auths, numQueryThreads);
-        
-        try {
-            bs.setRanges(Arrays.asList(new Range(DateIndexUtil.format(begin), DateIndexUtil.format(end) + '~')));
+        for (Entry<Key,Value> entry : getEntries(null, begin, end)) {
+            Key k = entry.getKey();
+            String[] parts = StringUtils.split(k.getColumnQualifier().toString(), '\0');
+            String date = parts[0];
             
-            Iterator<Entry<Key,Value>> iterator = bs.iterator();
-            
-            while (iterator.hasNext()) {
-                Entry<Key,Value> entry = iterator.next();
-                Key k = entry.getKey();
-                String[] parts = StringUtils.split(k.getColumnQualifier().toString(), '\0');
-                String date = parts[0];
-                
-                // If the event date is more than one day before the event actually happened,
-                // then skip it, unless time-travel has been enabled.
-                String[] columnFamilyParts = StringUtils.split(k.getColumnFamily().toString(), '\0');
-                if (timeTravel == false && columnFamilyParts.length > 0 && columnFamilyParts[0].equals("ACTIVITY")) {
-                    try {
-                        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyyMMdd");
-                        String rowDateString = k.getRow().toString();
-                        // the row may be sharded, i need to get the date part
-                        if (rowDateString.contains("_")) {
-                            // strip off the shard number part of the rowDate string
-                            rowDateString = rowDateString.substring(0, rowDateString.indexOf("_"));
-                        }
-                        LocalDate rowDate = LocalDate.parse(rowDateString, formatter);
-                        LocalDate shardDate = LocalDate.parse(date, formatter);
-                        if (shardDate.isBefore(rowDate.minusDays(1))) {
-                            continue;
-                        }
-                    } catch (Exception ex) {
-                        // likely a problem parsing the dates, Move on....
-                        log.info("problem during delorean check", ex);
+            // If the event date is more than one day before the event actually happened,
+            // then skip it, unless time-travel has been enabled.
+            String[] columnFamilyParts = StringUtils.split(k.getColumnFamily().toString(), '\0');
+            if (timeTravel == false && columnFamilyParts.length > 0 && columnFamilyParts[0].equals("ACTIVITY")) {
+                try {
+                    DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyyMMdd");
+                    String rowDateString = k.getRow().toString();
+                    // the row may be sharded, i need to get the date part
+                    if (rowDateString.contains("_")) {
+                        // strip off the shard number part of the rowDate string
+                        rowDateString = rowDateString.substring(0, rowDateString.indexOf("_"));
                     }
-                }
-                
-                // If the date is outside of the min and max shard, then continue to the next entry
-                if (date.compareTo(minShard) < 0) {
-                    continue;
-                }
-                if (date.compareTo(maxShard) > 0) {
-                    continue;
-                }
-                
-                if (parts[2].equals(field)) {
-                    if (datatypeFilter == null || datatypeFilter.isEmpty() || datatypeFilter.contains(parts[1])) {
-                        BitSet bits = BitSet.valueOf(entry.getValue().get());
-                        BitSet mappedBits = bitsets.get(date);
-                        if (mappedBits == null) {
-                            bitsets.put(date, bits);
-                        } else {
-                            mappedBits.or(bits);
-                        }
+                    LocalDate rowDate = LocalDate.parse(rowDateString, formatter);
+                    LocalDate shardDate = LocalDate.parse(date, formatter);
+                    if (shardDate.isBefore(rowDate.minusDays(1))) {
+                        continue;
                     }
+                } catch (Exception ex) {
+                    // likely a problem parsing the dates, Move on....
+                    log.info("problem during delorean check", ex);
                 }
             }
             
-        } finally {
-            bs.close();
+            // If the date is outside of the min and max shard, then continue to the next entry
+            if (date.compareTo(minShard) < 0) {
+                continue;
+            }
+            if (date.compareTo(maxShard) > 0) {
+                continue;
+            }
+            
+            if (parts[2].equals(field)) {
+                if (datatypeFilter == null || datatypeFilter.isEmpty() || datatypeFilter.contains(parts[1])) {
+                    BitSet bits = BitSet.valueOf(entry.getValue().get());
+                    BitSet mappedBits = bitsets.get(date);
+                    if (mappedBits == null) {
+                        bitsets.put(date, bits);
+                    } else {
+                        mappedBits.or(bits);
+                    }
+                }
+            }
         }
         
         StringBuilder builder = new StringBuilder();
@@ -403,6 +417,118 @@ public class DateIndexHelper implements ApplicationContextAware {
         return shardsAndDays;
     }
     
+    /**
+     * Get the date index entries for the days from begin to end, in day order. Days found in the day cache are not scanned again, and the rest are scanned
+     * together with a range per day so that the batch scanner reads them concurrently.
+     * 
+     * @param dateType
+     *            the date type (column family) to fetch, or null for all of them
+     * @param begin
+     * @param end
+     * @return the date index entries
+     * @throws TableNotFoundException
+     */
+    protected List<Entry<Key,Value>> getEntries(String dateType, Date begin, Date end) throws TableNotFoundException {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyyMMdd");
+        LocalDate first = LocalDate.parse(DateIndexUtil.format(begin), formatter);
+        LocalDate last = LocalDate.parse(DateIndexUtil.format(end), formatter);
+        String recentDay = LocalDate.now(ZoneOffset.UTC).minusDays(1).format(formatter);
+        long now = System.currentTimeMillis();
+        
+        Map<String,List<Entry<Key,Value>>> days = new TreeMap<>();
+        List<Range> missing = new ArrayList<>();
+        for (LocalDate date = first; !date.isAfter(last); date = date.plusDays(1)) {
+            String day = date.format(formatter);
+            DayEntries cached = dayCache.getIfPresent(new DayKey(dateIndexTableName, auths, dateType, day));
+            long ttl = (day.compareTo(recentDay) >= 0 ? recentDayCacheTtlMillis : dayCacheTtlMillis);
+            if (cached != null && now - cached.loadTime < ttl) {
+                days.put(day, cached.entries);
+            } else {
+                days.put(day, new ArrayList<>());
+                // the rows for a day may be sharded, i.e. yyyyMMdd_n
+                missing.add(new Range(day, day + '~'));
+            }
+        }
+        
+        if (!missing.isEmpty()) {
+            if (log.isDebugEnabled()) {
+                log.debug("Scanning " + missing.size() + " of " + days.size() + " days from " + dateIndexTableName);
+            }
+            BatchScanner bs = ScannerHelper.createBatchScanner(connector, dateIndexTableName, auths, numQueryThreads);
+            try {
+                bs.setRanges(missing);
+                if (dateType != null) {
+                    bs.fetchColumnFamily(new Text(dateType));
+                }
+                for (Entry<Key,Value> entry : bs) {
+                    days.get(entry.getKey().getRow().toString().substring(0, 8)).add(entry);
+                }
+            } finally {
+                bs.close();
+            }
+            
+            for (Range range : missing) {
+                String day = range.getStartKey().getRow().toString();
+                List<Entry<Key,Value>> entries = Collections.unmodifiableList(days.get(day));
+                dayCache.put(new DayKey(dateIndexTableName, auths, dateType, day), new DayEntries(now, entries));
+            }
+        }
+        
+        List<Entry<Key,Value>> entries = new ArrayList<>();
+        for (List<Entry<Key,Value>> dayEntries : days.values()) {
+            entries.addAll(dayEntries);
+        }
+        return entries;
+    }
+    
+    /**
+     * Drops all days from the date index cache shared by all helpers, along with the cached results of {@link #getTypeDescription} and
+     * {@link #getShardsAndDaysHint}. This is called by the {@link DateIndexHelperCacheManagementListener} when newly loaded data is announced.
+     */
+    @CacheEvict(value = {"getTypeDescription", "getShardsAndDaysHint"}, allEntries = true, cacheManager = "dateIndexHelperCacheManager")
+    public void invalidateAll() {
+        dayCache.invalidateAll();
+    }
+    
+    private static class DayKey {
+        private final String tableName;
+        private final Set<Authorizations> auths;
+        private final String dateType;
+        private final String day;
+        
+        DayKey(String tableName, Set<Authorizations> auths, String dateType, String day) {
+            this.tableName = tableName;
+            this.auths = auths;
+            this.dateType = dateType;
+            this.day = day;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof DayKey)) {
+                return false;
+            }
+            DayKey other = (DayKey) o;
+            return Objects.equals(tableName, other.tableName) && Objects.equals(auths, other.auths) && Objects.equals(dateType, other.dateType)
+                            && day.equals(other.day);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(tableName, auths, dateType, day);
+        }
+    }
+    
+    private static class DayEntries {
+        private final long loadTime;
+        private final List<Entry<Key,Value>> entries;
+        
+        DayEntries(long loadTime, List<Entry<Key,Value>> entries) {
+            this.loadTime = loadTime;
+            this.entries = entries;
+        }
+    }
+    
     private void appendToShardsAndDays(StringBuilder builder, BitSet bits, String date) {
         // If the shard density is near 100% (99% or more), then lets assume the entire day.
         log.debug("bits.length():" + bits.length() + ", bits.cardinality():" + bits.cardinality());
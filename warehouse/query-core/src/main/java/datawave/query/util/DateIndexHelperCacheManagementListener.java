@@ -0,0 +1,92 @@
+package datawave.query.util;
+
+import java.util.ArrayList;
+
+import datawave.webservice.common.cache.SharedCacheCoordinator;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.recipes.shared.SharedCountListener;
+import org.apache.curator.framework.recipes.shared.SharedCountReader;
+import org.apache.curator.framework.state.ConnectionState;
+import org.apache.log4j.Logger;
+
+/**
+ * Uses the SharedCacheCoordinator to register listeners so that when an event is fired for one of the given tables (for example, when the metadata table is
+ * reloaded after new data has been loaded) the days cached by the DateIndexHelpers, and their spring injected caches, will be evicted.
+ *
+ * Note that because the SharedCacheCoordinator uses zookeeper, this class will not work in cases where zookeeper is not running (like in unit tests). This
+ * class is created by the MetadataHelperCacheListenerContext.xml which is not loaded in unit tests
+ */
+public class DateIndexHelperCacheManagementListener {
+    
+    private static final Logger log = Logger.getLogger(DateIndexHelperCacheManagementListener.class);
+    
+    private final String zookeepers;
+    private final DateIndexHelperFactory dateIndexHelperFactory;
+    private final ArrayList<SharedCacheCoordinator> cacheCoordinators;
+    
+    public DateIndexHelperCacheManagementListener(String zookeepers, DateIndexHelperFactory dateIndexHelperFactory, String[] tableNames) {
+        this.zookeepers = zookeepers;
+        this.dateIndexHelperFactory = dateIndexHelperFactory;
+        
+        cacheCoordinators = new ArrayList<>(tableNames.length);
+        for (String tableName : tableNames) {
+            SharedCacheCoordinator watcher = registerCacheListener(tableName);
+            cacheCoordinators.add(watcher);
+        }
+    }
+    
+    private SharedCacheCoordinator registerCacheListener(final String tableName) {
+        log.debug("created DateIndexHelper CacheManagement listener for table:" + tableName);
+        final SharedCacheCoordinator watcher = new SharedCacheCoordinator(tableName, this.zookeepers, 30, 300, 10);
+        try {
+            watcher.start();
+        } catch (Exception e) {
+            throw new RuntimeException("Error starting Watcher for DateIndexHelper", e);
+        } catch (Error e) {
+            throw new RuntimeException("Error starting Watcher for DateIndexHelper", e);
+        }
+        try {
+            watcher.registerCounter(tableName, new SharedCountListener() {
+                @Override
+                public void stateChanged(CuratorFramework client, ConnectionState newState) {
+                    if (log.isTraceEnabled()) {
+                        log.trace("stateChanged(" + client + ", " + newState + ")");
+                    }
+                }
+                
+                @Override
+                public void countHasChanged(SharedCountReader sharedCount, int newCount) throws Exception {
+                    if (!watcher.checkCounter(tableName, newCount)) {
+                        log.debug("will invalidate the date index caches for " + tableName);
+                        // the helper comes from the spring context, so that its cached lookups are evicted as well
+                        dateIndexHelperFactory.createDateIndexHelper().invalidateAll();
+                    } else {
+                        log.debug("did not invalidate the date index caches for " + tableName);
+                    }
+                }
+            });
+        } catch (Exception e) {
+            throw new RuntimeException("Unable to create shared counters: " + e.getMessage(), e);
+        } catch (Error e) {
+            throw new RuntimeException("Unable to create shared counters: " + e.getMessage(), e);
+        }
+        
+        return watcher;
+    }
+    
+    /**
+     * Cleans up {@link SharedCacheCoordinator}s used by this class. This method should be named as the "destroy-method" when this class is declared as a Spring
+     * bean.
+     */
+    @SuppressWarnings("unused")
+    private void shutdown() {
+        for (SharedCacheCoordinator watcher : cacheCoordinators) {
+            try {
+                watcher.stop();
+            } catch (Exception e) {
+                log.error("Unable to shutdown cache coordinator: " + e.getMessage(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package datawave.core.iterators;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.PartialKey;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.SortedMapIterator;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CompositeSeekingIteratorTest {
+    
+    private static final String SEPARATOR = new String(Character.toChars(Character.MAX_CODE_POINT));
+    
+    private TreeMap<Key,Value> data;
+    
+    @Before
+    public void setUp() {
+        // every combination of a three letter and ten digit component
+        data = new TreeMap<>();
+        for (String letter : Arrays.asList("a", "b", "c")) {
+            for (int digit = 0; digit < 10; digit++) {
+                data.put(new Key(letter + SEPARATOR + digit, "COLOR_NUM", "20100101_0\0datatype"), new Value(new byte[0]));
+            }
+        }
+    }
+    
+    @Test
+    public void testSeekPastOutOfRangeTerms() throws IOException {
+        CompositeSeekingIterator iter = createIterator("0");
+        iter.seek(range("a", "2", "c", "3"), Collections.emptyList(), false);
+        
+        assertEquals(Arrays.asList("a2", "a3", "b2", "b3", "c2", "c3"), scan(iter));
+        assertTrue(iter.getSeeks() > 0);
+        assertTrue("read " + iter.getKeysRead() + " of " + data.size() + " keys", iter.getKeysRead() < data.size());
+    }
+    
+    @Test
+    public void testNextOverOutOfRangeTerms() throws IOException {
+        CompositeSeekingIterator iter = createIterator("100");
+        iter.seek(range("a", "2", "c", "3"), Collections.emptyList(), false);
+        
+        assertEquals(Arrays.asList("a2", "a3", "b2", "b3", "c2", "c3"), scan(iter));
+        assertEquals(0, iter.getSeeks());
+        assertEquals(iter.getKeysRead() - 6, iter.getKeysSkipped());
+    }
+    
+    @Test
+    public void testReseek() throws IOException {
+        CompositeSeekingIterator iter = createIterator("0");
+        iter.seek(range("a", "2", "c", "3"), Collections.emptyList(), false);
+        scan(iter);
+        
+        // the bounds of the first range must not be applied to the second
+        iter.seek(range("a", "5", "b", "7"), Collections.emptyList(), false);
+        assertEquals(Arrays.asList("a5", "a6", "a7", "b5", "b6", "b7"), scan(iter));
+    }
+    
+    @Test
+    public void testContinuationReseek() throws IOException {
+        Range range = range("a", "2", "c", "3");
+        CompositeSeekingIterator iter = createIterator("0");
+        iter.init(new SortedMapIterator(data), withCompositeRange(range), null);
+        iter.seek(range, Collections.emptyList(), false);
+        
+        assertEquals(Collections.singletonList("a2"), scan(iter, 1));
+        // the last key returned before the scan fails
+        Key lastKey = iter.getTopKey();
+        assertEquals("a" + SEPARATOR + "3", lastKey.getRow().toString());
+        
+        // as a scanner does when resuming after a failure, in a new iterator which only sees the rest of the range
+        iter = createIterator("0");
+        iter.init(new SortedMapIterator(data), withCompositeRange(range), null);
+        iter.seek(new Range(lastKey, false, range.getEndKey(), range.isEndKeyInclusive()), Collections.emptyList(), false);
+        assertEquals(Arrays.asList("b2", "b3", "c2", "c3"), scan(iter));
+    }
+    
+    private CompositeSeekingIterator createIterator(String seekThreshold) throws IOException {
+        CompositeSeekingIterator iter = new CompositeSeekingIterator();
+        iter.init(new SortedMapIterator(data), options(seekThreshold), null);
+        return iter;
+    }
+    
+    private Map<String,String> withCompositeRange(Range range) throws IOException {
+        Map<String,String> options = options("0");
+        options.put(CompositeSeekingIterator.COMPOSITE_RANGE, ColumnRangeIterator.encodeRange(range));
+        return options;
+    }
+    
+    private Map<String,String> options(String seekThreshold) {
+        Map<String,String> options = new HashMap<>();
+        options.put(CompositeSeekingIterator.COMPONENT_FIELDS, "COLOR,NUM");
+        options.put(CompositeSeekingIterator.SEPARATOR, SEPARATOR);
+        options.put(CompositeSeekingIterator.SEEK_THRESHOLD, seekThreshold);
+        return options;
+    }
+    
+    private Range range(String startColor, String startNum, String endColor, String endNum) {
+        return new Range(new Key(startColor + SEPARATOR + startNum), true, new Key(endColor + SEPARATOR + endNum).followingKey(PartialKey.ROW), false);
+    }
+    
+    private List<String> scan(CompositeSeekingIterator iter) throws IOException {
+        return scan(iter, Integer.MAX_VALUE);
+    }
+    
+    private List<String> scan(CompositeSeekingIterator iter, int limit) throws IOException {
+        List<String> rows = new ArrayList<>();
+        while (iter.hasTop() && rows.size() < limit) {
+            rows.add(iter.getTopKey().getRow().toString().replace(SEPARATOR, ""));
+            iter.next();
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,135 @@
+package datawave.core.iterators;
+
+import datawave.query.predicate.TimeFilter;
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.PartialKey;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.IteratorEnvironment;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.accumulo.core.iterators.SortedMapIterator;
+import org.apache.accumulo.core.iterators.WrappingIterator;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class DatawaveFieldIndexRegexIteratorJexlTest {
+    
+    private static final String ROW = "20190424_0";
+    
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+    
+    @Test
+    public void seekPastNonMatchingValuesTest() throws Exception {
+        SortedMap<Key,Value> data = new TreeMap<>();
+        
+        // a gap of values which cannot match, long enough to seek past
+        for (int i = 0; i < 20; i++) {
+            put(data, String.format("aaa%02d", i), "dt1", "gap" + i, 10L);
+        }
+        
+        put(data, "amz1", "dt1", "uid1", 10L);
+        // matches, but rejected by the datatype filter
+        put(data, "amz2", "dt2", "uid2", 10L);
+        // matches, but rejected by the time filter
+        put(data, "anz1", "dt1", "uid3", 1000L);
+        put(data, "apz1", "dt1", "uid4", 10L);
+        
+        // nothing from here to the end of the bounding range can match
+        for (int i = 0; i < 20; i++) {
+            put(data, String.format("aq%02d", i), "dt1", "tail" + i, 10L);
+        }
+        
+        Set<String> visited = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        
+        // @formatter:off
+        DatawaveFieldIndexRegexIteratorJexl ivarator = DatawaveFieldIndexRegexIteratorJexl.builder()
+                .withFieldName("FOO")
+                .withFieldValue("a[m-p]z.*")
+                .withTimeFilter(new TimeFilter(0, 100))
+                .withDatatypeFilter(k -> ((Key) k).getColumnQualifier().toString().contains("\0dt1\0"))
+                .withFileSystem(FileSystem.getLocal(new Configuration()))
+                .withUniqueDir(new Path(temporaryFolder.newFolder().toURI()))
+                .withMaxRangeSplit(1)
+                .build();
+        // @formatter:on
+        ivarator.init(new VisitTrackingIterator(new SortedMapIterator(data), visited), Collections.emptyMap(), null);
+        ivarator.seek(new Range(new Key(ROW), true, new Key(ROW).followingKey(PartialKey.ROW), false), Collections.emptyList(), false);
+        
+        List<String> results = new ArrayList<>();
+        while (ivarator.hasTop()) {
+            results.add(ivarator.getTopKey().getColumnFamily().toString());
+            ivarator.next();
+        }
+        Assert.assertEquals(Arrays.asList("dt1\0uid1", "dt1\0uid4"), results);
+        
+        // the gap is seeked past once enough values have been missed
+        Assert.assertTrue(visited.contains("aaa00"));
+        Assert.assertFalse(visited.contains("aaa15"));
+        
+        // the filtered values are still scanned
+        Assert.assertTrue(visited.contains("amz2"));
+        Assert.assertTrue(visited.contains("anz1"));
+        
+        // and the scan stops at the first value after which nothing can match
+        Assert.assertTrue(visited.contains("aq00"));
+        Assert.assertFalse(visited.contains("aq01"));
+    }
+    
+    private static void put(SortedMap<Key,Value> data, String value, String datatype, String uid, long timestamp) {
+        data.put(new Key(ROW, "fi\0FOO", value + '\0' + datatype + '\0' + uid, timestamp), new Value(new byte[0]));
+    }
+    
+    /**
+     * Records the field index values the source is positioned on, across all of its copies
+     */
+    private static class VisitTrackingIterator extends WrappingIterator {
+        private final Set<String> visited;
+        
+        VisitTrackingIterator(SortedKeyValueIterator<Key,Value> source, Set<String> visited) {
+            setSource(source);
+            this.visited = visited;
+        }
+        
+        @Override
+        public SortedKeyValueIterator<Key,Value> deepCopy(IteratorEnvironment env) {
+            return new VisitTrackingIterator(getSource().deepCopy(env), visited);
+        }
+        
+        @Override
+        public void seek(Range range, Collection<ByteSequence> columnFamilies, boolean inclusive) throws IOException {
+            super.seek(range, columnFamilies, inclusive);
+            visit();
+        }
+        
+        @Override
+        public void next() throws IOException {
+            super.next();
+            visit();
+        }
+        
+        private void visit() {
+            if (hasTop()) {
+                String cq = getTopKey().getColumnQualifier().toString();
+                visited.add(cq.substring(0, cq.indexOf('\0')));
+            }
+        }
+    }
+}
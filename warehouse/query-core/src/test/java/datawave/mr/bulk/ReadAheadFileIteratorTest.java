@@ -0,0 +1,127 @@
+package datawave.mr.bulk;
+
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.accumulo.core.iterators.SortedMapIterator;
+import org.apache.accumulo.core.iterators.system.MultiIterator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ReadAheadFileIteratorTest {
+    
+    private ExecutorService executor;
+    
+    @Before
+    public void setup() {
+        executor = Executors.newCachedThreadPool();
+    }
+    
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+    
+    @Test
+    public void testMergedReadAhead() throws IOException {
+        TreeMap<Key,Value> even = new TreeMap<>();
+        TreeMap<Key,Value> odd = new TreeMap<>();
+        for (int i = 0; i < 1000; i++) {
+            (i % 2 == 0 ? even : odd).put(new Key(String.format("row%04d", i)), new Value(Integer.toString(i).getBytes()));
+        }
+        
+        ReadAheadFileIterator evenIter = new ReadAheadFileIterator(new SortedMapIterator(even), executor, 2, 7);
+        ReadAheadFileIterator oddIter = new ReadAheadFileIterator(new SortedMapIterator(odd), executor, 2, 7);
+        SortedKeyValueIterator<Key,Value> merged = new MultiIterator(Arrays.asList(evenIter, oddIter), true);
+        
+        merged.seek(new Range(), Collections.emptyList(), false);
+        List<Key> keys = new ArrayList<>();
+        while (merged.hasTop()) {
+            assertEquals(Integer.toString(keys.size()), merged.getTopValue().toString());
+            keys.add(merged.getTopKey());
+            merged.next();
+        }
+        assertEquals(1000, keys.size());
+        
+        // seeking again, part way through a batch, restarts the readers
+        merged.seek(new Range(new Key("row0500"), true, new Key("row0509"), true), Collections.emptyList(), false);
+        for (int i = 500; i < 510; i++) {
+            assertEquals(Integer.toString(i), merged.getTopValue().toString());
+            merged.next();
+        }
+        assertFalse(merged.hasTop());
+        
+        evenIter.close();
+        oddIter.close();
+    }
+    
+    @Test(expected = IOException.class)
+    public void testReadFailure() throws IOException {
+        SortedKeyValueIterator<Key,Value> failing = new SortedMapIterator(new TreeMap<>()) {
+            @Override
+            public void seek(Range range, Collection<ByteSequence> columnFamilies, boolean inclusive) throws IOException {
+                throw new IOException("unreadable");
+            }
+        };
+        ReadAheadFileIterator iter = new ReadAheadFileIterator(failing, executor, 2, 10);
+        iter.seek(new Range(), Collections.emptyList(), false);
+    }
+    
+    @Test
+    public void testCloseInterruptsReader() throws Exception {
+        TreeMap<Key,Value> data = new TreeMap<>();
+        for (int i = 0; i < 10; i++) {
+            data.put(new Key(String.format("row%04d", i)), new Value(new byte[0]));
+        }
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        SortedKeyValueIterator<Key,Value> slow = new SortedMapIterator(data) {
+            private int nexts = 0;
+            
+            @Override
+            public void next() throws IOException {
+                if (++nexts > 1) {
+                    blocked.countDown();
+                    try {
+                        Thread.sleep(TimeUnit.MINUTES.toMillis(5));
+                    } catch (InterruptedException e) {
+                        interrupted.countDown();
+                        throw new InterruptedIOException();
+                    }
+                }
+                super.next();
+            }
+        };
+        
+        ReadAheadFileIterator iter = new ReadAheadFileIterator(slow, executor, 2, 1);
+        iter.seek(new Range(), Collections.emptyList(), false);
+        assertTrue(iter.hasTop());
+        assertTrue(blocked.await(10, TimeUnit.SECONDS));
+        
+        // the reader is stuck in the source, so close has to interrupt it rather than wait for it to notice
+        long start = System.currentTimeMillis();
+        iter.close();
+        assertTrue(System.currentTimeMillis() - start < TimeUnit.SECONDS.toMillis(10));
+        assertTrue(interrupted.await(0, TimeUnit.SECONDS));
+    }
+}
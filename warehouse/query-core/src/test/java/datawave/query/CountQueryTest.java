@@ -1,5 +1,6 @@
 package datawave.query;
 
+import datawave.query.iterator.QueryIterator;
 import datawave.query.tables.CountingShardQueryLogic;
 import datawave.query.testframework.AbstractFunctionalQuery;
 import datawave.query.testframework.AccumuloSetupHelper;
@@ -9,7 +10,9 @@ import datawave.query.testframework.CitiesDataType.CityField;
 import datawave.query.testframework.DataTypeHadoopConfig;
 import datawave.query.testframework.FieldConfig;
 import datawave.query.testframework.GenericCityFields;
+import org.apache.accumulo.core.data.Range;
 import org.apache.log4j.Logger;
+import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
@@ -18,6 +21,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static datawave.query.testframework.RawDataManager.AND_OP;
 import static datawave.query.testframework.RawDataManager.EQ_OP;
@@ -102,6 +106,65 @@ public class CountQueryTest extends AbstractFunctionalQuery {
         runCountTest(query);
     }
     
+    @Test
+    public void testEqualFromFieldIndex() throws Exception {
+        log.info("------  testEqualFromFieldIndex  ------");
+        
+        countFromFieldIndex();
+        String state = "'Missouri'";
+        String query = CityField.STATE.name() + EQ_OP + state;
+        runCountTest(query);
+        Assert.assertTrue("the field index was not counted", FieldIndexCountingQueryIterator.fieldIndexCounts.get() > 0);
+    }
+    
+    @Test
+    public void testOrFromFieldIndex() throws Exception {
+        log.info("------  testOrFromFieldIndex  ------");
+        
+        countFromFieldIndex();
+        String city = "'paris'";
+        String fra = "'frA'";
+        String usa = "'UsA'";
+        String query = "(" + CityField.CITY.name() + EQ_OP + city + AND_OP + CityField.CODE.name() + EQ_OP + fra + ")" + OR_OP + "(" + CityField.CITY.name()
+                        + EQ_OP + city + AND_OP + CityField.CODE.name() + EQ_OP + usa + ")";
+        runCountTest(query);
+        Assert.assertTrue("the field index was not counted", FieldIndexCountingQueryIterator.fieldIndexCounts.get() > 0);
+    }
+    
+    @Test
+    public void testRegexFromFieldIndex() throws Exception {
+        log.info("------  testRegexFromFieldIndex  ------");
+        
+        // the regex is not satisfied by the field index, so the documents are counted as usual
+        countFromFieldIndex();
+        String state = "'mISs.*'";
+        String query = CityField.CODE.name() + EQ_OP + "'usA'" + AND_OP + CityField.STATE.name() + RE_OP + state;
+        runCountTest(query);
+        Assert.assertEquals(0, FieldIndexCountingQueryIterator.fieldIndexCounts.get());
+    }
+    
+    private void countFromFieldIndex() {
+        this.countLogic.setCountFromFieldIndex(true);
+        this.countLogic.getQueryPlanner().setQueryIteratorClass(FieldIndexCountingQueryIterator.class);
+        FieldIndexCountingQueryIterator.fieldIndexCounts.set(0);
+    }
+    
+    /**
+     * Records the ranges counted straight from the field index. The tests' tablet servers run in this JVM, so a static counter is visible to the tests.
+     */
+    public static class FieldIndexCountingQueryIterator extends QueryIterator {
+        private static final AtomicInteger fieldIndexCounts = new AtomicInteger();
+        
+        @Override
+        protected boolean isCountingFromFieldIndex(Range documentRange) {
+            boolean counting = super.isCountingFromFieldIndex(documentRange);
+            if (counting) {
+                fieldIndexCounts.incrementAndGet();
+            }
+            return counting;
+        }
+    }
+    
     // ============================================
     // implemented abstract methods
     protected void testInit() {
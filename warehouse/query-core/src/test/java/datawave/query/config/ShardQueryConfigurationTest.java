@@ -78,6 +78,7 @@ public class ShardQueryConfigurationTest {
         Assert.assertEquals(8, config.getGeometryMaxExpansion());
         Assert.assertEquals(32, config.getPointMaxExpansion());
         Assert.assertEquals(4, config.getGeoWaveMaxEnvelopes());
+        Assert.assertEquals(0, config.getGeoWaveMaxCoverCells());
         Assert.assertEquals(TableName.SHARD, config.getShardTableName());
         Assert.assertEquals(TableName.SHARD_INDEX, config.getIndexTableName());
         Assert.assertEquals(TableName.SHARD_RINDEX, config.getReverseIndexTableName());
@@ -116,6 +117,7 @@ public class ShardQueryConfigurationTest {
         Assert.assertEquals(Maps.newHashMap(), config.getFieldToDiscreteIndexTypes());
         Assert.assertEquals(Maps.newHashMap(), config.getCompositeTransitionDates());
         Assert.assertTrue(config.isSortedUIDs());
+        Assert.assertFalse(config.isCountFromFieldIndex());
         Assert.assertEquals(Sets.newHashSet(), config.getQueryTermFrequencyFields());
         Assert.assertFalse(config.isTermFrequenciesRequired());
         Assert.assertEquals(Sets.newHashSet(), config.getLimitFields());
@@ -128,6 +130,13 @@ public class ShardQueryConfigurationTest {
         Assert.assertTrue(config.isFailOutsideValidDateRange());
         Assert.assertFalse(config.isRawTypes());
         Assert.assertEquals(-1.0, config.getMinSelectivity(), 0);
+        Assert.assertFalse(config.isCostBasedPlanning());
+        Assert.assertEquals(1000.0, config.getMaxTermCostRatio(), 0);
+        Assert.assertFalse(config.isNGramIndexEnabled());
+        Assert.assertEquals(TableName.NGRAM_INDEX, config.getNGramIndexTableName());
+        Assert.assertEquals(3, config.getNGramSize());
+        Assert.assertEquals(100000, config.getNGramIndexScanLimit());
+        Assert.assertNull(config.getNGramIndexStartDate());
         Assert.assertFalse(config.getIncludeDataTypeAsField());
         Assert.assertTrue(config.getIncludeRecordId());
         Assert.assertFalse(config.getIncludeHierarchyFields());
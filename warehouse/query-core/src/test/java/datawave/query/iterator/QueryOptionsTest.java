@@ -6,11 +6,16 @@ import org.apache.log4j.Logger;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 public class QueryOptionsTest {
     
@@ -93,4 +98,43 @@ public class QueryOptionsTest {
         Set<String> dataTypeKeys = QueryOptions.fetchDataTypeKeys(data);
         assertEquals("Failed to parse null option string", expectedDataTypeKeys, dataTypeKeys);
     }
+    
+    @Test
+    public void testParsedOptionIsShared() throws IOException {
+        AtomicInteger parses = new AtomicInteger();
+        QueryOptions.OptionParser<Map<String,Set<String>>> parser = s -> {
+            parses.incrementAndGet();
+            return QueryOptions.buildFieldDataTypeMap(s);
+        };
+        
+        String data = "shared:v1,v2;other:v3";
+        Map<String,Set<String>> first = QueryOptions.getParsedOption("test.option", data, parser);
+        Map<String,Set<String>> second = QueryOptions.getParsedOption("test.option", new String(data.toCharArray()), parser);
+        assertSame(first, second);
+        assertEquals(1, parses.get());
+        
+        // the same content for another option is parsed separately
+        Map<String,Set<String>> third = QueryOptions.getParsedOption("test.option2", data, parser);
+        assertNotSame(first, third);
+        assertEquals(first, third);
+        assertEquals(2, parses.get());
+    }
+    
+    @Test
+    public void testParsedOptionWeighedByLength() throws IOException {
+        String data = "weighed:v1,v2,v3";
+        Map<String,Set<String>> parsed = QueryOptions.getParsedOption("test.weight", data, QueryOptions::buildFieldDataTypeMap);
+        
+        // the parsed option is weighed by the length of the option it was parsed from
+        QueryOptions.ParsedOption cached = QueryOptions.parsedOptionCache.asMap().values().stream().filter(p -> p.value == parsed).findFirst().orElse(null);
+        assertNotNull(cached);
+        assertEquals(data.length(), cached.length);
+    }
+    
+    @Test(expected = IOException.class)
+    public void testParsedOptionFailure() throws IOException {
+        QueryOptions.getParsedOption("test.failure", "data", s -> {
+            throw new IOException("unparseable");
+        });
+    }
 }
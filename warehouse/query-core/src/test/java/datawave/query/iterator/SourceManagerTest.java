@@ -1,6 +1,10 @@
 package datawave.query.iterator;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.text.ParseException;
@@ -17,6 +21,7 @@ import org.apache.accumulo.core.client.SampleNotPresentException;
 import org.apache.accumulo.core.client.sample.SamplerConfiguration;
 import org.apache.accumulo.core.conf.AccumuloConfiguration;
 import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.PartialKey;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.file.rfile.RFileOperations;
@@ -116,6 +121,53 @@ public class SourceManagerTest {
         assertEquals(9, maker.children.size());
     }
     
+    @Test
+    public void testSeeksRoutedToNearestFreeSource() throws IOException {
+        SourceManager manager = new SourceManager(data);
+        manager.init(data, Maps.newHashMap(), new MockIteratorEnvironment());
+        manager.setInitialSize(3);
+        
+        SourceManager first = (SourceManager) manager.deepCopy(null);
+        SourceManager second = (SourceManager) manager.deepCopy(null);
+        assertEquals(3, manager.getCreatedSize());
+        
+        Key key1 = new Key("20121126_0", "fi\0FOO", "bar\0foobar\01");
+        Key key2 = new Key("20121126_0", "fi\0FOO", "bar\0foobar\02");
+        Key key3 = new Key("20121126_0", "fi\0FOO", "bar\0foobar\03");
+        
+        // the first cursor is exhausted after one key, which leaves its source free just before the next seek
+        first.seek(new Range(key1, true, key2, false), Collections.emptyList(), false);
+        assertTrue(first.hasTop());
+        first.next();
+        assertFalse(first.hasTop());
+        
+        SourceManager firstSource = first.child;
+        second.seek(new Range(key3, true, null, false), Collections.emptyList(), false);
+        assertSame(firstSource, second.child);
+        assertTrue(key3.equals(second.getTopKey(), PartialKey.ROW_COLFAM_COLQUAL));
+        
+        // the exhausted cursor stays exhausted although its source has moved
+        assertFalse(first.hasTop());
+        
+        // the second cursor now holds that source, so another seek behind it is left with its own source
+        SourceManager third = (SourceManager) manager.deepCopy(null);
+        third.seek(new Range(key3, true, null, false), Collections.emptyList(), false);
+        assertNotSame(firstSource, third.child);
+        assertTrue(key3.equals(third.getTopKey(), PartialKey.ROW_COLFAM_COLQUAL));
+        assertTrue(second.hasTop());
+        assertTrue(key3.equals(second.getTopKey(), PartialKey.ROW_COLFAM_COLQUAL));
+        
+        // a seek into another row is left with its current source
+        SourceManager thirdSource = third.child;
+        Key otherRow = new Key("20121126_1", "fi\0FOO", "bar\0foobar\04");
+        third.seek(new Range(otherRow, true, null, false), Collections.emptyList(), false);
+        assertSame(thirdSource, third.child);
+        
+        assertEquals(1, manager.getDeepCopiesAvoided());
+        assertEquals(1, manager.getSeeksRouted());
+        assertEquals(0, manager.getReseeks());
+    }
+    
     public static SortedMap<Key,Value> createTestData() throws ParseException {
         return createTestData("");
     }
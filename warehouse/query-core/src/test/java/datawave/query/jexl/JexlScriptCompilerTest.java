@@ -0,0 +1,57 @@
+package datawave.query.jexl;
+
+import org.apache.commons.jexl2.Script;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+public class JexlScriptCompilerTest {
+    
+    private static final String[] QUERIES = {"FOO == 'bar'", "FOO != 'bar'", "FOO == 'bar' && BAZ == 'qux'", "FOO == 'bar' || BAZ == 'nope'",
+            "!(FOO == 'bar')", "FOO =~ 'b.*'", "FOO !~ 'b.*'", "MISSING == 'bar'", "MISSING == 'bar' || FOO == 'bar'", "NUM > 5", "NUM <= 5",
+            "(FOO == 'bar' && (BAZ == 'qux' || NUM < 2))", "((ASTDelayedPredicate = true) && (FOO == 'bar'))", "MULTI == 'two'", "MULTI == 'three'"};
+    
+    @Test
+    public void testMatchesInterpreter() {
+        for (String query : QUERIES) {
+            DatawaveJexlEngine engine = ArithmeticJexlEngines.getEngine(new DefaultArithmetic());
+            Script script = engine.createScript(query);
+            JexlScriptCompiler.CompiledNode compiled = JexlScriptCompiler.compile(engine.parse(query), new DefaultArithmetic());
+            Assert.assertNotNull("Expected " + query + " to compile", compiled);
+            
+            Assert.assertEquals(query, DatawaveInterpreter.isMatched(script.execute(createContext())),
+                            DatawaveInterpreter.isMatched(compiled.evaluate(createContext())));
+        }
+    }
+    
+    @Test
+    public void testHitListMatchesInterpreter() {
+        String query = "FOO == 'bar' && MULTI == 'two'";
+        HitListArithmetic interpreted = new HitListArithmetic();
+        Script script = ArithmeticJexlEngines.getEngine(interpreted).createScript(query);
+        HitListArithmetic arithmetic = new HitListArithmetic();
+        JexlScriptCompiler.CompiledNode compiled = JexlScriptCompiler.compile(ArithmeticJexlEngines.getEngine(arithmetic).parse(query), arithmetic);
+        
+        Assert.assertTrue(DatawaveInterpreter.isMatched(script.execute(createContext())));
+        Assert.assertTrue(DatawaveInterpreter.isMatched(compiled.evaluate(createContext())));
+        Assert.assertEquals(interpreted.getHitSet(), arithmetic.getHitSet());
+    }
+    
+    @Test
+    public void testUnsupported() {
+        DatawaveJexlEngine engine = ArithmeticJexlEngines.getEngine(new DefaultArithmetic());
+        Assert.assertNull(JexlScriptCompiler.compile(engine.parse("FOO == 'bar' && filter:includeRegex(BAZ, 'q.*')"), new DefaultArithmetic()));
+        Assert.assertNull(JexlScriptCompiler.compile(engine.parse("NUM >= 1 && NUM <= 5"), new DefaultArithmetic()));
+    }
+    
+    private static DatawaveJexlContext createContext() {
+        DatawaveJexlContext context = new DatawaveJexlContext();
+        context.set("FOO", "bar");
+        context.set("BAZ", "qux");
+        context.set("NUM", 3);
+        context.set("MULTI", new HashSet<>(Arrays.asList("one", "two")));
+        return context;
+    }
+}
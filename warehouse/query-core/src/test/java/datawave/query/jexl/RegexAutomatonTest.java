@@ -0,0 +1,112 @@
+package datawave.query.jexl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RegexAutomatonTest {
+    
+    private static final String[] SUPPORTED = {"abc.*", ".*abc", "^a\\d+$", "[^a-c\\-]x", "(?:ab|cd)*?e", "a{2,3}b?", "\\Qa.b\\E", "[\\w-]+", "a\\sb",
+                    "a\\.b\"c<d>", "(ab|ca)c?", "x.y", "\\D\\W\\S", "caf\u00e9.*"};
+    
+    private static final String[] VALUES = {"", "abc", "abcdef", "xyzabc", "a123", "a", "dx", "ax", "ababcde", "e", "aab", "aaab", "a.b", "axb", "a-b_c",
+                    "a b", "a\tb", "a.b\"c<d>", "abc", "cac", "x\ny", "x y", "a b", "caf\u00e9 au lait", "cafe au lait"};
+    
+    @Test
+    public void testMatchesLikePattern() {
+        for (String regex : SUPPORTED) {
+            RegexAutomaton automaton = RegexAutomaton.compile(regex);
+            assertNotNull(regex, automaton);
+            
+            Pattern pattern = Pattern.compile(regex);
+            for (String value : VALUES) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                assertEquals(regex + " against " + value, pattern.matcher(value).matches(), automaton.matches(bytes, 0, bytes.length));
+            }
+        }
+    }
+    
+    @Test
+    public void testUnsupported() {
+        // possessive quantifiers, lookarounds, embedded flags, back references, word boundaries and inner anchors
+        for (String regex : new String[] {"a*+b", "(?=a)b", "(?i)abc", "(a)\\1", "a\\bc", "a^b", "a$b", "[a[b]]", "[a-z&&[^c]]", "\\p{Alpha}"}) {
+            assertNull(regex, RegexAutomaton.compile(regex));
+        }
+        
+        // invalid regexes are left for the Pattern to report
+        assertNull(RegexAutomaton.compile("a(b"));
+    }
+    
+    @Test
+    public void testCached() {
+        assertTrue(RegexAutomaton.get("abc.*") == RegexAutomaton.get("abc.*"));
+        assertNull(RegexAutomaton.get("(?i)abc"));
+    }
+    
+    @Test
+    public void testNextPossibleMatch() {
+        List<String> values = new ArrayList<>();
+        generate("", "abc", 4, values);
+        Collections.sort(values);
+        
+        for (String regex : new String[] {"a*b", "ab*c", "(ab|ca)c?", "c+", "b", "a(b|c)a", "[ab]c*a", ".*bc"}) {
+            RegexAutomaton automaton = RegexAutomaton.compile(regex);
+            Pattern pattern = Pattern.compile(regex);
+            for (String value : values) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                byte[] next = automaton.nextPossibleMatch(bytes, 0, bytes.length);
+                String nextValue = (next == null ? null : new String(next, StandardCharsets.UTF_8));
+                
+                if (pattern.matcher(value).matches()) {
+                    assertEquals(regex, value, nextValue);
+                    continue;
+                }
+                
+                // no value from this one up to the one returned may match
+                for (String other : values) {
+                    if (other.compareTo(value) >= 0 && (nextValue == null || other.compareTo(nextValue) < 0)) {
+                        assertTrue(regex + " skipped " + other + " from " + value + " to " + nextValue, !pattern.matcher(other).matches());
+                    }
+                }
+                if (nextValue != null) {
+                    assertTrue(regex + " moved backwards from " + value + " to " + nextValue, nextValue.compareTo(value) > 0);
+                }
+            }
+        }
+    }
+    
+    @Test
+    public void testNextPossibleMatchSkipsGaps() {
+        RegexAutomaton automaton = RegexAutomaton.compile("a[m-p]z.*");
+        assertEquals("amz", next(automaton, "aa"));
+        assertEquals("amz", next(automaton, "amy"));
+        assertEquals("anz", next(automaton, "ana"));
+        assertEquals("apz", next(automaton, "apa"));
+        assertNull(next(automaton, "aq"));
+        assertNull(next(automaton, "b"));
+    }
+    
+    private static String next(RegexAutomaton automaton, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        byte[] next = automaton.nextPossibleMatch(bytes, 0, bytes.length);
+        return (next == null ? null : new String(next, StandardCharsets.UTF_8));
+    }
+    
+    private static void generate(String prefix, String alphabet, int length, List<String> values) {
+        values.add(prefix);
+        if (prefix.length() < length) {
+            for (char c : alphabet.toCharArray()) {
+                generate(prefix + c, alphabet, length, values);
+            }
+        }
+    }
+}
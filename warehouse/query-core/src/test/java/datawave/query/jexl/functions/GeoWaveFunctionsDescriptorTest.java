@@ -1,6 +1,8 @@
 package datawave.query.jexl.functions;
 
 import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
 import datawave.data.normalizer.AbstractGeometryNormalizer;
 import datawave.query.config.ShardQueryConfiguration;
 import datawave.query.jexl.JexlASTHelper;
@@ -20,6 +22,7 @@ import org.powermock.reflect.Whitebox;
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -98,6 +101,41 @@ public class GeoWaveFunctionsDescriptorTest {
         }
     }
     
+    @Test
+    public void testCoverEnvelopes() throws Exception {
+        // an L shape, which leaves the upper right quarter of its bounding box empty
+        Geometry geom = AbstractGeometryNormalizer.parseGeometry("POLYGON((0 0, 40 0, 40 20, 20 20, 20 40, 0 40, 0 0))");
+        
+        List<Envelope> envelopes = GeoWaveFunctionsDescriptor.getCoverEnvelopes(geom, 16);
+        Assert.assertTrue(envelopes.size() <= 16);
+        
+        // the cells cover the geometry without the empty quarter, and the cells fully covered by it are merged back together
+        GeometryFactory factory = new GeometryFactory();
+        Geometry cover = factory.buildGeometry(envelopes.stream().map(factory::toGeometry).collect(Collectors.toList())).union();
+        Assert.assertTrue(cover.covers(geom));
+        Assert.assertEquals(geom.getArea(), cover.getArea(), 0.0);
+        Assert.assertEquals(2, envelopes.size());
+        
+        // a budget too small to split the bounding box leaves it as is
+        Assert.assertEquals(Arrays.asList(geom.getEnvelopeInternal()), GeoWaveFunctionsDescriptor.getCoverEnvelopes(geom, 3));
+        
+        // a point can not be refined
+        Geometry point = AbstractGeometryNormalizer.parseGeometry("POINT(10 20)");
+        Assert.assertEquals(Arrays.asList(point.getEnvelopeInternal()), GeoWaveFunctionsDescriptor.getCoverEnvelopes(point, 16));
+    }
+    
+    @Test
+    public void testCoverCellsQuery() throws Exception {
+        String query = "geowave:intersects(GEO_FIELD, 'POLYGON((0 0, 40 0, 40 20, 20 20, 20 40, 0 40, 0 0))')";
+        
+        ShardQueryConfiguration config = new ShardQueryConfiguration();
+        String envelopeQuery = convertFunctionToIndexQuery(query, config);
+        
+        config.setGeoWaveMaxCoverCells(16);
+        String coverQuery = convertFunctionToIndexQuery(query, config);
+        Assert.assertNotEquals(envelopeQuery, coverQuery);
+    }
+    
     private String convertFunctionToIndexQuery(String queryStr, ShardQueryConfiguration config) throws ParseException {
         ASTJexlScript script = JexlASTHelper.parseJexlQuery(queryStr);
         ASTFunctionNode func = find(script);
@@ -7,6 +7,35 @@ import org.junit.Test;
 
 public class GeoWaveFunctionsTest {
     
+    @Test
+    public void testSpatialRelationships() {
+        String polygon = "POLYGON((0 0, 10 0, 10 10, 0 10, 0 0))";
+        String inside = "POINT(5 5)";
+        String outside = "POINT(20 20)";
+        
+        // the query geometry is the second argument, so the relationship is tested from the field value's side
+        Assert.assertTrue(GeoWaveFunctions.within(inside, polygon));
+        Assert.assertFalse(GeoWaveFunctions.within(outside, polygon));
+        Assert.assertTrue(GeoWaveFunctions.covered_by(inside, polygon));
+        Assert.assertTrue(GeoWaveFunctions.intersects(inside, polygon));
+        Assert.assertFalse(GeoWaveFunctions.intersects(outside, polygon));
+        Assert.assertFalse(GeoWaveFunctions.contains(inside, polygon));
+        Assert.assertTrue(GeoWaveFunctions.contains(polygon, inside));
+        Assert.assertTrue(GeoWaveFunctions.covers(polygon, inside));
+        Assert.assertFalse(GeoWaveFunctions.covers(inside, polygon));
+        Assert.assertTrue(GeoWaveFunctions.crosses("LINESTRING(5 5, 20 20)", polygon));
+        Assert.assertTrue(GeoWaveFunctions.overlaps("POLYGON((5 5, 15 5, 15 15, 5 15, 5 5))", polygon));
+        
+        // the cached geometry gives the same answers when used again
+        Assert.assertTrue(GeoWaveFunctions.within(inside, polygon));
+        Assert.assertFalse(GeoWaveFunctions.within(outside, polygon));
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnparseableGeometry() {
+        GeoWaveFunctions.within("POINT(5 5)", "NOT A GEOMETRY");
+    }
+    
     @Test
     public void testLuceneToJexlConversion() throws Exception {
         LuceneToJexlQueryParser parser = new LuceneToJexlQueryParser();
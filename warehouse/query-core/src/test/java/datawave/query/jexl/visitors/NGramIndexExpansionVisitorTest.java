@@ -0,0 +1,152 @@
+package datawave.query.jexl.visitors;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import datawave.accumulo.inmemory.InMemoryInstance;
+import datawave.ingest.mapreduce.handler.shard.NGramIndexDataTypeHandler;
+import datawave.query.config.ShardQueryConfiguration;
+import datawave.query.jexl.JexlASTHelper;
+import datawave.query.tables.ScannerFactory;
+import datawave.query.util.MockMetadataHelper;
+
+import org.apache.accumulo.core.client.BatchWriter;
+import org.apache.accumulo.core.client.BatchWriterConfig;
+import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.client.security.tokens.PasswordToken;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.security.Authorizations;
+import org.apache.commons.jexl2.parser.ASTJexlScript;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class NGramIndexExpansionVisitorTest {
+    
+    private static final List<String> VALUES = Arrays.asList("xabc123y", "abc12", "zzabc123", "abd123", "123abc");
+    
+    private ShardQueryConfiguration config;
+    private MockMetadataHelper helper;
+    
+    @Before
+    public void setUp() {
+        config = new ShardQueryConfiguration();
+        config.setNGramIndexEnabled(true);
+        config.setNGramIndexStartDate(new Date(1000L));
+        config.setBeginDate(new Date(2000L));
+        
+        helper = new MockMetadataHelper();
+        helper.setIndexedFields(Collections.singleton("FOO"));
+    }
+    
+    @Test
+    public void testInfixRegex() throws Exception {
+        assertEquals("(FOO == 'xabc123y' || FOO == 'zzabc123')", expand("FOO =~ '.*abc123.*'"));
+        assertEquals("FOO == '123abc' && BAR == 'x'", expand("FOO =~ '.*123.*abc' && BAR == 'x'"));
+    }
+    
+    @Test
+    public void testRegexLeftAsIs() throws Exception {
+        // expanded by the global index
+        assertEquals("FOO =~ 'abc.*'", expand("FOO =~ 'abc.*'"));
+        
+        // not indexed
+        assertEquals("BAR =~ '.*abc123.*'", expand("BAR =~ '.*abc123.*'"));
+        
+        // no literal as long as an n-gram
+        assertEquals("FOO =~ '.*ab.*'", expand("FOO =~ '.*ab.*'"));
+        
+        // already delayed
+        assertEquals("((ASTDelayedPredicate = true) && (FOO =~ '.*abc123.*'))", expand("((ASTDelayedPredicate = true) && (FOO =~ '.*abc123.*'))"));
+        
+        // no values match
+        assertEquals("FOO =~ '.*xyz.*'", expand("FOO =~ '.*xyz.*'"));
+        
+        // too many values match
+        config.setMaxValueExpansionThreshold(1);
+        assertEquals("FOO =~ '.*abc123.*'", expand("FOO =~ '.*abc123.*'"));
+    }
+    
+    @Test
+    public void testIncompleteIndex() throws Exception {
+        // data from before the n-gram index may still match the regex, so the values are only added to it
+        config.setBeginDate(new Date(500L));
+        assertEquals("(FOO =~ '.*abc123.*' || (FOO == 'xabc123y' || FOO == 'zzabc123'))", expand("FOO =~ '.*abc123.*'"));
+        
+        config.setNGramIndexStartDate(null);
+        config.setBeginDate(new Date(2000L));
+        assertEquals("(FOO =~ '.*123.*abc' || FOO == '123abc') && BAR == 'x'", expand("FOO =~ '.*123.*abc' && BAR == 'x'"));
+    }
+    
+    @Test
+    public void testScanValues() throws Exception {
+        InMemoryInstance instance = new InMemoryInstance(NGramIndexExpansionVisitorTest.class.getName());
+        Connector connector = instance.getConnector("", new PasswordToken(new byte[0]));
+        connector.tableOperations().create(config.getNGramIndexTableName());
+        
+        BatchWriter writer = connector.createBatchWriter(config.getNGramIndexTableName(), new BatchWriterConfig());
+        write(writer, "xabc123y", "dt1");
+        write(writer, "zzabc123", "dt2");
+        write(writer, "abc12", "dt1");
+        
+        // not a value\0datatype qualifier, so skipped
+        Mutation mutation = new Mutation("abc");
+        mutation.put("FOO", "malformed", new Value(new byte[0]));
+        writer.addMutation(mutation);
+        writer.close();
+        
+        config.setAuthorizations(Collections.singleton(new Authorizations()));
+        NGramIndexExpansionVisitor visitor = new NGramIndexExpansionVisitor(config, new ScannerFactory(connector, 1), helper);
+        Set<String> nGrams = NGramIndexDataTypeHandler.getNGrams("abc123", 3);
+        
+        assertEquals(new HashSet<>(Arrays.asList("xabc123y", "zzabc123")), visitor.lookupValues("FOO", nGrams));
+        
+        // other fields are not matched
+        assertEquals(Collections.emptySet(), visitor.lookupValues("BAR", nGrams));
+        
+        config.setDatatypeFilter(Collections.singleton("dt1"));
+        assertEquals(Collections.singleton("xabc123y"), visitor.lookupValues("FOO", nGrams));
+        config.setDatatypeFilter(Collections.emptySet());
+        
+        // only '123' is in no more than 2 entries, so the others are ignored
+        config.setNGramIndexScanLimit(2);
+        assertEquals(new HashSet<>(Arrays.asList("xabc123y", "zzabc123")), visitor.lookupValues("FOO", nGrams));
+        
+        // every n-gram is too common
+        config.setNGramIndexScanLimit(1);
+        assertNull(visitor.lookupValues("FOO", nGrams));
+    }
+    
+    private static void write(BatchWriter writer, String value, String datatype) throws Exception {
+        for (String nGram : NGramIndexDataTypeHandler.getNGrams(value, 3)) {
+            Mutation mutation = new Mutation(nGram);
+            mutation.put("FOO", value + '\0' + datatype, new Value(new byte[0]));
+            writer.addMutation(mutation);
+        }
+    }
+    
+    private String expand(String query) throws Exception {
+        ASTJexlScript script = JexlASTHelper.parseJexlQuery(query);
+        NGramIndexExpansionVisitor visitor = new NGramIndexExpansionVisitor(config, null, helper) {
+            @Override
+            protected Set<String> lookupValues(String fieldName, Set<String> nGrams) {
+                // an n-gram index of the values of FOO
+                Set<String> candidates = new HashSet<>();
+                for (String value : VALUES) {
+                    if (nGrams.stream().allMatch(value::contains)) {
+                        candidates.add(value);
+                    }
+                }
+                return candidates;
+            }
+        };
+        return JexlStringBuildingVisitor.buildQuery((ASTJexlScript) script.jjtAccept(visitor, null));
+    }
+}
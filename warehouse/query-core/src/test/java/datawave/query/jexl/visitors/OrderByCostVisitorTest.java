@@ -0,0 +1,89 @@
+package datawave.query.jexl.visitors;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import datawave.query.config.ShardQueryConfiguration;
+import datawave.query.jexl.JexlASTHelper;
+import datawave.query.planner.pushdown.Cost;
+import datawave.query.planner.pushdown.CostEstimator;
+
+import org.apache.commons.jexl2.parser.ASTEQNode;
+import org.apache.commons.jexl2.parser.ASTJexlScript;
+import org.apache.commons.jexl2.parser.JexlNode;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class OrderByCostVisitorTest {
+    
+    private ShardQueryConfiguration config;
+    private CostEstimator estimator;
+    private Set<String> indexOnlyFields = Collections.emptySet();
+    private Set<String> nonEventFields = Collections.emptySet();
+    
+    @Before
+    public void setUp() {
+        config = new ShardQueryConfiguration();
+        config.setMaxTermCostRatio(100);
+        
+        Map<String,Long> counts = new HashMap<>();
+        counts.put("RARE", 10L);
+        counts.put("COMMON", 500L);
+        counts.put("EVERYWHERE", 5000L);
+        counts.put("TOKENS", 5000L);
+        counts.put("UNINDEXED", Long.MAX_VALUE);
+        estimator = new CostEstimator(config, null, null) {
+            @Override
+            public Cost computeCostForSubtree(JexlNode node) {
+                if (node instanceof ASTEQNode) {
+                    return new Cost(0l, counts.get(JexlASTHelper.getIdentifier(node)));
+                }
+                return super.computeCostForSubtree(node);
+            }
+        };
+    }
+    
+    @Test
+    public void testConjunctionOrdering() throws Exception {
+        assertEquals("RARE == 'a' && COMMON == 'b' && UNINDEXED == 'c'", order("UNINDEXED == 'c' && COMMON == 'b' && RARE == 'a'"));
+        
+        // negations have no estimate, so they stay at the end
+        assertEquals("RARE == 'a' && COMMON == 'b' && !(RARE == 'c')", order("!(RARE == 'c') && COMMON == 'b' && RARE == 'a'"));
+    }
+    
+    @Test
+    public void testDisjunctionOrdering() throws Exception {
+        assertEquals("COMMON == 'b' || RARE == 'a'", order("RARE == 'a' || COMMON == 'b'"));
+        
+        // a disjunction costs the sum of its terms
+        assertEquals("RARE == 'a' && (COMMON == 'b' || RARE == 'c')", order("(RARE == 'c' || COMMON == 'b') && RARE == 'a'"));
+    }
+    
+    @Test
+    public void testExpensiveTermsDelayed() throws Exception {
+        // more than 100 times the cheapest term, so evaluated against the documents instead of looked up
+        assertEquals("RARE == 'a' && COMMON == 'b' && ((ASTDelayedPredicate = true) && (EVERYWHERE == 'c'))",
+                        order("EVERYWHERE == 'c' && COMMON == 'b' && RARE == 'a'"));
+        
+        // without a cheaper sibling nothing is delayed
+        assertEquals("COMMON == 'b' && EVERYWHERE == 'c'", order("EVERYWHERE == 'c' && COMMON == 'b'"));
+    }
+    
+    @Test
+    public void testNonEventTermsNotDelayed() throws Exception {
+        indexOnlyFields = Collections.singleton("EVERYWHERE");
+        nonEventFields = Collections.singleton("TOKENS");
+        
+        // neither can be evaluated against the documents, so both must still be looked up
+        assertEquals("RARE == 'a' && TOKENS == 'd' && EVERYWHERE == 'c'", order("TOKENS == 'd' && EVERYWHERE == 'c' && RARE == 'a'"));
+    }
+    
+    private String order(String query) throws Exception {
+        ASTJexlScript script = JexlASTHelper.parseJexlQuery(query);
+        return JexlStringBuildingVisitor.buildQuery(OrderByCostVisitor.order(script, config, estimator, indexOnlyFields, nonEventFields));
+    }
+}
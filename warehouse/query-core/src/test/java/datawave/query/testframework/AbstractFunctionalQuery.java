@@ -122,7 +122,7 @@ public abstract class AbstractFunctionalQuery implements QueryLogicTestHarness.T
     protected Authorizations auths;
     protected String documentKey;
     protected ShardQueryLogic logic;
-    private CountingShardQueryLogic countLogic = new CountingShardQueryLogic();
+    protected CountingShardQueryLogic countLogic = new CountingShardQueryLogic();
     protected QueryLogicTestHarness testHarness;
     protected DatawavePrincipal principal;
     
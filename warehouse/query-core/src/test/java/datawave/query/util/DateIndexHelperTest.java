@@ -4,6 +4,7 @@ import com.github.benmanes.caffeine.cache.Cache;
 import datawave.ingest.mapreduce.handler.dateindex.DateIndexUtil;
 import datawave.query.MockAccumuloRecordWriter;
 import datawave.util.TableName;
+import org.apache.accumulo.core.client.BatchWriter;
 import org.apache.accumulo.core.client.BatchWriterConfig;
 import org.apache.accumulo.core.client.Connector;
 import org.apache.accumulo.core.client.TableNotFoundException;
@@ -223,4 +224,38 @@ public class DateIndexHelperTest implements ApplicationContextAware {
                         DateIndexUtil.getBeginDate("20090101"), DateIndexUtil.getEndDate("20120101"), Collections.singleton("test"));
         Assert.assertEquals("", hint);
     }
+    
+    @Test
+    public void testDayCache() throws Exception {
+        DateIndexHelper helper = this.dateIndexHelperFactory.createDateIndexHelper().initialize(connector, TableName.DATE_INDEX, Collections.singleton(auths),
+                        2, 0.9f);
+        
+        String hint = helper.getShardsAndDaysHint("LOAD_DATE", DateIndexUtil.getBeginDate("20100110"), DateIndexUtil.getEndDate("20100110"),
+                        DateIndexUtil.getBeginDate("20090101"), DateIndexUtil.getEndDate("20120101"), Collections.singleton("test"));
+        Assert.assertEquals("", hint);
+        
+        // add a mapping for the day just looked up
+        BatchWriter writer = connector.createBatchWriter(TableName.DATE_INDEX, new BatchWriterConfig());
+        KeyValue kv = getDateIndexEntry("20100109", new int[] {2}, "test", "LOADED", "LOAD_DATE", "20100110", new ColumnVisibility("A"));
+        Mutation m = new Mutation(kv.getKey().getRow());
+        m.put(kv.getKey().getColumnFamily(), kv.getKey().getColumnQualifier(), new ColumnVisibility("A"), kv.getKey().getTimestamp(), kv.getValue());
+        writer.addMutation(m);
+        writer.close();
+        
+        // the day is cached, even for a lookup which is not itself cached
+        hint = helper.getShardsAndDaysHint("LOAD_DATE", DateIndexUtil.getBeginDate("20100110"), DateIndexUtil.getEndDate("20100110"),
+                        DateIndexUtil.getBeginDate("20090102"), DateIndexUtil.getEndDate("20120101"), Collections.singleton("test"));
+        Assert.assertEquals("", hint);
+        
+        // and is scanned again once invalidated, even for the exact lookup cached before
+        helper.invalidateAll();
+        hint = helper.getShardsAndDaysHint("LOAD_DATE", DateIndexUtil.getBeginDate("20100110"), DateIndexUtil.getEndDate("20100110"),
+                        DateIndexUtil.getBeginDate("20090101"), DateIndexUtil.getEndDate("20120101"), Collections.singleton("test"));
+        Assert.assertEquals("20100109_2", hint);
+        
+        // days which were not cached yet are scanned along with the cached ones
+        hint = helper.getShardsAndDaysHint("LOAD_DATE", DateIndexUtil.getBeginDate("20100102"), DateIndexUtil.getEndDate("20100110"),
+                        DateIndexUtil.getBeginDate("20090101"), DateIndexUtil.getEndDate("20120101"), Collections.singleton("test"));
+        Assert.assertEquals("20100101_1,20100102_5,20100103_1,20100103_3,20100109_2", hint);
+    }
 }
@@ -364,12 +364,14 @@ public class CachedResultsBean {
         String viewName = "v" + nameBase;
         Connection con = null;
         PreparedStatement ps = null;
+        CachedResultsBulkLoader bulkLoader = null;
         boolean tableCreated = false;
         boolean viewCreated = false;
         CachedRunningQuery crq = null;
         Span span = null;
         boolean queryLockedException = false;
         int rowsPerBatch = cachedResultsConfiguration.getRowsPerBatch();
+        int bulkRowsPerBatch = cachedResultsConfiguration.getBulkLoadRowsPerBatch();
         try {
             
             // This RunningQuery may be in use. Make a copy using the defined Query.
@@ -509,10 +511,14 @@ public class CachedResultsBean {
                 s.execute(createTable);
                 s.close();
                 tableCreated = true;
-                // Parse the PreparedStatement
-                String insert = cachedResultsConfiguration.getParameters().get("INSERT");
-                insert = insert.replace(TABLE, tableName);
-                ps = con.prepareStatement(insert);
+                if (cachedResultsConfiguration.isBulkLoad()) {
+                    bulkLoader = new CachedResultsBulkLoader(tableName);
+                } else {
+                    // Parse the PreparedStatement
+                    String insert = cachedResultsConfiguration.getParameters().get("INSERT");
+                    insert = insert.replace(TABLE, tableName);
+                    ps = con.prepareStatement(insert);
+                }
             } catch (SQLException sqle) {
                 throw new QueryException(DatawaveErrorCode.CACHED_RESULTS_TABLE_CREATE_ERROR, sqle);
             }
@@ -576,6 +582,14 @@ public class CachedResultsBean {
                             maxLength = maxValueLength;
                         }
                         
+                        if (bulkLoader != null) {
+                            bulkLoader.add(owner, queryId, logic.getLogicName(), fieldMap, cacheableQueryObject, maxLength);
+                            if (bulkLoader.size() >= bulkRowsPerBatch) {
+                                flushBulkLoad(bulkLoader, con);
+                            }
+                            continue;
+                        }
+                        
                         int attempt = 0;
                         SQLException loadBatchException = null; // exception;
                         while (dataWritten == false && attempt < 10) {
@@ -611,7 +625,9 @@ public class CachedResultsBean {
             } // End of inserts into table
             
             // commit the last batch
-            if (rowsWritten > 0) {
+            if (bulkLoader != null) {
+                flushBulkLoad(bulkLoader, con);
+            } else if (rowsWritten > 0) {
                 persistBatch(ps);
                 ps.clearBatch();
                 rowsWritten = 0;
@@ -859,6 +875,18 @@ public class CachedResultsBean {
         return dn;
     }
     
+    private void flushBulkLoad(CachedResultsBulkLoader bulkLoader, Connection con) throws QueryException {
+        try {
+            bulkLoader.flush(con);
+        } catch (SQLException e) {
+            if (CachedResultsBulkLoader.isTableMissing(e)) {
+                throw new QueryException(DatawaveErrorCode.CACHE_TABLE_MISSING, MessageFormat.format("message: {0}", e.getMessage()));
+            }
+            // a batch which was not loaded intact fails the load, rather than leaving a cache with missing or altered rows
+            throw new QueryException(DatawaveErrorCode.CACHED_RESULTS_LOAD_ERROR, e, MessageFormat.format("message: {0}", e.getMessage()));
+        }
+    }
+    
     protected void persistBatch(PreparedStatement ps) throws SQLException {
         int[] batchResults = null;
         try {
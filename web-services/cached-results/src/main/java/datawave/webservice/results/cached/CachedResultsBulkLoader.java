@@ -0,0 +1,211 @@
+package datawave.webservice.results.cached;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import com.mysql.cj.jdbc.JdbcStatement;
+import datawave.marking.MarkingFunctions;
+import datawave.webservice.query.cachedresults.CacheableQueryRow;
+import org.apache.log4j.Logger;
+
+/**
+ * Buffers cached result rows and writes them to the cached results table with a single {@code LOAD DATA LOCAL INFILE} statement per batch, instead of binding
+ * every one of the ~900 template columns for each row of a JDBC batch insert. Rows are held column-wise by position and serialized as tab-separated text in
+ * MySQL's default {@code LOAD DATA} format, naming only the variable columns that were actually populated in the batch.
+ * <p>
+ * The datasource must allow local infile loading ({@code allowLoadLocalInfile=true} on the connection url). The data itself is streamed from memory and never
+ * touches the local filesystem. MySQL reports bad data in a {@code LOAD DATA LOCAL} statement as warnings rather than errors, keeping or altering the rows
+ * it could not load, so a load with any warnings is failed rather than retried: the batch may already be partially written.
+ */
+public class CachedResultsBulkLoader {
+    
+    private static final Logger log = Logger.getLogger(CachedResultsBulkLoader.class);
+    
+    private static final String NULL = "\\N";
+    
+    private static final String TRUNCATED = "<truncated>";
+    
+    private final String tableName;
+    private final int numFixedColumns = CacheableQueryRow.getFixedColumnSet().size();
+    private final List<String[]> rows = new ArrayList<>();
+    private int maxColumnNumber = 0;
+    
+    public CachedResultsBulkLoader(String tableName) {
+        CachedResultsParameters.validate(tableName);
+        this.tableName = tableName;
+    }
+    
+    /**
+     * Adds a row to the current batch, assigning column numbers to any previously unseen fields in {@code fieldMap} exactly as
+     * {@link CachedResultsBean#loadBatch} does.
+     */
+    public void add(String owner, String queryId, String logicName, Map<String,Integer> fieldMap, CacheableQueryRow cqo, int maxFieldSize) {
+        TreeMap<Integer,String> values = new TreeMap<>();
+        for (Entry<String,String> e : cqo.getColumnValues().entrySet()) {
+            Integer columnNumber = fieldMap.get(e.getKey());
+            if (columnNumber == null) {
+                columnNumber = numFixedColumns + fieldMap.size() + 1;
+                fieldMap.put(e.getKey(), columnNumber);
+            }
+            String columnValue = e.getValue();
+            columnValue = truncate(columnValue, maxFieldSize);
+            values.put(columnNumber, columnValue);
+        }
+        
+        int rowSize = values.isEmpty() ? numFixedColumns : Math.max(numFixedColumns, values.lastKey());
+        String[] row = new String[rowSize];
+        row[0] = owner;
+        row[1] = queryId;
+        row[2] = logicName;
+        row[3] = cqo.getDataType();
+        row[4] = cqo.getEventId();
+        row[5] = cqo.getRow();
+        row[6] = cqo.getColFam();
+        row[7] = MarkingFunctions.Encoding.toString(new TreeMap<>(cqo.getMarkings()));
+        row[8] = cqo.getColumnSecurityMarkingString(fieldMap);
+        row[9] = cqo.getColumnTimestampString(fieldMap);
+        for (Entry<Integer,String> e : values.entrySet()) {
+            row[e.getKey() - 1] = e.getValue();
+        }
+        maxColumnNumber = Math.max(maxColumnNumber, rowSize);
+        rows.add(row);
+    }
+    
+    public int size() {
+        return rows.size();
+    }
+    
+    /**
+     * Loads the buffered rows into the table and clears the batch.
+     * 
+     * @throws SQLException
+     *             if the table does not exist, the load fails, or the load did not write every row intact
+     */
+    public void flush(Connection con) throws SQLException {
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            load(con);
+        } finally {
+            clear();
+        }
+    }
+    
+    static boolean isTableMissing(SQLException e) {
+        String msg = e.getMessage();
+        return msg != null && msg.startsWith("Table") && msg.endsWith("doesn't exist");
+    }
+    
+    private void load(Connection con) throws SQLException {
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        try {
+            writeTo(data);
+        } catch (IOException e) {
+            throw new SQLException("Unable to serialize cached results batch", e);
+        }
+        
+        try (Statement s = con.createStatement()) {
+            s.unwrap(JdbcStatement.class).setLocalInfileInputStream(new ByteArrayInputStream(data.toByteArray()));
+            int loaded = s.executeUpdate(getLoadStatement());
+            SQLWarning warning = s.getWarnings();
+            if (loaded != rows.size() || warning != null) {
+                StringBuilder msg = new StringBuilder("Bulk load into ").append(tableName).append(" wrote ").append(loaded).append(" of ").append(rows.size())
+                                .append(" rows");
+                if (warning != null) {
+                    msg.append(" with warnings: ").append(warning.getMessage());
+                }
+                log.error(msg);
+                SQLException e = new SQLException(msg.toString());
+                if (warning != null) {
+                    e.setNextException(warning);
+                }
+                throw e;
+            }
+        }
+    }
+    
+    private void clear() {
+        rows.clear();
+        maxColumnNumber = 0;
+    }
+    
+    private static String truncate(String value, int maxFieldSize) {
+        if (value.length() > maxFieldSize) {
+            return value.substring(0, maxFieldSize) + TRUNCATED;
+        }
+        return value;
+    }
+    
+    protected String getLoadStatement() {
+        StringBuilder sql = new StringBuilder();
+        sql.append("LOAD DATA LOCAL INFILE 'cachedresults' INTO TABLE ").append(tableName).append(" CHARACTER SET utf8 (");
+        String sep = "";
+        for (String column : CacheableQueryRow.getFixedColumnSet()) {
+            sql.append(sep).append(column);
+            sep = CachedResultsBean.COMMA;
+        }
+        for (int i = numFixedColumns + 1; i <= maxColumnNumber; i++) {
+            sql.append(sep).append(CachedResultsBean.FIELD).append(i - numFixedColumns - 1);
+        }
+        return sql.append(")").toString();
+    }
+    
+    protected void writeTo(OutputStream out) throws IOException {
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        for (String[] row : rows) {
+            for (int i = 0; i < maxColumnNumber; i++) {
+                if (i > 0) {
+                    writer.write('\t');
+                }
+                String value = (i < row.length) ? row[i] : null;
+                if (value == null) {
+                    writer.write(NULL);
+                } else {
+                    escape(value, writer);
+                }
+            }
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+    
+    private static void escape(String value, Writer writer) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                    writer.write("\\\\");
+                    break;
+                case '\t':
+                    writer.write("\\t");
+                    break;
+                case '\n':
+                    writer.write("\\n");
+                    break;
+                case '\r':
+                    writer.write("\\r");
+                    break;
+                case '\0':
+                    writer.write("\\0");
+                    break;
+                default:
+                    writer.write(c);
+            }
+        }
+    }
+}
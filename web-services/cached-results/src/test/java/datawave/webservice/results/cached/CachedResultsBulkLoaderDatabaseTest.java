@@ -0,0 +1,145 @@
+package datawave.webservice.results.cached;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+import com.google.common.collect.Sets;
+import datawave.webservice.query.cachedresults.CacheableQueryRowImpl;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Loads batches into an embedded MariaDB through the MySQL driver, the way the cached results datasource does.
+ */
+public class CachedResultsBulkLoaderDatabaseTest {
+    
+    private static final String DB_NAME = "cachedresults";
+    
+    private static DB db;
+    private static String url;
+    
+    private Connection con;
+    
+    @BeforeClass
+    public static void startDatabase() throws Exception {
+        DBConfigurationBuilder config = DBConfigurationBuilder.newBuilder();
+        config.setPort(0);
+        db = DB.newEmbeddedDB(config.build());
+        db.start();
+        db.createDB(DB_NAME);
+        url = config.getURL(DB_NAME) + "?allowLoadLocalInfile=true";
+    }
+    
+    @AfterClass
+    public static void stopDatabase() throws Exception {
+        if (db != null) {
+            db.stop();
+        }
+    }
+    
+    @Before
+    public void setup() throws Exception {
+        con = DriverManager.getConnection(url, "root", "");
+        try (Statement s = con.createStatement()) {
+            s.execute("DROP TABLE IF EXISTS t123");
+            s.execute("CREATE TABLE t123 (_user_ VARCHAR(200) NOT NULL, _queryId_ VARCHAR(200) NOT NULL, _logicName_ VARCHAR(200) NOT NULL, "
+                            + "_datatype_ VARCHAR(35) NOT NULL, _eventId_ VARCHAR(50) NOT NULL, _row_ LONGTEXT NOT NULL, _colf_ LONGTEXT NOT NULL, "
+                            + "_markings_ VARCHAR(400) NOT NULL, _column_markings_ LONGTEXT NOT NULL, _column_timestamps_ LONGTEXT NOT NULL, "
+                            + "field0 LONGTEXT, field1 LONGTEXT, field2 LONGTEXT) ENGINE = MyISAM");
+        }
+    }
+    
+    @After
+    public void tearDown() throws Exception {
+        con.close();
+    }
+    
+    private CacheableQueryRowImpl createRow(String eventId, Map<String,Set<String>> values) {
+        CacheableQueryRowImpl row = new CacheableQueryRowImpl();
+        row.setDataType("dt");
+        row.setEventId(eventId);
+        row.setRow("20190101_0");
+        row.setColFam("dt\0" + eventId);
+        row.setMarkings(Collections.singletonMap("columnVisibility", "A"));
+        row.setColumnValues(values);
+        return row;
+    }
+    
+    @Test
+    public void testFlushLoadsRows() throws Exception {
+        Map<String,Integer> fieldMap = new HashMap<>();
+        CachedResultsBulkLoader loader = new CachedResultsBulkLoader("t123");
+        
+        Map<String,Set<String>> values = new HashMap<>();
+        values.put("FOO", Sets.newHashSet("a\tb\\c\nd"));
+        loader.add("me", "q1", "EventQuery", fieldMap, createRow("uid1", values), 100);
+        
+        values = new HashMap<>();
+        values.put("BAR", Sets.newHashSet("0123456789"));
+        loader.add("me", "q1", "EventQuery", fieldMap, createRow("uid2", values), 5);
+        
+        loader.flush(con);
+        Assert.assertEquals(0, loader.size());
+        
+        try (Statement s = con.createStatement(); ResultSet rs = s.executeQuery("SELECT _eventId_, _colf_, field0, field1 FROM t123 ORDER BY _eventId_")) {
+            Assert.assertTrue(rs.next());
+            Assert.assertEquals("uid1", rs.getString(1));
+            Assert.assertEquals("dt\0uid1", rs.getString(2));
+            Assert.assertEquals("a\tb\\c\nd", rs.getString(3));
+            Assert.assertNull(rs.getString(4));
+            
+            Assert.assertTrue(rs.next());
+            Assert.assertEquals("uid2", rs.getString(1));
+            Assert.assertNull(rs.getString(3));
+            Assert.assertEquals("01234<truncated>", rs.getString(4));
+            
+            Assert.assertFalse(rs.next());
+        }
+    }
+    
+    @Test
+    public void testWarningsFailLoad() throws Exception {
+        Map<String,Integer> fieldMap = new HashMap<>();
+        CachedResultsBulkLoader loader = new CachedResultsBulkLoader("t123");
+        CacheableQueryRowImpl row = createRow("uid1", Collections.singletonMap("FOO", Sets.newHashSet("bar")));
+        // longer than the _datatype_ column, which LOAD DATA LOCAL truncates with a warning rather than failing
+        row.setDataType("datatype-name-which-is-too-long-for-the-column");
+        loader.add("me", "q1", "EventQuery", fieldMap, row, 100);
+        
+        try {
+            loader.flush(con);
+            Assert.fail("Expected a load with warnings to fail");
+        } catch (SQLException e) {
+            Assert.assertFalse(e.getMessage(), CachedResultsBulkLoader.isTableMissing(e));
+            Assert.assertNotNull(e.getNextException());
+        }
+        Assert.assertEquals(0, loader.size());
+    }
+    
+    @Test
+    public void testMissingTable() throws Exception {
+        Map<String,Integer> fieldMap = new HashMap<>();
+        CachedResultsBulkLoader loader = new CachedResultsBulkLoader("t404");
+        loader.add("me", "q1", "EventQuery", fieldMap, createRow("uid1", Collections.singletonMap("FOO", Sets.newHashSet("bar"))), 100);
+        
+        try {
+            loader.flush(con);
+            Assert.fail("Expected the load into a missing table to fail");
+        } catch (SQLException e) {
+            Assert.assertTrue(e.getMessage(), CachedResultsBulkLoader.isTableMissing(e));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package datawave.webservice.results.cached;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.Sets;
+import datawave.webservice.query.cachedresults.CacheableQueryRowImpl;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CachedResultsBulkLoaderTest {
+    
+    private CacheableQueryRowImpl createRow(String eventId, Map<String,Set<String>> values) {
+        CacheableQueryRowImpl row = new CacheableQueryRowImpl();
+        row.setDataType("dt");
+        row.setEventId(eventId);
+        row.setRow("20190101_0");
+        row.setColFam("dt\0" + eventId);
+        row.setMarkings(Collections.singletonMap("columnVisibility", "A"));
+        row.setColumnValues(values);
+        return row;
+    }
+    
+    @Test
+    public void testLoadStatementNamesPopulatedColumns() throws Exception {
+        Map<String,Integer> fieldMap = new HashMap<>();
+        CachedResultsBulkLoader loader = new CachedResultsBulkLoader("t123");
+        
+        Map<String,Set<String>> values = new HashMap<>();
+        values.put("FOO", Sets.newHashSet("bar"));
+        loader.add("me", "q1", "EventQuery", fieldMap, createRow("uid1", values), 100);
+        
+        values = new HashMap<>();
+        values.put("BAZ", Sets.newHashSet("qux"));
+        loader.add("me", "q1", "EventQuery", fieldMap, createRow("uid2", values), 100);
+        
+        Assert.assertEquals(2, loader.size());
+        Assert.assertEquals(2, fieldMap.size());
+        Assert.assertTrue(loader.getLoadStatement().startsWith("LOAD DATA LOCAL INFILE 'cachedresults' INTO TABLE t123 "));
+        Assert.assertTrue(loader.getLoadStatement().endsWith(",_column_timestamps_,field0,field1)"));
+    }
+    
+    @Test
+    public void testRowsAreEscapedAndPadded() throws Exception {
+        Map<String,Integer> fieldMap = new HashMap<>();
+        CachedResultsBulkLoader loader = new CachedResultsBulkLoader("t123");
+        
+        Map<String,Set<String>> values = new HashMap<>();
+        values.put("FOO", Sets.newHashSet("a\tb\\c"));
+        loader.add("me", "q1", "EventQuery", fieldMap, createRow("uid1", values), 100);
+        
+        values = new HashMap<>();
+        values.put("BAZ", Sets.newHashSet("0123456789"));
+        loader.add("me", "q1", "EventQuery", fieldMap, createRow("uid2", values), 5);
+        
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        loader.writeTo(out);
+        String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        Assert.assertEquals(2, lines.length);
+        
+        String[] first = lines[0].split("\t", -1);
+        Assert.assertEquals(12, first.length);
+        Assert.assertEquals("me", first[0]);
+        Assert.assertEquals("dt\\0uid1", first[6]);
+        Assert.assertEquals("a\\tb\\\\c", first[10]);
+        Assert.assertEquals("\\N", first[11]);
+        
+        String[] second = lines[1].split("\t", -1);
+        Assert.assertEquals(12, second.length);
+        Assert.assertEquals("\\N", second[10]);
+        Assert.assertEquals("01234<truncated>", second[11]);
+    }
+}
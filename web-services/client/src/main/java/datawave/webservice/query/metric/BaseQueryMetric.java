@@ -578,6 +578,10 @@ public abstract class BaseQueryMetric implements HasMarkings, Serializable {
     protected String plan = null;
     @XmlElement
     protected long loginTime = -1;
+    @XmlElement
+    protected long prefetchHits = 0;
+    @XmlElement
+    protected long prefetchMisses = 0;
     @XmlElementWrapper(name = "predictions")
     @XmlElement(name = "prediction")
     protected Set<Prediction> predictions = new HashSet<Prediction>();
@@ -770,6 +774,22 @@ public abstract class BaseQueryMetric implements HasMarkings, Serializable {
         this.loginTime = loginTime;
     }
     
+    public long getPrefetchHits() {
+        return prefetchHits;
+    }
+    
+    public void setPrefetchHits(long prefetchHits) {
+        this.prefetchHits = prefetchHits;
+    }
+    
+    public long getPrefetchMisses() {
+        return prefetchMisses;
+    }
+    
+    public void setPrefetchMisses(long prefetchMisses) {
+        this.prefetchMisses = prefetchMisses;
+    }
+    
     public void addPageMetric(PageMetric pageMetric) {
         this.numPages++;
         this.numResults += pageMetric.getPagesize();
@@ -97,6 +97,8 @@ public class QueryMetric extends BaseQueryMetric implements Serializable, Messag
         this.fiRanges = other.fiRanges;
         this.plan = other.plan;
         this.loginTime = other.loginTime;
+        this.prefetchHits = other.prefetchHits;
+        this.prefetchMisses = other.prefetchMisses;
         
         if (other.predictions != null) {
             this.predictions = new HashSet<Prediction>();
@@ -119,7 +121,7 @@ public class QueryMetric extends BaseQueryMetric implements Serializable, Messag
                         .append(this.getErrorMessage()).append(this.getCreateCallTime()).append(this.getErrorCode()).append(this.getQueryName())
                         .append(this.getParameters()).append(this.getSourceCount()).append(this.getNextCount()).append(this.getSeekCount())
                         .append(this.getYieldCount()).append(this.getDocRanges()).append(this.getFiRanges()).append(this.getPlan()).append(this.getLoginTime())
-                        .append(this.getPredictions()).toHashCode();
+                        .append(this.getPrefetchHits()).append(this.getPrefetchMisses()).append(this.getPredictions()).toHashCode();
     }
     
     @Override
@@ -146,7 +148,8 @@ public class QueryMetric extends BaseQueryMetric implements Serializable, Messag
                             .append(this.getNextCount(), other.getNextCount()).append(this.getSeekCount(), other.getSeekCount())
                             .append(this.getYieldCount(), other.getYieldCount()).append(this.getDocRanges(), other.getDocRanges())
                             .append(this.getFiRanges(), other.getFiRanges()).append(this.getPlan(), other.getPlan())
-                            .append(this.getLoginTime(), other.getLoginTime()).append(this.getPredictions(), other.getPredictions()).isEquals();
+                            .append(this.getLoginTime(), other.getLoginTime()).append(this.getPrefetchHits(), other.getPrefetchHits())
+                            .append(this.getPrefetchMisses(), other.getPrefetchMisses()).append(this.getPredictions(), other.getPredictions()).isEquals();
         } else {
             return false;
         }
@@ -185,6 +188,8 @@ public class QueryMetric extends BaseQueryMetric implements Serializable, Messag
         buf.append(" Doc Ranges: ").append(this.getDocRanges());
         buf.append(" FI Ranges: ").append(this.getFiRanges());
         buf.append(" Login Time: ").append(this.getLoginTime());
+        buf.append(" Prefetch Hits: ").append(this.getPrefetchHits());
+        buf.append(" Prefetch Misses: ").append(this.getPrefetchMisses());
         buf.append(" Predictions: ").append(this.getPredictions());
         buf.append("\n");
         return buf.toString();
@@ -369,6 +374,9 @@ public class QueryMetric extends BaseQueryMetric implements Serializable, Messag
                 }
             }
             
+            output.writeInt64(37, message.prefetchHits, false);
+            output.writeInt64(38, message.prefetchMisses, false);
+            
         }
         
         public void mergeFrom(Input input, QueryMetric message) throws IOException {
@@ -501,6 +509,12 @@ public class QueryMetric extends BaseQueryMetric implements Serializable, Messag
                         }
                         message.predictions.add(input.mergeObject(null, Prediction.getSchema()));
                         break;
+                    case 37:
+                        message.prefetchHits = input.readInt64();
+                        break;
+                    case 38:
+                        message.prefetchMisses = input.readInt64();
+                        break;
                     default:
                         input.handleUnknownField(number, this);
                         break;
@@ -583,6 +597,10 @@ public class QueryMetric extends BaseQueryMetric implements Serializable, Messag
                     return "loginTime";
                 case 36:
                     return "predictions";
+                case 37:
+                    return "prefetchHits";
+                case 38:
+                    return "prefetchMisses";
                 default:
                     return null;
             }
@@ -632,6 +650,8 @@ public class QueryMetric extends BaseQueryMetric implements Serializable, Messag
             fieldMap.put("plan", 34);
             fieldMap.put("loginTime", 35);
             fieldMap.put("predictions", 36);
+            fieldMap.put("prefetchHits", 37);
+            fieldMap.put("prefetchMisses", 38);
         }
     };
     
@@ -56,7 +56,7 @@ public class AccumuloTableCacheStatus extends BaseResponse implements HtmlProvid
         builder.append("<h2>").append("Table Caches").append("</h2>");
         builder.append("<br/>");
         builder.append("<table>");
-        builder.append("<tr><th>Table Name</th><th>Connection Pool</th><th>Authorizations</th><th>Reload Interval (ms)</th><th>Max Rows</th><th>Last Refresh</th><th>Refreshing Now</th></tr>");
+        builder.append("<tr><th>Table Name</th><th>Connection Pool</th><th>Authorizations</th><th>Reload Interval (ms)</th><th>Max Rows</th><th>Last Refresh</th><th>Last Full Refresh</th><th>Last Refresh Bytes</th><th>Last Refresh Duration (ms)</th><th>Refreshing Now</th></tr>");
         for (TableCache cache : caches) {
             builder.append("<tr>");
             builder.append("<td>").append(cache.getTableName()).append("</td>");
@@ -65,6 +65,9 @@ public class AccumuloTableCacheStatus extends BaseResponse implements HtmlProvid
             builder.append("<td>").append(cache.getReloadInterval()).append("</td>");
             builder.append("<td>").append(cache.getMaxRows()).append("</td>");
             builder.append("<td>").append(cache.getLastRefresh()).append("</td>");
+            builder.append("<td>").append(cache.getLastFullRefresh()).append("</td>");
+            builder.append("<td>").append(cache.getLastRefreshBytes()).append("</td>");
+            builder.append("<td>").append(cache.getLastRefreshDurationMillis()).append("</td>");
             builder.append("<td>").append(cache.getCurrentlyRefreshing()).append("</td>");
             builder.append("</tr>");
         }
@@ -89,7 +89,7 @@ public class ConnectionFactoryResponse extends BaseResponse implements HtmlProvi
         builder.append("<h2>").append("Connection Pools").append("</h2>");
         builder.append("<br/>");
         builder.append("<table class=\"connectionPools\">");
-        builder.append("<tr><th>Pool Name</th><th>Priority</th><th>Num Active</th><th>Max Active</th><th>Num Idle</th><th>Max Idle</th><th>Num Waiting</th></tr>");
+        builder.append("<tr><th>Pool Name</th><th>Priority</th><th>Num Active</th><th>Max Active</th><th>Num Idle</th><th>Max Idle</th><th>Num Waiting</th><th>Wait Times (ms)</th></tr>");
         
         Set<ConnectionPool> poolSet = new TreeSet<>();
         poolSet.addAll(connectionPools);
@@ -103,6 +103,23 @@ public class ConnectionFactoryResponse extends BaseResponse implements HtmlProvi
             builder.append("<td>").append(f.getNumIdle()).append("</td>");
             builder.append("<td>").append(f.getMaxIdle()).append("</td>");
             builder.append("<td>").append(f.getNumWaiting()).append("</td>");
+            builder.append("<td>");
+            if (f.getWaitTimes() != null) {
+                Long lastMax = null;
+                String sep = "";
+                for (ConnectionPool.WaitTime w : f.getWaitTimes()) {
+                    builder.append(sep);
+                    if (w.getMaxMillis() != null) {
+                        builder.append("&le;").append(w.getMaxMillis());
+                        lastMax = w.getMaxMillis();
+                    } else {
+                        builder.append("&gt;").append(lastMax);
+                    }
+                    builder.append(": ").append(w.getCount());
+                    sep = ", ";
+                }
+            }
+            builder.append("</td>");
             builder.append("</tr>");
         }
         builder.append("</table>");
@@ -1,7 +1,9 @@
 package datawave.webservice.common.result;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
@@ -9,6 +11,7 @@ import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlElementWrapper;
 import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlValue;
 
 import org.apache.commons.lang.builder.CompareToBuilder;
 import org.apache.commons.lang.builder.HashCodeBuilder;
@@ -48,6 +51,10 @@ public class ConnectionPool implements Serializable, Comparable<ConnectionPool>
     @XmlElement(name = "Connection")
     private List<Connection> connectionRequests = null;
     
+    @XmlElementWrapper(name = "WaitTimes")
+    @XmlElement(name = "WaitTime")
+    private List<WaitTime> waitTimes = null;
+    
     public Integer getNumIdle() {
         return numIdle;
     }
@@ -96,6 +103,24 @@ public class ConnectionPool implements Serializable, Comparable<ConnectionPool>
         this.connectionRequests = connectionRequests;
     }
     
+    public List<WaitTime> getWaitTimes() {
+        return waitTimes;
+    }
+    
+    public void setWaitTimes(List<WaitTime> waitTimes) {
+        this.waitTimes = waitTimes;
+    }
+    
+    /**
+     * Sets the wait time histogram from bucket counts keyed by the upper bound of each bucket in milliseconds
+     */
+    public void setWaitTimeHistogram(Map<Long,Long> histogram) {
+        this.waitTimes = new ArrayList<>();
+        for (Map.Entry<Long,Long> e : histogram.entrySet()) {
+            this.waitTimes.add(new WaitTime(e.getKey() == Long.MAX_VALUE ? null : e.getKey(), e.getValue()));
+        }
+    }
+    
     public String getPriority() {
         return priority;
     }
@@ -122,4 +147,33 @@ public class ConnectionPool implements Serializable, Comparable<ConnectionPool>
         return new HashCodeBuilder().append(poolName).append(Priority.valueOf(priority)).toHashCode();
     }
     
+    /**
+     * The number of connection requests that waited up to maxMillis for a connection. The last bucket has no maxMillis.
+     */
+    @XmlAccessorType(XmlAccessType.NONE)
+    public static class WaitTime implements Serializable {
+        
+        private static final long serialVersionUID = 1L;
+        
+        @XmlAttribute
+        private Long maxMillis = null;
+        
+        @XmlValue
+        private long count = 0;
+        
+        public WaitTime() {}
+        
+        public WaitTime(Long maxMillis, long count) {
+            this.maxMillis = maxMillis;
+            this.count = count;
+        }
+        
+        public Long getMaxMillis() {
+            return maxMillis;
+        }
+        
+        public long getCount() {
+            return count;
+        }
+    }
 }
@@ -35,6 +35,15 @@ public class TableCache implements Serializable {
     @XmlAttribute
     private Boolean currentlyRefreshing = null;
     
+    @XmlAttribute
+    private Date lastFullRefresh = null;
+    
+    @XmlAttribute
+    private Long lastRefreshBytes = null;
+    
+    @XmlAttribute
+    private Long lastRefreshDurationMillis = null;
+    
     public String getTableName() {
         return tableName;
     }
@@ -91,4 +100,28 @@ public class TableCache implements Serializable {
         this.currentlyRefreshing = currentlyRefreshing;
     }
     
+    public Date getLastFullRefresh() {
+        return lastFullRefresh;
+    }
+    
+    public void setLastFullRefresh(Date lastFullRefresh) {
+        this.lastFullRefresh = lastFullRefresh;
+    }
+    
+    public Long getLastRefreshBytes() {
+        return lastRefreshBytes;
+    }
+    
+    public void setLastRefreshBytes(Long lastRefreshBytes) {
+        this.lastRefreshBytes = lastRefreshBytes;
+    }
+    
+    public Long getLastRefreshDurationMillis() {
+        return lastRefreshDurationMillis;
+    }
+    
+    public void setLastRefreshDurationMillis(Long lastRefreshDurationMillis) {
+        this.lastRefreshDurationMillis = lastRefreshDurationMillis;
+    }
+    
 }
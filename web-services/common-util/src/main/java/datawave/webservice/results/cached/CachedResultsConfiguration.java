@@ -45,4 +45,16 @@ public class CachedResultsConfiguration {
     public int getRowsPerBatch() {
         return Integer.parseInt(getParameters().get("ROWS_PER_BATCH"));
     }
+    
+    /**
+     * @return true if results should be written to the cached results store using {@code LOAD DATA LOCAL INFILE} rather than JDBC batch inserts
+     */
+    public boolean isBulkLoad() {
+        return Boolean.parseBoolean(getParameters().get("BULK_LOAD"));
+    }
+    
+    public int getBulkLoadRowsPerBatch() {
+        String rowsPerBatch = getParameters().get("BULK_LOAD_ROWS_PER_BATCH");
+        return (rowsPerBatch == null) ? getRowsPerBatch() : Integer.parseInt(rowsPerBatch);
+    }
 }
@@ -204,7 +204,12 @@ public class AccumuloTableCache {
                 continue;
             }
             long last = entry.getValue().getLastRefresh().getTime();
-            if ((now - last) > entry.getValue().getReloadInterval()) {
+            long interval = entry.getValue().getReloadInterval();
+            // once loaded, tables with delta reloads enabled are refreshed more often, with a full reload every reload interval
+            if (last > 0 && entry.getValue().getDeltaReloadInterval() > 0) {
+                interval = Math.min(interval, entry.getValue().getDeltaReloadInterval());
+            }
+            if ((now - last) > interval) {
                 log.info("Reloading " + entry.getKey());
                 try {
                     Future<Boolean> result = executorService.submit(entry.getValue());
@@ -316,6 +321,9 @@ public class AccumuloTableCache {
             t.setReloadInterval(entry.getValue().getReloadInterval());
             t.setMaxRows(entry.getValue().getMaxRows());
             t.setLastRefresh(entry.getValue().getLastRefresh());
+            t.setLastFullRefresh(entry.getValue().getLastFullRefresh());
+            t.setLastRefreshBytes(entry.getValue().getLastRefreshBytes());
+            t.setLastRefreshDurationMillis(entry.getValue().getLastRefreshDurationMillis());
             t.setCurrentlyRefreshing((entry.getValue().getReference() != null));
             response.getCaches().add(t);
         }
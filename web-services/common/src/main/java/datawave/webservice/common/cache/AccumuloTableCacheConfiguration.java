@@ -24,6 +24,12 @@ public class AccumuloTableCacheConfiguration {
     @Inject
     @ConfigProperty(name = "dw.cache.reloadInterval", defaultValue = "86400000")
     private long reloadInterval;
+    @Inject
+    @ConfigProperty(name = "dw.cache.deltaReloadInterval", defaultValue = "0")
+    private long deltaReloadInterval;
+    @Inject
+    @ConfigProperty(name = "dw.cache.deltaReloadOverlap", defaultValue = "60000")
+    private long deltaReloadOverlap;
     
     private Map<String,TableCache> caches = new HashMap<>();
     
@@ -34,6 +40,8 @@ public class AccumuloTableCacheConfiguration {
             cache.setTableName(tableName);
             cache.setConnectionPoolName(poolName);
             cache.setReloadInterval(reloadInterval);
+            cache.setDeltaReloadInterval(deltaReloadInterval);
+            cache.setDeltaReloadOverlap(deltaReloadOverlap);
             caches.put(tableName, cache);
         }
     }
@@ -20,7 +20,9 @@ import org.apache.accumulo.core.client.BatchScanner;
 import org.apache.accumulo.core.client.BatchWriter;
 import org.apache.accumulo.core.client.Connector;
 import org.apache.accumulo.core.client.IteratorSetting;
+import org.apache.accumulo.core.client.MutationsRejectedException;
 import org.apache.accumulo.core.client.NamespaceExistsException;
+import org.apache.accumulo.core.client.Scanner;
 import org.apache.accumulo.core.client.TableNotFoundException;
 import datawave.accumulo.inmemory.InMemoryInstance;
 import org.apache.accumulo.core.client.admin.NamespaceOperations;
@@ -29,6 +31,7 @@ import org.apache.accumulo.core.data.Mutation;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.iterators.user.RegExFilter;
+import org.apache.accumulo.core.iterators.user.TimestampFilter;
 import org.apache.accumulo.core.security.Authorizations;
 import org.apache.accumulo.core.security.ColumnVisibility;
 import org.apache.log4j.Logger;
@@ -47,9 +50,18 @@ public class BaseTableCache implements Serializable, TableCache {
     private String auths = null;
     private long reloadInterval = 0;
     private long maxRows = Long.MAX_VALUE;
+    private long deltaReloadInterval = 0;
+    private long deltaReloadOverlap = TimeUnit.MINUTES.toMillis(1);
     
     /** set programatically **/
     private Date lastRefresh = new Date(0);
+    private Date lastFullRefresh = new Date(0);
+    private long highWaterTimestamp = -1;
+    private long scanHighWaterTimestamp = -1;
+    // rows copied into the cached table since the last full refresh, counted against maxRows
+    private long cachedRows = 0;
+    private long lastRefreshBytes = 0;
+    private long lastRefreshDurationMillis = 0;
     private AccumuloConnectionFactory connectionFactory = null;
     private InMemoryInstance instance = null;
     private SharedCacheCoordinator watcher = null;
@@ -157,6 +169,50 @@ public class BaseTableCache implements Serializable, TableCache {
         this.maxRows = maxRows;
     }
     
+    @Override
+    public long getDeltaReloadInterval() {
+        return deltaReloadInterval;
+    }
+    
+    @Override
+    public void setDeltaReloadInterval(long deltaReloadInterval) {
+        this.deltaReloadInterval = deltaReloadInterval;
+    }
+    
+    @Override
+    public long getDeltaReloadOverlap() {
+        return deltaReloadOverlap;
+    }
+    
+    @Override
+    public void setDeltaReloadOverlap(long deltaReloadOverlap) {
+        this.deltaReloadOverlap = deltaReloadOverlap;
+    }
+    
+    @Override
+    public Date getLastFullRefresh() {
+        return lastFullRefresh;
+    }
+    
+    @Override
+    public long getLastRefreshBytes() {
+        return lastRefreshBytes;
+    }
+    
+    @Override
+    public long getLastRefreshDurationMillis() {
+        return lastRefreshDurationMillis;
+    }
+    
+    /**
+     * A delta refresh only copies the entries written since the newest entry seen by the previous refresh, so it can only be used once a full refresh has
+     * populated the cache, and only until the next full reconciliation is due. Explicit reload requests reset the last refresh, and so are always full.
+     */
+    private boolean isDeltaRefresh(Connector instanceConnector, long now) {
+        return deltaReloadInterval > 0 && lastRefresh.getTime() > 0 && highWaterTimestamp >= 0 && (now - lastFullRefresh.getTime()) < reloadInterval
+                        && instanceConnector.tableOperations().exists(tableName);
+    }
+    
     @Override
     public Boolean call() throws Exception {
         if (!lock.tryLock(0, TimeUnit.SECONDS))
@@ -167,6 +223,7 @@ public class BaseTableCache implements Serializable, TableCache {
         Connector accumuloConn = null;
         
         String tempTableName = tableName + "Temp";
+        long start = System.currentTimeMillis();
         try {
             Map<String,String> map = connectionFactory.getTrackingMap(Thread.currentThread().getStackTrace());
             accumuloConn = connectionFactory.getConnection(connectionPoolName, Priority.ADMIN, map);
@@ -184,6 +241,27 @@ public class BaseTableCache implements Serializable, TableCache {
             Connector instanceConnector = instance.getConnector(AccumuloTableCache.MOCK_USERNAME, AccumuloTableCache.MOCK_PASSWORD);
             instanceConnector.securityOperations().changeUserAuthorizations(AccumuloTableCache.MOCK_USERNAME, authorizations);
             
+            if (isDeltaRefresh(instanceConnector, start)) {
+                // apply the changed entries directly to the cached table
+                writer = instanceConnector.createBatchWriter(tableName, 10L * (1024L * 1024L), 100L, 1);
+                setupScanner(scanner);
+                IteratorSetting timestampFilter = new IteratorSetting(101, "sinceLastRefresh", TimestampFilter.class);
+                TimestampFilter.setStart(timestampFilter, Math.max(0, highWaterTimestamp - deltaReloadOverlap), true);
+                scanner.addScanIterator(timestampFilter);
+                
+                // the overlap re-copies entries which are already cached, so only the entries not cached yet count against the max rows
+                Scanner cached = instanceConnector.createScanner(tableName, authorizations);
+                long count = copy(scanner.iterator(), writer, Math.max(0, maxRows - cachedRows), cached);
+                writer.flush();
+                this.cachedRows += count;
+                this.highWaterTimestamp = Math.max(highWaterTimestamp, scanHighWaterTimestamp);
+                this.lastRefresh = new Date();
+                this.lastRefreshDurationMillis = System.currentTimeMillis() - start;
+                log.info("Applied " + count + " new k,v (" + lastRefreshBytes + " bytes) for table: " + tableName + " in " + lastRefreshDurationMillis
+                                + "ms");
+                return true;
+            }
+            
             createNamespaceIfNecessary(instanceConnector.namespaceOperations(), tempTableName);
             
             if (instanceConnector.tableOperations().exists(tempTableName)) {
@@ -196,30 +274,19 @@ public class BaseTableCache implements Serializable, TableCache {
             
             setupScanner(scanner);
             
-            Iterator<Entry<Key,Value>> iter = scanner.iterator();
-            long count = 0;
-            while (iter.hasNext()) {
-                
-                if (count > maxRows)
-                    break;
-                Entry<Key,Value> value = iter.next();
-                
-                Key valueKey = value.getKey();
-                
-                Mutation m = new Mutation(value.getKey().getRow());
-                m.put(valueKey.getColumnFamily(), valueKey.getColumnQualifier(), new ColumnVisibility(valueKey.getColumnVisibility()), valueKey.getTimestamp(),
-                                value.getValue());
-                writer.addMutation(m);
-                count++;
-            }
+            long count = copy(scanner.iterator(), writer, maxRows, null);
+            this.cachedRows = count;
+            this.highWaterTimestamp = scanHighWaterTimestamp;
             this.lastRefresh = new Date();
+            this.lastFullRefresh = new Date(start);
             try {
                 instanceConnector.tableOperations().delete(tableName);
             } catch (TableNotFoundException e) {
                 // the table will not exist the first time this is run
             }
             instanceConnector.tableOperations().rename(tempTableName, tableName);
-            log.info("Cached " + count + " k,v for table: " + tableName);
+            this.lastRefreshDurationMillis = System.currentTimeMillis() - start;
+            log.info("Cached " + count + " k,v (" + lastRefreshBytes + " bytes) for table: " + tableName + " in " + lastRefreshDurationMillis + "ms");
         } catch (Exception e) {
             log.error(e.getMessage(), e);
             throw e;
@@ -243,6 +310,45 @@ public class BaseTableCache implements Serializable, TableCache {
         return true;
     }
     
+    /**
+     * Copies entries to the writer, recording the bytes copied and the newest timestamp seen
+     *
+     * @param cached
+     *            a scanner over the cached table when copying into it, so that entries which are already cached are not counted, or null
+     * @return the number of entries copied which were not already cached
+     */
+    private long copy(Iterator<Entry<Key,Value>> iter, BatchWriter writer, long limit, Scanner cached) throws MutationsRejectedException {
+        long count = 0;
+        long bytes = 0;
+        long newest = -1;
+        while (iter.hasNext()) {
+            
+            if (count >= limit)
+                break;
+            Entry<Key,Value> value = iter.next();
+            
+            Key valueKey = value.getKey();
+            
+            Mutation m = new Mutation(value.getKey().getRow());
+            m.put(valueKey.getColumnFamily(), valueKey.getColumnQualifier(), new ColumnVisibility(valueKey.getColumnVisibility()), valueKey.getTimestamp(),
+                            value.getValue());
+            writer.addMutation(m);
+            if (null == cached || !isCached(cached, valueKey)) {
+                count++;
+            }
+            bytes += valueKey.getSize() + value.getValue().getSize();
+            newest = Math.max(newest, valueKey.getTimestamp());
+        }
+        this.lastRefreshBytes = bytes;
+        this.scanHighWaterTimestamp = newest;
+        return count;
+    }
+    
+    private static boolean isCached(Scanner cached, Key key) {
+        cached.setRange(Range.exact(key.getRow(), key.getColumnFamily(), key.getColumnQualifier(), key.getColumnVisibility()));
+        return cached.iterator().hasNext();
+    }
+    
     public void setupScanner(BatchScanner scanner) {
         scanner.setRanges(Lists.newArrayList(new Range()));
         Map<String,String> options = new HashMap<>();
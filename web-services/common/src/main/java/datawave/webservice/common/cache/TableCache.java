@@ -31,6 +31,22 @@ public interface TableCache extends Callable<Boolean>, Serializable {
     
     long getMaxRows();
     
+    /**
+     * @return how often to apply only the entries changed since the last refresh, or 0 to always reload the whole table
+     */
+    long getDeltaReloadInterval();
+    
+    /**
+     * @return how far before the newest cached timestamp a delta refresh starts scanning, to allow for writers with skewed clocks
+     */
+    long getDeltaReloadOverlap();
+    
+    Date getLastFullRefresh();
+    
+    long getLastRefreshBytes();
+    
+    long getLastRefreshDurationMillis();
+    
     void setTableName(String tableName);
     
     void setConnectionPoolName(String connectionPoolName);
@@ -51,6 +67,10 @@ public interface TableCache extends Callable<Boolean>, Serializable {
     
     void setMaxRows(long maxRows);
     
+    void setDeltaReloadInterval(long deltaReloadInterval);
+    
+    void setDeltaReloadOverlap(long deltaReloadOverlap);
+    
     Boolean call() throws Exception;
     
 }
@@ -154,7 +154,7 @@ public class AccumuloConnectionFactoryBean implements AccumuloConnectionFactory
     private AccumuloConnectionPool createConnectionPool(ConnectionPoolConfiguration conf, int limit) {
         AccumuloConnectionPoolFactory factory = new AccumuloConnectionPoolFactory(conf.getUsername(), conf.getPassword(), conf.getZookeepers(),
                         conf.getInstance());
-        AccumuloConnectionPool pool = new AccumuloConnectionPool(factory);
+        AccumuloConnectionPool pool = new AccumuloConnectionPool(factory, conf.isFairScheduling());
         pool.setTestOnBorrow(true);
         pool.setTestOnReturn(true);
         pool.setMaxTotal(limit);
@@ -368,6 +368,7 @@ public class AccumuloConnectionFactoryBean implements AccumuloConnectionFactory
                 poolInfo.setMaxIdle(maxIdle.toInteger());
                 poolInfo.setNumIdle(numIdle.toInteger());
                 poolInfo.setPoolName(poolName);
+                poolInfo.setWaitTimeHistogram(p.getWaitTimeHistogram());
                 
                 List<Connection> requestingConnections = new ArrayList<>();
                 for (Map<String,String> m : requestingConnectionsMap) {
@@ -4,24 +4,66 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import org.apache.accumulo.core.client.Connector;
 import org.apache.commons.lang.mutable.MutableInt;
 import org.apache.commons.pool2.impl.GenericObjectPool;
 import org.apache.log4j.Logger;
 
+/**
+ * A pool of Accumulo connectors for a single priority. Borrowers are tracked using the supplied tracking maps so that the state of the pool can be reported.
+ * <p>
+ * With fair scheduling enabled, connections are handed out per user rather than first come first served: when the pool is exhausted, a returned connection
+ * goes to the waiting user who currently holds the fewest connections from this pool, taking turns among users holding the same number. This keeps a single
+ * user's burst of queries from starving everyone else at the same priority. Users are identified by the "user.dn" entry of the tracking map, and borrowers
+ * without one share a single queue. Fair waiters honor the pool's maxWait and blockWhenExhausted settings. The time spent waiting for a connection is recorded
+ * in a histogram, see {@link #getWaitTimeHistogram()}.
+ */
 public class AccumuloConnectionPool extends GenericObjectPool<Connector> {
     
     private static final Logger log = Logger.getLogger(AccumuloConnectionPool.class);
+    
+    public static final String USER_DN = "user.dn";
+    public static final String WAIT_MILLIS = "connection.wait.ms";
+    
+    /**
+     * Upper bounds (inclusive) of the wait time histogram buckets, in milliseconds. Waits longer than the last bound are counted in a final overflow bucket.
+     */
+    public static final long[] WAIT_TIME_BUCKETS_MILLIS = {1, 10, 100, 1000, 10000, 60000};
+    
+    private static final String DEFAULT_USER = "";
+    
     private final Map<Long,Map<String,String>> threadToTrackingMapMap = Collections.synchronizedMap(new HashMap<>());
     private final Map<Connector,Map<String,String>> connectorToTrackingMapMap = Collections.synchronizedMap(new HashMap<>());
     private AccumuloConnectionPoolFactory factory = null;
     
+    private final boolean fairScheduling;
+    private final Object fairLock = new Object();
+    // guarded by fairLock
+    private int numGranted = 0;
+    private int numFairWaiting = 0;
+    private final Map<String,MutableInt> grantedByUser = new HashMap<>();
+    private final LinkedHashMap<String,LinkedList<Waiter>> waitersByUser = new LinkedHashMap<>();
+    // the user granted each borrowed connector, so that it is released however the connector comes back
+    private final Map<Connector,String> grantedConnectors = new IdentityHashMap<>();
+    
+    private final AtomicLongArray waitTimeCounts = new AtomicLongArray(WAIT_TIME_BUCKETS_MILLIS.length + 1);
+    
     public AccumuloConnectionPool(AccumuloConnectionPoolFactory factory) {
+        this(factory, false);
+    }
+    
+    public AccumuloConnectionPool(AccumuloConnectionPoolFactory factory, boolean fairScheduling) {
         super(factory);
         this.factory = factory;
+        this.fairScheduling = fairScheduling;
     }
     
     @Override
@@ -32,13 +74,33 @@ public class AccumuloConnectionPool extends GenericObjectPool<Connector> {
     public Connector borrowObject(Map<String,String> trackingMap) throws Exception {
         
         Long threadId = Thread.currentThread().getId();
+        String user = getUser(trackingMap);
         Connector o = null;
         try {
-            trackingMap.put("connection.state.start", Long.valueOf(System.currentTimeMillis()).toString());
+            long waitStart = System.currentTimeMillis();
+            trackingMap.put("connection.state.start", Long.valueOf(waitStart).toString());
             trackingMap.put("state", AccumuloConnectionFactory.State.WAITING.toString());
             trackingMap.put("thread.name", Thread.currentThread().getName());
             threadToTrackingMapMap.put(threadId, trackingMap);
-            o = super.borrowObject();
+            if (fairScheduling) {
+                acquire(user);
+                try {
+                    o = super.borrowObject();
+                } finally {
+                    if (o == null) {
+                        release(user);
+                    } else {
+                        synchronized (fairLock) {
+                            grantedConnectors.put(o, user);
+                        }
+                    }
+                }
+            } else {
+                o = super.borrowObject();
+            }
+            long waitMillis = System.currentTimeMillis() - waitStart;
+            recordWaitTime(waitMillis);
+            trackingMap.put(WAIT_MILLIS, Long.toString(waitMillis));
             log.debug(System.currentTimeMillis() + " thread: " + threadId + " borrowed connector: " + o);
             if (log.isTraceEnabled()) {
                 log.trace(System.currentTimeMillis() + " " + Arrays.toString(Thread.currentThread().getStackTrace()));
@@ -65,19 +127,215 @@ public class AccumuloConnectionPool extends GenericObjectPool<Connector> {
     
     public void returnObject(Connector connector) {
         if (connector != null) {
-            synchronized (connectorToTrackingMapMap) {
-                connectorToTrackingMapMap.remove(connector);
-                Long threadId = Thread.currentThread().getId();
-                log.debug(System.currentTimeMillis() + " thread: " + threadId + " returned connector: " + connector);
-                if (log.isTraceEnabled()) {
-                    log.trace(System.currentTimeMillis() + " " + Arrays.toString(Thread.currentThread().getStackTrace()));
+            untrack(connector, "returned");
+            try {
+                super.returnObject(connector);
+            } finally {
+                releaseGranted(connector);
+            }
+        }
+    }
+    
+    @Override
+    public void invalidateObject(Connector connector) throws Exception {
+        if (connector != null) {
+            untrack(connector, "invalidated");
+            try {
+                super.invalidateObject(connector);
+            } finally {
+                releaseGranted(connector);
+            }
+        }
+    }
+    
+    private void untrack(Connector connector, String action) {
+        synchronized (connectorToTrackingMapMap) {
+            connectorToTrackingMapMap.remove(connector);
+            Long threadId = Thread.currentThread().getId();
+            log.debug(System.currentTimeMillis() + " thread: " + threadId + " " + action + " connector: " + connector);
+            if (log.isTraceEnabled()) {
+                log.trace(System.currentTimeMillis() + " " + Arrays.toString(Thread.currentThread().getStackTrace()));
+            }
+        }
+    }
+    
+    /**
+     * Releases the connection granted to the user who borrowed the connector, if any. A connector returned twice is only released once.
+     */
+    private void releaseGranted(Connector connector) {
+        if (fairScheduling) {
+            synchronized (fairLock) {
+                String user = grantedConnectors.remove(connector);
+                if (user != null) {
+                    release(user);
                 }
             }
-            
-            super.returnObject(connector);
         }
     }
     
+    @Override
+    public void setMaxTotal(int maxTotal) {
+        super.setMaxTotal(maxTotal);
+        // the superclass constructor sets the max total before our fields have been initialized
+        if (fairLock != null) {
+            synchronized (fairLock) {
+                grantWaiters();
+            }
+        }
+    }
+    
+    private static String getUser(Map<String,String> trackingMap) {
+        String user = trackingMap.get(USER_DN);
+        return (user == null) ? DEFAULT_USER : user;
+    }
+    
+    private boolean hasAvailable() {
+        return getMaxTotal() < 0 || numGranted < getMaxTotal();
+    }
+    
+    /**
+     * Waits until the user is granted one of the pool's maxTotal connections. Connections are granted immediately while the pool is not exhausted and nobody is
+     * waiting, otherwise by {@link #grantWaiters()} as they are returned.
+     * 
+     * @throws NoSuchElementException
+     *             if the pool is exhausted and does not block, or no connection was granted within the pool's maxWait
+     */
+    private void acquire(String user) throws InterruptedException {
+        synchronized (fairLock) {
+            if (waitersByUser.isEmpty() && hasAvailable()) {
+                grant(user);
+                return;
+            }
+            if (!getBlockWhenExhausted()) {
+                throw new NoSuchElementException("Pool exhausted");
+            }
+            Waiter waiter = new Waiter();
+            waitersByUser.computeIfAbsent(user, k -> new LinkedList<>()).add(waiter);
+            numFairWaiting++;
+            long maxWait = getMaxWaitMillis();
+            long deadline = System.currentTimeMillis() + maxWait;
+            try {
+                while (!waiter.granted) {
+                    if (maxWait < 0) {
+                        fairLock.wait();
+                    } else {
+                        long remaining = deadline - System.currentTimeMillis();
+                        if (remaining <= 0) {
+                            removeWaiter(user, waiter);
+                            throw new NoSuchElementException("Timeout waiting for a connection");
+                        }
+                        fairLock.wait(remaining);
+                    }
+                }
+            } catch (InterruptedException e) {
+                if (waiter.granted) {
+                    release(user);
+                } else {
+                    removeWaiter(user, waiter);
+                }
+                throw e;
+            }
+        }
+    }
+    
+    private void removeWaiter(String user, Waiter waiter) {
+        LinkedList<Waiter> waiters = waitersByUser.get(user);
+        waiters.remove(waiter);
+        if (waiters.isEmpty()) {
+            waitersByUser.remove(user);
+        }
+        numFairWaiting--;
+    }
+    
+    private void release(String user) {
+        synchronized (fairLock) {
+            numGranted--;
+            MutableInt granted = grantedByUser.get(user);
+            if (granted != null) {
+                granted.decrement();
+                if (granted.intValue() <= 0) {
+                    grantedByUser.remove(user);
+                }
+            }
+            grantWaiters();
+        }
+    }
+    
+    private void grant(String user) {
+        numGranted++;
+        grantedByUser.computeIfAbsent(user, k -> new MutableInt()).increment();
+    }
+    
+    /**
+     * Hands out available connections to the waiting users holding the fewest connections. Ties go to the user who has been waiting the longest for a turn, and a
+     * user who is granted a connection goes to the back of the line.
+     */
+    private void grantWaiters() {
+        boolean grantedAny = false;
+        while (!waitersByUser.isEmpty() && hasAvailable()) {
+            String next = null;
+            int fewest = Integer.MAX_VALUE;
+            for (String user : waitersByUser.keySet()) {
+                MutableInt granted = grantedByUser.get(user);
+                int count = (granted == null) ? 0 : granted.intValue();
+                if (count < fewest) {
+                    next = user;
+                    fewest = count;
+                }
+            }
+            LinkedList<Waiter> waiters = waitersByUser.remove(next);
+            Waiter waiter = waiters.removeFirst();
+            if (!waiters.isEmpty()) {
+                waitersByUser.put(next, waiters);
+            }
+            numFairWaiting--;
+            grant(next);
+            waiter.granted = true;
+            grantedAny = true;
+        }
+        if (grantedAny) {
+            fairLock.notifyAll();
+        }
+    }
+    
+    private void recordWaitTime(long waitMillis) {
+        int bucket = 0;
+        while (bucket < WAIT_TIME_BUCKETS_MILLIS.length && waitMillis > WAIT_TIME_BUCKETS_MILLIS[bucket]) {
+            bucket++;
+        }
+        waitTimeCounts.incrementAndGet(bucket);
+    }
+    
+    /**
+     * @return the number of borrowers that waited for a connection, keyed by the upper bound of the wait time bucket in milliseconds. Waits longer than the last
+     *         bucket in {@link #WAIT_TIME_BUCKETS_MILLIS} are keyed by {@link Long#MAX_VALUE}.
+     */
+    public Map<Long,Long> getWaitTimeHistogram() {
+        Map<Long,Long> histogram = new LinkedHashMap<>();
+        for (int i = 0; i < waitTimeCounts.length(); i++) {
+            long bound = (i < WAIT_TIME_BUCKETS_MILLIS.length) ? WAIT_TIME_BUCKETS_MILLIS[i] : Long.MAX_VALUE;
+            histogram.put(bound, waitTimeCounts.get(i));
+        }
+        return histogram;
+    }
+    
+    /**
+     * @return the number of connections held by or granted to each user, when fair scheduling is enabled
+     */
+    public Map<String,Integer> getNumActiveByUser() {
+        Map<String,Integer> active = new HashMap<>();
+        synchronized (fairLock) {
+            for (Map.Entry<String,MutableInt> e : grantedByUser.entrySet()) {
+                active.put(e.getKey(), e.getValue().intValue());
+            }
+        }
+        return active;
+    }
+    
+    public boolean isFairScheduling() {
+        return fairScheduling;
+    }
+    
     public List<Map<String,String>> getConnectionPoolStats(MutableInt maxTotal, MutableInt numActive, MutableInt maxIdle, MutableInt numIdle,
                     MutableInt numWaiting) {
         
@@ -98,7 +356,9 @@ public class AccumuloConnectionPool extends GenericObjectPool<Connector> {
                     numActive.setValue(getNumActive());
                     maxIdle.setValue(getMaxIdle());
                     numIdle.setValue(getNumIdle());
-                    numWaiting.setValue(getNumWaiters());
+                    synchronized (fairLock) {
+                        numWaiting.setValue(getNumWaiters() + numFairWaiting);
+                    }
                 }
             }
         }
@@ -117,4 +377,8 @@ public class AccumuloConnectionPool extends GenericObjectPool<Connector> {
     public AccumuloConnectionPoolFactory getFactory() {
         return factory;
     }
+    
+    private static class Waiter {
+        private boolean granted = false;
+    }
 }
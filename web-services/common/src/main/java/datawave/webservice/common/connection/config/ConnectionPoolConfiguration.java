@@ -12,6 +12,7 @@ public class ConnectionPoolConfiguration {
     private int normalPriorityPoolSize;
     private int highPriorityPoolSize;
     private int adminPriorityPoolSize;
+    private boolean fairScheduling;
     
     public ConnectionPoolConfiguration(String poolName) {
         username = ConfigResolver.getPropertyValue("dw." + poolName + ".accumulo.userName");
@@ -22,6 +23,7 @@ public class ConnectionPoolConfiguration {
         normalPriorityPoolSize = Integer.parseInt(ConfigResolver.getPropertyValue("dw." + poolName + ".pool.normal.size", "50"));
         highPriorityPoolSize = Integer.parseInt(ConfigResolver.getPropertyValue("dw." + poolName + ".pool.high.size", "100"));
         adminPriorityPoolSize = Integer.parseInt(ConfigResolver.getPropertyValue("dw." + poolName + ".pool.admin.size", "200"));
+        fairScheduling = Boolean.parseBoolean(ConfigResolver.getPropertyValue("dw." + poolName + ".pool.fair", "false"));
     }
     
     public String getUsername() {
@@ -56,4 +58,8 @@ public class ConnectionPoolConfiguration {
         return adminPriorityPoolSize;
     }
     
+    public boolean isFairScheduling() {
+        return fairScheduling;
+    }
+    
 }
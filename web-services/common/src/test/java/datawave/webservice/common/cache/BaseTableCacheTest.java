@@ -0,0 +1,155 @@
+package datawave.webservice.common.cache;
+
+import datawave.accumulo.inmemory.InMemoryInstance;
+import datawave.webservice.common.connection.AccumuloConnectionFactory;
+import org.apache.accumulo.core.client.BatchWriter;
+import org.apache.accumulo.core.client.BatchWriterConfig;
+import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.security.Authorizations;
+import org.apache.accumulo.core.security.ColumnVisibility;
+import org.easymock.EasyMock;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BaseTableCacheTest {
+    
+    private static final String TABLE = "cacheTest";
+    
+    private Connector source;
+    private BaseTableCache cache;
+    private InMemoryInstance cacheInstance;
+    
+    @Before
+    public void setup() throws Exception {
+        source = new InMemoryInstance("source").getConnector(AccumuloTableCache.MOCK_USERNAME, AccumuloTableCache.MOCK_PASSWORD);
+        source.tableOperations().create(TABLE);
+        write("row1", 1000L);
+        write("row2", 2000L);
+        
+        AccumuloConnectionFactory connectionFactory = EasyMock.createMock(AccumuloConnectionFactory.class);
+        EasyMock.expect(connectionFactory.getTrackingMap(EasyMock.anyObject())).andReturn(new HashMap<>()).anyTimes();
+        EasyMock.expect(connectionFactory.getConnection(EasyMock.eq("pool"), EasyMock.anyObject(), EasyMock.anyObject())).andReturn(source).anyTimes();
+        connectionFactory.returnConnection(source);
+        EasyMock.expectLastCall().anyTimes();
+        EasyMock.replay(connectionFactory);
+        
+        cacheInstance = new InMemoryInstance("cache");
+        cache = new BaseTableCache();
+        cache.setTableName(TABLE);
+        cache.setConnectionPoolName("pool");
+        cache.setAuths("A");
+        cache.setReloadInterval(TimeUnit.DAYS.toMillis(1));
+        cache.setDeltaReloadInterval(TimeUnit.MINUTES.toMillis(1));
+        cache.setDeltaReloadOverlap(0);
+        cache.setConnectionFactory(connectionFactory);
+        cache.setInstance(cacheInstance);
+    }
+    
+    @Test
+    public void testDeltaRefresh() throws Exception {
+        assertTrue(cache.call());
+        assertEquals(2, countCached());
+        Date lastFullRefresh = cache.getLastFullRefresh();
+        long fullBytes = cache.getLastRefreshBytes();
+        
+        // a delta refresh only applies the new entry, so the deleted one stays cached until the next full refresh
+        write("row3", 3000L);
+        delete("row1", 1000L);
+        assertTrue(cache.call());
+        assertEquals(3, countCached());
+        assertEquals(lastFullRefresh, cache.getLastFullRefresh());
+        assertTrue(cache.getLastRefreshBytes() < fullBytes);
+        
+        // an explicit reload is always a full refresh
+        cache.setLastRefresh(new Date(0));
+        assertTrue(cache.call());
+        assertEquals(2, countCached());
+    }
+    
+    @Test
+    public void testDeltaRefreshMaxRows() throws Exception {
+        cache.setMaxRows(3);
+        assertTrue(cache.call());
+        assertEquals(2, countCached());
+        
+        // a delta refresh only copies what is left of the max rows
+        write("row3", 3000L);
+        write("row4", 4000L);
+        assertTrue(cache.call());
+        assertEquals(3, countCached());
+        
+        write("row5", 5000L);
+        assertTrue(cache.call());
+        assertEquals(3, countCached());
+    }
+    
+    @Test
+    public void testDeltaRefreshOverlapMaxRows() throws Exception {
+        cache.setMaxRows(4);
+        cache.setDeltaReloadOverlap(TimeUnit.HOURS.toMillis(1));
+        assertTrue(cache.call());
+        assertEquals(2, countCached());
+        
+        // the overlap copies the cached entries again, but only the new one counts against the max rows
+        write("row3", 3000L);
+        assertTrue(cache.call());
+        assertEquals(3, countCached());
+        
+        write("row4", 4000L);
+        assertTrue(cache.call());
+        assertEquals(4, countCached());
+        
+        write("row5", 5000L);
+        assertTrue(cache.call());
+        assertEquals(4, countCached());
+    }
+    
+    @Test
+    public void testDeltaDisabled() throws Exception {
+        cache.setDeltaReloadInterval(0);
+        assertTrue(cache.call());
+        delete("row1", 1000L);
+        assertTrue(cache.call());
+        assertEquals(1, countCached());
+    }
+    
+    private void write(String row, long timestamp) throws Exception {
+        BatchWriter writer = source.createBatchWriter(TABLE, new BatchWriterConfig());
+        Mutation m = new Mutation(row);
+        m.put("e", "q", new ColumnVisibility("A"), timestamp, new Value(row.getBytes()));
+        writer.addMutation(m);
+        writer.close();
+    }
+    
+    private void delete(String row, long timestamp) throws Exception {
+        BatchWriter writer = source.createBatchWriter(TABLE, new BatchWriterConfig());
+        Mutation m = new Mutation(row);
+        m.putDelete("e", "q", new ColumnVisibility("A"), timestamp);
+        writer.addMutation(m);
+        writer.close();
+    }
+    
+    private int countCached() throws Exception {
+        Scanner scanner = cacheInstance.getConnector(AccumuloTableCache.MOCK_USERNAME, AccumuloTableCache.MOCK_PASSWORD).createScanner(TABLE,
+                        new Authorizations("A"));
+        scanner.setRange(new Range());
+        int count = 0;
+        for (Map.Entry<Key,Value> entry : scanner) {
+            count++;
+        }
+        return count;
+    }
+}
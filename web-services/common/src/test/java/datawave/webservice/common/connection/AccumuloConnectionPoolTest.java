@@ -0,0 +1,176 @@
+package datawave.webservice.common.connection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import datawave.accumulo.inmemory.InMemoryInstance;
+import org.apache.accumulo.core.client.Connector;
+import org.apache.commons.lang.mutable.MutableInt;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AccumuloConnectionPoolTest {
+    
+    private AccumuloConnectionPool pool;
+    private ExecutorService executor;
+    
+    @Before
+    public void setup() {
+        pool = new AccumuloConnectionPool(new AccumuloConnectionPoolFactory("root", "", new InMemoryInstance()), true);
+        pool.setMaxTotal(2);
+        pool.setMaxIdle(-1);
+        executor = Executors.newCachedThreadPool();
+    }
+    
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        pool.close();
+    }
+    
+    @Test
+    public void testWaitingUserWithFewestConnectionsGoesFirst() throws Exception {
+        Connector a1 = pool.borrowObject(trackingMap("userA"));
+        Connector a2 = pool.borrowObject(trackingMap("userA"));
+        
+        // userA queues up more requests before userB asks for one
+        Future<Connector> a3 = executor.submit(() -> pool.borrowObject(trackingMap("userA")));
+        awaitWaiting(1);
+        Future<Connector> a4 = executor.submit(() -> pool.borrowObject(trackingMap("userA")));
+        awaitWaiting(2);
+        Future<Connector> b1 = executor.submit(() -> pool.borrowObject(trackingMap("userB")));
+        awaitWaiting(3);
+        
+        // userB holds no connections, so it is served ahead of userA's earlier requests
+        pool.returnObject(a1);
+        assertNotNull(b1.get(10, TimeUnit.SECONDS));
+        assertEquals(2, numWaiting());
+        assertEquals(Integer.valueOf(1), pool.getNumActiveByUser().get("userB"));
+        
+        // with nobody else waiting, userA's requests are served in order
+        pool.returnObject(a2);
+        assertNotNull(a3.get(10, TimeUnit.SECONDS));
+        assertEquals(1, numWaiting());
+        pool.returnObject(b1.get());
+        assertNotNull(a4.get(10, TimeUnit.SECONDS));
+        assertEquals(0, numWaiting());
+        
+        pool.returnObject(a3.get());
+        pool.returnObject(a4.get());
+        assertTrue(pool.getNumActiveByUser().isEmpty());
+        
+        long recorded = 0;
+        for (Long count : pool.getWaitTimeHistogram().values()) {
+            recorded += count;
+        }
+        assertEquals(5, recorded);
+    }
+    
+    @Test
+    public void testInterruptedWaiterGivesUpItsTurn() throws Exception {
+        Connector a1 = pool.borrowObject(trackingMap("userA"));
+        Connector a2 = pool.borrowObject(trackingMap("userA"));
+        
+        Future<Connector> b1 = executor.submit(() -> pool.borrowObject(trackingMap("userB")));
+        awaitWaiting(1);
+        b1.cancel(true);
+        awaitWaiting(0);
+        
+        pool.returnObject(a1);
+        assertEquals(1, (int) pool.getNumActiveByUser().get("userA"));
+        assertNotNull(pool.borrowObject(trackingMap("userC")));
+        pool.returnObject(a2);
+    }
+    
+    @Test
+    public void testInvalidatedConnectionIsReleased() throws Exception {
+        Connector a1 = pool.borrowObject(trackingMap("userA"));
+        Connector a2 = pool.borrowObject(trackingMap("userA"));
+        
+        Future<Connector> b1 = executor.submit(() -> pool.borrowObject(trackingMap("userB")));
+        awaitWaiting(1);
+        
+        pool.invalidateObject(a1);
+        assertNotNull(b1.get(10, TimeUnit.SECONDS));
+        assertFalse(pool.connectorCameFromHere(a1));
+        assertEquals(Integer.valueOf(1), pool.getNumActiveByUser().get("userA"));
+        
+        pool.returnObject(a2);
+        pool.returnObject(b1.get());
+        assertTrue(pool.getNumActiveByUser().isEmpty());
+    }
+    
+    @Test
+    public void testWaitHonorsMaxWait() throws Exception {
+        pool.setMaxWaitMillis(50);
+        Connector a1 = pool.borrowObject(trackingMap("userA"));
+        Connector a2 = pool.borrowObject(trackingMap("userA"));
+        
+        try {
+            pool.borrowObject(trackingMap("userB"));
+            fail("Expected the wait for a connection to time out");
+        } catch (NoSuchElementException e) {
+            // expected
+        }
+        assertEquals(0, numWaiting());
+        assertEquals(Integer.valueOf(2), pool.getNumActiveByUser().get("userA"));
+        
+        pool.setBlockWhenExhausted(false);
+        try {
+            pool.borrowObject(trackingMap("userB"));
+            fail("Expected an exhausted pool not to block");
+        } catch (NoSuchElementException e) {
+            // expected
+        }
+        
+        pool.returnObject(a1);
+        assertNotNull(pool.borrowObject(trackingMap("userB")));
+        pool.returnObject(a2);
+    }
+    
+    @Test
+    public void testUnfairPool() throws Exception {
+        AccumuloConnectionPool unfair = new AccumuloConnectionPool(new AccumuloConnectionPoolFactory("root", "", new InMemoryInstance()));
+        assertFalse(unfair.isFairScheduling());
+        try {
+            Connector c = unfair.borrowObject(trackingMap("userA"));
+            assertTrue(unfair.getNumActiveByUser().isEmpty());
+            unfair.returnObject(c);
+        } finally {
+            unfair.close();
+        }
+    }
+    
+    private static Map<String,String> trackingMap(String user) {
+        Map<String,String> trackingMap = new HashMap<>();
+        trackingMap.put(AccumuloConnectionPool.USER_DN, user);
+        return trackingMap;
+    }
+    
+    private int numWaiting() {
+        MutableInt unused = new MutableInt();
+        MutableInt numWaiting = new MutableInt();
+        pool.getConnectionPoolStats(unused, unused, unused, unused, numWaiting);
+        return numWaiting.intValue();
+    }
+    
+    private void awaitWaiting(int expected) throws InterruptedException {
+        long end = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (numWaiting() != expected && System.currentTimeMillis() < end) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, numWaiting());
+    }
+}
@@ -2,11 +2,16 @@ package datawave.webservice.websocket;
 
 import static datawave.webservice.metrics.Constants.REQUEST_LOGIN_TIME_HEADER;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 import javax.interceptor.Interceptors;
+import javax.websocket.EncodeException;
 import javax.websocket.OnClose;
 import javax.websocket.OnMessage;
 import javax.websocket.OnOpen;
@@ -23,9 +28,11 @@ import datawave.webservice.result.BaseQueryResponse;
 import datawave.webservice.result.GenericResponse;
 import datawave.webservice.result.VoidResponse;
 import datawave.webservice.websocket.codec.JsonQueryMessageDecoder;
+import datawave.webservice.websocket.codec.QueryResponseMessageBinaryEncoder;
 import datawave.webservice.websocket.codec.QueryResponseMessageJsonEncoder;
 import datawave.webservice.websocket.messages.CancelMessage;
 import datawave.webservice.websocket.messages.CreateQueryMessage;
+import datawave.webservice.websocket.messages.CreditMessage;
 import datawave.webservice.websocket.messages.QueryMessage;
 import datawave.webservice.websocket.messages.QueryResponseMessage;
 import datawave.webservice.websocket.messages.QueryResponseMessage.ResponseType;
@@ -39,6 +46,12 @@ import org.slf4j.LoggerFactory;
  * {@link CancelMessage} while the query is in progress in order to cancel execution of the query. Note that if there is a problem creating the query, a
  * creation failure message is sent and the websocket is closed.
  * <p>
+ * By default, pages are pushed to the client as fast as the query produces them. A client that cannot keep up may instead request flow control by including
+ * the {@value #INITIAL_CREDIT_PARAM} parameter in the {@link CreateQueryMessage}. In that case, the server only pushes a page when the client has outstanding
+ * credit, and the client grants additional credit by sending a {@link CreditMessage}. This bounds the number of pages buffered on the webserver for a slow
+ * client, and lets a client use small pages to reduce the time to its first result without being flooded. A client may also request the compact binary
+ * encoding (see {@link QueryResponseMessageBinaryEncoder}) by setting the {@value #ENCODING_PARAM} parameter to {@value #BINARY_ENCODING}.
+ * <p>
  * Per the JSR-356 specification (section 2.1.1), since we have not configured the endpoint otherwise, there shall be one instance of this class per endpoint,
  * per peer.
  * <p>
@@ -54,6 +67,11 @@ public class QueryWebsocket {
     private static final String LOGIC_NAME = "logicName";
     private static final String ACTIVE_QUERY_FUTURE = "activeQueryFuture";
     private static final String ACTIVE_QUERY_ID = "activeQueryId";
+    private static final String ACTIVE_QUERY_OBSERVER = "activeQueryObserver";
+    
+    public static final String INITIAL_CREDIT_PARAM = "websocket.initialCredit";
+    public static final String ENCODING_PARAM = "websocket.encoding";
+    public static final String BINARY_ENCODING = "binary";
     
     private Logger log = LoggerFactory.getLogger(getClass());
     
@@ -80,7 +98,26 @@ public class QueryWebsocket {
                 } else {
                     CreateQueryMessage cqm = (CreateQueryMessage) message;
                     String logicName = (String) session.getUserProperties().get(LOGIC_NAME);
-                    QueryObserver observer = new QueryObserver(log, session);
+                    
+                    Integer initialCredit = null;
+                    boolean binary = false;
+                    try {
+                        String credit = cqm.getParameters().getFirst(INITIAL_CREDIT_PARAM);
+                        if (credit != null) {
+                            initialCredit = Integer.valueOf(credit);
+                        }
+                        binary = BINARY_ENCODING.equalsIgnoreCase(cqm.getParameters().getFirst(ENCODING_PARAM));
+                    } catch (NumberFormatException e) {
+                        session.getAsyncRemote().sendObject(
+                                        new QueryResponseMessage(ResponseType.CREATION_FAILURE, "Invalid " + INITIAL_CREDIT_PARAM + ": " + e.getMessage()));
+                        break;
+                    }
+                    // These are websocket options, not query parameters, so don't pass them along to the query.
+                    cqm.getParameters().remove(INITIAL_CREDIT_PARAM);
+                    cqm.getParameters().remove(ENCODING_PARAM);
+                    
+                    QueryObserver observer = new QueryObserver(log, session, initialCredit, binary);
+                    session.getUserProperties().put(ACTIVE_QUERY_OBSERVER, observer);
                     
                     Long startTime = System.nanoTime();
                     Long loginTime = null;
@@ -99,10 +136,22 @@ public class QueryWebsocket {
                 cancelActiveQuery(session);
             }
                 break;
+            case CREDIT: {
+                QueryObserver observer = (QueryObserver) session.getUserProperties().get(ACTIVE_QUERY_OBSERVER);
+                if (observer != null) {
+                    observer.addCredit(((CreditMessage) message).getCredits());
+                }
+            }
+                break;
         }
     }
     
     protected void cancelActiveQuery(Session session) {
+        // Release any page that is waiting on credit so the async call can notice the cancellation.
+        QueryObserver observer = (QueryObserver) session.getUserProperties().get(ACTIVE_QUERY_OBSERVER);
+        if (observer != null) {
+            observer.cancel();
+        }
         Future<?> activeQuery = (Future<?>) session.getUserProperties().get(ACTIVE_QUERY_FUTURE);
         if (activeQuery != null && !activeQuery.isDone()) {
             // Attempt to cancel the async query call. This will cause the async call to return when it is between next calls.
@@ -119,31 +168,110 @@ public class QueryWebsocket {
         }
     }
     
-    private static class QueryObserver implements AsyncQueryStatusObserver {
+    static class QueryObserver implements AsyncQueryStatusObserver {
+        // the most pages a client may have outstanding credit for, which keeps the credit granted by a client from overflowing the semaphore
+        static final int MAX_CREDIT = 1 << 16;
+        
         private Logger log;
         private Session session;
+        private Semaphore credits;
+        private QueryResponseMessageBinaryEncoder binaryEncoder;
+        private volatile boolean cancelled = false;
         
-        public QueryObserver(Logger log, Session session) {
+        /**
+         * @param initialCredit
+         *            the number of pages the client is initially willing to receive, or null to disable flow control
+         * @param binary
+         *            whether messages should be sent using the binary encoding instead of JSON
+         */
+        public QueryObserver(Logger log, Session session, Integer initialCredit, boolean binary) {
             this.log = log;
             this.session = session;
+            if (initialCredit != null) {
+                this.credits = new Semaphore(Math.max(0, Math.min(initialCredit, MAX_CREDIT)));
+            }
+            if (binary) {
+                this.binaryEncoder = new QueryResponseMessageBinaryEncoder();
+                this.binaryEncoder.init(null);
+            }
+        }
+        
+        /**
+         * Grants credit for more pages, up to {@link #MAX_CREDIT} outstanding. Credit messages for a session are handled one at a time, and pages only take
+         * credit away, so the outstanding credit cannot exceed the maximum.
+         * 
+         * @param credit
+         *            the number of additional pages the client is willing to receive
+         */
+        public void addCredit(int credit) {
+            if (credits != null && credit > 0) {
+                int granted = Math.min(credit, MAX_CREDIT - credits.availablePermits());
+                if (granted > 0) {
+                    credits.release(granted);
+                }
+            }
+        }
+        
+        public void cancel() {
+            cancelled = true;
+        }
+        
+        /**
+         * Blocks the calling query thread until the client has granted credit for another page, which keeps the query from running ahead of a slow client. Has
+         * no effect when flow control is disabled. This is called before the next page is requested, so the query is not in an active call while it waits.
+         * 
+         * @return false if the query was cancelled or the client went away while waiting
+         */
+        @Override
+        public boolean awaitNextPage() {
+            if (credits == null) {
+                return !cancelled;
+            }
+            try {
+                while (!cancelled && session.isOpen()) {
+                    if (credits.tryAcquire(1, TimeUnit.SECONDS)) {
+                        return true;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return false;
+        }
+        
+        private void send(QueryResponseMessage message) {
+            if (binaryEncoder == null) {
+                session.getAsyncRemote().sendObject(message);
+            } else {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                try {
+                    binaryEncoder.encode(message, bytes);
+                } catch (EncodeException | IOException e) {
+                    log.error("Unable to encode " + message.getResponseType() + " message.", e);
+                    throw new RuntimeException(e);
+                }
+                session.getAsyncRemote().sendBinary(ByteBuffer.wrap(bytes.toByteArray()));
+            }
         }
         
         @Override
         public void queryCreated(GenericResponse<String> createQueryResponse) {
             session.getUserProperties().put(ACTIVE_QUERY_ID, createQueryResponse.getResult());
-            session.getAsyncRemote().sendObject(new QueryResponseMessage(ResponseType.CREATED, createQueryResponse.getResult()));
+            send(new QueryResponseMessage(ResponseType.CREATED, createQueryResponse.getResult()));
         }
         
         @Override
         public void queryResultsAvailable(BaseQueryResponse results) {
-            session.getAsyncRemote().sendObject(new QueryResponseMessage(ResponseType.RESULTS, results));
+            if (!cancelled) {
+                send(new QueryResponseMessage(ResponseType.RESULTS, results));
+            }
         }
         
         @Override
         public void queryCreateException(QueryException ex) {
             VoidResponse response = new VoidResponse();
             response.addException(ex);
-            session.getAsyncRemote().sendObject(new QueryResponseMessage(ResponseType.CREATION_FAILURE, "Query creation failed", response));
+            send(new QueryResponseMessage(ResponseType.CREATION_FAILURE, "Query creation failed", response));
             try {
                 session.close();
             } catch (IOException e) {
@@ -156,18 +284,20 @@ public class QueryWebsocket {
         public void queryException(QueryException ex) {
             session.getUserProperties().remove(ACTIVE_QUERY_ID);
             session.getUserProperties().remove(ACTIVE_QUERY_FUTURE);
+            session.getUserProperties().remove(ACTIVE_QUERY_OBSERVER);
             
             VoidResponse response = new VoidResponse();
             response.addException(ex);
-            session.getAsyncRemote().sendObject(new QueryResponseMessage(ResponseType.ERROR, response));
+            send(new QueryResponseMessage(ResponseType.ERROR, response));
         }
         
         @Override
         public void queryFinished(String queryId) {
             session.getUserProperties().remove(ACTIVE_QUERY_ID);
             session.getUserProperties().remove(ACTIVE_QUERY_FUTURE);
+            session.getUserProperties().remove(ACTIVE_QUERY_OBSERVER);
             
-            session.getAsyncRemote().sendObject(new QueryResponseMessage(ResponseType.COMPLETED));
+            send(new QueryResponseMessage(ResponseType.COMPLETED));
             try {
                 session.close();
             } catch (IOException e) {
@@ -12,6 +12,7 @@ import javax.ws.rs.core.MultivaluedMap;
 
 import datawave.webservice.websocket.messages.CancelMessage;
 import datawave.webservice.websocket.messages.CreateQueryMessage;
+import datawave.webservice.websocket.messages.CreditMessage;
 import datawave.webservice.websocket.messages.QueryMessage;
 import org.jboss.resteasy.specimpl.MultivaluedMapImpl;
 
@@ -31,10 +32,20 @@ public class JsonQueryMessageDecoder implements Decoder.Text<QueryMessage> {
         }
         if (map.size() == 1 && map.containsKey("cancel"))
             return new CancelMessage();
+        else if (map.size() == 1 && map.containsKey("credit"))
+            return new CreditMessage(parseCredit(s, map.getFirst("credit")));
         else
             return new CreateQueryMessage(map);
     }
     
+    private static int parseCredit(String s, String credit) throws DecodeException {
+        try {
+            return Integer.parseInt(credit);
+        } catch (NumberFormatException e) {
+            throw new DecodeException(s, "Invalid credit: " + credit, e);
+        }
+    }
+    
     private void addValueToMap(String key, JsonParser parser, MultivaluedMap<String,String> map) {
         boolean done = true; // By default we expect only a single value, but we could see an array.
         do {
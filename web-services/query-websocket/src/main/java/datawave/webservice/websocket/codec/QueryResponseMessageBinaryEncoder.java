@@ -0,0 +1,101 @@
+package datawave.webservice.websocket.codec;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import javax.websocket.EncodeException;
+import javax.websocket.Encoder;
+import javax.websocket.EndpointConfig;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.AnnotationIntrospector;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.JacksonAnnotationIntrospector;
+import com.fasterxml.jackson.module.jaxb.JaxbAnnotationIntrospector;
+import datawave.webservice.result.BaseResponse;
+import datawave.webservice.websocket.messages.QueryResponseMessage;
+import io.protostuff.LinkedBuffer;
+import io.protostuff.Message;
+import io.protostuff.ProtobufIOUtil;
+import io.protostuff.Schema;
+
+/**
+ * Encodes a {@link QueryResponseMessage} into a compact binary frame, writing the results to the supplied stream. The frame layout is:
+ * <ol>
+ * <li>one byte holding the ordinal of the {@link QueryResponseMessage.ResponseType}</li>
+ * <li>a boolean flag followed by a string if a message is present</li>
+ * <li>one byte indicating the payload format ({@link #PAYLOAD_NONE}, {@link #PAYLOAD_PROTOBUF} or {@link #PAYLOAD_JSON})</li>
+ * <li>for non-empty payloads, the response class name as a string, followed by the encoded {@link BaseResponse} to the end of the frame</li>
+ * </ol>
+ * Strings are written as a four byte length followed by that many bytes of UTF-8, so that messages are not limited to the 64KB of
+ * {@link DataOutputStream#writeUTF(String)}.
+ * Responses that implement the protostuff {@link Message} interface are written as protocol buffers, which avoids building a JSON document for every page.
+ * Any other response falls back to JSON.
+ */
+public class QueryResponseMessageBinaryEncoder implements Encoder.BinaryStream<QueryResponseMessage> {
+    public static final byte PAYLOAD_NONE = 0;
+    public static final byte PAYLOAD_PROTOBUF = 1;
+    public static final byte PAYLOAD_JSON = 2;
+    
+    private ObjectMapper mapper;
+    private LinkedBuffer buffer;
+    
+    @Override
+    public void encode(QueryResponseMessage object, OutputStream os) throws EncodeException, IOException {
+        DataOutputStream out = new DataOutputStream(os);
+        out.writeByte(object.getResponseType().ordinal());
+        out.writeBoolean(object.getMessage() != null);
+        if (object.getMessage() != null) {
+            writeString(out, object.getMessage());
+        }
+        
+        BaseResponse response = object.getBaseResponse();
+        if (response == null) {
+            out.writeByte(PAYLOAD_NONE);
+        } else if (response instanceof Message) {
+            out.writeByte(PAYLOAD_PROTOBUF);
+            writeString(out, response.getClass().getName());
+            @SuppressWarnings("unchecked")
+            Message<Object> pb = (Message<Object>) response;
+            Schema<Object> schema = pb.cachedSchema();
+            try {
+                ProtobufIOUtil.writeTo(out, response, schema, buffer);
+            } finally {
+                buffer.clear();
+            }
+        } else {
+            out.writeByte(PAYLOAD_JSON);
+            writeString(out, response.getClass().getName());
+            JsonGenerator jsonGenerator = mapper.getFactory().createGenerator(out);
+            jsonGenerator.writeObject(response);
+            jsonGenerator.flush();
+        }
+        out.flush();
+    }
+    
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+    
+    @Override
+    public void init(EndpointConfig config) {
+        buffer = LinkedBuffer.allocate(4096);
+        mapper = new ObjectMapper();
+        mapper.enable(MapperFeature.USE_WRAPPER_NAME_AS_PROPERTY_NAME);
+        mapper.setAnnotationIntrospector(AnnotationIntrospector.pair(new JacksonAnnotationIntrospector(),
+                        new JaxbAnnotationIntrospector(mapper.getTypeFactory())));
+        // Don't close the output stream
+        mapper.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+        // Don't include NULL properties.
+        mapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    }
+    
+    @Override
+    public void destroy() {}
+}
@@ -0,0 +1,29 @@
+package datawave.webservice.websocket.messages;
+
+/**
+ * A query message for clients to send to grant the server permission to push additional pages of results. This is only meaningful when flow control was
+ * requested on the {@link CreateQueryMessage}. The client should send a JSON message with a single property "credit" set to the number of additional pages it
+ * is willing to receive. For example,
+ * 
+ * <pre>
+ * <code>
+ * { "credit": 2 }
+ * </code>
+ * </pre>
+ */
+public class CreditMessage implements QueryMessage {
+    private int credits;
+    
+    public CreditMessage(int credits) {
+        this.credits = credits;
+    }
+    
+    public int getCredits() {
+        return credits;
+    }
+    
+    @Override
+    public Type getType() {
+        return Type.CREDIT;
+    }
+}
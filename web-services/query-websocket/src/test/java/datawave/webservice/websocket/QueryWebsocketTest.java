@@ -0,0 +1,129 @@
+package datawave.webservice.websocket;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.websocket.RemoteEndpoint;
+import javax.websocket.Session;
+
+import datawave.webservice.result.BaseQueryResponse;
+import datawave.webservice.websocket.QueryWebsocket.QueryObserver;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+public class QueryWebsocketTest {
+    
+    private Session session;
+    private RemoteEndpoint.Async remote;
+    private ExecutorService executor;
+    
+    @Before
+    public void setup() {
+        session = createMock(Session.class);
+        remote = createMock(RemoteEndpoint.Async.class);
+        expect(session.isOpen()).andReturn(true).anyTimes();
+        expect(session.getAsyncRemote()).andReturn(remote).anyTimes();
+        executor = Executors.newSingleThreadExecutor();
+    }
+    
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+    
+    private QueryObserver createObserver(Integer initialCredit) {
+        return new QueryObserver(LoggerFactory.getLogger(getClass()), session, initialCredit, false);
+    }
+    
+    @Test
+    public void testNoFlowControl() {
+        replay(session, remote);
+        QueryObserver observer = createObserver(null);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(observer.awaitNextPage());
+        }
+        observer.cancel();
+        assertFalse(observer.awaitNextPage());
+    }
+    
+    @Test
+    public void testPagesWaitForCredit() throws Exception {
+        replay(session, remote);
+        QueryObserver observer = createObserver(1);
+        assertTrue(observer.awaitNextPage());
+        
+        // the initial credit is used up, so the next page waits for the client
+        Future<Boolean> next = executor.submit(observer::awaitNextPage);
+        try {
+            next.get(100, TimeUnit.MILLISECONDS);
+            throw new AssertionError("Expected the next page to wait for credit");
+        } catch (TimeoutException e) {
+            // expected
+        }
+        
+        observer.addCredit(2);
+        assertTrue(next.get(10, TimeUnit.SECONDS));
+        assertTrue(observer.awaitNextPage());
+    }
+    
+    @Test
+    public void testCreditIsBounded() throws Exception {
+        replay(session, remote);
+        QueryObserver observer = createObserver(Integer.MAX_VALUE);
+        
+        // credit beyond the maximum is ignored rather than overflowing
+        observer.addCredit(Integer.MAX_VALUE);
+        observer.addCredit(Integer.MAX_VALUE);
+        for (int i = 0; i < QueryObserver.MAX_CREDIT; i++) {
+            assertTrue(observer.awaitNextPage());
+        }
+        
+        Future<Boolean> next = executor.submit(observer::awaitNextPage);
+        try {
+            next.get(100, TimeUnit.MILLISECONDS);
+            throw new AssertionError("Expected the next page to wait for credit");
+        } catch (TimeoutException e) {
+            // expected
+        }
+        observer.cancel();
+        assertFalse(next.get(10, TimeUnit.SECONDS));
+    }
+    
+    @Test
+    public void testCancelReleasesWaitingPage() throws Exception {
+        replay(session, remote);
+        QueryObserver observer = createObserver(0);
+        
+        Future<Boolean> next = executor.submit(observer::awaitNextPage);
+        observer.cancel();
+        assertFalse(next.get(10, TimeUnit.SECONDS));
+    }
+    
+    @Test
+    public void testResultsAreSentWithoutWaiting() {
+        expect(remote.sendObject(anyObject())).andReturn(null);
+        replay(session, remote);
+        
+        // sending a page never waits for credit, that happens before the page is requested
+        QueryObserver observer = createObserver(0);
+        observer.queryResultsAvailable(createMock(BaseQueryResponse.class));
+        verify(remote);
+        
+        observer.cancel();
+        observer.queryResultsAvailable(createMock(BaseQueryResponse.class));
+        verify(remote);
+    }
+}
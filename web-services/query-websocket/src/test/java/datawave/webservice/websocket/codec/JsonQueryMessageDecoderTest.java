@@ -0,0 +1,53 @@
+package datawave.webservice.websocket.codec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import javax.websocket.DecodeException;
+
+import datawave.webservice.websocket.messages.CancelMessage;
+import datawave.webservice.websocket.messages.CreateQueryMessage;
+import datawave.webservice.websocket.messages.CreditMessage;
+import datawave.webservice.websocket.messages.QueryMessage;
+import org.junit.Test;
+
+public class JsonQueryMessageDecoderTest {
+    
+    private final JsonQueryMessageDecoder decoder = new JsonQueryMessageDecoder();
+    
+    @Test
+    public void testCancel() throws Exception {
+        assertTrue(decoder.decode("{ \"cancel\": true }") instanceof CancelMessage);
+    }
+    
+    @Test
+    public void testCredit() throws Exception {
+        QueryMessage message = decoder.decode("{ \"credit\": 2 }");
+        assertEquals(QueryMessage.Type.CREDIT, message.getType());
+        assertEquals(2, ((CreditMessage) message).getCredits());
+        
+        assertEquals(3, ((CreditMessage) decoder.decode("{ \"credit\": \"3\" }")).getCredits());
+    }
+    
+    @Test(expected = DecodeException.class)
+    public void testInvalidCredit() throws Exception {
+        decoder.decode("{ \"credit\": \"lots\" }");
+    }
+    
+    @Test(expected = DecodeException.class)
+    public void testFractionalCredit() throws Exception {
+        decoder.decode("{ \"credit\": 1.5 }");
+    }
+    
+    @Test
+    public void testCreate() throws Exception {
+        QueryMessage message = decoder.decode("{ \"query\": \"FOO == 'bar'\", \"credit\": 1, \"auths\": [\"A\", \"B\"] }");
+        assertEquals(QueryMessage.Type.CREATE, message.getType());
+        CreateQueryMessage create = (CreateQueryMessage) message;
+        assertEquals("FOO == 'bar'", create.getParameters().getFirst("query"));
+        assertEquals("1", create.getParameters().getFirst("credit"));
+        assertEquals(Arrays.asList("A", "B"), create.getParameters().get("auths"));
+    }
+}
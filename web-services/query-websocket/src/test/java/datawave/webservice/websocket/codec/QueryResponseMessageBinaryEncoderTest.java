@@ -0,0 +1,71 @@
+package datawave.webservice.websocket.codec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import datawave.webservice.result.VoidResponse;
+import datawave.webservice.websocket.messages.QueryResponseMessage;
+import datawave.webservice.websocket.messages.QueryResponseMessage.ResponseType;
+import io.protostuff.ProtobufIOUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+public class QueryResponseMessageBinaryEncoderTest {
+    
+    private final QueryResponseMessageBinaryEncoder encoder = new QueryResponseMessageBinaryEncoder();
+    
+    @Before
+    public void setup() {
+        encoder.init(null);
+    }
+    
+    @Test
+    public void testProtobufResponse() throws Exception {
+        // longer than the 64KB a modified UTF-8 string can hold
+        String message = String.join("", Collections.nCopies(70 * 1024, "\u00e9"));
+        VoidResponse response = new VoidResponse();
+        response.addMessage("done");
+        response.setOperationTimeMS(42);
+        
+        DataInputStream in = encode(new QueryResponseMessage(ResponseType.RESULTS, message, response));
+        assertEquals(ResponseType.RESULTS.ordinal(), in.readByte());
+        assertTrue(in.readBoolean());
+        assertEquals(message, readString(in));
+        assertEquals(QueryResponseMessageBinaryEncoder.PAYLOAD_PROTOBUF, in.readByte());
+        assertEquals(VoidResponse.class.getName(), readString(in));
+        
+        VoidResponse decoded = new VoidResponse();
+        ProtobufIOUtil.mergeFrom(in, decoded, decoded.cachedSchema());
+        assertEquals(response.getMessages(), decoded.getMessages());
+        assertEquals(42, decoded.getOperationTimeMS());
+    }
+    
+    @Test
+    public void testNoResponse() throws Exception {
+        DataInputStream in = encode(new QueryResponseMessage(ResponseType.COMPLETED));
+        assertEquals(ResponseType.COMPLETED.ordinal(), in.readByte());
+        assertFalse(in.readBoolean());
+        assertEquals(QueryResponseMessageBinaryEncoder.PAYLOAD_NONE, in.readByte());
+        assertEquals(-1, in.read());
+    }
+    
+    private DataInputStream encode(QueryResponseMessage message) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        encoder.encode(message, bytes);
+        return new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+    
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
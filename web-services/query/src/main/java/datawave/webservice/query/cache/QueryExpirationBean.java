@@ -27,7 +27,14 @@ import javax.ejb.Schedule;
 import javax.ejb.Singleton;
 import javax.ejb.Startup;
 import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @RunAs("InternalUser")
 @RolesAllowed({"AuthorizedUser", "AuthorizedQueryServer", "InternalUser", "Administrator"})
@@ -98,9 +105,10 @@ public class QueryExpirationBean {
     
     private void clearQueries(long now) {
         int count = 0;
+        Set<RunningQuery> overQuota = clearAll ? new HashSet<>() : findIdleQueriesOverQuota();
         
         for (RunningQuery query : cache) {
-            boolean idleTooLong = !clearAll && !query.hasActiveCall() && isIdleTooLong(query, now);
+            boolean idleTooLong = !clearAll && !query.hasActiveCall() && (isIdleTooLong(query, now) || overQuota.contains(query));
             boolean nextTooLong = !clearAll && query.hasActiveCall() && isNextTooLong(query, now);
             if (clearAll || idleTooLong || nextTooLong) {
                 if (query.getSettings().getUncaughtExceptionHandler() == null) {
@@ -166,6 +174,48 @@ public class QueryExpirationBean {
         }
     }
     
+    /**
+     * Finds the idle queries that exceed the configured per-user limit. Each user keeps their most recently used idle queries up to the limit, and the remainder
+     * are returned so that they may be evicted along with the queries that have been idle too long. This keeps a single user from pinning an unbounded number
+     * of query logics and transformers on the heap. Queries are counted rather than weighed by the memory they hold, and new queries are not refused when a
+     * user is over the limit: the limit is only applied here, at each sweep. Queries with a page being prefetched are not idle, since evicting them would close
+     * the connection the prefetch is still using.
+     *
+     * @return the idle queries to evict, possibly empty
+     */
+    private Set<RunningQuery> findIdleQueriesOverQuota() {
+        Set<RunningQuery> overQuota = new HashSet<>();
+        int maxIdle = conf.getMaxIdleQueriesPerUser();
+        if (maxIdle < 0) {
+            return overQuota;
+        }
+        
+        Map<String,List<RunningQuery>> idleQueriesByOwner = new HashMap<>();
+        for (RunningQuery query : cache) {
+            if (!query.hasActiveCall() && !query.isPrefetching()) {
+                String owner = query.getSettings().getOwner();
+                List<RunningQuery> idleQueries = idleQueriesByOwner.get(owner);
+                if (idleQueries == null) {
+                    idleQueries = new ArrayList<>();
+                    idleQueriesByOwner.put(owner, idleQueries);
+                }
+                idleQueries.add(query);
+            }
+        }
+        
+        for (Map.Entry<String,List<RunningQuery>> entry : idleQueriesByOwner.entrySet()) {
+            List<RunningQuery> idleQueries = entry.getValue();
+            if (idleQueries.size() > maxIdle) {
+                idleQueries.sort(Comparator.comparingLong(RunningQuery::getLastUsed).reversed());
+                List<RunningQuery> evict = idleQueries.subList(maxIdle, idleQueries.size());
+                log.info("User " + entry.getKey() + " has " + idleQueries.size() + " idle queries, evicting the " + evict.size()
+                                + " least recently used to stay within the limit of " + maxIdle);
+                overQuota.addAll(evict);
+            }
+        }
+        return overQuota;
+    }
+    
     /**
      * Method to determine if a query has been idle too long based on configured values.
      *
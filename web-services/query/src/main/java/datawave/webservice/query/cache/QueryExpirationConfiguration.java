@@ -15,6 +15,9 @@ public class QueryExpirationConfiguration {
     private long callTimeMinutes = PAGE_TIMEOUT_MIN_DEFAULT;
     private long pageSizeShortCircuitCheckTimeMinutes = PAGE_TIMEOUT_MIN_DEFAULT / 2;
     private long pageShortCircuitTimeoutMinutes = Math.round(0.97 * PAGE_TIMEOUT_MIN_DEFAULT);
+    private int maxIdleQueriesPerUser = -1;
+    private int maxPrefetches = 10;
+    private int maxPrefetchesPerUser = 2;
     
     public long getIdleTimeMinutes() {
         return idleTimeMinutes;
@@ -80,4 +83,39 @@ public class QueryExpirationConfiguration {
         this.pageShortCircuitTimeoutMinutes = pageShortCircuitTimeoutMinutes;
     }
     
+    /**
+     * The maximum number of idle queries a single user may hold in the query cache. When exceeded, the least recently used idle queries for that user are
+     * evicted before their idle time expires. The limit is a count of queries, not of the memory they hold, and is only enforced by the periodic expiration
+     * sweep, so a user may briefly hold more. A negative value means there is no limit.
+     */
+    public int getMaxIdleQueriesPerUser() {
+        return maxIdleQueriesPerUser;
+    }
+    
+    public void setMaxIdleQueriesPerUser(int maxIdleQueriesPerUser) {
+        this.maxIdleQueriesPerUser = maxIdleQueriesPerUser;
+    }
+    
+    /**
+     * The maximum number of next pages that may be prefetched concurrently on this server for queries created with the prefetch parameter.
+     */
+    public int getMaxPrefetches() {
+        return maxPrefetches;
+    }
+    
+    public void setMaxPrefetches(int maxPrefetches) {
+        this.maxPrefetches = maxPrefetches;
+    }
+    
+    /**
+     * The maximum number of next pages that may be prefetched concurrently for a single user.
+     */
+    public int getMaxPrefetchesPerUser() {
+        return maxPrefetchesPerUser;
+    }
+    
+    public void setMaxPrefetchesPerUser(int maxPrefetchesPerUser) {
+        this.maxPrefetchesPerUser = maxPrefetchesPerUser;
+    }
+    
 }
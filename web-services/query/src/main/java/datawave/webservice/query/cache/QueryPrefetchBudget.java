@@ -0,0 +1,57 @@
+package datawave.webservice.query.cache;
+
+import javax.inject.Singleton;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tracks the number of next pages being prefetched on this webserver, both in total and per user, so that prefetching can be bounded. A prefetch ties up an
+ * executor thread and an Accumulo scan, so without a budget a single user paging through many queries could starve everyone else.
+ */
+@Singleton
+// CDI singleton
+public class QueryPrefetchBudget {
+    private int active = 0;
+    private final Map<String,Integer> activeByUser = new HashMap<>();
+    
+    /**
+     * Attempts to reserve a prefetch for {@code user}. If this method returns {@code true}, the caller must later call {@link #release(String)}.
+     * 
+     * @param user
+     *            the owner of the query being prefetched
+     * @param maxPrefetches
+     *            the maximum number of concurrent prefetches on this server
+     * @param maxPrefetchesPerUser
+     *            the maximum number of concurrent prefetches for any one user
+     * @return true if the prefetch may proceed
+     */
+    public synchronized boolean tryAcquire(String user, int maxPrefetches, int maxPrefetchesPerUser) {
+        int userActive = activeByUser.getOrDefault(user, 0);
+        if (active >= maxPrefetches || userActive >= maxPrefetchesPerUser) {
+            return false;
+        }
+        active++;
+        activeByUser.put(user, userActive + 1);
+        return true;
+    }
+    
+    /**
+     * Releases a prefetch previously reserved for {@code user} with {@link #tryAcquire(String, int, int)}.
+     */
+    public synchronized void release(String user) {
+        Integer userActive = activeByUser.get(user);
+        if (userActive == null) {
+            return;
+        }
+        active--;
+        if (userActive <= 1) {
+            activeByUser.remove(user);
+        } else {
+            activeByUser.put(user, userActive - 1);
+        }
+    }
+    
+    public synchronized int getActive() {
+        return active;
+    }
+}
@@ -2,8 +2,10 @@ package datawave.webservice.query.configuration;
 
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
 
 import datawave.util.TableName;
@@ -48,6 +50,9 @@ public abstract class GenericQueryConfiguration {
     
     protected boolean bypassAccumulo;
     
+    // Estimates made while planning the query, which are recorded as predictions in the query metrics to compare with what the query actually did
+    private Map<String,Double> planEstimates = new HashMap<>();
+    
     /**
      * Empty default constructor
      */
@@ -77,6 +82,7 @@ public abstract class GenericQueryConfiguration {
         this.setQueryString(genericConfig.getQueryString());
         this.setTableName(genericConfig.getTableName());
         this.setUndisplayedVisibilities(genericConfig.getUndisplayedVisibilities());
+        this.setPlanEstimates(new HashMap<>(genericConfig.getPlanEstimates()));
     }
     
     /**
@@ -177,6 +183,18 @@ public abstract class GenericQueryConfiguration {
         this.bypassAccumulo = bypassAccumulo;
     }
     
+    public Map<String,Double> getPlanEstimates() {
+        return planEstimates;
+    }
+    
+    public void setPlanEstimates(Map<String,Double> planEstimates) {
+        this.planEstimates = planEstimates;
+    }
+    
+    public void addPlanEstimate(String name, double estimate) {
+        this.planEstimates.put(name, estimate);
+    }
+    
     /**
      * Checks for non-null, sane values for the configured values
      * 
@@ -10,6 +10,16 @@ import datawave.webservice.result.GenericResponse;
 public interface AsyncQueryStatusObserver {
     void queryCreated(GenericResponse<String> createQueryResponse);
     
+    /**
+     * Called before each page of results is requested, outside of the query's active call, so that an observer which cannot yet accept another page can hold
+     * back the query without holding on to it.
+     * 
+     * @return false if no more pages are wanted
+     */
+    default boolean awaitNextPage() {
+        return true;
+    }
+    
     void queryResultsAvailable(BaseQueryResponse results);
     
     void queryCreateException(QueryException ex);
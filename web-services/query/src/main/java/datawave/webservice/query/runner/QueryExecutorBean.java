@@ -43,6 +43,7 @@ import datawave.webservice.query.cache.CreatedQueryLogicCacheBean;
 import datawave.webservice.query.cache.QueryCache;
 import datawave.webservice.query.cache.QueryExpirationConfiguration;
 import datawave.webservice.query.cache.QueryMetricFactory;
+import datawave.webservice.query.cache.QueryPrefetchBudget;
 import datawave.webservice.query.cache.QueryTraceCache;
 import datawave.webservice.query.cache.ResultsPage;
 import datawave.webservice.query.cache.RunningQueryTimingImpl;
@@ -185,11 +186,19 @@ public class QueryExecutorBean implements QueryExecutor {
     public static final String EXPAND_VALUES = "expand.values";
     public static final String EXPAND_FIELDS = "expand.fields";
     
+    /**
+     * Query parameter that, when true, asks the server to start building the next page as soon as a page is returned
+     */
+    public static final String PREFETCH = "prefetch";
+    
     private final Logger log = Logger.getLogger(QueryExecutorBean.class);
     
     @Inject
     private QueryCache queryCache;
     
+    @Inject
+    private QueryPrefetchBudget prefetchBudget;
+    
     @Inject
     private QueryTraceCache queryTraceCache;
     
@@ -205,6 +214,10 @@ public class QueryExecutorBean implements QueryExecutor {
     @Resource
     private ManagedExecutorService executor;
     
+    // prefetched pages submit their next calls to the executor above, so they are built on a pool of their own
+    @Resource(lookup = "java:jboss/ee/concurrency/executor/prefetch")
+    private ManagedExecutorService prefetchExecutor;
+    
     @Inject
     private QueryLogicFactory queryLogicFactory;
     
@@ -1328,6 +1341,31 @@ public class QueryExecutorBean implements QueryExecutor {
         }
     }
     
+    /**
+     * Starts building the next page for {@code query} in the background if the query was created with the {@link #PREFETCH} parameter and the prefetch budget
+     * allows it.
+     */
+    private void startPrefetch(final RunningQuery query) {
+        if (!Boolean.parseBoolean(query.getSettings().findParameter(PREFETCH).getParameterValue())) {
+            return;
+        }
+        query.setPrefetchEnabled(true);
+        
+        final String owner = query.getSettings().getOwner();
+        if (!prefetchBudget.tryAcquire(owner, queryExpirationConf.getMaxPrefetches(), queryExpirationConf.getMaxPrefetchesPerUser())) {
+            log.debug("Prefetch budget exhausted, not prefetching next page for " + query.getSettings().getId());
+            return;
+        }
+        try {
+            if (!query.prefetch(prefetchExecutor, () -> prefetchBudget.release(owner))) {
+                prefetchBudget.release(owner);
+            }
+        } catch (RejectedExecutionException e) {
+            log.warn("Unable to prefetch next page for " + query.getSettings().getId(), e);
+            prefetchBudget.release(owner);
+        }
+    }
+    
     private BaseQueryResponse _next(RunningQuery query, String queryId, Collection<String> proxyServers, Span span) throws Exception {
         // If we're tracing this query, then continue the trace for the next call.
         TInfo traceInfo = query.getTraceInfo();
@@ -1940,6 +1978,7 @@ public class QueryExecutorBean implements QueryExecutor {
                 // Set the active call and get next
                 query.setActiveCall(true);
                 response = _next(query, id, proxyServers, span);
+                startPrefetch(query);
                 
                 // Conditionally swap the standard response with content
                 if (checkForContentLookup) {
@@ -2202,6 +2241,8 @@ public class QueryExecutorBean implements QueryExecutor {
         
         log.debug("Closing " + queryId);
         
+        query.cancelPrefetch();
+        
         try {
             query.closeConnection(connectionFactory);
         } catch (Exception e) {
@@ -3332,6 +3373,10 @@ public class QueryExecutorBean implements QueryExecutor {
             // Loop over each page of query results, and notify the observer about each page.
             // If we get any exception, then break out of the loop and notify the observer about the problem.
             do {
+                // wait until the observer can take another page before making the call, so a slow observer does not hold an active call
+                if (!observer.awaitNextPage()) {
+                    break;
+                }
                 long callStart = System.nanoTime();
                 rq.setActiveCall(true);
                 try {
@@ -4,13 +4,17 @@ import java.security.Principal;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import datawave.security.util.AuthorizationsUtil;
 import datawave.webservice.common.connection.AccumuloConnectionFactory;
@@ -49,6 +53,9 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
     
     private static Logger log = Logger.getLogger(RunningQuery.class);
     
+    // how long to wait for a cancelled prefetch or next call to stop using the connection
+    private static final long CANCEL_WAIT_MS = TimeUnit.MINUTES.toMillis(1);
+    
     private transient Connector connection = null;
     private AccumuloConnectionFactory.Priority connectionPriority = null;
     private transient QueryLogic<?> logic = null;
@@ -63,7 +70,10 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
     private transient QueryMetricsBean queryMetrics = null;
     private RunningQueryTiming timing = null;
     private ExecutorService executor = null;
-    private volatile Future<Object> future = null;
+    private transient volatile PendingNext pendingNext = null;
+    // guarded by this, so that a prefetch cannot be started and cancelled at the same time
+    private transient Prefetch prefetch = null;
+    private boolean prefetchEnabled = false;
     private QueryPredictor predictor = null;
     
     public RunningQuery() {
@@ -162,6 +172,10 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
             this.iter = this.logic.getTransformIterator(this.settings);
             // the configuration query string should now hold the planned query
             this.getMetric().setPlan(configuration.getQueryString());
+            // record what the planner expects, next to the actual results, pages and timings of the query
+            for (Map.Entry<String,Double> estimate : configuration.getPlanEstimates().entrySet()) {
+                this.getMetric().addPrediction(new Prediction("Plan" + estimate.getKey(), estimate.getValue()));
+            }
             this.getMetric().setSetupTime((System.currentTimeMillis() - start));
             this.getMetric().setLifecycle(QueryMetric.Lifecycle.INITIALIZED);
             testForUncaughtException(0);
@@ -184,7 +198,124 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
         }
     }
     
+    /**
+     * Returns the next page of results. If a page was prefetched by {@link #prefetch(ExecutorService, Runnable)}, then that page is returned (waiting for it to
+     * complete if necessary) rather than building a new one.
+     */
     public ResultsPage next() throws Exception {
+        Future<ResultsPage> prefetched;
+        synchronized (this) {
+            prefetched = (this.prefetch == null ? null : this.prefetch.page);
+            this.prefetch = null;
+        }
+        if (prefetched == null) {
+            if (this.prefetchEnabled) {
+                this.getMetric().setPrefetchMisses(this.getMetric().getPrefetchMisses() + 1);
+            }
+            return nextPage();
+        }
+        
+        if (prefetched.isDone()) {
+            this.getMetric().setPrefetchHits(this.getMetric().getPrefetchHits() + 1);
+        } else {
+            this.getMetric().setPrefetchMisses(this.getMetric().getPrefetchMisses() + 1);
+        }
+        try {
+            return prefetched.get();
+        } catch (CancellationException ce) {
+            // the prefetch was abandoned, so build the page now
+            return nextPage();
+        } catch (ExecutionException ee) {
+            if (ee.getCause() instanceof Exception) {
+                throw (Exception) ee.getCause();
+            }
+            throw ee;
+        }
+    }
+    
+    /**
+     * Starts building the next page of results on {@code prefetchExecutor} so that it is ready when the client next asks for it. Only a single page is ever
+     * prefetched, and nothing is done if the query is finished or cancelled.
+     *
+     * @param prefetchExecutor
+     *            the executor on which to build the page
+     * @param onComplete
+     *            invoked once the prefetch completes, successfully or not
+     * @return true if a prefetch was started
+     */
+    public synchronized boolean prefetch(ExecutorService prefetchExecutor, Runnable onComplete) {
+        if (this.finished || this.canceled || this.prefetch != null) {
+            return false;
+        }
+        final Prefetch prefetch = new Prefetch(onComplete);
+        prefetch.page = prefetchExecutor.submit(() -> {
+            if (!prefetch.start()) {
+                // cancelled before it started
+                return null;
+            }
+            try {
+                return nextPage();
+            } finally {
+                prefetch.finish();
+            }
+        });
+        this.prefetch = prefetch;
+        return true;
+    }
+    
+    /**
+     * Cancels any page being prefetched for this query, and waits for it to stop using the query and its connection. The page's results, if any, are
+     * discarded.
+     */
+    public void cancelPrefetch() {
+        Prefetch prefetch;
+        synchronized (this) {
+            prefetch = this.prefetch;
+            this.prefetch = null;
+        }
+        if (prefetch != null) {
+            try {
+                if (!prefetch.cancel(CANCEL_WAIT_MS)) {
+                    log.warn("Prefetch for " + this.settings.getId() + " did not stop within " + CANCEL_WAIT_MS + "ms");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    /**
+     * Cancels any call to the transform iterator still running on the executor, and waits for it to stop using the connection.
+     */
+    private void cancelPendingNext() {
+        PendingNext pendingNext = this.pendingNext;
+        if (pendingNext != null) {
+            try {
+                if (!pendingNext.cancel(CANCEL_WAIT_MS)) {
+                    log.warn("Next call for " + this.settings.getId() + " did not stop within " + CANCEL_WAIT_MS + "ms");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    /**
+     * @return true if a page is being prefetched, or is waiting to be returned by {@link #next()}
+     */
+    public synchronized boolean isPrefetching() {
+        return this.prefetch != null;
+    }
+    
+    public boolean isPrefetchEnabled() {
+        return prefetchEnabled;
+    }
+    
+    public void setPrefetchEnabled(boolean prefetchEnabled) {
+        this.prefetchEnabled = prefetchEnabled;
+    }
+    
+    private ResultsPage nextPage() throws Exception {
         // update AbstractRunningQuery.lastUsed
         touch();
         long pageStartTime = System.currentTimeMillis();
@@ -199,13 +330,18 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
             // test for any exceptions prior to loop as hasNext() would likely be false;
             testForUncaughtException(resultList.size());
             
-            while (!this.finished && ((future != null) || this.iter.hasNext())) {
+            while (!this.finished && ((pendingNext != null) || this.iter.hasNext())) {
                 // if we are canceled, then break out
                 if (this.canceled) {
                     log.info("Query has been cancelled, aborting query.next call");
                     this.getMetric().setLifecycle(QueryMetric.Lifecycle.CANCELLED);
                     break;
                 }
+                // if we were interrupted (e.g. a prefetch that was cancelled), then break out
+                if (Thread.currentThread().isInterrupted()) {
+                    log.info("Query.next call has been interrupted, aborting query.next call");
+                    break;
+                }
                 // if the number of results has reached out page size, then break out
                 if (currentPageCount >= this.settings.getPagesize()) {
                     log.info("Query requested page size had been reached, aborting query.next call");
@@ -255,18 +391,20 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
                 
                 Object o = null;
                 if (executor != null) {
-                    if (future == null) {
-                        future = executor.submit(() -> iter.next());
+                    if (pendingNext == null) {
+                        pendingNext = new PendingNext(executor, iter);
                     }
                     try {
-                        o = future.get(1, TimeUnit.MINUTES);
-                        future = null;
+                        o = pendingNext.get(1, TimeUnit.MINUTES);
+                        pendingNext = null;
                     } catch (InterruptedException ie) {
-                        // in this case we were most likely cancelled, no longer waiting
-                        future = null;
+                        // in this case we were most likely cancelled, no longer waiting. The pending next is kept so that the iterator is
+                        // not used again until it returns.
+                        Thread.currentThread().interrupt();
+                        break;
                     } catch (ExecutionException ee) {
                         // in this case we need to pass up the exception
-                        future = null;
+                        pendingNext = null;
                         throw ee;
                     } catch (TimeoutException te) {
                         // in this case we are still waiting on our future....simply continue
@@ -281,7 +419,7 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
                 }
                 
                 // if not still waiting on a future, then process the result (or lack thereof)
-                if (future == null) {
+                if (pendingNext == null) {
                     if (null == o) {
                         log.debug("Null result encountered, no more results");
                         this.finished = true;
@@ -334,11 +472,12 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
     
     public void cancel() {
         this.canceled = true;
-        // save off the future as it could be removed at any time
-        Future<Object> future = this.future;
-        // cancel the future if we have one
-        if (future != null) {
-            future.cancel(true);
+        cancelPrefetch();
+        // save off the pending next as it could be removed at any time
+        PendingNext pendingNext = this.pendingNext;
+        // cancel the pending next if we have one
+        if (pendingNext != null) {
+            pendingNext.result.cancel(true);
         }
         
         // change status to cancelled
@@ -405,6 +544,10 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
     }
     
     public void closeConnection(AccumuloConnectionFactory factory) throws Exception {
+        // a prefetch, or a next call it left behind, must not keep scanning on a connection returned to the pool
+        cancelPrefetch();
+        cancelPendingNext();
+        
         this.getMetric().setLifecycle(BaseQueryMetric.Lifecycle.CLOSED);
         
         if (iter != null && iter.getTransformer() instanceof WritesResultCardinalities) {
@@ -535,4 +678,90 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
             }
         }
     }
+    
+    /**
+     * A page being built in the background. Its completion callback runs exactly once, when the page is built or once it is cancelled and no longer running.
+     */
+    private static class Prefetch {
+        private final AtomicBoolean started = new AtomicBoolean(false);
+        private final AtomicBoolean completed = new AtomicBoolean(false);
+        private final CountDownLatch done = new CountDownLatch(1);
+        private final Runnable onComplete;
+        private Future<ResultsPage> page;
+        
+        private Prefetch(Runnable onComplete) {
+            this.onComplete = onComplete;
+        }
+        
+        /**
+         * @return false if the prefetch was cancelled before it started
+         */
+        private boolean start() {
+            return started.compareAndSet(false, true);
+        }
+        
+        private void finish() {
+            done.countDown();
+            if (completed.compareAndSet(false, true)) {
+                onComplete.run();
+            }
+        }
+        
+        /**
+         * Cancel the page and wait for it to stop running
+         * 
+         * @return false if it was still running after the timeout
+         */
+        private boolean cancel(long timeoutMs) throws InterruptedException {
+            page.cancel(true);
+            if (start()) {
+                // it never ran, and now it never will
+                finish();
+                return true;
+            }
+            return done.await(timeoutMs, TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    /**
+     * A call to the transform iterator's next on the executor. Unlike its future, this can be waited on once cancelled, so that neither the iterator nor
+     * the connection is reused while the call is still running.
+     */
+    private static class PendingNext {
+        private final AtomicBoolean started = new AtomicBoolean(false);
+        private final CountDownLatch done = new CountDownLatch(1);
+        private final Future<Object> result;
+        
+        private PendingNext(ExecutorService executor, TransformIterator iter) {
+            this.result = executor.submit(() -> {
+                if (!started.compareAndSet(false, true)) {
+                    // cancelled before it started
+                    return null;
+                }
+                try {
+                    return iter.next();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        
+        private Object get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            return result.get(timeout, unit);
+        }
+        
+        /**
+         * Cancel the call and wait for it to stop running
+         * 
+         * @return false if it was still running after the timeout
+         */
+        private boolean cancel(long timeoutMs) throws InterruptedException {
+            result.cancel(true);
+            if (started.compareAndSet(false, true)) {
+                // it never ran, and now it never will
+                return true;
+            }
+            return done.await(timeoutMs, TimeUnit.MILLISECONDS);
+        }
+    }
 }
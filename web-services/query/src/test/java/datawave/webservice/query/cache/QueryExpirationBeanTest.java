@@ -66,6 +66,68 @@ public class QueryExpirationBeanTest {
         Assert.assertEquals("Query Logic Cache is not empty: " + qlCache.snapshot().size(), 0, qlCache.snapshot().size());
     }
     
+    @Test
+    public void testRemoveIdleOverQuota() throws Exception {
+        QueryExpirationBean bean = createBean(60);
+        QueryExpirationConfiguration conf = Whitebox.getInternalState(bean, QueryExpirationConfiguration.class);
+        conf.setMaxIdleQueriesPerUser(1);
+        bean.init();
+        
+        long now = System.currentTimeMillis();
+        RunningQuery oldest = createRunningQuery("user1", now - 3000);
+        RunningQuery older = createRunningQuery("user1", now - 2000);
+        RunningQuery newest = createRunningQuery("user1", now - 1000);
+        RunningQuery otherUser = createRunningQuery("user2", now - 5000);
+        for (RunningQuery query : new RunningQuery[] {oldest, older, newest, otherUser}) {
+            queryCache.put(query.getSettings().getId().toString(), query);
+        }
+        
+        bean.removeIdleOrExpired();
+        Assert.assertFalse(queryCache.containsKey(oldest.getSettings().getId().toString()));
+        Assert.assertFalse(queryCache.containsKey(older.getSettings().getId().toString()));
+        Assert.assertTrue(queryCache.containsKey(newest.getSettings().getId().toString()));
+        Assert.assertTrue(queryCache.containsKey(otherUser.getSettings().getId().toString()));
+        queryCache.clear();
+    }
+    
+    @Test
+    public void testPrefetchingNotIdle() throws Exception {
+        QueryExpirationBean bean = createBean(60);
+        QueryExpirationConfiguration conf = Whitebox.getInternalState(bean, QueryExpirationConfiguration.class);
+        conf.setMaxIdleQueriesPerUser(1);
+        bean.init();
+        
+        long now = System.currentTimeMillis();
+        RunningQuery prefetching = new RunningQuery(null, AccumuloConnectionFactory.Priority.HIGH, new TestQueryLogic(), createQuery(), null, null,
+                        new QueryMetricFactoryImpl()) {
+            @Override
+            public synchronized boolean isPrefetching() {
+                return true;
+            }
+        };
+        prefetching.getSettings().setOwner("user1");
+        setInternalState(prefetching, "lastUsed", now - 3000);
+        RunningQuery older = createRunningQuery("user1", now - 2000);
+        RunningQuery newest = createRunningQuery("user1", now - 1000);
+        for (RunningQuery query : new RunningQuery[] {prefetching, older, newest}) {
+            queryCache.put(query.getSettings().getId().toString(), query);
+        }
+        
+        // the prefetching query is neither evicted nor counted against the limit
+        bean.removeIdleOrExpired();
+        Assert.assertTrue(queryCache.containsKey(prefetching.getSettings().getId().toString()));
+        Assert.assertFalse(queryCache.containsKey(older.getSettings().getId().toString()));
+        Assert.assertTrue(queryCache.containsKey(newest.getSettings().getId().toString()));
+        queryCache.clear();
+    }
+    
+    private RunningQuery createRunningQuery(String owner, long lastUsed) throws Exception {
+        RunningQuery query = createRunningQuery();
+        query.getSettings().setOwner(owner);
+        setInternalState(query, "lastUsed", lastUsed);
+        return query;
+    }
+    
     private QueryExpirationBean createBean(int expireTime) throws IllegalArgumentException, IllegalAccessException {
         QueryExpirationBean bean = new QueryExpirationBean();
         
@@ -82,6 +144,10 @@ public class QueryExpirationBeanTest {
     }
     
     private RunningQuery createRunningQuery() throws Exception {
+        return new RunningQuery(null, AccumuloConnectionFactory.Priority.HIGH, new TestQueryLogic(), createQuery(), null, null, new QueryMetricFactoryImpl());
+    }
+    
+    private QueryImpl createQuery() {
         QueryImpl q = new QueryImpl();
         q.setQueryLogicName("EventQuery");
         q.setBeginDate(new Date());
@@ -93,8 +159,7 @@ public class QueryExpirationBeanTest {
         q.setQueryName("test query");
         q.setQueryAuthorizations("ALL");
         q.setUserDN("some user");
-        
-        return new RunningQuery(null, AccumuloConnectionFactory.Priority.HIGH, new TestQueryLogic(), q, null, null, new QueryMetricFactoryImpl());
+        return q;
     }
     
 }
@@ -0,0 +1,42 @@
+package datawave.webservice.query.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class QueryPrefetchBudgetTest {
+    
+    @Test
+    public void testPerUserLimit() {
+        QueryPrefetchBudget budget = new QueryPrefetchBudget();
+        assertTrue(budget.tryAcquire("alice", 10, 2));
+        assertTrue(budget.tryAcquire("alice", 10, 2));
+        assertFalse(budget.tryAcquire("alice", 10, 2));
+        assertTrue(budget.tryAcquire("bob", 10, 2));
+        assertEquals(3, budget.getActive());
+        
+        budget.release("alice");
+        assertTrue(budget.tryAcquire("alice", 10, 2));
+    }
+    
+    @Test
+    public void testTotalLimit() {
+        QueryPrefetchBudget budget = new QueryPrefetchBudget();
+        assertTrue(budget.tryAcquire("alice", 2, 2));
+        assertTrue(budget.tryAcquire("bob", 2, 2));
+        assertFalse(budget.tryAcquire("carol", 2, 2));
+        
+        budget.release("bob");
+        assertTrue(budget.tryAcquire("carol", 2, 2));
+    }
+    
+    @Test
+    public void testReleaseUnknownUser() {
+        QueryPrefetchBudget budget = new QueryPrefetchBudget();
+        budget.release("alice");
+        assertEquals(0, budget.getActive());
+        assertTrue(budget.tryAcquire("alice", 1, 1));
+    }
+}
@@ -3214,7 +3214,7 @@ public class ExtendedQueryExecutorBeanTest {
         setInternalState(subject, AuditBean.class, auditor);
         setInternalState(subject, QueryMetricFactory.class, new QueryMetricFactoryImpl());
         setInternalState(subject, LookupUUIDUtil.class, lookupUUIDUtil);
-        setInternalState(subject, ManagedExecutorService.class, executor);
+        setInternalState(subject, "executor", executor);
         
         subject.lookupUUID("uuidType", "1234567890", uriInfo, httpHeaders);
         
@@ -3248,7 +3248,7 @@ public class ExtendedQueryExecutorBeanTest {
         setInternalState(subject, AuditBean.class, auditor);
         setInternalState(subject, QueryMetricFactory.class, new QueryMetricFactoryImpl());
         setInternalState(subject, LookupUUIDUtil.class, lookupUUIDUtil);
-        setInternalState(subject, ManagedExecutorService.class, executor);
+        setInternalState(subject, "executor", executor);
         setInternalState(subject, Logger.class, Logger.getLogger(QueryExecutorBean.class));
         
         subject.lookupUUID("uuidType", "1234567890", uriInfo, httpHeaders);
@@ -2,10 +2,13 @@ package datawave.webservice.query.runner;
 
 import static org.easymock.EasyMock.anyObject;
 import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.createNiceMock;
 import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.net.MalformedURLException;
@@ -15,10 +18,16 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.UUID;
 import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import datawave.security.authorization.DatawavePrincipal;
 import datawave.security.authorization.DatawaveUser;
@@ -28,6 +37,7 @@ import datawave.security.util.DnUtils.NpeUtils;
 import datawave.webservice.common.connection.AccumuloConnectionFactory;
 import datawave.webservice.query.QueryImpl;
 import datawave.webservice.query.cache.QueryMetricFactoryImpl;
+import datawave.webservice.query.cache.ResultsPage;
 import datawave.webservice.query.configuration.GenericQueryConfiguration;
 import datawave.webservice.query.logic.BaseQueryLogic;
 import datawave.webservice.query.logic.DatawaveRoleManager;
@@ -40,7 +50,9 @@ import org.apache.accumulo.core.client.Connector;
 import datawave.accumulo.inmemory.InMemoryInstance;
 import org.apache.accumulo.core.client.security.tokens.PasswordToken;
 import org.apache.accumulo.core.security.Authorizations;
+import org.apache.commons.collections4.functors.NOPTransformer;
 import org.apache.commons.collections4.iterators.TransformIterator;
+import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -61,6 +73,7 @@ public class RunningQueryTest {
     private String methodAuths = "";
     private SubjectIssuerDNPair userDN = SubjectIssuerDNPair.of("userDn", "issuerDn");
     private final QueryLogic<?> logic = createMock(BaseQueryLogic.class);
+    private ExecutorService prefetchExecutor = Executors.newSingleThreadExecutor();
     
     @Before
     public void setup() throws MalformedURLException, IllegalArgumentException, IllegalAccessException {
@@ -93,6 +106,11 @@ public class RunningQueryTest {
         
     }
     
+    @After
+    public void tearDown() {
+        prefetchExecutor.shutdownNow();
+    }
+    
     @SuppressWarnings("unchecked")
     @Test
     public void testConstructorSetsConnection() throws Exception {
@@ -185,4 +203,161 @@ public class RunningQueryTest {
             Assert.fail("NullPointer encountered. This could be caused by configuration being null. Check logic.initialize() ");
         }
     }
+    
+    @Test
+    public void testPrefetchServedByNext() throws Exception {
+        AtomicInteger completed = new AtomicInteger();
+        RunningQuery query = createPrefetchingQuery(Arrays.asList("a", "b").iterator());
+        
+        assertTrue(query.prefetch(prefetchExecutor, completed::incrementAndGet));
+        assertTrue(query.isPrefetching());
+        // only a single page is prefetched
+        assertFalse(query.prefetch(prefetchExecutor, completed::incrementAndGet));
+        
+        ResultsPage page = query.next();
+        assertEquals(Arrays.asList("a", "b"), page.getResults());
+        assertFalse(query.isPrefetching());
+        assertEquals(1, completed.get());
+    }
+    
+    @Test
+    public void testCloseConnectionCancelsPrefetch() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch exited = new CountDownLatch(1);
+        Iterator<Object> blocking = new Iterator<Object>() {
+            @Override
+            public boolean hasNext() {
+                started.countDown();
+                try {
+                    // block until the prefetch is cancelled, as a scan waiting on tservers would
+                    new CountDownLatch(1).await();
+                } catch (InterruptedException e) {
+                    exited.countDown();
+                }
+                return false;
+            }
+            
+            @Override
+            public Object next() {
+                throw new IllegalStateException("hasNext never returns true");
+            }
+        };
+        AtomicInteger completed = new AtomicInteger();
+        RunningQuery query = createPrefetchingQuery(blocking);
+        
+        AccumuloConnectionFactory factory = createMock(AccumuloConnectionFactory.class);
+        factory.returnConnection(query.getConnection());
+        replay(factory);
+        
+        assertTrue(query.prefetch(prefetchExecutor, completed::incrementAndGet));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        
+        query.closeConnection(factory);
+        
+        // the prefetch must have stopped before the connection was returned
+        assertEquals(0, exited.getCount());
+        assertEquals(1, completed.get());
+        assertFalse(query.isPrefetching());
+        verify(factory);
+    }
+    
+    @Test
+    public void testCancelPrefetchBeforeStart() throws Exception {
+        AtomicInteger completed = new AtomicInteger();
+        RunningQuery query = createPrefetchingQuery(Arrays.asList("a", "b").iterator());
+        
+        // keep the executor busy so that the prefetch is queued
+        CountDownLatch release = new CountDownLatch(1);
+        prefetchExecutor.submit(() -> {
+            release.await();
+            return null;
+        });
+        
+        assertTrue(query.prefetch(prefetchExecutor, completed::incrementAndGet));
+        query.cancelPrefetch();
+        assertEquals(1, completed.get());
+        assertFalse(query.isPrefetching());
+        
+        release.countDown();
+        prefetchExecutor.shutdown();
+        assertTrue(prefetchExecutor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(1, completed.get());
+        
+        // the cancelled prefetch consumed nothing
+        assertEquals(Arrays.asList("a", "b"), query.next().getResults());
+    }
+    
+    @Test
+    public void testCloseConnectionWaitsForPendingNext() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch exited = new CountDownLatch(1);
+        AtomicInteger nextCalls = new AtomicInteger();
+        Iterator<Object> blocking = new Iterator<Object>() {
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+            
+            @Override
+            public Object next() {
+                nextCalls.incrementAndGet();
+                started.countDown();
+                try {
+                    // block until the next call is cancelled, as a scan waiting on tservers would
+                    new CountDownLatch(1).await();
+                } catch (InterruptedException e) {
+                    exited.countDown();
+                }
+                return "a";
+            }
+        };
+        ExecutorService nextExecutor = Executors.newCachedThreadPool();
+        try {
+            AtomicInteger completed = new AtomicInteger();
+            RunningQuery query = createPrefetchingQuery(blocking, nextExecutor);
+            
+            AccumuloConnectionFactory factory = createMock(AccumuloConnectionFactory.class);
+            factory.returnConnection(query.getConnection());
+            replay(factory);
+            
+            assertTrue(query.prefetch(prefetchExecutor, completed::incrementAndGet));
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            
+            query.closeConnection(factory);
+            
+            // the next call left behind by the interrupted prefetch must have stopped before the connection was returned
+            assertEquals(0, exited.getCount());
+            assertEquals(1, completed.get());
+            // and the iterator was not used again while it was running
+            assertEquals(1, nextCalls.get());
+            verify(factory);
+        } finally {
+            nextExecutor.shutdownNow();
+        }
+    }
+    
+    private RunningQuery createPrefetchingQuery(Iterator<?> results) throws Exception {
+        return createPrefetchingQuery(results, null);
+    }
+    
+    @SuppressWarnings("unchecked")
+    private RunningQuery createPrefetchingQuery(Iterator<?> results, ExecutorService executor) throws Exception {
+        DatawaveUser user = new DatawaveUser(userDN, UserType.USER, null, null, null, 0L);
+        DatawavePrincipal principal = new DatawavePrincipal(Collections.singletonList(user));
+        
+        InMemoryInstance instance = new InMemoryInstance("test instance");
+        Connector connector = instance.getConnector("root", new PasswordToken(""));
+        
+        QueryLogic<?> prefetchLogic = createNiceMock(BaseQueryLogic.class);
+        expect(prefetchLogic.initialize(anyObject(), anyObject(), anyObject())).andReturn(new SampleGenericQueryConfiguration());
+        expect(prefetchLogic.getTransformIterator(settings)).andReturn(new TransformIterator(results, NOPTransformer.nopTransformer()));
+        expect(prefetchLogic.getMaxResults()).andReturn(-1L).anyTimes();
+        expect(prefetchLogic.getMaxWork()).andReturn(-1L).anyTimes();
+        replay(prefetchLogic);
+        
+        RunningQuery query = new RunningQuery(connector, connectionPriority, prefetchLogic, settings, methodAuths, principal, null, executor,
+                        new QueryMetricFactoryImpl());
+        query.setPrefetchEnabled(true);
+        return query;
+    }
 }
@@ -4,6 +4,10 @@ import com.codahale.metrics.Counter;
 import com.codahale.metrics.annotation.Metric;
 import com.codahale.metrics.annotation.Timed;
 import com.fasterxml.jackson.databind.ObjectReader;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import datawave.configuration.RefreshableScope;
 import datawave.security.authorization.AuthorizationException;
 import datawave.security.authorization.CachedDatawaveUserService;
@@ -27,15 +31,30 @@ import javax.inject.Inject;
 import javax.interceptor.Interceptor;
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
 import java.util.Base64;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
  * A {@link CachedDatawaveUserService} that delegates all methods to a remote authorization microservice.
+ * <p>
+ * The users looked up for each proxied entity chain are kept in a small local cache in front of the authorization service's own cache, so that repeated
+ * requests from the same caller do not each make a remote call. The local cache is bounded by size and by the time since an entry was loaded, and concurrent
+ * lookups of the same chain share a single remote call. Entries are dropped when the users they contain are evicted or reloaded through this service, both
+ * before and after the remote call, so that a lookup made while the call is in progress does not keep the old users. Set
+ * {@code dw.remoteDatawaveUserService.nearCache.maxSize} to 0 to disable it.
+ * <p>
+ * Changes made at the authorization service itself, such as revoked auths or roles, are not seen by this server until the entry expires, so a user may keep
+ * their old auths for up to {@code dw.remoteDatawaveUserService.nearCache.expireAfterWriteSeconds} (60 seconds by default). Evicting the user through this
+ * service, or through the credentials cache, drops the entry at once.
  */
 @RefreshableScope
 @Alternative
@@ -91,6 +110,14 @@ public class RemoteDatawaveUserService extends RemoteHttpService implements Cach
     @ConfigProperty(name = "dw.remoteDatawaveUserService.unavailableRetryDelayMS", defaultValue = "2000")
     private int unavailableRetryDelay;
     
+    @Inject
+    @ConfigProperty(name = "dw.remoteDatawaveUserService.nearCache.maxSize", defaultValue = "1000")
+    private long nearCacheMaxSize;
+    
+    @Inject
+    @ConfigProperty(name = "dw.remoteDatawaveUserService.nearCache.expireAfterWriteSeconds", defaultValue = "60")
+    private long nearCacheExpireAfterWriteSeconds;
+    
     @Inject
     @Metric(name = "dw.remoteDatawaveUserService.retries", absolute = true)
     private Counter retryCounter;
@@ -99,9 +126,60 @@ public class RemoteDatawaveUserService extends RemoteHttpService implements Cach
     @Metric(name = "dw.remoteDatawaveUserService.failures", absolute = true)
     private Counter failureCounter;
     
+    @Inject
+    @Metric(name = "dw.remoteDatawaveUserService.nearCacheMisses", absolute = true)
+    private Counter nearCacheMissCounter;
+    
+    private Cache<List<SubjectIssuerDNPair>,Collection<DatawaveUser>> nearCache;
+    
     @Override
     @Timed(name = "dw.remoteDatawaveUserService.lookup", absolute = true)
     public Collection<DatawaveUser> lookup(Collection<SubjectIssuerDNPair> dns) throws AuthorizationException {
+        if (nearCache == null) {
+            return lookupRemote(dns);
+        }
+        List<SubjectIssuerDNPair> chain = new ArrayList<>(dns);
+        Collection<DatawaveUser> users = nearCache.getIfPresent(chain);
+        if (users != null && isExpired(users)) {
+            nearCache.invalidate(chain);
+        }
+        try {
+            return nearCache.get(chain, () -> {
+                nearCacheMissCounter.inc();
+                return Collections.unmodifiableList(new ArrayList<>(lookupRemote(chain)));
+            });
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof AuthorizationException) {
+                throw (AuthorizationException) e.getCause();
+            }
+            throw new AuthorizationException(e.getCause().getMessage(), e.getCause());
+        }
+    }
+    
+    private static boolean isExpired(Collection<DatawaveUser> users) {
+        long now = System.currentTimeMillis();
+        return users.stream().anyMatch(u -> u.getExpirationTime() > 0 && u.getExpirationTime() < now);
+    }
+    
+    /**
+     * Drops all cached proxied entity chains
+     */
+    private void invalidateNearCache() {
+        if (nearCache != null) {
+            nearCache.invalidateAll();
+        }
+    }
+    
+    /**
+     * Drops any cached proxied entity chains containing a user that matches {@code predicate}
+     */
+    private void invalidateNearCache(Predicate<DatawaveUser> predicate) {
+        if (nearCache != null) {
+            nearCache.asMap().values().removeIf(users -> users.stream().anyMatch(predicate));
+        }
+    }
+    
+    protected Collection<DatawaveUser> lookupRemote(Collection<SubjectIssuerDNPair> dns) throws AuthorizationException {
         final String enttiesHeader = "<" + dns.stream().map(SubjectIssuerDNPair::subjectDN).collect(Collectors.joining("><")) + ">";
         final String issuersHeader = "<" + dns.stream().map(SubjectIssuerDNPair::issuerDN).collect(Collectors.joining("><")) + ">";
         // @formatter:off
@@ -121,19 +199,24 @@ public class RemoteDatawaveUserService extends RemoteHttpService implements Cach
     @Override
     @Timed(name = "dw.remoteDatawaveUserService.reload", absolute = true)
     public Collection<DatawaveUser> reload(Collection<SubjectIssuerDNPair> dns) throws AuthorizationException {
-        Base64.Encoder encoder = Base64.getEncoder();
-        // @formatter:off
-        return executeGetMethodWithAuthorizationException("admin/reloadUsers",
-                // We need to base64 encode each parameter as a work-around since DNs contain
-                // commas, which are used as a separator for a multi-valued parameter.
-                uriBuilder -> dns.stream()
-                                .map(SubjectIssuerDNPair::toString)
-                                .map(s -> encoder.encodeToString(s.getBytes()))
-                                .forEach(s -> uriBuilder.addParameter("dns", s)),
-                httpGet -> {},
-                entity -> datawaveUserListReader.readValue(entity.getContent()),
-                () -> "reload " + dns);
-        // @formatter:on
+        invalidateNearCache(u -> dns.contains(u.getDn()));
+        try {
+            Base64.Encoder encoder = Base64.getEncoder();
+            // @formatter:off
+            return executeGetMethodWithAuthorizationException("admin/reloadUsers",
+                    // We need to base64 encode each parameter as a work-around since DNs contain
+                    // commas, which are used as a separator for a multi-valued parameter.
+                    uriBuilder -> dns.stream()
+                                    .map(SubjectIssuerDNPair::toString)
+                                    .map(s -> encoder.encodeToString(s.getBytes()))
+                                    .forEach(s -> uriBuilder.addParameter("dns", s)),
+                    httpGet -> {},
+                    entity -> datawaveUserListReader.readValue(entity.getContent()),
+                    () -> "reload " + dns);
+            // @formatter:on
+        } finally {
+            invalidateNearCache(u -> dns.contains(u.getDn()));
+        }
     }
     
     @Override
@@ -175,37 +258,52 @@ public class RemoteDatawaveUserService extends RemoteHttpService implements Cach
     @Override
     @Timed(name = "dw.remoteDatawaveUserService.evict", absolute = true)
     public String evict(String name) {
-        // @formatter:off
-        return executeGetMethodWithRuntimeException("admin/evictUser",
-                uriBuilder -> uriBuilder.addParameter("username", name),
-                httpGet -> httpGet.addHeader(HttpHeaders.ACCEPT, ContentType.TEXT_PLAIN.getMimeType()),
-                EntityUtils::toString,
-                () -> "evict " + name);
-        // @formatter:on
+        invalidateNearCache(u -> u.getName().equals(name));
+        try {
+            // @formatter:off
+            return executeGetMethodWithRuntimeException("admin/evictUser",
+                    uriBuilder -> uriBuilder.addParameter("username", name),
+                    httpGet -> httpGet.addHeader(HttpHeaders.ACCEPT, ContentType.TEXT_PLAIN.getMimeType()),
+                    EntityUtils::toString,
+                    () -> "evict " + name);
+            // @formatter:on
+        } finally {
+            invalidateNearCache(u -> u.getName().equals(name));
+        }
     }
     
     @Override
     @Timed(name = "dw.remoteDatawaveUserService.evictMatching", absolute = true)
     public String evictMatching(String substring) {
-        // @formatter:off
-        return executeGetMethodWithRuntimeException("admin/evictUsersMatching",
-                uriBuilder -> uriBuilder.addParameter("substring", substring),
-                httpGet -> httpGet.addHeader(HttpHeaders.ACCEPT, ContentType.TEXT_PLAIN.getMimeType()),
-                EntityUtils::toString,
-                () -> "evict users matching " + substring);
-        // @formatter:on
+        invalidateNearCache(u -> u.getName().contains(substring));
+        try {
+            // @formatter:off
+            return executeGetMethodWithRuntimeException("admin/evictUsersMatching",
+                    uriBuilder -> uriBuilder.addParameter("substring", substring),
+                    httpGet -> httpGet.addHeader(HttpHeaders.ACCEPT, ContentType.TEXT_PLAIN.getMimeType()),
+                    EntityUtils::toString,
+                    () -> "evict users matching " + substring);
+            // @formatter:on
+        } finally {
+            invalidateNearCache(u -> u.getName().contains(substring));
+        }
     }
     
     @Override
     @Timed(name = "dw.remoteDatawaveUserService.evictAll", absolute = true)
     public String evictAll() {
-        // @formatter:off
-        return executeGetMethodWithRuntimeException("admin/evictAll",
-                b -> {},
-                httpGet -> httpGet.addHeader(HttpHeaders.ACCEPT, ContentType.TEXT_PLAIN.getMimeType()),
-                EntityUtils::toString,
-                () -> "evict all users");
-        // @formatter:on
+        invalidateNearCache();
+        try {
+            // @formatter:off
+            return executeGetMethodWithRuntimeException("admin/evictAll",
+                    b -> {},
+                    httpGet -> httpGet.addHeader(HttpHeaders.ACCEPT, ContentType.TEXT_PLAIN.getMimeType()),
+                    EntityUtils::toString,
+                    () -> "evict all users");
+            // @formatter:on
+        } finally {
+            invalidateNearCache();
+        }
     }
     
     protected <T> T executeGetMethodWithRuntimeException(String uriSuffix, Consumer<URIBuilder> uriCustomizer, Consumer<HttpGet> requestCustomizer,
@@ -238,6 +336,19 @@ public class RemoteDatawaveUserService extends RemoteHttpService implements Cach
         datawaveUserReader = objectMapper.readerFor(DatawaveUser.class);
         datawaveUserListReader = objectMapper.readerFor(objectMapper.getTypeFactory().constructCollectionType(Collection.class, DatawaveUser.class));
         datawaveUserInfoListReader = objectMapper.readerFor(objectMapper.getTypeFactory().constructCollectionType(Collection.class, DatawaveUserInfo.class));
+        initNearCache(Ticker.systemTicker());
+    }
+    
+    void initNearCache(Ticker ticker) {
+        if (nearCacheMaxSize > 0) {
+            // @formatter:off
+            nearCache = CacheBuilder.newBuilder()
+                    .maximumSize(nearCacheMaxSize)
+                    .expireAfterWrite(nearCacheExpireAfterWriteSeconds, TimeUnit.SECONDS)
+                    .ticker(ticker)
+                    .build();
+            // @formatter:on
+        }
     }
     
     @Override
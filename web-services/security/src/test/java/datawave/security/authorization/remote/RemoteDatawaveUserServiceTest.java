@@ -0,0 +1,194 @@
+package datawave.security.authorization.remote;
+
+import com.codahale.metrics.Counter;
+import com.google.common.base.Ticker;
+import datawave.security.authorization.AuthorizationException;
+import datawave.security.authorization.DatawaveUser;
+import datawave.security.authorization.DatawaveUser.UserType;
+import datawave.security.authorization.SubjectIssuerDNPair;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.utils.URIBuilder;
+import org.junit.Before;
+import org.junit.Test;
+import org.powermock.reflect.Whitebox;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class RemoteDatawaveUserServiceTest {
+    
+    private static final SubjectIssuerDNPair USER_DN = SubjectIssuerDNPair.of("CN=user, OU=acme", "CN=ca, OU=acme");
+    private static final SubjectIssuerDNPair SERVER_DN = SubjectIssuerDNPair.of("CN=server, OU=acme", "CN=ca, OU=acme");
+    private static final List<SubjectIssuerDNPair> CHAIN = Arrays.asList(USER_DN, SERVER_DN);
+    
+    private TestUserService service;
+    private AtomicLong nanos;
+    
+    @Before
+    public void setup() {
+        service = new TestUserService();
+        Whitebox.setInternalState(service, "nearCacheMaxSize", 10L);
+        Whitebox.setInternalState(service, "nearCacheExpireAfterWriteSeconds", 60L);
+        Whitebox.setInternalState(service, "nearCacheMissCounter", new Counter());
+        nanos = new AtomicLong();
+        service.initNearCache(new Ticker() {
+            @Override
+            public long read() {
+                return nanos.get();
+            }
+        });
+    }
+    
+    @Test
+    public void testHit() throws Exception {
+        Collection<DatawaveUser> users = service.lookup(CHAIN);
+        assertSame(users, service.lookup(CHAIN));
+        assertEquals(1, service.remoteCalls.get());
+        
+        // a different chain is looked up on its own
+        service.lookup(Collections.singletonList(USER_DN));
+        assertEquals(2, service.remoteCalls.get());
+    }
+    
+    @Test
+    public void testExpireAfterWrite() throws Exception {
+        service.lookup(CHAIN);
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(59));
+        service.lookup(CHAIN);
+        assertEquals(1, service.remoteCalls.get());
+        
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        service.lookup(CHAIN);
+        assertEquals(2, service.remoteCalls.get());
+    }
+    
+    @Test
+    public void testExpiredUser() throws Exception {
+        service.expirationTime = System.currentTimeMillis() - 1000L;
+        service.lookup(CHAIN);
+        service.lookup(CHAIN);
+        assertEquals(2, service.remoteCalls.get());
+    }
+    
+    @Test
+    public void testInvalidation() throws Exception {
+        service.lookup(CHAIN);
+        service.lookup(Collections.singletonList(SERVER_DN));
+        
+        // only the chains containing the evicted user are dropped
+        service.evict(USER_DN.toString());
+        service.lookup(CHAIN);
+        service.lookup(Collections.singletonList(SERVER_DN));
+        assertEquals(3, service.remoteCalls.get());
+        
+        service.reload(Collections.singletonList(SERVER_DN));
+        service.lookup(CHAIN);
+        service.lookup(Collections.singletonList(SERVER_DN));
+        assertEquals(5, service.remoteCalls.get());
+        
+        service.evictAll();
+        service.lookup(CHAIN);
+        assertEquals(6, service.remoteCalls.get());
+    }
+    
+    @Test
+    public void testLookupDuringEviction() throws Exception {
+        service.lookup(CHAIN);
+        
+        // a lookup made while the remote eviction is in progress may load the old user again, which is dropped once the eviction returns
+        service.duringAdminCall = () -> {
+            try {
+                service.lookup(CHAIN);
+            } catch (AuthorizationException e) {
+                throw new RuntimeException(e);
+            }
+        };
+        service.evict(USER_DN.toString());
+        assertEquals(2, service.remoteCalls.get());
+        
+        service.duringAdminCall = null;
+        service.lookup(CHAIN);
+        assertEquals(3, service.remoteCalls.get());
+    }
+    
+    @Test
+    public void testSingleFlight() throws Exception {
+        service.loading = new CountDownLatch(1);
+        service.release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Collection<DatawaveUser>> first = executor.submit(() -> service.lookup(CHAIN));
+            service.loading.await(10, TimeUnit.SECONDS);
+            
+            // the second lookup waits for the first one's remote call rather than making its own
+            AtomicReference<Thread> waiting = new AtomicReference<>();
+            Future<Collection<DatawaveUser>> second = executor.submit(() -> {
+                waiting.set(Thread.currentThread());
+                return service.lookup(CHAIN);
+            });
+            while (waiting.get() == null || waiting.get().getState() != Thread.State.WAITING) {
+                Thread.sleep(10);
+            }
+            service.release.countDown();
+            
+            assertSame(first.get(10, TimeUnit.SECONDS), second.get(10, TimeUnit.SECONDS));
+            assertEquals(1, service.remoteCalls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    private static class TestUserService extends RemoteDatawaveUserService {
+        private final AtomicInteger remoteCalls = new AtomicInteger();
+        private volatile long expirationTime = -1L;
+        private volatile CountDownLatch loading;
+        private volatile CountDownLatch release;
+        private volatile Runnable duringAdminCall;
+        
+        @Override
+        protected Collection<DatawaveUser> lookupRemote(Collection<SubjectIssuerDNPair> dns) throws AuthorizationException {
+            remoteCalls.incrementAndGet();
+            if (loading != null) {
+                loading.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new AuthorizationException(e.getMessage(), e);
+                }
+            }
+            return dns.stream().map(dn -> new DatawaveUser(dn, UserType.USER, Collections.singleton("A"), null, null, System.currentTimeMillis(),
+                            expirationTime)).collect(Collectors.toList());
+        }
+        
+        @Override
+        protected <T> T executeGetMethodWithRuntimeException(String uriSuffix, Consumer<URIBuilder> uriCustomizer, Consumer<HttpGet> requestCustomizer,
+                        IOFunction<T> resultConverter, Supplier<String> errorSupplier) {
+            if (duringAdminCall != null) {
+                duringAdminCall.run();
+            }
+            return null;
+        }
+        
+        @Override
+        protected <T> T executeGetMethodWithAuthorizationException(String uriSuffix, Consumer<URIBuilder> uriCustomizer,
+                        Consumer<HttpGet> requestCustomizer, IOFunction<T> resultConverter, Supplier<String> errorSupplier) {
+            return null;
+        }
+    }
+}